@@ -1,9 +1,11 @@
 package com.testautomation.orchestrator.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.concurrent.Executor;
 
@@ -11,29 +13,47 @@ import java.util.concurrent.Executor;
 @EnableAsync
 public class AsyncConfig {
 
-    @Bean(name = "flowExecutionTaskExecutor")
-    public Executor flowExecutionTaskExecutor() {
+    /**
+     * Runs the token validation job off the engine scheduler. Its GitLab calls block and wait behind
+     * flow traffic in the rate limiter, which must not hold engine threads.
+     */
+    @Bean(name = "tokenValidationExecutor")
+    public Executor tokenValidationExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(20);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("FlowExecution-");
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(60);
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("TokenValidation-");
         executor.initialize();
         return executor;
     }
 
-    @Bean(name = "pipelinePollingTaskExecutor")
-    public Executor pipelinePollingTaskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(10);
-        executor.setMaxPoolSize(50);
-        executor.setQueueCapacity(200);
-        executor.setThreadNamePrefix("PipelinePolling-");
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(30);
-        executor.initialize();
-        return executor;
+    /**
+     * Shared scheduler for the event-driven flow engine (short state transitions, timers)
+     * and for @Scheduled jobs such as the pipeline status poller. Engine tasks never block waiting for GitLab, so a small pool
+     * is enough to drive any number of concurrent flows.
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${flow-execution.engine.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("FlowEngine-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    /**
+     * Dedicated thread for the lease heartbeat. On the shared scheduler a backlog of engine tasks or
+     * slow @Scheduled jobs could delay renewals until leases expire and other nodes take flows over.
+     */
+    @Bean(name = "leaseHeartbeatScheduler")
+    public ThreadPoolTaskScheduler leaseHeartbeatScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("LeaseHeartbeat-");
+        scheduler.initialize();
+        return scheduler;
     }
-}
\ No newline at end of file
+}
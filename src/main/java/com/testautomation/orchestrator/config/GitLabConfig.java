@@ -11,6 +11,9 @@ public class GitLabConfig {
     private boolean mockMode = false;
     private int timeout = 60;
     private int maxRetries = 3;
+    private String webhookSecret;
+    private Http http = new Http();
+    private RateLimit rateLimit = new RateLimit();
 
     // Getters and setters
     public String getBaseUrl() {
@@ -44,4 +47,201 @@ public class GitLabConfig {
     public void setMaxRetries(int maxRetries) {
         this.maxRetries = maxRetries;
     }
-}
\ No newline at end of file
+
+    public String getWebhookSecret() {
+        return webhookSecret;
+    }
+
+    public void setWebhookSecret(String webhookSecret) {
+        this.webhookSecret = webhookSecret;
+    }
+
+    public boolean hasWebhookSecret() {
+        return webhookSecret != null && !webhookSecret.isEmpty();
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public void setHttp(Http http) {
+        this.http = http;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    /**
+     * Connection pool and transport settings of the HTTP client used for all GitLab API calls
+     */
+    public static class Http {
+
+        private int maxConnections = 50;
+        private int pendingAcquireMaxCount = 1000;
+        private long pendingAcquireTimeout = 45000;
+        private long maxIdleTime = 30000;
+        private long maxLifeTime = 300000;
+        private long evictionInterval = 30000;
+        private int connectTimeout = 10000;
+        private boolean http2 = true;
+        private boolean compression = true;
+        private boolean metrics = true;
+        private int etagCacheSize = 5000;
+        private boolean coalesceRequests = true;
+        private long microCacheTtl = 0;
+
+        // Getters and setters
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+
+        public long getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(long pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public long getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(long maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public long getMaxLifeTime() {
+            return maxLifeTime;
+        }
+
+        public void setMaxLifeTime(long maxLifeTime) {
+            this.maxLifeTime = maxLifeTime;
+        }
+
+        public long getEvictionInterval() {
+            return evictionInterval;
+        }
+
+        public void setEvictionInterval(long evictionInterval) {
+            this.evictionInterval = evictionInterval;
+        }
+
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(boolean http2) {
+            this.http2 = http2;
+        }
+
+        public boolean isCompression() {
+            return compression;
+        }
+
+        public void setCompression(boolean compression) {
+            this.compression = compression;
+        }
+
+        public boolean isMetrics() {
+            return metrics;
+        }
+
+        public void setMetrics(boolean metrics) {
+            this.metrics = metrics;
+        }
+
+        public int getEtagCacheSize() {
+            return etagCacheSize;
+        }
+
+        public void setEtagCacheSize(int etagCacheSize) {
+            this.etagCacheSize = etagCacheSize;
+        }
+
+        public boolean isCoalesceRequests() {
+            return coalesceRequests;
+        }
+
+        public void setCoalesceRequests(boolean coalesceRequests) {
+            this.coalesceRequests = coalesceRequests;
+        }
+
+        public long getMicroCacheTtl() {
+            return microCacheTtl;
+        }
+
+        public void setMicroCacheTtl(long microCacheTtl) {
+            this.microCacheTtl = microCacheTtl;
+        }
+    }
+
+    /**
+     * Client-side pacing of GitLab API calls, adjusted to the RateLimit-* headers GitLab returns
+     */
+    public static class RateLimit {
+
+        private boolean enabled = true;
+        private double requestsPerSecond = 30;
+        private double hostRequestsPerSecond = 100;
+        private int burst = 20;
+
+        // Getters and setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+
+        public void setRequestsPerSecond(double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+        }
+
+        public double getHostRequestsPerSecond() {
+            return hostRequestsPerSecond;
+        }
+
+        public void setHostRequestsPerSecond(double hostRequestsPerSecond) {
+            this.hostRequestsPerSecond = hostRequestsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+}
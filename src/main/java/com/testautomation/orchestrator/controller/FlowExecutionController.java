@@ -1,12 +1,20 @@
 package com.testautomation.orchestrator.controller;
 
+import com.testautomation.orchestrator.dto.ExecutionQueueEntryDto;
 import com.testautomation.orchestrator.dto.FlowExecutionDto;
+import com.testautomation.orchestrator.dto.MatrixExecutionCreateDto;
+import com.testautomation.orchestrator.dto.MatrixExecutionDto;
+import com.testautomation.orchestrator.service.ExecutionAdmissionService;
+import com.testautomation.orchestrator.service.ExecutionQueueService;
+import com.testautomation.orchestrator.service.FlowCancellationService;
 import com.testautomation.orchestrator.service.FlowExecutionService;
+import com.testautomation.orchestrator.service.MatrixExecutionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +43,18 @@ public class FlowExecutionController {
     @Autowired
     private FlowExecutionService flowExecutionService;
 
+    @Autowired
+    private ExecutionAdmissionService executionAdmissionService;
+
+    @Autowired
+    private ExecutionQueueService executionQueueService;
+
+    @Autowired
+    private FlowCancellationService flowCancellationService;
+
+    @Autowired
+    private MatrixExecutionService matrixExecutionService;
+
     @PostMapping("/flows/{flowId}/execute")
     @Operation(summary = "Execute a flow", description = "Trigger execution of a specific flow")
     @ApiResponses(value = {
@@ -64,42 +84,22 @@ public class FlowExecutionController {
     }
 
     @PostMapping("/flows/execute")
-    @Operation(summary = "Execute multiple flows", description = "Trigger execution of multiple flows asynchronously with immediate response. Returns FlowExecutionDto objects for accepted flows, just like single flow execution.")
+    @Operation(summary = "Execute multiple flows", description = "Queue execution of multiple flows with immediate response. Every request is accepted into a persisted admission queue: flows that fit within flow-execution.admission.max-concurrent-flows start right away and are returned as FlowExecutionDto objects, the others are returned with their queue position and estimated start time and start as running flows finish.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "202", description = "Flow executions started successfully (all or partial) - returns FlowExecutionDto objects for accepted flows with RUNNING status"),
-            @ApiResponse(responseCode = "400", description = "Invalid flow IDs provided"),
-            @ApiResponse(responseCode = "503", description = "Thread pool at capacity - some flows rejected")
+            @ApiResponse(responseCode = "202", description = "Flow executions started or queued - 'accepted' holds started FlowExecutionDto objects, 'queued' the waiting requests"),
+            @ApiResponse(responseCode = "400", description = "Invalid flow IDs provided")
     })
     public ResponseEntity<?> executeMultipleFlows(
             @Parameter(description = "Comma-separated flow IDs to execute", example = "1,2,3") 
-            @RequestParam("trigger") String flowIds) {
+            @RequestParam("trigger") String flowIds,
+            @Parameter(description = "Admission priority; higher values are started first", example = "0")
+            @RequestParam(value = "priority", required = false, defaultValue = "0") int priority) {
         logger.info("Starting execution of multiple flows: {}", flowIds);
         
         try {
-            Map<String, Object> result = flowExecutionService.executeMultipleFlows(flowIds);
-            
-            // Start async execution for all accepted flows - this happens after we have the response ready
-            @SuppressWarnings("unchecked")
-            List<FlowExecutionDto> acceptedExecutions = (List<FlowExecutionDto>) result.get("accepted");
-            if (acceptedExecutions != null) {
-                for (FlowExecutionDto executionDto : acceptedExecutions) {
-                    flowExecutionService.executeFlowAsync(executionDto.getId());
-                    logger.info("Started async execution for flow ID: {} with execution ID: {}", 
-                               executionDto.getFlowId(), executionDto.getId());
-                }
-            }
-            
-            // Check if any flows were rejected due to capacity
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> rejected = (List<Map<String, Object>>) result.get("rejected");
-            
-            if (rejected != null && !rejected.isEmpty()) {
-                // Some flows were rejected due to thread pool capacity or other reasons
-                return new ResponseEntity<>(result, HttpStatus.SERVICE_UNAVAILABLE);
-            } else {
-                // All flows accepted for execution
-                return new ResponseEntity<>(result, HttpStatus.ACCEPTED);
-            }
+            // Admitted flows are already handed over to the engine; the rest wait in the queue
+            Map<String, Object> result = executionAdmissionService.submit(flowIds, priority);
+            return new ResponseEntity<>(result, HttpStatus.ACCEPTED);
         } catch (IllegalArgumentException e) {
             logger.error("Failed to start multiple flow executions: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -110,6 +110,72 @@ public class FlowExecutionController {
         }
     }
 
+    @PostMapping("/flows/{flowId}/execute/matrix")
+    @Operation(summary = "Execute a flow against many variable sets", description = "Queue one execution of the flow per variant. A variant's test data sets and variables override the static test data of every step. Variants run in parallel within flow-execution.admission.max-concurrent-flows and wait in the admission queue otherwise; the matrix execution reports their aggregate progress.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Matrix execution created - variants that fit are started, the others queued"),
+            @ApiResponse(responseCode = "400", description = "Invalid variants, e.g. unknown test data or too many variants"),
+            @ApiResponse(responseCode = "404", description = "Flow not found")
+    })
+    public ResponseEntity<?> executeMatrix(
+            @Parameter(description = "Flow ID to execute") @PathVariable Long flowId,
+            @Parameter(description = "Admission priority; higher values are started first", example = "0")
+            @RequestParam(value = "priority", required = false, defaultValue = "0") int priority,
+            @Valid @RequestBody MatrixExecutionCreateDto matrixExecutionCreateDto) {
+        logger.info("Starting matrix execution of flow ID: {} with {} variants", flowId,
+                   matrixExecutionCreateDto.getVariants().size());
+
+        try {
+            MatrixExecutionDto matrixExecution = executionAdmissionService.submitMatrix(flowId, matrixExecutionCreateDto, priority);
+            return new ResponseEntity<>(matrixExecution, HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            logger.error("Failed to start matrix execution: {}", e.getMessage());
+            if (e.getMessage() != null && e.getMessage().startsWith("Flow not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/matrix-executions/{matrixExecutionUUID}")
+    @Operation(summary = "Get matrix execution progress", description = "Get the status of a matrix execution, its counts of queued, running, passed, failed and cancelled variants and the flow execution of each variant")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matrix execution found"),
+            @ApiResponse(responseCode = "404", description = "Matrix execution not found")
+    })
+    public ResponseEntity<MatrixExecutionDto> getMatrixExecution(
+            @Parameter(description = "Matrix execution UUID") @PathVariable UUID matrixExecutionUUID) {
+        try {
+            return ResponseEntity.ok(matrixExecutionService.getMatrixExecution(matrixExecutionUUID));
+        } catch (IllegalArgumentException e) {
+            logger.error("Matrix execution not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/flows/execute/queue")
+    @Operation(summary = "Get the execution queue", description = "List flow execution requests waiting for a free execution slot, in admission order, with their estimated start times")
+    @ApiResponse(responseCode = "200", description = "Queued requests retrieved successfully")
+    public ResponseEntity<List<ExecutionQueueEntryDto>> getExecutionQueue() {
+        return ResponseEntity.ok(executionQueueService.getQueuedEntries());
+    }
+
+    @GetMapping("/flows/execute/queue/{queueEntryId}")
+    @Operation(summary = "Get a queued execution request", description = "Get the status of a queued flow execution request: its position and estimated start time while queued, or its flow execution ID once admitted")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Queue entry found"),
+            @ApiResponse(responseCode = "404", description = "Queue entry not found")
+    })
+    public ResponseEntity<ExecutionQueueEntryDto> getExecutionQueueEntry(
+            @Parameter(description = "Queue entry ID returned when the request was queued") @PathVariable Long queueEntryId) {
+        try {
+            return ResponseEntity.ok(executionQueueService.getQueueEntry(queueEntryId));
+        } catch (IllegalArgumentException e) {
+            logger.error("Queue entry not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/flows/executions")
     @Operation(summary = "Get flow executions", description = "Get execution data for flows. When 'triggered' parameter is provided, gets executions for specific flows. When not provided, gets all executions. Supports pagination, sorting, and optional 'search' across execution id, squashTestCaseId, or squashTestCase (partial, case-insensitive).")
     @ApiResponse(responseCode = "200", description = "Flow executions retrieved successfully")
@@ -293,4 +359,45 @@ public class FlowExecutionController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/flow-executions/{flowExecutionUUID}/cancel")
+    @Operation(summary = "Cancel a flow execution",
+               description = "Cancel a running flow execution: its running GitLab pipelines are cancelled, scheduled steps are dropped and the flow and all unfinished steps are marked CANCELLED")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flow execution cancelled"),
+            @ApiResponse(responseCode = "400", description = "Flow execution is not running"),
+            @ApiResponse(responseCode = "404", description = "Flow execution not found")
+    })
+    public ResponseEntity<FlowExecutionDto> cancelFlowExecution(
+            @Parameter(description = "Flow execution UUID") @PathVariable UUID flowExecutionUUID) {
+        logger.info("Cancelling flow execution ID: {}", flowExecutionUUID);
+
+        try {
+            return ResponseEntity.ok(flowCancellationService.cancelFlowExecution(flowExecutionUUID));
+        } catch (IllegalArgumentException e) {
+            logger.error("Failed to cancel flow execution: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            logger.error("Failed to cancel flow execution: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/flow-executions/cancel")
+    @Operation(summary = "Cancel multiple flow executions",
+               description = "Cancel several running flow executions at once. Unknown and already finished executions are reported as skipped.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cancellation processed - 'cancelled' lists the cancelled execution IDs, 'skipped' the others with a reason"),
+            @ApiResponse(responseCode = "400", description = "Invalid flow execution IDs provided")
+    })
+    public ResponseEntity<?> cancelFlowExecutions(
+            @Parameter(description = "Comma-separated flow execution UUIDs to cancel")
+            @RequestParam("ids") String flowExecutionIds) {
+        try {
+            return ResponseEntity.ok(flowCancellationService.cancelFlowExecutions(flowExecutionIds));
+        } catch (IllegalArgumentException e) {
+            logger.error("Failed to cancel flow executions: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
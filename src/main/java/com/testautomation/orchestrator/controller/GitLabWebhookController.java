@@ -0,0 +1,57 @@
+package com.testautomation.orchestrator.controller;
+
+import com.testautomation.orchestrator.dto.GitLabWebhookDto;
+import com.testautomation.orchestrator.service.GitLabWebhookService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/webhooks")
+@Tag(name = "Webhooks", description = "GitLab Webhook Ingestion API")
+public class GitLabWebhookController {
+
+    private static final Logger logger = LoggerFactory.getLogger(GitLabWebhookController.class);
+
+    @Autowired
+    private GitLabWebhookService gitLabWebhookService;
+
+    @PostMapping("/gitlab")
+    @Operation(summary = "Receive a GitLab webhook",
+               description = "Accepts GitLab Pipeline Hook and Job Hook events and completes the matching running pipeline executions")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event accepted (also for events that match no execution)"),
+            @ApiResponse(responseCode = "401", description = "Missing or invalid X-Gitlab-Token"),
+            @ApiResponse(responseCode = "404", description = "Webhooks are disabled or no webhook secret is configured")
+    })
+    public ResponseEntity<Map<String, Object>> receiveGitLabEvent(
+            @Parameter(description = "GitLab event type, e.g. 'Pipeline Hook' or 'Job Hook'")
+            @RequestHeader(value = "X-Gitlab-Event", required = false) String eventType,
+            @Parameter(description = "Secret token configured on the GitLab webhook")
+            @RequestHeader(value = "X-Gitlab-Token", required = false) String token,
+            @RequestBody GitLabWebhookDto payload) {
+
+        if (!gitLabWebhookService.isEnabled()) {
+            logger.debug("Ignored GitLab webhook: webhooks are disabled or no webhook secret is configured");
+            return ResponseEntity.notFound().build();
+        }
+        if (!gitLabWebhookService.isAuthorized(token)) {
+            logger.warn("Rejected GitLab webhook with invalid token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        logger.debug("Received GitLab webhook: {} for pipeline {}", eventType, payload.resolvePipelineId());
+        int matched = gitLabWebhookService.handleEvent(eventType, payload);
+        return ResponseEntity.ok(Map.of("event", eventType != null ? eventType : "", "matched", matched));
+    }
+}
@@ -1,5 +1,6 @@
 package com.testautomation.orchestrator.dto;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -43,6 +44,14 @@ public class ApplicationDto {
     @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Timestamp when token validation was last performed")
     private LocalDateTime tokenValidationLastUpdateDate;
 
+    @Min(value = 1, message = "Max concurrent pipelines must be at least 1")
+    @Schema(description = "Maximum pipelines of this project running at once; further steps wait for a free slot (null = unlimited)", example = "10")
+    private Integer maxConcurrentPipelines;
+
+    @Min(value = 1, message = "Max concurrent pipelines per branch must be at least 1")
+    @Schema(description = "Maximum pipelines running at once on a single branch of this project (null = unlimited)", example = "3")
+    private Integer maxConcurrentPipelinesPerBranch;
+
     @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Timestamp when the record was created")
     private LocalDateTime createdAt;
     
@@ -145,4 +154,20 @@ public class ApplicationDto {
     public void setTokenValidationLastUpdateDate(LocalDateTime tokenValidationLastUpdateDate) {
         this.tokenValidationLastUpdateDate = tokenValidationLastUpdateDate;
     }
+
+    public Integer getMaxConcurrentPipelines() {
+        return maxConcurrentPipelines;
+    }
+
+    public void setMaxConcurrentPipelines(Integer maxConcurrentPipelines) {
+        this.maxConcurrentPipelines = maxConcurrentPipelines;
+    }
+
+    public Integer getMaxConcurrentPipelinesPerBranch() {
+        return maxConcurrentPipelinesPerBranch;
+    }
+
+    public void setMaxConcurrentPipelinesPerBranch(Integer maxConcurrentPipelinesPerBranch) {
+        this.maxConcurrentPipelinesPerBranch = maxConcurrentPipelinesPerBranch;
+    }
 }
@@ -3,6 +3,7 @@ package com.testautomation.orchestrator.dto;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.time.LocalDateTime;
@@ -25,6 +26,10 @@ public class CombinedFlowDto {
     @NotNull(message = "Squash test case is required")
     private String squashTestCase;
 
+    @Min(value = 1, message = "Timeout must be at least 1 minute")
+    @Schema(description = "Minutes a flow execution may run before its running pipelines are cancelled and it fails with a timeout. Omit for no limit (or the configured default).", example = "240")
+    private Integer timeoutMinutes;
+
     @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Timestamp when the record was created")
     private LocalDateTime createdAt;
     
@@ -73,6 +78,14 @@ public class CombinedFlowDto {
         this.squashTestCase = squashTestCase;
     }
 
+    public Integer getTimeoutMinutes() {
+        return timeoutMinutes;
+    }
+
+    public void setTimeoutMinutes(Integer timeoutMinutes) {
+        this.timeoutMinutes = timeoutMinutes;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -3,6 +3,7 @@ package com.testautomation.orchestrator.dto;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Min;
 import com.testautomation.orchestrator.validator.ValidInvokeScheduler;
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -41,6 +42,26 @@ public class CombinedFlowStepDto {
     @Valid
     @Schema(description = "Optional scheduler configuration for scheduling or delaying step execution")
     private InvokeSchedulerDto invokeScheduler;
+
+    @Schema(description = "Positions (0-based) of earlier steps in the flow this step depends on. Omit to run after the previous step; an empty list starts the step together with the flow. Steps whose dependencies are met run in parallel.", example = "[0, 1]")
+    private List<Integer> dependsOn;
+
+    @Schema(description = "Reuse the result of a recent passed run of the same commit and inputs instead of triggering a new pipeline. Only enable for idempotent steps.", example = "false")
+    private Boolean memoizable;
+
+    @Schema(description = "Fail the step as soon as a job of its testStage fails, cancelling the rest of the pipeline, instead of waiting for the pipeline to finish", example = "false")
+    private Boolean failFast;
+
+    @Schema(description = "Once a job of the testStage succeeded and the stage is done, continue the flow with its output.env while later stages (reports, teardown) finish in the background; their outcome is only recorded as trailingStatus", example = "false")
+    private Boolean proceedOnStageSuccess;
+
+    @Min(value = 1, message = "Timeout must be at least 1 minute")
+    @Schema(description = "Minutes the step's pipeline may run before it is cancelled and the step fails with a timeout. Omit for no limit (or the configured default).", example = "60")
+    private Integer timeoutMinutes;
+
+    @Valid
+    @Schema(description = "Optional retry policy for transient GitLab failures while triggering, polling and collecting artifacts. Unset fields use the configured defaults.")
+    private RetryPolicyDto retryPolicy;
     
     @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Timestamp when the record was created")
     private LocalDateTime createdAt;
@@ -151,4 +172,52 @@ public class CombinedFlowStepDto {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public List<Integer> getDependsOn() {
+        return dependsOn;
+    }
+
+    public void setDependsOn(List<Integer> dependsOn) {
+        this.dependsOn = dependsOn;
+    }
+
+    public Boolean getMemoizable() {
+        return memoizable;
+    }
+
+    public void setMemoizable(Boolean memoizable) {
+        this.memoizable = memoizable;
+    }
+
+    public Boolean getFailFast() {
+        return failFast;
+    }
+
+    public void setFailFast(Boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    public Boolean getProceedOnStageSuccess() {
+        return proceedOnStageSuccess;
+    }
+
+    public void setProceedOnStageSuccess(Boolean proceedOnStageSuccess) {
+        this.proceedOnStageSuccess = proceedOnStageSuccess;
+    }
+
+    public Integer getTimeoutMinutes() {
+        return timeoutMinutes;
+    }
+
+    public void setTimeoutMinutes(Integer timeoutMinutes) {
+        this.timeoutMinutes = timeoutMinutes;
+    }
+
+    public RetryPolicyDto getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public void setRetryPolicy(RetryPolicyDto retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
 }
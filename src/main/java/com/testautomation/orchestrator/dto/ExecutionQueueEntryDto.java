@@ -0,0 +1,121 @@
+package com.testautomation.orchestrator.dto;
+
+import com.testautomation.orchestrator.enums.QueueStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class ExecutionQueueEntryDto {
+
+    @Schema(description = "Queue entry ID, used to look up the request later", example = "42")
+    private Long id;
+
+    @Schema(description = "Flow to execute", example = "1")
+    private Long flowId;
+
+    @Schema(description = "Admission priority, higher first", example = "0")
+    private int priority;
+
+    @Schema(description = "QUEUED until a slot frees up, then ADMITTED with its flow execution ID")
+    private QueueStatus status;
+
+    @Schema(description = "1-based position among queued requests (only while QUEUED)", example = "3")
+    private Long position;
+
+    @Schema(description = "Estimated start time from recent flow durations (only while QUEUED, null without history)")
+    private LocalDateTime estimatedStartTime;
+
+    @Schema(description = "Flow execution created on admission")
+    private UUID flowExecutionId;
+
+    @Schema(description = "Reason when the request could not be admitted")
+    private String message;
+
+    private LocalDateTime enqueuedAt;
+    private LocalDateTime admittedAt;
+
+    // Constructors
+    public ExecutionQueueEntryDto() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getFlowId() {
+        return flowId;
+    }
+
+    public void setFlowId(Long flowId) {
+        this.flowId = flowId;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public QueueStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(QueueStatus status) {
+        this.status = status;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
+    public LocalDateTime getEstimatedStartTime() {
+        return estimatedStartTime;
+    }
+
+    public void setEstimatedStartTime(LocalDateTime estimatedStartTime) {
+        this.estimatedStartTime = estimatedStartTime;
+    }
+
+    public UUID getFlowExecutionId() {
+        return flowExecutionId;
+    }
+
+    public void setFlowExecutionId(UUID flowExecutionId) {
+        this.flowExecutionId = flowExecutionId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    public void setEnqueuedAt(LocalDateTime enqueuedAt) {
+        this.enqueuedAt = enqueuedAt;
+    }
+
+    public LocalDateTime getAdmittedAt() {
+        return admittedAt;
+    }
+
+    public void setAdmittedAt(LocalDateTime admittedAt) {
+        this.admittedAt = admittedAt;
+    }
+}
@@ -3,6 +3,7 @@ package com.testautomation.orchestrator.dto;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Min;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.util.List;
@@ -24,6 +25,10 @@ public class FlowCreateDto {
     @Schema(description = "Squash test case name", example = "Login Test Case")
     private String squashTestCase;
 
+    @Min(value = 1, message = "Timeout must be at least 1 minute")
+    @Schema(description = "Minutes a flow execution may run before its running pipelines are cancelled and it fails with a timeout. Omit for no limit (or the configured default).", example = "240")
+    private Integer timeoutMinutes;
+
     // Constructors
     public FlowCreateDto() {}
 
@@ -57,4 +62,12 @@ public class FlowCreateDto {
     public void setSquashTestCase(String squashTestCase) {
         this.squashTestCase = squashTestCase;
     }
+
+    public Integer getTimeoutMinutes() {
+        return timeoutMinutes;
+    }
+
+    public void setTimeoutMinutes(Integer timeoutMinutes) {
+        this.timeoutMinutes = timeoutMinutes;
+    }
 }
\ No newline at end of file
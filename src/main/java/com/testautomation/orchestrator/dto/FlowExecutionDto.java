@@ -18,6 +18,9 @@ public class FlowExecutionDto {
     private LocalDateTime createdAt;
     private Boolean isReplay;
     private UUID originalFlowExecutionId;
+    private String failureReason;
+    private UUID matrixExecutionId;
+    private String variantName;
 
     // Nested details for comprehensive response
     private FlowDto flow;
@@ -108,6 +111,14 @@ public class FlowExecutionDto {
         this.originalFlowExecutionId = originalFlowExecutionId;
     }
 
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    public void setFailureReason(String failureReason) {
+        this.failureReason = failureReason;
+    }
+
     public FlowDto getFlow() {
         return flow;
     }
@@ -139,4 +150,20 @@ public class FlowExecutionDto {
     public void setPipelineExecutions(List<PipelineExecutionDto> pipelineExecutions) {
         this.pipelineExecutions = pipelineExecutions;
     }
-}
\ No newline at end of file
+
+    public UUID getMatrixExecutionId() {
+        return matrixExecutionId;
+    }
+
+    public void setMatrixExecutionId(UUID matrixExecutionId) {
+        this.matrixExecutionId = matrixExecutionId;
+    }
+
+    public String getVariantName() {
+        return variantName;
+    }
+
+    public void setVariantName(String variantName) {
+        this.variantName = variantName;
+    }
+}
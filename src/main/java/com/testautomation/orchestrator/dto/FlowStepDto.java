@@ -3,6 +3,7 @@ package com.testautomation.orchestrator.dto;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Min;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.time.LocalDateTime;
@@ -34,6 +35,26 @@ public class FlowStepDto {
     @Valid
     @Schema(description = "Optional scheduler configuration for scheduling or delaying step execution")
     private InvokeSchedulerDto invokeScheduler;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "IDs of the flow steps this step depends on (null = previous step of the flow)")
+    private List<Long> dependsOnStepIds;
+
+    @Schema(description = "Reuse the result of a recent passed run of the same commit and inputs instead of triggering a new pipeline. Only enable for idempotent steps.", example = "false")
+    private Boolean memoizable;
+
+    @Schema(description = "Fail the step as soon as a job of its testStage fails, cancelling the rest of the pipeline, instead of waiting for the pipeline to finish", example = "false")
+    private Boolean failFast;
+
+    @Schema(description = "Once a job of the testStage succeeded and the stage is done, continue the flow with its output.env while later stages (reports, teardown) finish in the background; their outcome is only recorded as trailingStatus", example = "false")
+    private Boolean proceedOnStageSuccess;
+
+    @Min(value = 1, message = "Timeout must be at least 1 minute")
+    @Schema(description = "Minutes the step's pipeline may run before it is cancelled and the step fails with a timeout. Omit for no limit (or the configured default).", example = "60")
+    private Integer timeoutMinutes;
+
+    @Valid
+    @Schema(description = "Optional retry policy for transient GitLab failures while triggering, polling and collecting artifacts. Unset fields use the configured defaults.")
+    private RetryPolicyDto retryPolicy;
     
     @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Timestamp when the record was created")
     private LocalDateTime createdAt;
@@ -135,4 +156,52 @@ public class FlowStepDto {
     public void setInvokeScheduler(InvokeSchedulerDto invokeScheduler) {
         this.invokeScheduler = invokeScheduler;
     }
-}
\ No newline at end of file
+
+    public List<Long> getDependsOnStepIds() {
+        return dependsOnStepIds;
+    }
+
+    public void setDependsOnStepIds(List<Long> dependsOnStepIds) {
+        this.dependsOnStepIds = dependsOnStepIds;
+    }
+
+    public Boolean getMemoizable() {
+        return memoizable;
+    }
+
+    public void setMemoizable(Boolean memoizable) {
+        this.memoizable = memoizable;
+    }
+
+    public Boolean getFailFast() {
+        return failFast;
+    }
+
+    public void setFailFast(Boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    public Boolean getProceedOnStageSuccess() {
+        return proceedOnStageSuccess;
+    }
+
+    public void setProceedOnStageSuccess(Boolean proceedOnStageSuccess) {
+        this.proceedOnStageSuccess = proceedOnStageSuccess;
+    }
+
+    public Integer getTimeoutMinutes() {
+        return timeoutMinutes;
+    }
+
+    public void setTimeoutMinutes(Integer timeoutMinutes) {
+        this.timeoutMinutes = timeoutMinutes;
+    }
+
+    public RetryPolicyDto getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public void setRetryPolicy(RetryPolicyDto retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+}
@@ -0,0 +1,222 @@
+package com.testautomation.orchestrator.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Subset of the GitLab "Pipeline Hook" and "Job Hook" webhook payloads used by the orchestrator.
+ * Pipeline events carry object_attributes and builds, job events carry the flat build_* fields.
+ */
+public class GitLabWebhookDto {
+
+    @JsonProperty("object_kind")
+    @Schema(description = "Event kind sent by GitLab", example = "pipeline")
+    private String objectKind;
+
+    @JsonProperty("object_attributes")
+    private PipelineAttributes objectAttributes;
+
+    private Project project;
+
+    private List<Build> builds;
+
+    @JsonProperty("build_id")
+    private Long buildId;
+
+    @JsonProperty("build_name")
+    private String buildName;
+
+    @JsonProperty("build_stage")
+    private String buildStage;
+
+    @JsonProperty("build_status")
+    private String buildStatus;
+
+    @JsonProperty("pipeline_id")
+    private Long pipelineId;
+
+    @JsonProperty("project_id")
+    private Long projectId;
+
+    // Constructors
+    public GitLabWebhookDto() {}
+
+    /**
+     * Pipeline id of the event, for both pipeline and job events
+     */
+    public Long resolvePipelineId() {
+        if (objectAttributes != null && objectAttributes.getId() != null) {
+            return objectAttributes.getId();
+        }
+        return pipelineId;
+    }
+
+    // Getters and Setters
+    public String getObjectKind() {
+        return objectKind;
+    }
+
+    public void setObjectKind(String objectKind) {
+        this.objectKind = objectKind;
+    }
+
+    public PipelineAttributes getObjectAttributes() {
+        return objectAttributes;
+    }
+
+    public void setObjectAttributes(PipelineAttributes objectAttributes) {
+        this.objectAttributes = objectAttributes;
+    }
+
+    public Project getProject() {
+        return project;
+    }
+
+    public void setProject(Project project) {
+        this.project = project;
+    }
+
+    public List<Build> getBuilds() {
+        return builds;
+    }
+
+    public void setBuilds(List<Build> builds) {
+        this.builds = builds;
+    }
+
+    public Long getBuildId() {
+        return buildId;
+    }
+
+    public void setBuildId(Long buildId) {
+        this.buildId = buildId;
+    }
+
+    public String getBuildName() {
+        return buildName;
+    }
+
+    public void setBuildName(String buildName) {
+        this.buildName = buildName;
+    }
+
+    public String getBuildStage() {
+        return buildStage;
+    }
+
+    public void setBuildStage(String buildStage) {
+        this.buildStage = buildStage;
+    }
+
+    public String getBuildStatus() {
+        return buildStatus;
+    }
+
+    public void setBuildStatus(String buildStatus) {
+        this.buildStatus = buildStatus;
+    }
+
+    public Long getPipelineId() {
+        return pipelineId;
+    }
+
+    public void setPipelineId(Long pipelineId) {
+        this.pipelineId = pipelineId;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Long projectId) {
+        this.projectId = projectId;
+    }
+
+    public static class PipelineAttributes {
+
+        private Long id;
+        private String status;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+    }
+
+    public static class Project {
+
+        private Long id;
+
+        @JsonProperty("web_url")
+        private String webUrl;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getWebUrl() {
+            return webUrl;
+        }
+
+        public void setWebUrl(String webUrl) {
+            this.webUrl = webUrl;
+        }
+    }
+
+    public static class Build {
+
+        private Long id;
+        private String name;
+        private String stage;
+        private String status;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        public void setStage(String stage) {
+            this.stage = stage;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+    }
+}
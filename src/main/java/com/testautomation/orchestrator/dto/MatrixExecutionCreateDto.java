@@ -0,0 +1,80 @@
+package com.testautomation.orchestrator.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Map;
+
+@Schema(description = "Variable sets to execute one flow against")
+public class MatrixExecutionCreateDto {
+
+    @NotNull(message = "Variants are required")
+    @NotEmpty(message = "A matrix execution needs at least one variant")
+    @Valid
+    @Schema(description = "One flow execution is queued per variant")
+    private List<Variant> variants;
+
+    // Constructors
+    public MatrixExecutionCreateDto() {}
+
+    public MatrixExecutionCreateDto(List<Variant> variants) {
+        this.variants = variants;
+    }
+
+    // Getters and Setters
+    public List<Variant> getVariants() {
+        return variants;
+    }
+
+    public void setVariants(List<Variant> variants) {
+        this.variants = variants;
+    }
+
+    @Schema(description = "Variables of one variant, applied over the test data of every step. Test data sets are merged in order, then the variables are applied over them.")
+    public static class Variant {
+
+        @Schema(description = "Name of the variant; defaults to variant-<n>", example = "premium-user")
+        private String name;
+
+        @Schema(description = "Test data sets of the variant", example = "[7, 12]")
+        private List<Long> testDataIds;
+
+        @Schema(description = "Variable overrides of the variant", example = "{\"USER_PROFILE\": \"premium\"}")
+        private Map<String, String> variables;
+
+        public Variant() {}
+
+        public Variant(String name, List<Long> testDataIds, Map<String, String> variables) {
+            this.name = name;
+            this.testDataIds = testDataIds;
+            this.variables = variables;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<Long> getTestDataIds() {
+            return testDataIds;
+        }
+
+        public void setTestDataIds(List<Long> testDataIds) {
+            this.testDataIds = testDataIds;
+        }
+
+        public Map<String, String> getVariables() {
+            return variables;
+        }
+
+        public void setVariables(Map<String, String> variables) {
+            this.variables = variables;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.testautomation.orchestrator.dto;
+
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.enums.QueueStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public class MatrixExecutionDto {
+
+    @Schema(description = "Matrix execution ID")
+    private UUID id;
+
+    @Schema(description = "Flow executed by every variant", example = "1")
+    private Long flowId;
+
+    @Schema(description = "RUNNING until every variant finished, then PASSED, FAILED (a variant failed) or CANCELLED")
+    private ExecutionStatus status;
+
+    @Schema(description = "Number of variants", example = "50")
+    private int total;
+
+    @Schema(description = "Variants waiting in the execution queue", example = "30")
+    private int queued;
+
+    @Schema(description = "Variants whose flow execution is running", example = "20")
+    private int running;
+
+    @Schema(description = "Variants whose flow execution passed", example = "0")
+    private int passed;
+
+    @Schema(description = "Variants whose flow execution failed or that could not be started", example = "0")
+    private int failed;
+
+    @Schema(description = "Variants whose flow execution was cancelled", example = "0")
+    private int cancelled;
+
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Progress of each variant, in request order")
+    private List<Variant> variants;
+
+    // Constructors
+    public MatrixExecutionDto() {}
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Long getFlowId() {
+        return flowId;
+    }
+
+    public void setFlowId(Long flowId) {
+        this.flowId = flowId;
+    }
+
+    public ExecutionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ExecutionStatus status) {
+        this.status = status;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public int getRunning() {
+        return running;
+    }
+
+    public void setRunning(int running) {
+        this.running = running;
+    }
+
+    public int getPassed() {
+        return passed;
+    }
+
+    public void setPassed(int passed) {
+        this.passed = passed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public int getCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(int cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public List<Variant> getVariants() {
+        return variants;
+    }
+
+    public void setVariants(List<Variant> variants) {
+        this.variants = variants;
+    }
+
+    public static class Variant {
+
+        @Schema(description = "Name of the variant", example = "premium-user")
+        private String name;
+
+        @Schema(description = "Execution queue entry of the variant", example = "42")
+        private Long queueEntryId;
+
+        @Schema(description = "QUEUED until admitted, FAILED when it could not be started")
+        private QueueStatus queueStatus;
+
+        @Schema(description = "Flow execution of the variant once admitted")
+        private UUID flowExecutionId;
+
+        @Schema(description = "Status of the variant's flow execution once admitted")
+        private ExecutionStatus status;
+
+        @Schema(description = "Why the variant failed")
+        private String failureReason;
+
+        public Variant() {}
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Long getQueueEntryId() {
+            return queueEntryId;
+        }
+
+        public void setQueueEntryId(Long queueEntryId) {
+            this.queueEntryId = queueEntryId;
+        }
+
+        public QueueStatus getQueueStatus() {
+            return queueStatus;
+        }
+
+        public void setQueueStatus(QueueStatus queueStatus) {
+            this.queueStatus = queueStatus;
+        }
+
+        public UUID getFlowExecutionId() {
+            return flowExecutionId;
+        }
+
+        public void setFlowExecutionId(UUID flowExecutionId) {
+            this.flowExecutionId = flowExecutionId;
+        }
+
+        public ExecutionStatus getStatus() {
+            return status;
+        }
+
+        public void setStatus(ExecutionStatus status) {
+            this.status = status;
+        }
+
+        public String getFailureReason() {
+            return failureReason;
+        }
+
+        public void setFailureReason(String failureReason) {
+            this.failureReason = failureReason;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.testautomation.orchestrator.dto;
 
 import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.enums.StepPhase;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -19,10 +20,15 @@ public class PipelineExecutionDto {
     private Map<String, String> configuredTestData;
     private Map<String, String> runtimeTestData;
     private ExecutionStatus status;
+    private StepPhase phase;
     private LocalDateTime createdAt;
     private Boolean isReplay;
     private UUID originalFlowExecutionId;
     private LocalDateTime resumeTime;
+    private String commitSha;
+    private Long reusedFromPipelineExecutionId;
+    private String failureReason;
+    private String trailingStatus;
 
     // Constructors
     public PipelineExecutionDto() {}
@@ -125,6 +131,14 @@ public class PipelineExecutionDto {
         this.status = status;
     }
 
+    public StepPhase getPhase() {
+        return phase;
+    }
+
+    public void setPhase(StepPhase phase) {
+        this.phase = phase;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -156,4 +170,36 @@ public class PipelineExecutionDto {
     public void setResumeTime(LocalDateTime resumeTime) {
         this.resumeTime = resumeTime;
     }
+
+    public String getCommitSha() {
+        return commitSha;
+    }
+
+    public void setCommitSha(String commitSha) {
+        this.commitSha = commitSha;
+    }
+
+    public Long getReusedFromPipelineExecutionId() {
+        return reusedFromPipelineExecutionId;
+    }
+
+    public void setReusedFromPipelineExecutionId(Long reusedFromPipelineExecutionId) {
+        this.reusedFromPipelineExecutionId = reusedFromPipelineExecutionId;
+    }
+
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    public void setFailureReason(String failureReason) {
+        this.failureReason = failureReason;
+    }
+
+    public String getTrailingStatus() {
+        return trailingStatus;
+    }
+
+    public void setTrailingStatus(String trailingStatus) {
+        this.trailingStatus = trailingStatus;
+    }
 }
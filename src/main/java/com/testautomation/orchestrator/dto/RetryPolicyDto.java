@@ -0,0 +1,69 @@
+package com.testautomation.orchestrator.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import java.util.List;
+
+public class RetryPolicyDto {
+
+    @Min(value = 1, message = "Max attempts must be at least 1")
+    @Max(value = 20, message = "Max attempts must be at most 20")
+    @Schema(description = "Total attempts of a GitLab call (trigger, status poll, job listing, artifact download), including the first", example = "4")
+    private Integer maxAttempts;
+
+    @Min(value = 0, message = "Initial backoff cannot be negative")
+    @Schema(description = "Delay in milliseconds before the first retry; doubled for each further retry", example = "2000")
+    private Long initialBackoffMs;
+
+    @Min(value = 0, message = "Max backoff cannot be negative")
+    @Schema(description = "Upper bound in milliseconds of the delay between retries", example = "60000")
+    private Long maxBackoffMs;
+
+    @Schema(description = "HTTP statuses that are retried; connection errors and timeouts are always retried", example = "[429, 502, 503, 504]")
+    private List<Integer> retryableStatuses;
+
+    // Constructors
+    public RetryPolicyDto() {}
+
+    public RetryPolicyDto(Integer maxAttempts, Long initialBackoffMs, Long maxBackoffMs, List<Integer> retryableStatuses) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.retryableStatuses = retryableStatuses;
+    }
+
+    // Getters and Setters
+    public Integer getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(Integer maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Long getInitialBackoffMs() {
+        return initialBackoffMs;
+    }
+
+    public void setInitialBackoffMs(Long initialBackoffMs) {
+        this.initialBackoffMs = initialBackoffMs;
+    }
+
+    public Long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+
+    public void setMaxBackoffMs(Long maxBackoffMs) {
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public List<Integer> getRetryableStatuses() {
+        return retryableStatuses;
+    }
+
+    public void setRetryableStatuses(List<Integer> retryableStatuses) {
+        this.retryableStatuses = retryableStatuses;
+    }
+}
@@ -0,0 +1,10 @@
+package com.testautomation.orchestrator.enums;
+
+/**
+ * State of a flow execution request in the admission queue.
+ */
+public enum QueueStatus {
+    QUEUED,
+    ADMITTED,
+    FAILED
+}
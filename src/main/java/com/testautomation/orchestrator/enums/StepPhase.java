@@ -0,0 +1,13 @@
+package com.testautomation.orchestrator.enums;
+
+/**
+ * Fine-grained lifecycle of a single step inside the flow execution state machine.
+ * The coarse, client-facing outcome is still tracked by {@link ExecutionStatus}.
+ */
+public enum StepPhase {
+    PENDING,
+    TRIGGERED,
+    RUNNING,
+    COLLECTING_ARTIFACTS,
+    NEXT_STEP
+}
@@ -0,0 +1,36 @@
+package com.testautomation.orchestrator.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a step or a whole flow execution runs past its timeout. The pipeline execution
+ * id is null for a flow deadline.
+ */
+public class DeadlineExceededEvent {
+
+    private final UUID flowExecutionId;
+    private final Long pipelineExecutionId;
+    private final int timeoutMinutes;
+
+    public DeadlineExceededEvent(UUID flowExecutionId, Long pipelineExecutionId, int timeoutMinutes) {
+        this.flowExecutionId = flowExecutionId;
+        this.pipelineExecutionId = pipelineExecutionId;
+        this.timeoutMinutes = timeoutMinutes;
+    }
+
+    public UUID getFlowExecutionId() {
+        return flowExecutionId;
+    }
+
+    public Long getPipelineExecutionId() {
+        return pipelineExecutionId;
+    }
+
+    public int getTimeoutMinutes() {
+        return timeoutMinutes;
+    }
+
+    public boolean isFlowDeadline() {
+        return pipelineExecutionId == null;
+    }
+}
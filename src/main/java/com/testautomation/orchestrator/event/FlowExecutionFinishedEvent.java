@@ -0,0 +1,27 @@
+package com.testautomation.orchestrator.event;
+
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+
+import java.util.UUID;
+
+/**
+ * Published when a flow execution reaches a final state and no longer occupies an execution slot.
+ */
+public class FlowExecutionFinishedEvent {
+
+    private final UUID flowExecutionId;
+    private final ExecutionStatus status;
+
+    public FlowExecutionFinishedEvent(UUID flowExecutionId, ExecutionStatus status) {
+        this.flowExecutionId = flowExecutionId;
+        this.status = status;
+    }
+
+    public UUID getFlowExecutionId() {
+        return flowExecutionId;
+    }
+
+    public ExecutionStatus getStatus() {
+        return status;
+    }
+}
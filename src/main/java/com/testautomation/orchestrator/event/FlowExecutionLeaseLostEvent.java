@@ -0,0 +1,20 @@
+package com.testautomation.orchestrator.event;
+
+import java.util.UUID;
+
+/**
+ * Published when this node stops driving a flow execution because it finished, was cancelled, was
+ * taken over by another node or its lease lapsed, so local watches and timers for it can be dropped.
+ */
+public class FlowExecutionLeaseLostEvent {
+
+    private final UUID flowExecutionId;
+
+    public FlowExecutionLeaseLostEvent(UUID flowExecutionId) {
+        this.flowExecutionId = flowExecutionId;
+    }
+
+    public UUID getFlowExecutionId() {
+        return flowExecutionId;
+    }
+}
@@ -0,0 +1,54 @@
+package com.testautomation.orchestrator.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a single job of a running pipeline reaches a final state, ahead of the pipeline itself.
+ */
+public class JobCompletedEvent {
+
+    private final UUID flowExecutionId;
+    private final Long pipelineExecutionId;
+    private final Long jobId;
+    private final String jobUrl;
+    private final String stage;
+    private final String gitlabStatus;
+
+    public JobCompletedEvent(UUID flowExecutionId, Long pipelineExecutionId, Long jobId, String jobUrl,
+                             String stage, String gitlabStatus) {
+        this.flowExecutionId = flowExecutionId;
+        this.pipelineExecutionId = pipelineExecutionId;
+        this.jobId = jobId;
+        this.jobUrl = jobUrl;
+        this.stage = stage;
+        this.gitlabStatus = gitlabStatus;
+    }
+
+    public UUID getFlowExecutionId() {
+        return flowExecutionId;
+    }
+
+    public Long getPipelineExecutionId() {
+        return pipelineExecutionId;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public String getJobUrl() {
+        return jobUrl;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public String getGitlabStatus() {
+        return gitlabStatus;
+    }
+
+    public boolean isSuccessful() {
+        return "success".equals(gitlabStatus);
+    }
+}
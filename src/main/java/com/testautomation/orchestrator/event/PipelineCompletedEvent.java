@@ -0,0 +1,61 @@
+package com.testautomation.orchestrator.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever a GitLab pipeline backing a PipelineExecution is observed in a final state.
+ * The flow execution engine consumes it to move the owning flow forward. When the source already
+ * knows the job of the step's test stage (webhooks do), it is passed along so artifacts can be
+ * downloaded without listing the pipeline's jobs.
+ */
+public class PipelineCompletedEvent {
+
+    private final UUID flowExecutionId;
+    private final Long pipelineExecutionId;
+    private final Long pipelineId;
+    private final String gitlabStatus;
+    private final Long jobId;
+    private final String jobUrl;
+
+    public PipelineCompletedEvent(UUID flowExecutionId, Long pipelineExecutionId, Long pipelineId, String gitlabStatus) {
+        this(flowExecutionId, pipelineExecutionId, pipelineId, gitlabStatus, null, null);
+    }
+
+    public PipelineCompletedEvent(UUID flowExecutionId, Long pipelineExecutionId, Long pipelineId, String gitlabStatus,
+                                  Long jobId, String jobUrl) {
+        this.flowExecutionId = flowExecutionId;
+        this.pipelineExecutionId = pipelineExecutionId;
+        this.pipelineId = pipelineId;
+        this.gitlabStatus = gitlabStatus;
+        this.jobId = jobId;
+        this.jobUrl = jobUrl;
+    }
+
+    public UUID getFlowExecutionId() {
+        return flowExecutionId;
+    }
+
+    public Long getPipelineExecutionId() {
+        return pipelineExecutionId;
+    }
+
+    public Long getPipelineId() {
+        return pipelineId;
+    }
+
+    public String getGitlabStatus() {
+        return gitlabStatus;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public String getJobUrl() {
+        return jobUrl;
+    }
+
+    public boolean isSuccessful() {
+        return "success".equals(gitlabStatus);
+    }
+}
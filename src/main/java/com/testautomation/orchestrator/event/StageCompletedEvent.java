@@ -0,0 +1,64 @@
+package com.testautomation.orchestrator.event;
+
+import java.util.UUID;
+
+/**
+ * Published when the test stage of a step's running pipeline reached a final outcome (see
+ * {@link com.testautomation.orchestrator.util.StageOutcome}), possibly long before the pipeline
+ * itself. Its job is the failed job of a failed stage and the successful job of a passed one.
+ */
+public class StageCompletedEvent {
+
+    private final UUID flowExecutionId;
+    private final Long pipelineExecutionId;
+    private final Long pipelineId;
+    private final String stage;
+    private final boolean successful;
+    private final Long jobId;
+    private final String jobName;
+    private final String jobUrl;
+
+    public StageCompletedEvent(UUID flowExecutionId, Long pipelineExecutionId, Long pipelineId, String stage,
+                               boolean successful, Long jobId, String jobName, String jobUrl) {
+        this.flowExecutionId = flowExecutionId;
+        this.pipelineExecutionId = pipelineExecutionId;
+        this.pipelineId = pipelineId;
+        this.stage = stage;
+        this.successful = successful;
+        this.jobId = jobId;
+        this.jobName = jobName;
+        this.jobUrl = jobUrl;
+    }
+
+    public UUID getFlowExecutionId() {
+        return flowExecutionId;
+    }
+
+    public Long getPipelineExecutionId() {
+        return pipelineExecutionId;
+    }
+
+    public Long getPipelineId() {
+        return pipelineId;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public boolean isSuccessful() {
+        return successful;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public String getJobUrl() {
+        return jobUrl;
+    }
+}
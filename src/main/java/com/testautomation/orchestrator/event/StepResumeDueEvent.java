@@ -0,0 +1,25 @@
+package com.testautomation.orchestrator.event;
+
+import java.util.UUID;
+
+/**
+ * Published when the invokeScheduler timer of a scheduled step fires.
+ */
+public class StepResumeDueEvent {
+
+    private final UUID flowExecutionId;
+    private final Long pipelineExecutionId;
+
+    public StepResumeDueEvent(UUID flowExecutionId, Long pipelineExecutionId) {
+        this.flowExecutionId = flowExecutionId;
+        this.pipelineExecutionId = pipelineExecutionId;
+    }
+
+    public UUID getFlowExecutionId() {
+        return flowExecutionId;
+    }
+
+    public Long getPipelineExecutionId() {
+        return pipelineExecutionId;
+    }
+}
@@ -46,6 +46,14 @@ public class Application {
     @Column(name = "token_validation_last_update_date")
     private LocalDateTime tokenValidationLastUpdateDate;
 
+    // Pipelines of this project allowed to run at once (null = unlimited)
+    @Column(name = "max_concurrent_pipelines")
+    private Integer maxConcurrentPipelines;
+
+    // Pipelines allowed to run at once on a single branch of this project (null = unlimited)
+    @Column(name = "max_concurrent_pipelines_per_branch")
+    private Integer maxConcurrentPipelinesPerBranch;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -103,6 +111,22 @@ public class Application {
         this.updatedAt = updatedAt;
     }
 
+    public Integer getMaxConcurrentPipelines() {
+        return maxConcurrentPipelines;
+    }
+
+    public void setMaxConcurrentPipelines(Integer maxConcurrentPipelines) {
+        this.maxConcurrentPipelines = maxConcurrentPipelines;
+    }
+
+    public Integer getMaxConcurrentPipelinesPerBranch() {
+        return maxConcurrentPipelinesPerBranch;
+    }
+
+    public void setMaxConcurrentPipelinesPerBranch(Integer maxConcurrentPipelinesPerBranch) {
+        this.maxConcurrentPipelinesPerBranch = maxConcurrentPipelinesPerBranch;
+    }
+
     public String getApplicationName() {
         return applicationName;
     }
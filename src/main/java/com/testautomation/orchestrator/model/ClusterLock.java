@@ -0,0 +1,32 @@
+package com.testautomation.orchestrator.model;
+
+import jakarta.persistence.*;
+
+/**
+ * A named row that orchestrator nodes lock (SELECT ... FOR UPDATE SKIP LOCKED) to run cluster-wide
+ * singleton work, such as admission passes and scheduled jobs, on one node at a time.
+ */
+@Entity
+@Table(name = "cluster_locks")
+public class ClusterLock {
+
+    @Id
+    @Column(name = "name", nullable = false, updatable = false)
+    private String name;
+
+    // Constructors
+    public ClusterLock() {}
+
+    public ClusterLock(String name) {
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,159 @@
+package com.testautomation.orchestrator.model;
+
+import com.testautomation.orchestrator.enums.QueueStatus;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+@Entity
+@Table(name = "execution_queue", indexes = {
+        @Index(name = "idx_execution_queue_status_priority", columnList = "status, priority, id"),
+        @Index(name = "idx_execution_queue_matrix", columnList = "matrix_execution_id")
+})
+public class ExecutionQueueEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "flow_id", nullable = false)
+    private Long flowId;
+
+    // Higher values are admitted first; equal priorities in request order
+    @Column(name = "priority", nullable = false)
+    private int priority;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private QueueStatus status;
+
+    @Column(name = "flow_execution_id")
+    private UUID flowExecutionId;
+
+    @Column(name = "message")
+    private String message;
+
+    @CreationTimestamp
+    @Column(name = "enqueued_at", nullable = false, updatable = false)
+    private LocalDateTime enqueuedAt;
+
+    @Column(name = "admitted_at")
+    private LocalDateTime admittedAt;
+
+    // Matrix execution this request is a variant of; null for plain executions
+    @Column(name = "matrix_execution_id")
+    private UUID matrixExecutionId;
+
+    @Column(name = "variant_name")
+    private String variantName;
+
+    // Variables of the variant, applied over every step's test data
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "variable_overrides", columnDefinition = "json")
+    private Map<String, String> variableOverrides;
+
+    // Constructors
+    public ExecutionQueueEntry() {}
+
+    public ExecutionQueueEntry(Long flowId, int priority) {
+        this.flowId = flowId;
+        this.priority = priority;
+        this.status = QueueStatus.QUEUED;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getFlowId() {
+        return flowId;
+    }
+
+    public void setFlowId(Long flowId) {
+        this.flowId = flowId;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public QueueStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(QueueStatus status) {
+        this.status = status;
+    }
+
+    public UUID getFlowExecutionId() {
+        return flowExecutionId;
+    }
+
+    public void setFlowExecutionId(UUID flowExecutionId) {
+        this.flowExecutionId = flowExecutionId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    public void setEnqueuedAt(LocalDateTime enqueuedAt) {
+        this.enqueuedAt = enqueuedAt;
+    }
+
+    public LocalDateTime getAdmittedAt() {
+        return admittedAt;
+    }
+
+    public void setAdmittedAt(LocalDateTime admittedAt) {
+        this.admittedAt = admittedAt;
+    }
+
+    public UUID getMatrixExecutionId() {
+        return matrixExecutionId;
+    }
+
+    public void setMatrixExecutionId(UUID matrixExecutionId) {
+        this.matrixExecutionId = matrixExecutionId;
+    }
+
+    public String getVariantName() {
+        return variantName;
+    }
+
+    public void setVariantName(String variantName) {
+        this.variantName = variantName;
+    }
+
+    public Map<String, String> getVariableOverrides() {
+        return variableOverrides;
+    }
+
+    public void setVariableOverrides(Map<String, String> variableOverrides) {
+        this.variableOverrides = variableOverrides;
+    }
+}
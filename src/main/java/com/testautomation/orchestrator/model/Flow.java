@@ -31,6 +31,10 @@ public class Flow {
     @Column(name = "squash_test_case", nullable = false)
     private String squashTestCase;
 
+    // Longest a whole execution of the flow may run before it fails with a timeout; null = no limit
+    @Column(name = "timeout_minutes")
+    private Integer timeoutMinutes;
+
 
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -82,6 +86,14 @@ public class Flow {
         this.squashTestCase = squashTestCase;
     }
 
+    public Integer getTimeoutMinutes() {
+        return timeoutMinutes;
+    }
+
+    public void setTimeoutMinutes(Integer timeoutMinutes) {
+        this.timeoutMinutes = timeoutMinutes;
+    }
+
 
     public LocalDateTime getCreatedAt() {
         return createdAt;
@@ -12,7 +12,11 @@ import java.util.Map;
 import java.util.UUID;
 
 @Entity
-@Table(name = "flow_executions")
+@Table(name = "flow_executions", indexes = {
+        @Index(name = "idx_flow_executions_owner_node", columnList = "owner_node"),
+        @Index(name = "idx_flow_executions_lease", columnList = "status, lease_expires_at"),
+        @Index(name = "idx_flow_executions_matrix", columnList = "matrix_execution_id")
+})
 public class FlowExecution {
 
     @Id
@@ -44,6 +48,30 @@ public class FlowExecution {
     @Column(name = "original_flow_execution_id")
     private UUID originalFlowExecutionId;
 
+    // Why the execution failed, e.g. the failure reason of its failed step or a flow timeout
+    @Column(name = "failure_reason", length = 500)
+    private String failureReason;
+
+    // Node currently driving this execution; it keeps the lease alive with heartbeats
+    @Column(name = "owner_node")
+    private String ownerNode;
+
+    // Once passed without renewal, any node may take the execution over
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    // Matrix execution this execution is a variant of; null for plain executions
+    @Column(name = "matrix_execution_id")
+    private UUID matrixExecutionId;
+
+    @Column(name = "variant_name")
+    private String variantName;
+
+    // Variables of the variant, applied over every step's test data
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "variable_overrides", columnDefinition = "json")
+    private Map<String, String> variableOverrides;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -136,4 +164,52 @@ public class FlowExecution {
     public void setOriginalFlowExecutionId(UUID originalFlowExecutionId) {
         this.originalFlowExecutionId = originalFlowExecutionId;
     }
-}
\ No newline at end of file
+
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    public void setFailureReason(String failureReason) {
+        this.failureReason = failureReason;
+    }
+
+    public String getOwnerNode() {
+        return ownerNode;
+    }
+
+    public void setOwnerNode(String ownerNode) {
+        this.ownerNode = ownerNode;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public UUID getMatrixExecutionId() {
+        return matrixExecutionId;
+    }
+
+    public void setMatrixExecutionId(UUID matrixExecutionId) {
+        this.matrixExecutionId = matrixExecutionId;
+    }
+
+    public String getVariantName() {
+        return variantName;
+    }
+
+    public void setVariantName(String variantName) {
+        this.variantName = variantName;
+    }
+
+    public Map<String, String> getVariableOverrides() {
+        return variableOverrides;
+    }
+
+    public void setVariableOverrides(Map<String, String> variableOverrides) {
+        this.variableOverrides = variableOverrides;
+    }
+}
@@ -51,6 +51,32 @@ public class FlowStep {
     @Embedded
     private InvokeScheduler invokeScheduler;
 
+    // Steps of the same flow this step waits for; null means the previous step of the flow
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "depends_on_step_ids", columnDefinition = "json")
+    private List<Long> dependsOnStepIds;
+
+    // Opt-in: reuse a recent passed run with the same commit and inputs instead of triggering a pipeline
+    @Column(name = "memoizable")
+    private Boolean memoizable;
+
+    // Opt-in: fail as soon as a job of the test stage fails instead of waiting for the whole pipeline
+    @Column(name = "fail_fast")
+    private Boolean failFast;
+
+    // Opt-in: pass once the test stage succeeded and let trailing stages finish in the background
+    @Column(name = "proceed_on_stage_success")
+    private Boolean proceedOnStageSuccess;
+
+    // Longest the step's pipeline may run before it is cancelled and the step fails; null = no limit
+    @Column(name = "timeout_minutes")
+    private Integer timeoutMinutes;
+
+    // Overrides of the retry policy for transient GitLab failures; null = configured defaults
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "retry_policy", columnDefinition = "json")
+    private StepRetryPolicy retryPolicy;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -147,6 +173,54 @@ public class FlowStep {
         this.invokeScheduler = invokeScheduler;
     }
 
+    public List<Long> getDependsOnStepIds() {
+        return dependsOnStepIds;
+    }
+
+    public void setDependsOnStepIds(List<Long> dependsOnStepIds) {
+        this.dependsOnStepIds = dependsOnStepIds;
+    }
+
+    public Boolean getMemoizable() {
+        return memoizable;
+    }
+
+    public void setMemoizable(Boolean memoizable) {
+        this.memoizable = memoizable;
+    }
+
+    public Boolean getFailFast() {
+        return failFast;
+    }
+
+    public void setFailFast(Boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    public Boolean getProceedOnStageSuccess() {
+        return proceedOnStageSuccess;
+    }
+
+    public void setProceedOnStageSuccess(Boolean proceedOnStageSuccess) {
+        this.proceedOnStageSuccess = proceedOnStageSuccess;
+    }
+
+    public Integer getTimeoutMinutes() {
+        return timeoutMinutes;
+    }
+
+    public void setTimeoutMinutes(Integer timeoutMinutes) {
+        this.timeoutMinutes = timeoutMinutes;
+    }
+
+    public StepRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public void setRetryPolicy(StepRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
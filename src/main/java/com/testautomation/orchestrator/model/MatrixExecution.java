@@ -0,0 +1,114 @@
+package com.testautomation.orchestrator.model;
+
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One flow executed against many variable sets. Each variant is queued as its own flow execution
+ * (see {@link ExecutionQueueEntry#getMatrixExecutionId()}); the matrix execution finishes with them.
+ */
+@Entity
+@Table(name = "matrix_executions")
+public class MatrixExecution {
+
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @NotNull
+    @Column(name = "flow_id", nullable = false)
+    private Long flowId;
+
+    // RUNNING until every variant finished, then PASSED, FAILED (a variant failed) or CANCELLED
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ExecutionStatus status;
+
+    @Column(name = "total_variants", nullable = false)
+    private int totalVariants;
+
+    @Column(name = "start_time")
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time")
+    private LocalDateTime endTime;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public MatrixExecution() {
+        this.id = UUID.randomUUID();
+    }
+
+    public MatrixExecution(Long flowId, int totalVariants) {
+        this();
+        this.flowId = flowId;
+        this.totalVariants = totalVariants;
+        this.status = ExecutionStatus.RUNNING;
+        this.startTime = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Long getFlowId() {
+        return flowId;
+    }
+
+    public void setFlowId(Long flowId) {
+        this.flowId = flowId;
+    }
+
+    public ExecutionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ExecutionStatus status) {
+        this.status = status;
+    }
+
+    public int getTotalVariants() {
+        return totalVariants;
+    }
+
+    public void setTotalVariants(int totalVariants) {
+        this.totalVariants = totalVariants;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
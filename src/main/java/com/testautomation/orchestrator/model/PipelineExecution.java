@@ -1,6 +1,7 @@
 package com.testautomation.orchestrator.model;
 
 import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.enums.StepPhase;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import org.hibernate.annotations.CreationTimestamp;
@@ -12,11 +13,17 @@ import java.util.Map;
 import java.util.UUID;
 
 @Entity
-@Table(name = "pipeline_executions")
+@Table(name = "pipeline_executions", indexes = {
+        @Index(name = "idx_pipeline_executions_pipeline_id", columnList = "pipeline_id"),
+        @Index(name = "idx_pipeline_executions_flow_step_id", columnList = "flow_step_id"),
+        @Index(name = "idx_pipeline_executions_input_fingerprint", columnList = "input_fingerprint, status, end_time")
+})
 public class PipelineExecution {
 
+    // Pooled sequence instead of IDENTITY so inserts can be JDBC-batched (ids are allocated 50 at a time)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pipeline_execution_seq")
+    @SequenceGenerator(name = "pipeline_execution_seq", sequenceName = "pipeline_execution_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -61,6 +68,10 @@ public class PipelineExecution {
     @Column(name = "status")
     private ExecutionStatus status;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase")
+    private StepPhase phase;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -74,6 +85,26 @@ public class PipelineExecution {
     @Column(name = "resume_time")
     private LocalDateTime resumeTime;
 
+    // Memoization: head commit the step ran on and fingerprint of its inputs (see StepFingerprint)
+    @Column(name = "commit_sha", length = 64)
+    private String commitSha;
+
+    @Column(name = "input_fingerprint", length = 64)
+    private String inputFingerprint;
+
+    // Set when the result was reused from an earlier passed execution instead of running a pipeline
+    @Column(name = "reused_from_pipeline_execution_id")
+    private Long reusedFromPipelineExecutionId;
+
+    // Why the step failed or was stopped, when the pipeline status alone does not tell (e.g. a timeout)
+    @Column(name = "failure_reason", length = 500)
+    private String failureReason;
+
+    // GitLab status of the pipeline of a step that passed at its test stage while later stages went on:
+    // "running", then the pipeline's final status. Informational; it does not affect the step.
+    @Column(name = "trailing_status")
+    private String trailingStatus;
+
     // Constructors
     public PipelineExecution() {}
 
@@ -193,6 +224,14 @@ public class PipelineExecution {
         this.status = status;
     }
 
+    public StepPhase getPhase() {
+        return phase;
+    }
+
+    public void setPhase(StepPhase phase) {
+        this.phase = phase;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -224,4 +263,44 @@ public class PipelineExecution {
     public void setResumeTime(LocalDateTime resumeTime) {
         this.resumeTime = resumeTime;
     }
+
+    public String getCommitSha() {
+        return commitSha;
+    }
+
+    public void setCommitSha(String commitSha) {
+        this.commitSha = commitSha;
+    }
+
+    public Long getReusedFromPipelineExecutionId() {
+        return reusedFromPipelineExecutionId;
+    }
+
+    public void setReusedFromPipelineExecutionId(Long reusedFromPipelineExecutionId) {
+        this.reusedFromPipelineExecutionId = reusedFromPipelineExecutionId;
+    }
+
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    public void setFailureReason(String failureReason) {
+        this.failureReason = failureReason;
+    }
+
+    public String getTrailingStatus() {
+        return trailingStatus;
+    }
+
+    public void setTrailingStatus(String trailingStatus) {
+        this.trailingStatus = trailingStatus;
+    }
+
+    public String getInputFingerprint() {
+        return inputFingerprint;
+    }
+
+    public void setInputFingerprint(String inputFingerprint) {
+        this.inputFingerprint = inputFingerprint;
+    }
 }
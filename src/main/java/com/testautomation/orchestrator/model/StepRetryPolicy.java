@@ -0,0 +1,58 @@
+package com.testautomation.orchestrator.model;
+
+import java.util.List;
+
+/**
+ * Per-step overrides of the retry policy for transient GitLab failures, stored as JSON on the flow
+ * step. Unset fields fall back to flow-execution.retry.*.
+ */
+public class StepRetryPolicy {
+
+    private Integer maxAttempts;
+    private Long initialBackoffMs;
+    private Long maxBackoffMs;
+    private List<Integer> retryableStatuses;
+
+    // Constructors
+    public StepRetryPolicy() {}
+
+    public StepRetryPolicy(Integer maxAttempts, Long initialBackoffMs, Long maxBackoffMs, List<Integer> retryableStatuses) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.retryableStatuses = retryableStatuses;
+    }
+
+    // Getters and Setters
+    public Integer getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(Integer maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Long getInitialBackoffMs() {
+        return initialBackoffMs;
+    }
+
+    public void setInitialBackoffMs(Long initialBackoffMs) {
+        this.initialBackoffMs = initialBackoffMs;
+    }
+
+    public Long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+
+    public void setMaxBackoffMs(Long maxBackoffMs) {
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public List<Integer> getRetryableStatuses() {
+        return retryableStatuses;
+    }
+
+    public void setRetryableStatuses(List<Integer> retryableStatuses) {
+        this.retryableStatuses = retryableStatuses;
+    }
+}
@@ -0,0 +1,17 @@
+package com.testautomation.orchestrator.repository;
+
+import com.testautomation.orchestrator.model.ClusterLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ClusterLockRepository extends JpaRepository<ClusterLock, String> {
+
+    // Locks the row until the current transaction ends; empty when another node holds it
+    @Query(value = "SELECT name FROM cluster_locks WHERE name = :name FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<String> tryLock(@Param("name") String name);
+}
@@ -0,0 +1,40 @@
+package com.testautomation.orchestrator.repository;
+
+import com.testautomation.orchestrator.enums.QueueStatus;
+import com.testautomation.orchestrator.model.ExecutionQueueEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ExecutionQueueRepository extends JpaRepository<ExecutionQueueEntry, Long> {
+
+    // Admission order: highest priority first, then first come first served
+    List<ExecutionQueueEntry> findByStatusOrderByPriorityDescIdAsc(QueueStatus status, Pageable pageable);
+
+    List<ExecutionQueueEntry> findByStatusOrderByPriorityDescIdAsc(QueueStatus status);
+
+    long countByStatus(QueueStatus status);
+
+    // Claimed entries whose flow execution is still being created
+    long countByStatusAndFlowExecutionIdIsNull(QueueStatus status);
+
+    List<ExecutionQueueEntry> findByMatrixExecutionIdOrderByIdAsc(UUID matrixExecutionId);
+
+    @Query("SELECT COUNT(e) FROM ExecutionQueueEntry e WHERE e.status = 'QUEUED' " +
+           "AND (e.priority > :priority OR (e.priority = :priority AND e.id < :id))")
+    long countQueuedAhead(@Param("priority") int priority, @Param("id") Long id);
+
+    // Claims a queued entry for admission; returns 0 when another admission got to it first
+    @Modifying
+    @Query("UPDATE ExecutionQueueEntry e SET e.status = 'ADMITTED', e.admittedAt = :admittedAt " +
+           "WHERE e.id = :id AND e.status = 'QUEUED'")
+    int claim(@Param("id") Long id, @Param("admittedAt") LocalDateTime admittedAt);
+}
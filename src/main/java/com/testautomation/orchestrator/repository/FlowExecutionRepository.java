@@ -5,11 +5,13 @@ import com.testautomation.orchestrator.model.FlowExecution;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,10 +25,48 @@ public interface FlowExecutionRepository extends JpaRepository<FlowExecution, UU
     Page<FlowExecution> findByFlowIdIn(List<Long> flowIds, Pageable pageable);
     
     List<FlowExecution> findByStatus(ExecutionStatus status);
+
+    List<FlowExecution> findByStatusIn(List<ExecutionStatus> statuses);
     
     List<FlowExecution> findByFlowIdAndStatus(Long flowId, ExecutionStatus status);
     
     Long countByStatus(ExecutionStatus status);
+
+    long countByStatusIn(List<ExecutionStatus> statuses);
+
+    // Running flow executions whose lease ran out (or that never had one), oldest first.
+    // Rows another node is claiming at the same moment are skipped rather than waited for.
+    // Ids are read as text: not every database hands a native UUID column back as java.util.UUID.
+    @Query(value = "SELECT CAST(id AS VARCHAR) FROM flow_executions WHERE status IN ('RUNNING', 'IN_PROGRESS') " +
+                   "AND (lease_expires_at IS NULL OR lease_expires_at < :now) " +
+                   "ORDER BY start_time LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<String> lockExpiredLeases(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Running flow executions still leased to the given node, e.g. by its previous process
+    @Query(value = "SELECT CAST(id AS VARCHAR) FROM flow_executions WHERE status IN ('RUNNING', 'IN_PROGRESS') " +
+                   "AND owner_node = :node FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<String> lockLeasesOf(@Param("node") String node);
+
+    @Modifying
+    @Query("UPDATE FlowExecution fe SET fe.ownerNode = :node, fe.leaseExpiresAt = :until WHERE fe.id IN :ids")
+    int assignLeases(@Param("ids") Collection<UUID> ids, @Param("node") String node, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE FlowExecution fe SET fe.leaseExpiresAt = :until " +
+           "WHERE fe.id IN :ids AND fe.ownerNode = :node AND fe.status IN :statuses")
+    int renewLeases(@Param("ids") Collection<UUID> ids, @Param("node") String node,
+                    @Param("statuses") Collection<ExecutionStatus> statuses, @Param("until") LocalDateTime until);
+
+    // Of the given flow executions, those no longer running under the given node's lease
+    @Query("SELECT fe.id FROM FlowExecution fe WHERE fe.id IN :ids " +
+           "AND (fe.ownerNode IS NULL OR fe.ownerNode <> :node OR fe.status NOT IN :statuses)")
+    List<UUID> findReleasedLeases(@Param("ids") Collection<UUID> ids, @Param("node") String node,
+                                  @Param("statuses") Collection<ExecutionStatus> statuses);
+
+    // Start and end times of the most recently finished flow executions, newest first
+    @Query("SELECT fe.startTime, fe.endTime FROM FlowExecution fe " +
+           "WHERE fe.startTime IS NOT NULL AND fe.endTime IS NOT NULL ORDER BY fe.endTime DESC")
+    List<Object[]> findRecentRunTimes(Pageable pageable);
     
     @Query("SELECT AVG(FUNCTION('TIMESTAMPDIFF', MINUTE, fe.startTime, fe.endTime)) FROM FlowExecution fe WHERE fe.endTime IS NOT NULL")
     List<Object[]> findAverageExecutionTime();
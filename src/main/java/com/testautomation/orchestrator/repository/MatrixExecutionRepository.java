@@ -0,0 +1,22 @@
+package com.testautomation.orchestrator.repository;
+
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.model.MatrixExecution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface MatrixExecutionRepository extends JpaRepository<MatrixExecution, UUID> {
+
+    // Finishes a running matrix execution; returns 0 when another variant's completion finished it first
+    @Modifying
+    @Query("UPDATE MatrixExecution m SET m.status = :status, m.endTime = :endTime " +
+           "WHERE m.id = :id AND m.status = 'RUNNING'")
+    int finish(@Param("id") UUID id, @Param("status") ExecutionStatus status, @Param("endTime") LocalDateTime endTime);
+}
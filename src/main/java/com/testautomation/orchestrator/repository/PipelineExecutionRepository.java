@@ -29,6 +29,10 @@ public interface PipelineExecutionRepository extends JpaRepository<PipelineExecu
     List<PipelineExecution> findByFlowExecutionIdOrderByCreatedAt(UUID flowExecutionId);
     
     List<PipelineExecution> findByStatus(ExecutionStatus status);
+
+    List<PipelineExecution> findByPipelineIdAndStatus(Long pipelineId, ExecutionStatus status);
+
+    List<PipelineExecution> findByPipelineIdAndTrailingStatus(Long pipelineId, String trailingStatus);
     
     List<PipelineExecution> findByFlowStepId(Long flowStepId);
     
@@ -54,6 +58,34 @@ public interface PipelineExecutionRepository extends JpaRepository<PipelineExecu
            "FROM PipelineExecution pe")
     List<Object[]> findTopFailingBranches(@Param("limit") int limit);
     
+    // Reused results did not run and finish instantly, which would pull the estimates towards zero
+    @Query("SELECT pe.startTime, pe.endTime FROM PipelineExecution pe " +
+           "WHERE pe.flowStepId = :flowStepId AND pe.status = 'PASSED' AND pe.reusedFromPipelineExecutionId IS NULL " +
+           "AND pe.startTime IS NOT NULL AND pe.endTime IS NOT NULL ORDER BY pe.endTime DESC")
+    List<Object[]> findRecentRunTimesByFlowStepId(@Param("flowStepId") Long flowStepId, Pageable pageable);
+    
+    // Pipeline executions whose GitLab pipeline is currently triggered or running, per application,
+    // among the flow executions leased to the given node
+    @Query("SELECT pe.id FROM PipelineExecution pe, FlowStep fs, FlowExecution fe WHERE fs.id = pe.flowStepId " +
+           "AND fe.id = pe.flowExecutionId AND fe.ownerNode = :nodeId " +
+           "AND fs.applicationId = :applicationId AND pe.status = 'RUNNING' " +
+           "AND (pe.phase IS NULL OR pe.phase IN ('TRIGGERED', 'RUNNING'))")
+    List<Long> findActiveIdsByApplicationId(@Param("applicationId") Long applicationId, @Param("nodeId") String nodeId);
+
+    @Query("SELECT pe.id FROM PipelineExecution pe, FlowStep fs, FlowExecution fe WHERE fs.id = pe.flowStepId " +
+           "AND fe.id = pe.flowExecutionId AND fe.ownerNode = :nodeId " +
+           "AND fs.applicationId = :applicationId AND fs.branch = :branch AND pe.status = 'RUNNING' " +
+           "AND (pe.phase IS NULL OR pe.phase IN ('TRIGGERED', 'RUNNING'))")
+    List<Long> findActiveIdsByApplicationIdAndBranch(@Param("applicationId") Long applicationId, @Param("branch") String branch,
+                                                     @Param("nodeId") String nodeId);
+    
+    // Most recent passed run of the same inputs that actually ran a pipeline (memoization source)
+    @Query("SELECT pe FROM PipelineExecution pe WHERE pe.inputFingerprint = :inputFingerprint " +
+           "AND pe.status = 'PASSED' AND pe.endTime >= :since AND pe.reusedFromPipelineExecutionId IS NULL " +
+           "ORDER BY pe.endTime DESC")
+    List<PipelineExecution> findReusableByInputFingerprint(@Param("inputFingerprint") String inputFingerprint,
+                                                           @Param("since") LocalDateTime since, Pageable pageable);
+    
     // Methods to support replay functionality
     List<PipelineExecution> findByOriginalFlowExecutionId(UUID originalFlowExecutionId);
     
@@ -65,4 +97,7 @@ public interface PipelineExecutionRepository extends JpaRepository<PipelineExecu
     
     // Method to find scheduled executions ready to resume
     List<PipelineExecution> findByStatusAndResumeTimeBefore(ExecutionStatus status, LocalDateTime resumeTime);
+
+    // Scheduled executions with a pending resume timer
+    List<PipelineExecution> findByStatusAndResumeTimeIsNotNull(ExecutionStatus status);
 }
@@ -130,6 +130,8 @@ public class ApplicationService {
         existingApplication.setPersonalAccessToken(encryptionService.encrypt(applicationDto.getPersonalAccessToken()));
         existingApplication.setApplicationName(applicationDto.getApplicationName());
         existingApplication.setApplicationDescription(applicationDto.getApplicationDescription());
+        existingApplication.setMaxConcurrentPipelines(applicationDto.getMaxConcurrentPipelines());
+        existingApplication.setMaxConcurrentPipelinesPerBranch(applicationDto.getMaxConcurrentPipelinesPerBranch());
         
         Application updatedApplication = applicationRepository.save(existingApplication);
         
@@ -306,6 +308,8 @@ public class ApplicationService {
         application.setApplicationDescription(dto.getApplicationDescription());
         application.setProjectName(dto.getProjectName());
         application.setProjectUrl(dto.getProjectUrl());
+        application.setMaxConcurrentPipelines(dto.getMaxConcurrentPipelines());
+        application.setMaxConcurrentPipelinesPerBranch(dto.getMaxConcurrentPipelinesPerBranch());
         // Set default token status as ACTIVE for new applications
         if (dto.getTokenStatus() != null) {
             application.setTokenStatus(dto.getTokenStatus());
@@ -325,6 +329,8 @@ public class ApplicationService {
         dto.setProjectUrl(entity.getProjectUrl());
         dto.setTokenStatus(entity.getTokenStatus());
         dto.setTokenValidationLastUpdateDate(entity.getTokenValidationLastUpdateDate());
+        dto.setMaxConcurrentPipelines(entity.getMaxConcurrentPipelines());
+        dto.setMaxConcurrentPipelinesPerBranch(entity.getMaxConcurrentPipelinesPerBranch());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setUpdatedAt(entity.getUpdatedAt());
         return dto;
@@ -0,0 +1,71 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.model.ClusterLock;
+import com.testautomation.orchestrator.repository.ClusterLockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Cluster-wide mutual exclusion for work that must run on one orchestrator node at a time.
+ *
+ * A lock is a row of the cluster_locks table, locked with SELECT ... FOR UPDATE SKIP LOCKED inside the
+ * caller's transaction. A node that finds the row locked skips the work instead of waiting, and the
+ * lock is released when the transaction ends, also when the node dies mid-way.
+ */
+@Service
+public class ClusterLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterLockService.class);
+
+    public static final String EXECUTION_ADMISSION = "execution-admission";
+
+    public static final String TOKEN_VALIDATION = "token-validation";
+
+    private static final List<String> LOCK_NAMES = List.of(EXECUTION_ADMISSION, TOKEN_VALIDATION);
+
+    @Autowired
+    private ClusterLockRepository clusterLockRepository;
+
+    /**
+     * Create the lock rows once; nodes starting at the same time may race on the insert
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void createLocks() {
+        for (String name : LOCK_NAMES) {
+            if (clusterLockRepository.existsById(name)) {
+                continue;
+            }
+            try {
+                clusterLockRepository.save(new ClusterLock(name));
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("Cluster lock {} was created by another node", name);
+            }
+        }
+    }
+
+    /**
+     * Take the named lock for the rest of the current transaction.
+     *
+     * @return false when another node holds it
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryLock(String name) {
+        boolean locked = !clusterLockRepository.tryLock(name).isEmpty();
+        if (!locked) {
+            logger.debug("Cluster lock {} is held by another node", name);
+        }
+        return locked;
+    }
+}
@@ -6,6 +6,7 @@ import com.testautomation.orchestrator.repository.ApplicationRepository;
 import com.testautomation.orchestrator.repository.FlowRepository;
 import com.testautomation.orchestrator.repository.FlowStepRepository;
 import com.testautomation.orchestrator.repository.TestDataRepository;
+import com.testautomation.orchestrator.util.FlowStepGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -59,10 +60,16 @@ public class CombinedFlowService {
             flowStep.setBranch(stepDto.getBranch());
             flowStep.setTestTag(stepDto.getTestTag());
             flowStep.setTestStage(stepDto.getTestStage());
+            flowStep.setMemoizable(stepDto.getMemoizable());
+            flowStep.setFailFast(stepDto.getFailFast());
+            flowStep.setProceedOnStageSuccess(stepDto.getProceedOnStageSuccess());
+            flowStep.setTimeoutMinutes(stepDto.getTimeoutMinutes());
+            flowStep.setRetryPolicy(convertRetryPolicyDtoToEntity(stepDto.getRetryPolicy()));
             flowStep.setDescription(stepDto.getDescription());
             flowStep.setSquashStepIds(stepDto.getSquashStepIds());
             flowStep.setTestDataIds(stepDto.getTestData() != null ? stepDto.getTestData() : new ArrayList<>());
             flowStep.setInvokeScheduler(convertInvokeSchedulerDtoToEntity(stepDto.getInvokeScheduler()));
+            flowStep.setDependsOnStepIds(resolveDependsOn(stepDto.getDependsOn(), flowStepIds));
             
             FlowStep savedFlowStep = flowStepRepository.save(flowStep);
             savedFlowSteps.add(savedFlowStep);
@@ -74,6 +81,7 @@ public class CombinedFlowService {
         flow.setFlowStepIds(flowStepIds);
         flow.setSquashTestCaseId(flowCreateDto.getSquashTestCaseId());
         flow.setSquashTestCase(flowCreateDto.getSquashTestCase());
+        flow.setTimeoutMinutes(flowCreateDto.getTimeoutMinutes());
         
         Flow savedFlow = flowRepository.save(flow);
         
@@ -108,10 +116,16 @@ public class CombinedFlowService {
             flowStep.setBranch(stepDto.getBranch());
             flowStep.setTestTag(stepDto.getTestTag());
             flowStep.setTestStage(stepDto.getTestStage());
+            flowStep.setMemoizable(stepDto.getMemoizable());
+            flowStep.setFailFast(stepDto.getFailFast());
+            flowStep.setProceedOnStageSuccess(stepDto.getProceedOnStageSuccess());
+            flowStep.setTimeoutMinutes(stepDto.getTimeoutMinutes());
+            flowStep.setRetryPolicy(convertRetryPolicyDtoToEntity(stepDto.getRetryPolicy()));
             flowStep.setDescription(stepDto.getDescription());
             flowStep.setSquashStepIds(stepDto.getSquashStepIds());
             flowStep.setTestDataIds(stepDto.getTestData() != null ? stepDto.getTestData() : new ArrayList<>());
             flowStep.setInvokeScheduler(convertInvokeSchedulerDtoToEntity(stepDto.getInvokeScheduler()));
+            flowStep.setDependsOnStepIds(resolveDependsOn(stepDto.getDependsOn(), newFlowStepIds));
             
             FlowStep savedFlowStep = flowStepRepository.save(flowStep);
             newFlowSteps.add(savedFlowStep);
@@ -122,6 +136,7 @@ public class CombinedFlowService {
         existingFlow.setFlowStepIds(newFlowStepIds);
         existingFlow.setSquashTestCaseId(flowCreateDto.getSquashTestCaseId());
         existingFlow.setSquashTestCase(flowCreateDto.getSquashTestCase());
+        existingFlow.setTimeoutMinutes(flowCreateDto.getTimeoutMinutes());
         
         Flow updatedFlow = flowRepository.save(existingFlow);
         
@@ -148,10 +163,16 @@ public class CombinedFlowService {
             flowStep.setBranch(stepDto.getBranch());
             flowStep.setTestTag(stepDto.getTestTag());
             flowStep.setTestStage(stepDto.getTestStage());
+            flowStep.setMemoizable(stepDto.getMemoizable());
+            flowStep.setFailFast(stepDto.getFailFast());
+            flowStep.setProceedOnStageSuccess(stepDto.getProceedOnStageSuccess());
+            flowStep.setTimeoutMinutes(stepDto.getTimeoutMinutes());
+            flowStep.setRetryPolicy(convertRetryPolicyDtoToEntity(stepDto.getRetryPolicy()));
             flowStep.setDescription(stepDto.getDescription());
             flowStep.setSquashStepIds(stepDto.getSquashStepIds());
             flowStep.setTestDataIds(testDataIds);
             flowStep.setInvokeScheduler(convertInvokeSchedulerDtoToEntity(stepDto.getInvokeScheduler()));
+            flowStep.setDependsOnStepIds(resolveDependsOn(stepDto.getDependsOn(), flowStepIds));
             
             FlowStep savedFlowStep = flowStepRepository.save(flowStep);
             savedFlowSteps.add(savedFlowStep);
@@ -163,6 +184,7 @@ public class CombinedFlowService {
         flow.setFlowStepIds(flowStepIds);
         flow.setSquashTestCaseId(combinedFlowDto.getSquashTestCaseId());
         flow.setSquashTestCase(combinedFlowDto.getSquashTestCase());
+        flow.setTimeoutMinutes(combinedFlowDto.getTimeoutMinutes());
         
         Flow savedFlow = flowRepository.save(flow);
         
@@ -258,10 +280,16 @@ public class CombinedFlowService {
             flowStep.setBranch(stepDto.getBranch());
             flowStep.setTestTag(stepDto.getTestTag());
             flowStep.setTestStage(stepDto.getTestStage());
+            flowStep.setMemoizable(stepDto.getMemoizable());
+            flowStep.setFailFast(stepDto.getFailFast());
+            flowStep.setProceedOnStageSuccess(stepDto.getProceedOnStageSuccess());
+            flowStep.setTimeoutMinutes(stepDto.getTimeoutMinutes());
+            flowStep.setRetryPolicy(convertRetryPolicyDtoToEntity(stepDto.getRetryPolicy()));
             flowStep.setDescription(stepDto.getDescription());
             flowStep.setSquashStepIds(stepDto.getSquashStepIds());
             flowStep.setTestDataIds(testDataIds);
             flowStep.setInvokeScheduler(convertInvokeSchedulerDtoToEntity(stepDto.getInvokeScheduler()));
+            flowStep.setDependsOnStepIds(resolveDependsOn(stepDto.getDependsOn(), newFlowStepIds));
             
             FlowStep savedFlowStep = flowStepRepository.save(flowStep);
             newFlowSteps.add(savedFlowStep);
@@ -272,6 +300,7 @@ public class CombinedFlowService {
         existingFlow.setFlowStepIds(newFlowStepIds);
         existingFlow.setSquashTestCaseId(combinedFlowDto.getSquashTestCaseId());
         existingFlow.setSquashTestCase(combinedFlowDto.getSquashTestCase());
+        existingFlow.setTimeoutMinutes(combinedFlowDto.getTimeoutMinutes());
         
         Flow updatedFlow = flowRepository.save(existingFlow);
         
@@ -368,6 +397,7 @@ public class CombinedFlowService {
         dto.setId(flow.getId());
         dto.setSquashTestCaseId(flow.getSquashTestCaseId());
         dto.setSquashTestCase(flow.getSquashTestCase());
+        dto.setTimeoutMinutes(flow.getTimeoutMinutes());
         dto.setCreatedAt(flow.getCreatedAt());
         dto.setUpdatedAt(flow.getUpdatedAt());
         
@@ -376,10 +406,33 @@ public class CombinedFlowService {
                 .map(this::convertFlowStepToDto)
                 .collect(Collectors.toList());
         
+        // Dependencies are exposed as positions in the flow, like they are declared
+        for (int i = 0; i < flowSteps.size(); i++) {
+            List<Long> dependsOnStepIds = flowSteps.get(i).getDependsOnStepIds();
+            if (dependsOnStepIds != null) {
+                flowStepDtos.get(i).setDependsOn(dependsOnStepIds.stream()
+                        .map(stepId -> flow.getFlowStepIds().indexOf(stepId))
+                        .collect(Collectors.toList()));
+            }
+        }
+        
         dto.setFlowSteps(flowStepDtos);
         return dto;
     }
 
+    /**
+     * Turn dependencies declared as positions of earlier steps into the ids of those steps
+     */
+    private List<Long> resolveDependsOn(List<Integer> dependsOn, List<Long> earlierStepIds) {
+        if (dependsOn == null) {
+            return null;
+        }
+        FlowStepGraph.validateIndices(earlierStepIds.size(), dependsOn);
+        return dependsOn.stream()
+                .map(earlierStepIds::get)
+                .collect(Collectors.toList());
+    }
+
     private CombinedFlowStepDto convertFlowStepToDto(FlowStep flowStep) {
         CombinedFlowStepDto dto = new CombinedFlowStepDto();
         dto.setId(flowStep.getId());
@@ -387,6 +440,11 @@ public class CombinedFlowService {
         dto.setBranch(flowStep.getBranch());
         dto.setTestTag(flowStep.getTestTag());
         dto.setTestStage(flowStep.getTestStage());
+        dto.setMemoizable(flowStep.getMemoizable());
+        dto.setFailFast(flowStep.getFailFast());
+        dto.setProceedOnStageSuccess(flowStep.getProceedOnStageSuccess());
+        dto.setTimeoutMinutes(flowStep.getTimeoutMinutes());
+        dto.setRetryPolicy(convertRetryPolicyEntityToDto(flowStep.getRetryPolicy()));
         dto.setDescription(flowStep.getDescription());
         dto.setSquashStepIds(flowStep.getSquashStepIds());
         dto.setInvokeScheduler(convertInvokeSchedulerEntityToDto(flowStep.getInvokeScheduler()));
@@ -443,4 +501,16 @@ public class CombinedFlowService {
         
         return dto;
     }
+
+    private com.testautomation.orchestrator.model.StepRetryPolicy convertRetryPolicyDtoToEntity(com.testautomation.orchestrator.dto.RetryPolicyDto dto) {
+        if (dto == null) return null;
+        return new com.testautomation.orchestrator.model.StepRetryPolicy(dto.getMaxAttempts(), dto.getInitialBackoffMs(),
+                                                                         dto.getMaxBackoffMs(), dto.getRetryableStatuses());
+    }
+
+    private com.testautomation.orchestrator.dto.RetryPolicyDto convertRetryPolicyEntityToDto(com.testautomation.orchestrator.model.StepRetryPolicy entity) {
+        if (entity == null) return null;
+        return new com.testautomation.orchestrator.dto.RetryPolicyDto(entity.getMaxAttempts(), entity.getInitialBackoffMs(),
+                                                                     entity.getMaxBackoffMs(), entity.getRetryableStatuses());
+    }
 }
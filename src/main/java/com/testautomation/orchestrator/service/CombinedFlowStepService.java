@@ -61,6 +61,11 @@ public class CombinedFlowStepService {
         flowStep.setBranch(flowStepCreateDto.getBranch());
         flowStep.setTestTag(flowStepCreateDto.getTestTag());
         flowStep.setTestStage(flowStepCreateDto.getTestStage());
+        flowStep.setMemoizable(flowStepCreateDto.getMemoizable());
+        flowStep.setFailFast(flowStepCreateDto.getFailFast());
+        flowStep.setProceedOnStageSuccess(flowStepCreateDto.getProceedOnStageSuccess());
+        flowStep.setTimeoutMinutes(flowStepCreateDto.getTimeoutMinutes());
+        flowStep.setRetryPolicy(convertRetryPolicyDtoToEntity(flowStepCreateDto.getRetryPolicy()));
         flowStep.setDescription(flowStepCreateDto.getDescription());
         flowStep.setSquashStepIds(flowStepCreateDto.getSquashStepIds());
         flowStep.setTestDataIds(flowStepCreateDto.getTestData() != null ? flowStepCreateDto.getTestData() : new ArrayList<>());
@@ -102,6 +107,11 @@ public class CombinedFlowStepService {
         existingFlowStep.setBranch(flowStepCreateDto.getBranch());
         existingFlowStep.setTestTag(flowStepCreateDto.getTestTag());
         existingFlowStep.setTestStage(flowStepCreateDto.getTestStage());
+        existingFlowStep.setMemoizable(flowStepCreateDto.getMemoizable());
+        existingFlowStep.setFailFast(flowStepCreateDto.getFailFast());
+        existingFlowStep.setProceedOnStageSuccess(flowStepCreateDto.getProceedOnStageSuccess());
+        existingFlowStep.setTimeoutMinutes(flowStepCreateDto.getTimeoutMinutes());
+        existingFlowStep.setRetryPolicy(convertRetryPolicyDtoToEntity(flowStepCreateDto.getRetryPolicy()));
         existingFlowStep.setDescription(flowStepCreateDto.getDescription());
         existingFlowStep.setSquashStepIds(flowStepCreateDto.getSquashStepIds());
         existingFlowStep.setTestDataIds(flowStepCreateDto.getTestData() != null ? flowStepCreateDto.getTestData() : new ArrayList<>());
@@ -136,6 +146,11 @@ public class CombinedFlowStepService {
         flowStep.setBranch(flowStepDto.getBranch());
         flowStep.setTestTag(flowStepDto.getTestTag());
         flowStep.setTestStage(flowStepDto.getTestStage());
+        flowStep.setMemoizable(flowStepDto.getMemoizable());
+        flowStep.setFailFast(flowStepDto.getFailFast());
+        flowStep.setProceedOnStageSuccess(flowStepDto.getProceedOnStageSuccess());
+        flowStep.setTimeoutMinutes(flowStepDto.getTimeoutMinutes());
+        flowStep.setRetryPolicy(convertRetryPolicyDtoToEntity(flowStepDto.getRetryPolicy()));
         flowStep.setDescription(flowStepDto.getDescription());
         flowStep.setSquashStepIds(flowStepDto.getSquashStepIds());
         flowStep.setTestDataIds(testDataIds);
@@ -215,6 +230,11 @@ public class CombinedFlowStepService {
         existingFlowStep.setBranch(flowStepDto.getBranch());
         existingFlowStep.setTestTag(flowStepDto.getTestTag());
         existingFlowStep.setTestStage(flowStepDto.getTestStage());
+        existingFlowStep.setMemoizable(flowStepDto.getMemoizable());
+        existingFlowStep.setFailFast(flowStepDto.getFailFast());
+        existingFlowStep.setProceedOnStageSuccess(flowStepDto.getProceedOnStageSuccess());
+        existingFlowStep.setTimeoutMinutes(flowStepDto.getTimeoutMinutes());
+        existingFlowStep.setRetryPolicy(convertRetryPolicyDtoToEntity(flowStepDto.getRetryPolicy()));
         existingFlowStep.setDescription(flowStepDto.getDescription());
         existingFlowStep.setSquashStepIds(flowStepDto.getSquashStepIds());
         existingFlowStep.setTestDataIds(newTestDataIds);
@@ -261,6 +281,11 @@ public class CombinedFlowStepService {
         dto.setBranch(flowStep.getBranch());
         dto.setTestTag(flowStep.getTestTag());
         dto.setTestStage(flowStep.getTestStage());
+        dto.setMemoizable(flowStep.getMemoizable());
+        dto.setFailFast(flowStep.getFailFast());
+        dto.setProceedOnStageSuccess(flowStep.getProceedOnStageSuccess());
+        dto.setTimeoutMinutes(flowStep.getTimeoutMinutes());
+        dto.setRetryPolicy(convertRetryPolicyEntityToDto(flowStep.getRetryPolicy()));
         dto.setDescription(flowStep.getDescription());
         dto.setSquashStepIds(flowStep.getSquashStepIds());
         dto.setCreatedAt(flowStep.getCreatedAt());
@@ -317,4 +342,16 @@ public class CombinedFlowStepService {
         
         return dto;
     }
+
+    private com.testautomation.orchestrator.model.StepRetryPolicy convertRetryPolicyDtoToEntity(com.testautomation.orchestrator.dto.RetryPolicyDto dto) {
+        if (dto == null) return null;
+        return new com.testautomation.orchestrator.model.StepRetryPolicy(dto.getMaxAttempts(), dto.getInitialBackoffMs(),
+                                                                         dto.getMaxBackoffMs(), dto.getRetryableStatuses());
+    }
+
+    private com.testautomation.orchestrator.dto.RetryPolicyDto convertRetryPolicyEntityToDto(com.testautomation.orchestrator.model.StepRetryPolicy entity) {
+        if (entity == null) return null;
+        return new com.testautomation.orchestrator.dto.RetryPolicyDto(entity.getMaxAttempts(), entity.getInitialBackoffMs(),
+                                                                     entity.getMaxBackoffMs(), entity.getRetryableStatuses());
+    }
 }
@@ -0,0 +1,123 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.event.DeadlineExceededEvent;
+import com.testautomation.orchestrator.event.FlowExecutionFinishedEvent;
+import com.testautomation.orchestrator.model.Flow;
+import com.testautomation.orchestrator.model.FlowExecution;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Central timer for step and flow timeouts.
+ *
+ * A step's deadline runs from the time its pipeline was triggered, a flow's from the start of the
+ * execution; both are derived from persisted start times, so re-arming them after a restart or a
+ * takeover gives the same deadline. Each deadline is a single entry in the shared scheduler's delay
+ * queue, and reaching it publishes a {@link DeadlineExceededEvent} for the engine, which cancels the
+ * GitLab pipelines and fails the step or flow. Timeouts come from FlowStep.timeoutMinutes and
+ * Flow.timeoutMinutes, falling back to the configured defaults (0 = no limit).
+ */
+@Service
+public class DeadlineScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineScheduler.class);
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    @Qualifier("taskScheduler")
+    private TaskScheduler taskScheduler;
+
+    @Value("${flow-execution.timeouts.default-step-timeout-minutes:0}")
+    private int defaultStepTimeoutMinutes;
+
+    @Value("${flow-execution.timeouts.default-flow-timeout-minutes:0}")
+    private int defaultFlowTimeoutMinutes;
+
+    // Pending deadlines by pipeline execution and by flow execution
+    private final Map<Long, ScheduledFuture<?>> stepDeadlines = new ConcurrentHashMap<>();
+    private final Map<UUID, ScheduledFuture<?>> flowDeadlines = new ConcurrentHashMap<>();
+
+    /**
+     * Arm the deadline of a triggered step, unless it has no timeout or is already armed
+     */
+    public void armStepDeadline(PipelineExecution pipelineExecution, FlowStep step) {
+        Integer timeoutMinutes = effectiveTimeout(step.getTimeoutMinutes(), defaultStepTimeoutMinutes);
+        if (timeoutMinutes == null || pipelineExecution.getStartTime() == null) {
+            return;
+        }
+        Long pipelineExecutionId = pipelineExecution.getId();
+        UUID flowExecutionId = pipelineExecution.getFlowExecutionId();
+        Instant deadline = toInstant(pipelineExecution.getStartTime().plusMinutes(timeoutMinutes));
+        stepDeadlines.computeIfAbsent(pipelineExecutionId, id -> taskScheduler.schedule(() -> {
+            stepDeadlines.remove(pipelineExecutionId);
+            logger.warn("Pipeline execution {} exceeded its {} minute timeout", pipelineExecutionId, timeoutMinutes);
+            eventPublisher.publishEvent(new DeadlineExceededEvent(flowExecutionId, pipelineExecutionId, timeoutMinutes));
+        }, deadline));
+    }
+
+    /**
+     * Arm the deadline of a running flow execution, unless it has no timeout or is already armed
+     */
+    public void armFlowDeadline(FlowExecution flowExecution, Flow flow) {
+        Integer timeoutMinutes = effectiveTimeout(flow.getTimeoutMinutes(), defaultFlowTimeoutMinutes);
+        if (timeoutMinutes == null || flowExecution.getStartTime() == null) {
+            return;
+        }
+        UUID flowExecutionId = flowExecution.getId();
+        Instant deadline = toInstant(flowExecution.getStartTime().plusMinutes(timeoutMinutes));
+        flowDeadlines.computeIfAbsent(flowExecutionId, id -> taskScheduler.schedule(() -> {
+            flowDeadlines.remove(flowExecutionId);
+            logger.warn("Flow execution {} exceeded its {} minute timeout", flowExecutionId, timeoutMinutes);
+            eventPublisher.publishEvent(new DeadlineExceededEvent(flowExecutionId, null, timeoutMinutes));
+        }, deadline));
+    }
+
+    public void cancelStepDeadline(Long pipelineExecutionId) {
+        ScheduledFuture<?> deadline = stepDeadlines.remove(pipelineExecutionId);
+        if (deadline != null) {
+            deadline.cancel(false);
+        }
+    }
+
+    public void cancelFlowDeadline(UUID flowExecutionId) {
+        ScheduledFuture<?> deadline = flowDeadlines.remove(flowExecutionId);
+        if (deadline != null) {
+            deadline.cancel(false);
+        }
+    }
+
+    @EventListener
+    public void onFlowExecutionFinished(FlowExecutionFinishedEvent event) {
+        cancelFlowDeadline(event.getFlowExecutionId());
+    }
+
+    private static Integer effectiveTimeout(Integer timeoutMinutes, int defaultTimeoutMinutes) {
+        if (timeoutMinutes != null && timeoutMinutes > 0) {
+            return timeoutMinutes;
+        }
+        return defaultTimeoutMinutes > 0 ? defaultTimeoutMinutes : null;
+    }
+
+    private static Instant toInstant(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,207 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.dto.ExecutionQueueEntryDto;
+import com.testautomation.orchestrator.dto.FlowExecutionDto;
+import com.testautomation.orchestrator.dto.MatrixExecutionCreateDto;
+import com.testautomation.orchestrator.dto.MatrixExecutionDto;
+import com.testautomation.orchestrator.event.FlowExecutionFinishedEvent;
+import com.testautomation.orchestrator.model.ExecutionQueueEntry;
+import com.testautomation.orchestrator.model.MatrixExecution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accepts every flow execution request into the {@link ExecutionQueueService} queue and starts queued
+ * executions as capacity frees up: right after a request is queued, whenever a flow execution finishes,
+ * and on a periodic tick that also picks up requests left over from before a restart.
+ *
+ * Every orchestrator node runs the tick; {@link ExecutionQueueService#admitAll} takes a cluster-wide
+ * lock so only one node admits at a time, and the admitted flow executions are leased to that node.
+ */
+@Service
+public class ExecutionAdmissionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionAdmissionService.class);
+
+    @Autowired
+    private ExecutionQueueService executionQueueService;
+
+    @Autowired
+    private FlowExecutionService flowExecutionService;
+
+    @Autowired
+    private MatrixExecutionService matrixExecutionService;
+
+    @Autowired
+    @Qualifier("taskScheduler")
+    private TaskScheduler taskScheduler;
+
+    @Value("${flow-execution.admission.max-attempts:3}")
+    private int maxAttempts;
+
+    private final Object admissionLock = new Object();
+
+    // Queue entry id -> failed admission attempts on this node
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    public Map<String, Object> submit(String flowIdsParam, int priority) {
+        logger.info("Processing multiple flow execution request: {} with priority {}", flowIdsParam, priority);
+
+        List<Long> flowIds = flowExecutionService.parseAndValidateFlowIds(flowIdsParam);
+
+        List<Long> entryIds = new ArrayList<>();
+        List<Map<String, Object>> rejected = new ArrayList<>();
+        for (Long flowId : flowIds) {
+            try {
+                ExecutionQueueEntry entry = executionQueueService.enqueue(flowId, priority);
+                entryIds.add(entry.getId());
+            } catch (IllegalArgumentException e) {
+                logger.error("Flow {} rejected: {}", flowId, e.getMessage());
+                Map<String, Object> rejectedFlow = new HashMap<>();
+                rejectedFlow.put("flowId", flowId);
+                rejectedFlow.put("status", "rejected");
+                rejectedFlow.put("reason", "flow_not_found");
+                rejectedFlow.put("message", e.getMessage());
+                rejected.add(rejectedFlow);
+            }
+        }
+
+        // Start whatever fits right away; the rest waits in the queue
+        Map<Long, FlowExecutionDto> admitted = admitQueued();
+
+        List<FlowExecutionDto> accepted = new ArrayList<>();
+        List<Long> waitingEntryIds = new ArrayList<>();
+        for (Long entryId : entryIds) {
+            if (admitted.containsKey(entryId)) {
+                accepted.add(admitted.get(entryId));
+            } else {
+                waitingEntryIds.add(entryId);
+            }
+        }
+        List<ExecutionQueueEntryDto> queued = executionQueueService.getQueueEntries(waitingEntryIds);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("summary", Map.of(
+            "total_requested", flowIds.size(),
+            "accepted", accepted.size(),
+            "queued", queued.size(),
+            "rejected", rejected.size()
+        ));
+        result.put("accepted", accepted);
+        result.put("queued", queued);
+        result.put("rejected", rejected);
+        result.put("queue_status", executionQueueService.getQueueStatus());
+
+        logger.info("Multiple flow execution request processed - Accepted: {}, Queued: {}, Rejected: {}",
+                   accepted.size(), queued.size(), rejected.size());
+        return result;
+    }
+
+    /**
+     * Queue one flow execution per variant of a matrix execution and start whatever fits right away
+     */
+    public MatrixExecutionDto submitMatrix(Long flowId, MatrixExecutionCreateDto createDto, int priority) {
+        MatrixExecution matrixExecution = matrixExecutionService.createMatrixExecution(flowId, createDto, priority);
+        admitQueued();
+        return matrixExecutionService.getMatrixExecution(matrixExecution.getId());
+    }
+
+    @Scheduled(fixedDelayString = "${flow-execution.admission.tick-interval:10000}")
+    public void admitQueuedScheduled() {
+        admitQueued();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlowExecutionFinished(FlowExecutionFinishedEvent event) {
+        // A slot was freed once the engine's transition committed; admit outside of it
+        taskScheduler.schedule(() -> {
+            completeMatrixExecution(event.getFlowExecutionId());
+            admitQueued();
+        }, Instant.now());
+    }
+
+    /**
+     * Admit queued entries into the free execution slots and hand them to the engine.
+     *
+     * @return queue entry id -> created flow execution, for the entries admitted by this call
+     */
+    Map<Long, FlowExecutionDto> admitQueued() {
+        synchronized (admissionLock) {
+            List<Long> entryIds = executionQueueService.findAdmissibleEntryIds();
+            if (entryIds.isEmpty()) {
+                return new LinkedHashMap<>();
+            }
+
+            Map<Long, FlowExecutionDto> admitted;
+            try {
+                admitted = executionQueueService.admitAll(entryIds);
+            } catch (Exception e) {
+                // Nothing of the batch was admitted; admit entry by entry so one bad flow cannot block the rest
+                logger.warn("Bulk admission of {} queue entries failed, admitting them one by one: {}", entryIds.size(), e.getMessage());
+                admitted = admitEach(entryIds);
+            }
+
+            admitted.values().forEach(execution -> flowExecutionService.executeFlowAsync(execution.getId()));
+            if (!admitted.isEmpty()) {
+                logger.info("Admitted {} queued flow execution(s)", admitted.size());
+            }
+            return admitted;
+        }
+    }
+
+    private void completeMatrixExecution(UUID flowExecutionId) {
+        try {
+            matrixExecutionService.completeForFlowExecution(flowExecutionId);
+        } catch (Exception e) {
+            // The matrix execution is completed when its next variant finishes
+            logger.error("Failed to update the matrix execution of flow execution {}: {}", flowExecutionId, e.getMessage(), e);
+        }
+    }
+
+    private Map<Long, FlowExecutionDto> admitEach(List<Long> entryIds) {
+        Map<Long, FlowExecutionDto> admitted = new LinkedHashMap<>();
+        for (Long entryId : entryIds) {
+            try {
+                FlowExecutionDto execution = executionQueueService.admit(entryId);
+                failedAttempts.remove(entryId);
+                if (execution != null) {
+                    admitted.put(entryId, execution);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to admit queue entry {}: {}", entryId, e.getMessage(), e);
+                recordFailedAttempt(entryId, e);
+            }
+        }
+        return admitted;
+    }
+
+    private void recordFailedAttempt(Long entryId, Exception cause) {
+        int attempts = failedAttempts.merge(entryId, 1, Integer::sum);
+        if (attempts < maxAttempts) {
+            // The entry stays queued and is retried on the next pass
+            return;
+        }
+        failedAttempts.remove(entryId);
+        try {
+            executionQueueService.fail(entryId, "Admission failed " + attempts + " times: " + cause.getMessage());
+        } catch (Exception e) {
+            logger.error("Failed to mark queue entry {} as failed: {}", entryId, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.dto.ExecutionQueueEntryDto;
+import com.testautomation.orchestrator.dto.FlowExecutionDto;
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.enums.QueueStatus;
+import com.testautomation.orchestrator.model.ExecutionQueueEntry;
+import com.testautomation.orchestrator.model.Flow;
+import com.testautomation.orchestrator.repository.ExecutionQueueRepository;
+import com.testautomation.orchestrator.repository.FlowExecutionRepository;
+import com.testautomation.orchestrator.repository.FlowRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Persisted admission queue for flow executions.
+ *
+ * Requests are stored in the execution_queue table and admitted in priority order while fewer than
+ * max-concurrent-flows flow executions are RUNNING, so queued requests survive restarts.
+ */
+@Service
+@Transactional
+public class ExecutionQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionQueueService.class);
+
+    private static final List<ExecutionStatus> RUNNING_STATUSES = List.of(ExecutionStatus.RUNNING, ExecutionStatus.IN_PROGRESS);
+
+    @Autowired
+    private ExecutionQueueRepository executionQueueRepository;
+
+    @Autowired
+    private FlowRepository flowRepository;
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private FlowExecutionService flowExecutionService;
+
+    @Autowired
+    private ClusterLockService clusterLockService;
+
+    @Autowired
+    private MatrixExecutionService matrixExecutionService;
+
+    @Value("${flow-execution.admission.max-concurrent-flows:20}")
+    private int maxConcurrentFlows;
+
+    @Value("${flow-execution.admission.history-size:50}")
+    private int historySize;
+
+    public ExecutionQueueEntry enqueue(Long flowId, int priority) {
+        if (!flowRepository.existsById(flowId)) {
+            throw new IllegalArgumentException("Flow not found with ID: " + flowId);
+        }
+        ExecutionQueueEntry entry = executionQueueRepository.save(new ExecutionQueueEntry(flowId, priority));
+        logger.info("Queued flow {} with priority {} as queue entry {}", flowId, priority, entry.getId());
+        return entry;
+    }
+
+    /**
+     * Queued entries that fit into the free execution slots, in admission order
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findAdmissibleEntryIds() {
+        int freeSlots = getFreeSlots();
+        if (freeSlots == 0) {
+            return Collections.emptyList();
+        }
+        return executionQueueRepository.findByStatusOrderByPriorityDescIdAsc(QueueStatus.QUEUED, PageRequest.of(0, freeSlots))
+                .stream()
+                .map(ExecutionQueueEntry::getId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Claim a queued entry and create its flow execution in the same transaction, so an entry is
+     * never admitted twice and is never lost. Returns null when the entry was not admitted.
+     */
+    public FlowExecutionDto admit(Long entryId) {
+        if (!clusterLockService.tryLock(ClusterLockService.EXECUTION_ADMISSION) || getFreeSlots() == 0) {
+            logger.debug("Queue entry {} not admitted: another node is admitting or no slot is free", entryId);
+            return null;
+        }
+        if (executionQueueRepository.claim(entryId, LocalDateTime.now()) == 0) {
+            logger.debug("Queue entry {} is no longer queued", entryId);
+            return null;
+        }
+        ExecutionQueueEntry entry = executionQueueRepository.findById(entryId)
+                .orElseThrow(() -> new IllegalArgumentException("Queue entry not found with ID: " + entryId));
+
+        if (!flowRepository.existsById(entry.getFlowId())) {
+            // The flow was deleted while its request was waiting
+            entry.setStatus(QueueStatus.FAILED);
+            entry.setMessage("Flow not found with ID: " + entry.getFlowId());
+            logger.warn("Queue entry {} failed: flow {} no longer exists", entryId, entry.getFlowId());
+            if (entry.getMatrixExecutionId() != null) {
+                matrixExecutionService.completeIfFinished(entry.getMatrixExecutionId());
+            }
+            return null;
+        }
+
+        FlowExecutionDto execution = flowExecutionService.createFlowExecutions(List.of(entry)).get(0);
+        entry.setFlowExecutionId(execution.getId());
+        logger.info("Admitted queue entry {} as flow execution {}", entryId, execution.getId());
+        return execution;
+    }
+
+    /**
+     * Give up on a queued entry whose flow execution cannot be created, so it does not block the
+     * queue forever. Does nothing when the entry was admitted in the meantime.
+     */
+    public void fail(Long entryId, String message) {
+        ExecutionQueueEntry entry = executionQueueRepository.findById(entryId)
+                .orElseThrow(() -> new IllegalArgumentException("Queue entry not found with ID: " + entryId));
+        if (entry.getStatus() != QueueStatus.QUEUED) {
+            return;
+        }
+        entry.setStatus(QueueStatus.FAILED);
+        entry.setMessage(message);
+        logger.warn("Queue entry {} failed: {}", entryId, message);
+        if (entry.getMatrixExecutionId() != null) {
+            matrixExecutionService.completeIfFinished(entry.getMatrixExecutionId());
+        }
+    }
+
+    /**
+     * Claim several queued entries and create all their flow executions in one transaction with bulk
+     * inserts (see {@link FlowExecutionService#createFlowExecutions}). If anything fails nothing is
+     * admitted, and the caller can fall back to {@link #admit(Long)} per entry.
+     *
+     * Admission holds the cluster-wide admission lock, so with several orchestrator nodes only one
+     * admits at a time and the free slots are counted after the previous admission committed. A node
+     * that finds the lock taken admits nothing; its entries are picked up by the lock holder or a later pass.
+     *
+     * @return queue entry id -> created flow execution, in admission order
+     */
+    public Map<Long, FlowExecutionDto> admitAll(List<Long> entryIds) {
+        if (!clusterLockService.tryLock(ClusterLockService.EXECUTION_ADMISSION)) {
+            logger.debug("Another node is admitting queued flow executions");
+            return new LinkedHashMap<>();
+        }
+        // Slots may have been taken since the entries were picked, e.g. by another node
+        List<Long> admissibleIds = entryIds.subList(0, Math.min(entryIds.size(), getFreeSlots()));
+        if (admissibleIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ExecutionQueueEntry> claimed = new ArrayList<>();
+        for (ExecutionQueueEntry entry : executionQueueRepository.findAllById(admissibleIds)) {
+            if (executionQueueRepository.claim(entry.getId(), now) == 0) {
+                logger.debug("Queue entry {} is no longer queued", entry.getId());
+                continue;
+            }
+            claimed.add(entry);
+        }
+        claimed.sort(Comparator.comparing(entry -> admissibleIds.indexOf(entry.getId())));
+
+        Set<Long> existingFlowIds = flowRepository.findAllById(
+                        claimed.stream().map(ExecutionQueueEntry::getFlowId).collect(Collectors.toSet()))
+                .stream()
+                .map(Flow::getId)
+                .collect(Collectors.toSet());
+        List<ExecutionQueueEntry> admissible = new ArrayList<>();
+        Set<UUID> failedMatrixExecutionIds = new HashSet<>();
+        for (ExecutionQueueEntry entry : claimed) {
+            // The claim bypassed the persistence context, so the loaded entry is updated by hand
+            entry.setStatus(QueueStatus.ADMITTED);
+            entry.setAdmittedAt(now);
+            if (existingFlowIds.contains(entry.getFlowId())) {
+                admissible.add(entry);
+            } else {
+                // The flow was deleted while its request was waiting
+                entry.setStatus(QueueStatus.FAILED);
+                entry.setMessage("Flow not found with ID: " + entry.getFlowId());
+                logger.warn("Queue entry {} failed: flow {} no longer exists", entry.getId(), entry.getFlowId());
+                if (entry.getMatrixExecutionId() != null) {
+                    failedMatrixExecutionIds.add(entry.getMatrixExecutionId());
+                }
+            }
+        }
+        // No flow execution will finish for a failed variant, so its matrix execution is checked here
+        failedMatrixExecutionIds.forEach(matrixExecutionService::completeIfFinished);
+
+        List<FlowExecutionDto> executions = flowExecutionService.createFlowExecutions(admissible);
+        Map<Long, FlowExecutionDto> admitted = new LinkedHashMap<>();
+        for (int i = 0; i < admissible.size(); i++) {
+            ExecutionQueueEntry entry = admissible.get(i);
+            entry.setFlowExecutionId(executions.get(i).getId());
+            admitted.put(entry.getId(), executions.get(i));
+        }
+        logger.info("Admitted {} queue entries in bulk", admitted.size());
+        return admitted;
+    }
+
+    @Transactional(readOnly = true)
+    public ExecutionQueueEntryDto getQueueEntry(Long entryId) {
+        ExecutionQueueEntry entry = executionQueueRepository.findById(entryId)
+                .orElseThrow(() -> new IllegalArgumentException("Queue entry not found with ID: " + entryId));
+        return convertToDto(entry, getFreeSlots(), getAverageFlowDuration());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExecutionQueueEntryDto> getQueueEntries(List<Long> entryIds) {
+        int freeSlots = getFreeSlots();
+        Duration averageFlowDuration = getAverageFlowDuration();
+        return executionQueueRepository.findAllById(entryIds).stream()
+                .map(entry -> convertToDto(entry, freeSlots, averageFlowDuration))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * All queued entries in admission order
+     */
+    @Transactional(readOnly = true)
+    public List<ExecutionQueueEntryDto> getQueuedEntries() {
+        int freeSlots = getFreeSlots();
+        Duration averageFlowDuration = getAverageFlowDuration();
+        List<ExecutionQueueEntryDto> dtos = new ArrayList<>();
+        long position = 0;
+        for (ExecutionQueueEntry entry : executionQueueRepository.findByStatusOrderByPriorityDescIdAsc(QueueStatus.QUEUED)) {
+            ExecutionQueueEntryDto dto = convertToDto(entry, null, null);
+            dto.setPosition(++position);
+            dto.setEstimatedStartTime(estimateStartTime(position, freeSlots, averageFlowDuration));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getQueueStatus() {
+        return Map.of(
+            "running_flows", flowExecutionRepository.countByStatusIn(RUNNING_STATUSES),
+            "max_concurrent_flows", maxConcurrentFlows,
+            "queued", executionQueueRepository.countByStatus(QueueStatus.QUEUED)
+        );
+    }
+
+    private int getFreeSlots() {
+        // Admitted entries without a flow execution yet hold their slot as well
+        long running = flowExecutionRepository.countByStatusIn(RUNNING_STATUSES)
+                + executionQueueRepository.countByStatusAndFlowExecutionIdIsNull(QueueStatus.ADMITTED);
+        return (int) Math.max(0, maxConcurrentFlows - running);
+    }
+
+    /**
+     * Average duration of recently finished flow executions, or null without history
+     */
+    private Duration getAverageFlowDuration() {
+        List<Object[]> runTimes = flowExecutionRepository.findRecentRunTimes(PageRequest.of(0, historySize));
+        if (runTimes.isEmpty()) {
+            return null;
+        }
+        long totalMs = 0;
+        for (Object[] runTime : runTimes) {
+            totalMs += Math.max(0, Duration.between((LocalDateTime) runTime[0], (LocalDateTime) runTime[1]).toMillis());
+        }
+        return Duration.ofMillis(totalMs / runTimes.size());
+    }
+
+    /**
+     * Entries within the free slots start on the next admission pass; the others wait for whole
+     * "waves" of max-concurrent-flows executions to finish, each taking the average flow duration.
+     */
+    private LocalDateTime estimateStartTime(long position, int freeSlots, Duration averageFlowDuration) {
+        if (position <= freeSlots) {
+            return LocalDateTime.now();
+        }
+        if (averageFlowDuration == null || maxConcurrentFlows <= 0) {
+            return null;
+        }
+        long waves = (position - freeSlots + maxConcurrentFlows - 1) / maxConcurrentFlows;
+        return LocalDateTime.now().plus(averageFlowDuration.multipliedBy(waves));
+    }
+
+    private ExecutionQueueEntryDto convertToDto(ExecutionQueueEntry entry, Integer freeSlots, Duration averageFlowDuration) {
+        ExecutionQueueEntryDto dto = new ExecutionQueueEntryDto();
+        dto.setId(entry.getId());
+        dto.setFlowId(entry.getFlowId());
+        dto.setPriority(entry.getPriority());
+        dto.setStatus(entry.getStatus());
+        dto.setFlowExecutionId(entry.getFlowExecutionId());
+        dto.setMessage(entry.getMessage());
+        dto.setEnqueuedAt(entry.getEnqueuedAt());
+        dto.setAdmittedAt(entry.getAdmittedAt());
+        if (entry.getStatus() == QueueStatus.QUEUED && freeSlots != null) {
+            long position = executionQueueRepository.countQueuedAhead(entry.getPriority(), entry.getId()) + 1;
+            dto.setPosition(position);
+            dto.setEstimatedStartTime(estimateStartTime(position, freeSlots, averageFlowDuration));
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,89 @@
+package com.testautomation.orchestrator.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Resumes flow executions that no node is driving any more.
+ *
+ * On startup a node claims the RUNNING or IN_PROGRESS flow executions still leased to its own node id
+ * by the previous process, and on every takeover tick it claims a batch of flow executions whose lease
+ * expired because their node stopped (see {@link FlowExecutionLeaseService}). Each claimed flow is
+ * handed to the {@link FlowExecutionEngine}, which re-attaches its running pipelines by pipelineId and
+ * continues from the current step. Recoveries are spread evenly, with jitter, over the configured
+ * window so that a restart or a lost node with many live flows does not send a burst of requests to GitLab.
+ */
+@Service
+public class ExecutionRecoveryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionRecoveryService.class);
+
+    @Autowired
+    private FlowExecutionLeaseService flowExecutionLeaseService;
+
+    @Autowired
+    private FlowExecutionEngine flowExecutionEngine;
+
+    @Autowired
+    @Qualifier("taskScheduler")
+    private TaskScheduler taskScheduler;
+
+    @Value("${flow-execution.recovery.enabled:true}")
+    private boolean enabled;
+
+    @Value("${flow-execution.recovery.spread-interval:60000}")
+    private long spreadIntervalMs;
+
+    @Value("${flow-execution.cluster.takeover-batch-size:100}")
+    private int takeoverBatchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInFlightExecutions() {
+        if (!enabled) {
+            return;
+        }
+        recover(flowExecutionLeaseService.claimExpired(takeoverBatchSize, true));
+    }
+
+    /**
+     * Take over flow executions of nodes that stopped renewing their leases. Each node claims at most
+     * one batch per tick, so the flows of a lost node are shared among the remaining ones.
+     */
+    @Scheduled(initialDelayString = "${flow-execution.cluster.takeover-interval:15000}",
+               fixedDelayString = "${flow-execution.cluster.takeover-interval:15000}")
+    public void takeOverExpiredExecutions() {
+        if (!enabled) {
+            return;
+        }
+        recover(flowExecutionLeaseService.claimExpired(takeoverBatchSize, false));
+    }
+
+    private void recover(List<UUID> flowExecutionIds) {
+        if (flowExecutionIds.isEmpty()) {
+            return;
+        }
+        logger.info("Recovering {} in-flight flow execution(s) over {} ms", flowExecutionIds.size(), spreadIntervalMs);
+
+        // One recovery per slot of the window, at a random point within its slot
+        long slotMs = spreadIntervalMs / flowExecutionIds.size();
+        Instant now = Instant.now();
+        for (int i = 0; i < flowExecutionIds.size(); i++) {
+            UUID flowExecutionId = flowExecutionIds.get(i);
+            long delayMs = i * slotMs + (slotMs > 0 ? ThreadLocalRandom.current().nextLong(slotMs) : 0);
+            taskScheduler.schedule(() -> flowExecutionEngine.recover(flowExecutionId), now.plusMillis(delayMs));
+        }
+    }
+}
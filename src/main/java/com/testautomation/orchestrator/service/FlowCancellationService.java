@@ -0,0 +1,162 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.dto.FlowExecutionDto;
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.event.FlowExecutionFinishedEvent;
+import com.testautomation.orchestrator.model.FlowExecution;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import com.testautomation.orchestrator.repository.FlowExecutionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cancels running flow executions.
+ *
+ * The flows and their unfinished steps are marked CANCELLED in one transaction while the engine's
+ * transition locks of those flows are held, so no transition can trigger another pipeline in between.
+ * Once committed, in-process waiters (status polls, resume timers, bulkhead slots) are dropped and the
+ * GitLab pipelines that were started are cancelled. Finished flows free their admission slot.
+ */
+@Service
+public class FlowCancellationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowCancellationService.class);
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private FlowExecutionService flowExecutionService;
+
+    @Autowired
+    private FlowExecutionEngine flowExecutionEngine;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Cancel a single running flow execution
+     */
+    public FlowExecutionDto cancelFlowExecution(UUID flowExecutionId) {
+        FlowExecution flowExecution = flowExecutionRepository.findById(flowExecutionId)
+                .orElseThrow(() -> new IllegalArgumentException("Flow execution not found with ID: " + flowExecutionId));
+        if (!isCancellable(flowExecution)) {
+            throw new IllegalStateException("Can only cancel running flow executions, flow execution " + flowExecutionId
+                                            + " is " + flowExecution.getStatus());
+        }
+
+        cancel(List.of(flowExecutionId));
+        return flowExecutionService.getFlowExecutionById(flowExecutionId)
+                .orElseThrow(() -> new IllegalArgumentException("Flow execution not found with ID: " + flowExecutionId));
+    }
+
+    /**
+     * Cancel several flow executions, given as comma-separated UUIDs. Unknown and finished flow
+     * executions are reported as skipped.
+     */
+    public Map<String, Object> cancelFlowExecutions(String flowExecutionIdsParam) {
+        List<UUID> requestedIds = parseFlowExecutionIds(flowExecutionIdsParam);
+        logger.info("Processing cancellation request for {} flow execution(s)", requestedIds.size());
+
+        Map<UUID, FlowExecution> existing = flowExecutionRepository.findAllById(requestedIds).stream()
+                .collect(Collectors.toMap(FlowExecution::getId, Function.identity()));
+
+        List<UUID> cancellableIds = new ArrayList<>();
+        List<Map<String, Object>> skipped = new ArrayList<>();
+        for (UUID id : requestedIds) {
+            FlowExecution flowExecution = existing.get(id);
+            if (flowExecution == null) {
+                skipped.add(skippedEntry(id, "not_found", "Flow execution not found with ID: " + id));
+            } else if (!isCancellable(flowExecution)) {
+                skipped.add(skippedEntry(id, "not_running", "Flow execution is " + flowExecution.getStatus()));
+            } else {
+                cancellableIds.add(id);
+            }
+        }
+
+        Set<UUID> cancelledIds = cancel(cancellableIds);
+        for (UUID id : cancellableIds) {
+            if (!cancelledIds.contains(id)) {
+                // Finished between the check above and taking its lock
+                skipped.add(skippedEntry(id, "not_running", "Flow execution finished before it could be cancelled"));
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("summary", Map.of(
+            "total_requested", requestedIds.size(),
+            "cancelled", cancelledIds.size(),
+            "skipped", skipped.size()
+        ));
+        result.put("cancelled", cancelledIds);
+        result.put("skipped", skipped);
+
+        logger.info("Cancellation request processed - Cancelled: {}, Skipped: {}", cancelledIds.size(), skipped.size());
+        return result;
+    }
+
+    private Set<UUID> cancel(List<UUID> flowExecutionIds) {
+        if (flowExecutionIds.isEmpty()) {
+            return Set.of();
+        }
+
+        Map<UUID, List<PipelineExecution>> cancelled = flowExecutionEngine.callWithFlowLocks(flowExecutionIds,
+                () -> flowExecutionService.cancelFlowExecutionRecords(flowExecutionIds));
+
+        cancelled.forEach((flowExecutionId, steps) -> {
+            steps.forEach(flowExecutionEngine::onStepCancelled);
+            logger.info("Cancelled flow execution {} ({} unfinished step(s))", flowExecutionId, steps.size());
+            eventPublisher.publishEvent(new FlowExecutionFinishedEvent(flowExecutionId, ExecutionStatus.CANCELLED));
+        });
+        return new LinkedHashSet<>(cancelled.keySet());
+    }
+
+    private boolean isCancellable(FlowExecution flowExecution) {
+        return flowExecution.getStatus() == ExecutionStatus.RUNNING || flowExecution.getStatus() == ExecutionStatus.IN_PROGRESS;
+    }
+
+    private List<UUID> parseFlowExecutionIds(String flowExecutionIdsParam) {
+        if (flowExecutionIdsParam == null || flowExecutionIdsParam.trim().isEmpty()) {
+            throw new IllegalArgumentException("Flow execution IDs parameter cannot be null or empty");
+        }
+
+        Set<UUID> ids = new LinkedHashSet<>();
+        for (String part : flowExecutionIdsParam.split(",")) {
+            String trimmed = part.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                ids.add(UUID.fromString(trimmed));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid flow execution ID format: '" + trimmed + "'. Must be a UUID.");
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("No valid flow execution IDs found in parameter: " + flowExecutionIdsParam);
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private Map<String, Object> skippedEntry(UUID flowExecutionId, String reason, String message) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("flowExecutionId", flowExecutionId);
+        entry.put("status", "skipped");
+        entry.put("reason", reason);
+        entry.put("message", message);
+        return entry;
+    }
+}
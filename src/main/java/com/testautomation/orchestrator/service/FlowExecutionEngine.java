@@ -0,0 +1,1086 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.config.GitLabConfig;
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.enums.StepPhase;
+import com.testautomation.orchestrator.event.DeadlineExceededEvent;
+import com.testautomation.orchestrator.event.FlowExecutionFinishedEvent;
+import com.testautomation.orchestrator.event.FlowExecutionLeaseLostEvent;
+import com.testautomation.orchestrator.event.JobCompletedEvent;
+import com.testautomation.orchestrator.event.PipelineCompletedEvent;
+import com.testautomation.orchestrator.event.StageCompletedEvent;
+import com.testautomation.orchestrator.event.StepResumeDueEvent;
+import com.testautomation.orchestrator.model.Application;
+import com.testautomation.orchestrator.model.Flow;
+import com.testautomation.orchestrator.model.FlowExecution;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import com.testautomation.orchestrator.repository.ApplicationRepository;
+import com.testautomation.orchestrator.repository.FlowExecutionRepository;
+import com.testautomation.orchestrator.repository.FlowRepository;
+import com.testautomation.orchestrator.repository.FlowStepRepository;
+import com.testautomation.orchestrator.repository.PipelineExecutionRepository;
+import com.testautomation.orchestrator.service.PreparedStepCache.PreparedStep;
+import com.testautomation.orchestrator.util.FlowStepGraph;
+import com.testautomation.orchestrator.util.GitLabApiClient;
+import com.testautomation.orchestrator.util.OutputEnvParser;
+import com.testautomation.orchestrator.util.PersistentVariableMap;
+import com.testautomation.orchestrator.util.RetryPolicy;
+import com.testautomation.orchestrator.util.StepFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Event-driven state machine that drives flow executions.
+ *
+ * Every step moves through PENDING -> TRIGGERED -> RUNNING -> COLLECTING_ARTIFACTS -> NEXT_STEP,
+ * persisted on {@link PipelineExecution#getPhase()}. A step is triggered as soon as all steps it
+ * depends on have passed (see {@link FlowStepGraph}), so independent steps run in parallel. Transitions run as short tasks on the shared
+ * task scheduler in reaction to timer and completion events, so no thread is held while a GitLab
+ * pipeline is running and a single node can drive thousands of concurrent flows.
+ *
+ * With several orchestrator nodes, each drives only the flow executions leased to it (see
+ * {@link FlowExecutionLeaseService}); events about other nodes' flows, such as webhooks that reached
+ * this node, are ignored and picked up by the owner's status polling.
+ */
+@Service
+public class FlowExecutionEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowExecutionEngine.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final String MOCK_COMMIT_SHA = "0000000000000000000000000000000000000000";
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private FlowRepository flowRepository;
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private ApplicationService applicationService;
+
+    @Autowired
+    private GitLabApiClient gitLabApiClient;
+
+    @Autowired
+    private OutputEnvParser outputEnvParser;
+
+    @Autowired
+    private GitLabConfig gitLabConfig;
+
+    @Autowired
+    private PipelineStatusPoller pipelineStatusPoller;
+
+    @Autowired
+    private PipelineBulkhead pipelineBulkhead;
+
+    @Autowired
+    private PipelineTriggerLimiter pipelineTriggerLimiter;
+
+    @Autowired
+    private SchedulingService schedulingService;
+
+    @Autowired
+    private PreparedStepCache preparedStepCache;
+
+    @Autowired
+    private FlowExecutionLeaseService flowExecutionLeaseService;
+
+    @Autowired
+    private DeadlineScheduler deadlineScheduler;
+
+    @Autowired
+    private RetryPolicyService retryPolicyService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    @Qualifier("taskScheduler")
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${flow-execution.memoization.enabled:true}")
+    private boolean memoizationEnabled;
+
+    @Value("${flow-execution.memoization.window:86400000}")
+    private long memoizationWindowMs;
+
+    // Transitions of the same flow execution are serialized; different flows proceed in parallel
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    // Mock pipeline executions that currently have a simulated completion scheduled
+    private final Set<Long> watchedExecutions = ConcurrentHashMap.newKeySet();
+
+    // Memoizable pipeline executions whose branch head commit is being looked up
+    private final Set<Long> resolvingCommits = ConcurrentHashMap.newKeySet();
+
+    public FlowExecutionEngine() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Start (or continue) driving a flow execution. Returns immediately.
+     */
+    public void start(UUID flowExecutionId) {
+        dispatch(flowExecutionId, () -> advance(flowExecutionId));
+    }
+
+    /**
+     * Pick up a flow execution left in flight by a previous process: re-attach running pipelines,
+     * redo interrupted transitions and continue the flow. Returns immediately.
+     */
+    public void recover(UUID flowExecutionId) {
+        dispatch(flowExecutionId, () -> recoverSteps(flowExecutionId));
+    }
+
+    @EventListener
+    public void onPipelineCompleted(PipelineCompletedEvent event) {
+        dispatch(event.getFlowExecutionId(), () -> handlePipelineCompleted(event));
+    }
+
+    @EventListener
+    public void onJobCompleted(JobCompletedEvent event) {
+        dispatch(event.getFlowExecutionId(), () -> handleJobCompleted(event));
+    }
+
+    @EventListener
+    public void onStageCompleted(StageCompletedEvent event) {
+        dispatch(event.getFlowExecutionId(), () -> handleStageCompleted(event));
+    }
+
+    @EventListener
+    public void onStepResumeDue(StepResumeDueEvent event) {
+        dispatch(event.getFlowExecutionId(), () -> advance(event.getFlowExecutionId()));
+    }
+
+    @EventListener
+    public void onDeadlineExceeded(DeadlineExceededEvent event) {
+        dispatch(event.getFlowExecutionId(), () -> handleDeadlineExceeded(event));
+    }
+
+    /**
+     * Run an action while holding the transition locks of the given flow executions, so no transition
+     * of those flows interleaves with it. Stripes are taken in index order to rule out lock-order deadlocks.
+     */
+    public <T> T callWithFlowLocks(Collection<UUID> flowExecutionIds, Supplier<T> action) {
+        int[] stripes = flowExecutionIds.stream().mapToInt(FlowExecutionEngine::stripe).distinct().sorted().toArray();
+        return callWithLocks(stripes, 0, action);
+    }
+
+    private <T> T callWithLocks(int[] stripes, int index, Supplier<T> action) {
+        if (index == stripes.length) {
+            return action.get();
+        }
+        synchronized (locks[stripes[index]]) {
+            return callWithLocks(stripes, index + 1, action);
+        }
+    }
+
+    /**
+     * Stop everything still working on a step that was just cancelled or timed out: its status watch,
+     * resume timer, deadline and bulkhead slot, and the GitLab pipeline itself if one was started.
+     */
+    public void onStepCancelled(PipelineExecution pipelineExecution) {
+        Long pipelineExecutionId = pipelineExecution.getId();
+        pipelineStatusPoller.unregister(pipelineExecutionId);
+        watchedExecutions.remove(pipelineExecutionId);
+        schedulingService.cancelTimer(pipelineExecutionId);
+        preparedStepCache.discard(pipelineExecutionId);
+        releaseSlot(pipelineExecutionId);
+        if (pipelineExecution.getPipelineId() != null) {
+            cancelGitLabPipeline(pipelineExecution);
+        }
+    }
+
+    /**
+     * Drop everything this node was still doing for a flow execution it no longer drives. Unlike
+     * cancellation, GitLab pipelines are left running; a node that takes the flow over re-attaches them.
+     */
+    @EventListener
+    public void onLeaseLost(FlowExecutionLeaseLostEvent event) {
+        UUID flowExecutionId = event.getFlowExecutionId();
+        for (PipelineExecution pipelineExecution : pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId)) {
+            Long pipelineExecutionId = pipelineExecution.getId();
+            if (!isTrailing(pipelineExecution)) {
+                // Pipelines of steps that already passed stay watched for their trailing status
+                pipelineStatusPoller.unregister(pipelineExecutionId);
+            }
+            watchedExecutions.remove(pipelineExecutionId);
+            resolvingCommits.remove(pipelineExecutionId);
+            schedulingService.cancelTimer(pipelineExecutionId);
+            deadlineScheduler.cancelStepDeadline(pipelineExecutionId);
+            // The flow is driven by another node now, which is where this pipeline's slot is released
+            pipelineBulkhead.release(pipelineExecutionId);
+        }
+        deadlineScheduler.cancelFlowDeadline(flowExecutionId);
+        preparedStepCache.discardFlow(flowExecutionId);
+    }
+
+    /**
+     * Look at every step of the flow and perform the transitions that are due: trigger each pending
+     * step whose dependencies have passed, make sure running steps are watched, and finish the flow
+     * when a step failed or every step has passed.
+     */
+    private void advance(UUID flowExecutionId) {
+        FlowExecution flowExecution = flowExecutionRepository.findById(flowExecutionId)
+                .orElseThrow(() -> new IllegalArgumentException("Flow execution not found with ID: " + flowExecutionId));
+
+        if (flowExecution.getStatus() != ExecutionStatus.RUNNING) {
+            logger.debug("Flow execution {} is {}, nothing to advance", flowExecutionId, flowExecution.getStatus());
+            return;
+        }
+
+        Flow flow = flowRepository.findById(flowExecution.getFlowId())
+                .orElseThrow(() -> new IllegalArgumentException("Flow not found with ID: " + flowExecution.getFlowId()));
+        deadlineScheduler.armFlowDeadline(flowExecution, flow);
+        Map<Long, FlowStep> stepsById = flowStepRepository.findByIdIn(flow.getFlowStepIds()).stream()
+                .collect(Collectors.toMap(FlowStep::getId, step -> step));
+        FlowStepGraph graph = stepGraph(flow, stepsById.values());
+
+        Map<Long, PipelineExecution> executionsByStep = pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId)
+                .stream()
+                .collect(Collectors.toMap(PipelineExecution::getFlowStepId, pe -> pe, (a, b) -> a));
+
+        boolean allPassed = true;
+        for (Long stepId : flow.getFlowStepIds()) {
+            PipelineExecution pipelineExecution = executionsByStep.get(stepId);
+            if (pipelineExecution == null) {
+                throw new IllegalStateException("Pipeline execution record not found for step: " + stepId);
+            }
+
+            if (pipelineExecution.getStatus() == ExecutionStatus.FAILED
+                    || pipelineExecution.getStatus() == ExecutionStatus.CANCELLED) {
+                logger.error("Flow execution failed at step: {}", stepId);
+                stopActiveSteps(executionsByStep.values(), "Stopped because step " + stepId + " failed");
+                flowExecution.setFailureReason(pipelineExecution.getFailureReason() != null
+                        ? pipelineExecution.getFailureReason() : "Step " + stepId + " failed");
+                completeFlow(flowExecution, ExecutionStatus.FAILED);
+                return;
+            }
+            allPassed &= pipelineExecution.getStatus() == ExecutionStatus.PASSED;
+        }
+
+        if (allPassed) {
+            logger.info("Flow execution completed successfully: {}", flowExecutionId);
+            completeFlow(flowExecution, ExecutionStatus.PASSED);
+            return;
+        }
+
+        for (Long stepId : flow.getFlowStepIds()) {
+            PipelineExecution pipelineExecution = executionsByStep.get(stepId);
+            if (pipelineExecution.getStatus() == ExecutionStatus.PASSED) {
+                continue;
+            }
+
+            if (effectivePhase(pipelineExecution) != StepPhase.PENDING) {
+                // Already triggered; re-armed here after a restart or takeover
+                deadlineScheduler.armStepDeadline(pipelineExecution, stepsById.get(stepId));
+            }
+            switch (effectivePhase(pipelineExecution)) {
+                case PENDING:
+                    boolean ready = graph.getPrerequisites(stepId).stream()
+                            .allMatch(prerequisite -> executionsByStep.get(prerequisite).getStatus() == ExecutionStatus.PASSED);
+                    if (ready && !awaitTimer(stepsById.get(stepId), pipelineExecution, graph, executionsByStep)) {
+                        triggerStep(stepsById.get(stepId), pipelineExecution,
+                                    upstreamVariables(flowExecution, graph, stepId, executionsByStep));
+                    }
+                    break;
+                case RUNNING:
+                    watch(pipelineExecution);
+                    break;
+                default:
+                    logger.debug("Step {} is {}, waiting for its next event", stepId, pipelineExecution.getPhase());
+                    break;
+            }
+        }
+    }
+
+    private void recoverSteps(UUID flowExecutionId) {
+        FlowExecution flowExecution = flowExecutionRepository.findById(flowExecutionId).orElse(null);
+        if (flowExecution == null) {
+            return;
+        }
+        if (flowExecution.getStatus() == ExecutionStatus.IN_PROGRESS) {
+            flowExecution.setStatus(ExecutionStatus.RUNNING);
+            flowExecutionRepository.save(flowExecution);
+        }
+        if (flowExecution.getStatus() != ExecutionStatus.RUNNING) {
+            return;
+        }
+
+        for (PipelineExecution pipelineExecution : pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId)) {
+            if (pipelineExecution.getStatus() != ExecutionStatus.RUNNING) {
+                continue;
+            }
+            switch (effectivePhase(pipelineExecution)) {
+                case TRIGGERED:
+                    // The process stopped before GitLab's answer to the trigger was stored: trigger again
+                    logger.warn("Pipeline execution {} was interrupted while being triggered, triggering it again", pipelineExecution.getId());
+                    pipelineExecution.setStatus(ExecutionStatus.SCHEDULED);
+                    pipelineExecution.setPhase(StepPhase.PENDING);
+                    pipelineExecution.setStartTime(null);
+                    pipelineExecutionRepository.save(pipelineExecution);
+                    releaseSlot(pipelineExecution.getId());
+                    break;
+                case COLLECTING_ARTIFACTS:
+                    logger.info("Resuming artifact collection for pipeline {}", pipelineExecution.getPipelineId());
+                    collectArtifacts(pipelineExecution);
+                    break;
+                default:
+                    // Running pipelines are re-attached by pipelineId when advance watches them
+                    break;
+            }
+        }
+
+        logger.info("Recovered flow execution {}", flowExecutionId);
+        advance(flowExecutionId);
+    }
+
+    /**
+     * Apply the step's invokeScheduler once the step is ready to run. The resume time is computed the
+     * first time from the end of its latest prerequisite (or now for a first step) and persisted; the
+     * SchedulingService timer advances the flow again when it is reached.
+     *
+     * @return true while the step has to wait for its resume time
+     */
+    private boolean awaitTimer(FlowStep step, PipelineExecution pipelineExecution, FlowStepGraph graph,
+                               Map<Long, PipelineExecution> executionsByStep) {
+        if (step.getInvokeScheduler() == null) {
+            return false;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (pipelineExecution.getResumeTime() == null) {
+            LocalDateTime previousStepEndTime = null;
+            for (Long prerequisite : graph.getPrerequisites(step.getId())) {
+                LocalDateTime endTime = executionsByStep.get(prerequisite).getEndTime();
+                if (endTime != null && (previousStepEndTime == null || endTime.isAfter(previousStepEndTime))) {
+                    previousStepEndTime = endTime;
+                }
+            }
+            LocalDateTime resumeTime = schedulingService.calculateResumeTime(
+                    previousStepEndTime != null ? previousStepEndTime : now, step.getInvokeScheduler());
+            if (resumeTime == null || !resumeTime.isAfter(now)) {
+                return false;
+            }
+            schedulingService.schedulePipelineExecution(pipelineExecution, resumeTime);
+            return true;
+        }
+
+        if (pipelineExecution.getResumeTime().isAfter(now)) {
+            // Still waiting; make sure the timer is armed (e.g. after a restart)
+            schedulingService.armTimer(pipelineExecution);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Dependency graph of a flow's steps
+     */
+    static FlowStepGraph stepGraph(Flow flow, Collection<FlowStep> steps) {
+        Map<Long, List<Long>> declaredDependencies = new HashMap<>();
+        for (FlowStep step : steps) {
+            declaredDependencies.put(step.getId(), step.getDependsOnStepIds());
+        }
+        return FlowStepGraph.of(flow.getFlowStepIds(), declaredDependencies);
+    }
+
+    /**
+     * Runtime variables produced by every step the given step depends on, directly or transitively.
+     * They are merged in flow order, so at a join the step listed later in the flow wins on conflicts.
+     * A variant of a matrix execution starts from its own variables, so they override the step's test
+     * data but not what upstream steps produced.
+     */
+    private PersistentVariableMap upstreamVariables(FlowExecution flowExecution, FlowStepGraph graph, Long stepId,
+                                                    Map<Long, PipelineExecution> executionsByStep) {
+        PersistentVariableMap variables = PersistentVariableMap.of(flowExecution.getVariableOverrides());
+        for (Long ancestorId : graph.getAncestors(stepId)) {
+            variables = variables.plusAll(executionsByStep.get(ancestorId).getRuntimeTestData());
+        }
+        return variables;
+    }
+
+    private void triggerStep(FlowStep step, PipelineExecution pipelineExecution, PersistentVariableMap upstreamVariables) {
+        // Usually prepared while the previous step was running; only the upstream variables are new
+        PreparedStep prepared = preparedStepCache.get(pipelineExecution.getId(), pipelineExecution.getFlowExecutionId(), step);
+
+        // FlowStep TestData first, runtime variables of upstream steps override it. Both sides are
+        // persistent maps, so neither is copied.
+        PersistentVariableMap pipelineVariables = prepared.getTestData().plusAll(upstreamVariables);
+
+        // Add the testTag from FlowStep to make it available in GitLab pipeline scope
+        if (step.getTestTag() != null && !step.getTestTag().trim().isEmpty()) {
+            pipelineVariables = pipelineVariables.plus("testTag", step.getTestTag());
+        }
+
+        if (!memoizationEnabled || !Boolean.TRUE.equals(step.getMemoizable())) {
+            startPipeline(step, pipelineExecution, prepared, pipelineVariables);
+        } else if (pipelineExecution.getInputFingerprint() == null) {
+            resolveCommit(step, pipelineExecution, prepared, pipelineVariables);
+        } else {
+            // Fingerprinted before but had to wait for a bulkhead slot: an identical run may have passed since
+            reuseOrStartPipeline(step, pipelineExecution, prepared, pipelineVariables);
+        }
+    }
+
+    /**
+     * Look up the head commit of a memoizable step's branch. Once known, the step either reuses a recent
+     * passed run with the same inputs or triggers its pipeline; without it the pipeline is triggered.
+     */
+    private void resolveCommit(FlowStep step, PipelineExecution pipelineExecution, PreparedStep prepared,
+                               Map<String, String> pipelineVariables) {
+        Long pipelineExecutionId = pipelineExecution.getId();
+        if (!resolvingCommits.add(pipelineExecutionId)) {
+            return;
+        }
+        if (gitLabConfig.isMockMode()) {
+            onCommitResolved(pipelineExecutionId, step, prepared, pipelineVariables, MOCK_COMMIT_SHA);
+            return;
+        }
+
+        UUID flowExecutionId = pipelineExecution.getFlowExecutionId();
+        gitLabApiClient.getBranch(gitLabConfig.getBaseUrl(), prepared.getApplication().getGitlabProjectId(),
+                                  step.getBranch(), prepared.getAccessToken())
+                .map(branch -> branch.getCommit().getId())
+                .switchIfEmpty(Mono.error(new IllegalStateException("Empty response from GitLab branch lookup")))
+                .subscribe(
+                        commitSha -> dispatch(flowExecutionId,
+                                () -> onCommitResolved(pipelineExecutionId, step, prepared, pipelineVariables, commitSha)),
+                        error -> dispatch(flowExecutionId, () -> {
+                            logger.warn("Head commit of branch {} unknown ({}), step {} runs without memoization",
+                                       step.getBranch(), error.getMessage(), step.getId());
+                            onCommitResolved(pipelineExecutionId, step, prepared, pipelineVariables, null);
+                        }));
+    }
+
+    private void onCommitResolved(Long pipelineExecutionId, FlowStep step, PreparedStep prepared,
+                                  Map<String, String> pipelineVariables, String commitSha) {
+        resolvingCommits.remove(pipelineExecutionId);
+        PipelineExecution pipelineExecution = pipelineExecutionRepository.findById(pipelineExecutionId).orElse(null);
+        if (pipelineExecution == null || effectivePhase(pipelineExecution) != StepPhase.PENDING) {
+            logger.debug("Pipeline execution {} is no longer pending, dropping its commit lookup", pipelineExecutionId);
+            return;
+        }
+        if (commitSha == null) {
+            startPipeline(step, pipelineExecution, prepared, pipelineVariables);
+            return;
+        }
+
+        pipelineExecution.setCommitSha(commitSha);
+        pipelineExecution.setInputFingerprint(StepFingerprint.of(prepared.getApplication().getId(), commitSha,
+                                                                 step.getTestTag(), step.getTestStage(), pipelineVariables));
+        reuseOrStartPipeline(step, pipelineExecutionRepository.save(pipelineExecution), prepared, pipelineVariables);
+    }
+
+    private void reuseOrStartPipeline(FlowStep step, PipelineExecution pipelineExecution, PreparedStep prepared,
+                                      Map<String, String> pipelineVariables) {
+        LocalDateTime since = LocalDateTime.now().minusSeconds(memoizationWindowMs / 1000);
+        List<PipelineExecution> reusable = pipelineExecutionRepository.findReusableByInputFingerprint(
+                pipelineExecution.getInputFingerprint(), since, PageRequest.of(0, 1));
+        if (reusable.isEmpty()) {
+            startPipeline(step, pipelineExecution, prepared, pipelineVariables);
+            return;
+        }
+        preparedStepCache.discard(pipelineExecution.getId());
+
+        PipelineExecution source = reusable.get(0);
+        logger.info("Step {} of flow execution {} reuses the result of pipeline execution {} (commit {}), no pipeline triggered",
+                   step.getId(), pipelineExecution.getFlowExecutionId(), source.getId(), pipelineExecution.getCommitSha());
+        LocalDateTime now = LocalDateTime.now();
+        pipelineExecution.setReusedFromPipelineExecutionId(source.getId());
+        pipelineExecution.setPipelineUrl(source.getPipelineUrl());
+        pipelineExecution.setStartTime(now);
+        pipelineExecution.setEndTime(now);
+        passStep(pipelineExecution, PersistentVariableMap.of(source.getRuntimeTestData()));
+    }
+
+    private void startPipeline(FlowStep step, PipelineExecution pipelineExecution, PreparedStep prepared,
+                               Map<String, String> pipelineVariables) {
+        Application application = prepared.getApplication();
+        if (!pipelineBulkhead.tryAcquire(pipelineExecution, step, application)) {
+            // Stays PENDING; the flow is advanced again when a pipeline of the application finishes
+            return;
+        }
+        preparedStepCache.discard(pipelineExecution.getId());
+
+        logger.info("Executing pipeline step: {} for flow execution: {}", step.getId(), pipelineExecution.getFlowExecutionId());
+        // Variable values can hold credentials, so only their names are logged
+        logger.debug("Pipeline variables for step {}: {}", step.getId(), pipelineVariables.keySet());
+
+        pipelineExecution.setStatus(ExecutionStatus.RUNNING);
+        pipelineExecution.setPhase(StepPhase.TRIGGERED);
+        pipelineExecution.setStartTime(LocalDateTime.now());
+        PipelineExecution triggered = pipelineExecutionRepository.save(pipelineExecution);
+        deadlineScheduler.armStepDeadline(triggered, step);
+
+        UUID flowExecutionId = pipelineExecution.getFlowExecutionId();
+        Long pipelineExecutionId = triggered.getId();
+
+        if (gitLabConfig.isMockMode()) {
+            logger.info("MOCK MODE: Simulating GitLab pipeline execution for project {} on branch {}",
+                       application.getGitlabProjectId(), step.getBranch());
+            long mockPipelineId = System.currentTimeMillis();
+            String mockPipelineUrl = String.format("https://gitlab.com/%s/-/pipelines/%d",
+                                                  application.getGitlabProjectId(), mockPipelineId);
+            onPipelineTriggered(pipelineExecutionId, mockPipelineId, mockPipelineUrl);
+            return;
+        }
+
+        // Every attempt waits for a trigger permit, so a batch of flows does not fire all its root
+        // steps at GitLab in the same instant
+        pipelineTriggerLimiter.limit(gitLabApiClient.triggerPipeline(gitLabConfig.getBaseUrl(), application.getGitlabProjectId(),
+                                                                     step.getBranch(), prepared.getAccessToken(), pipelineVariables))
+                .retryWhen(retryPolicyService.retrySpec(retryPolicyService.forStep(step),
+                                                        "Triggering pipeline of step " + step.getId()))
+                .switchIfEmpty(Mono.error(new IllegalStateException("Empty response from GitLab pipeline trigger")))
+                .subscribe(
+                        response -> dispatch(flowExecutionId,
+                                () -> onPipelineTriggered(pipelineExecutionId, response.getId(), response.getWebUrl())),
+                        error -> dispatch(flowExecutionId, () -> {
+                            logger.error("GitLab API call failed for project {} on branch {}: {}",
+                                       application.getGitlabProjectId(), step.getBranch(), error.getMessage());
+                            if (error.getMessage() != null && error.getMessage().contains("400")) {
+                                logger.error("This is likely due to invalid GitLab project ID, branch name, or access token");
+                            }
+                            failStep(pipelineExecutionId);
+                        }));
+    }
+
+    private void onPipelineTriggered(Long pipelineExecutionId, Long pipelineId, String pipelineUrl) {
+        PipelineExecution pipelineExecution = pipelineExecutionRepository.findById(pipelineExecutionId).orElse(null);
+        if (pipelineExecution != null && pipelineExecution.getPhase() == StepPhase.NEXT_STEP
+                && (pipelineExecution.getStatus() == ExecutionStatus.CANCELLED || pipelineExecution.getStatus() == ExecutionStatus.FAILED)) {
+            // Cancelled or timed out while GitLab was creating the pipeline: record it and cancel it as well
+            pipelineExecution.setPipelineId(pipelineId);
+            pipelineExecution.setPipelineUrl(pipelineUrl);
+            cancelGitLabPipeline(pipelineExecutionRepository.save(pipelineExecution));
+            return;
+        }
+        if (pipelineExecution == null || pipelineExecution.getPhase() != StepPhase.TRIGGERED) {
+            logger.warn("Ignoring trigger result for pipeline execution {} that is no longer awaiting it", pipelineExecutionId);
+            return;
+        }
+
+        pipelineExecution.setPipelineId(pipelineId);
+        pipelineExecution.setPipelineUrl(pipelineUrl);
+        pipelineExecution.setPhase(StepPhase.RUNNING);
+        pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
+
+        logger.info("Pipeline triggered successfully: {} for step {}", pipelineId, pipelineExecution.getFlowStepId());
+        watch(pipelineExecution);
+        prepareDependents(pipelineExecution);
+    }
+
+    /**
+     * Prepare the pending steps waiting on a running step, off the transition path, so that once it
+     * passes they are triggered without further lookups (see {@link PreparedStepCache}).
+     */
+    private void prepareDependents(PipelineExecution running) {
+        UUID flowExecutionId = running.getFlowExecutionId();
+        Long stepId = running.getFlowStepId();
+        taskScheduler.schedule(() -> {
+            try {
+                FlowExecution flowExecution = flowExecutionRepository.findById(flowExecutionId).orElse(null);
+                if (flowExecution == null || flowExecution.getStatus() != ExecutionStatus.RUNNING) {
+                    return;
+                }
+                Flow flow = flowRepository.findById(flowExecution.getFlowId()).orElse(null);
+                if (flow == null) {
+                    return;
+                }
+                Map<Long, FlowStep> stepsById = flowStepRepository.findByIdIn(flow.getFlowStepIds()).stream()
+                        .collect(Collectors.toMap(FlowStep::getId, step -> step));
+                List<Long> dependents = stepGraph(flow, stepsById.values()).getDependents(stepId);
+                if (dependents.isEmpty()) {
+                    return;
+                }
+                for (PipelineExecution pipelineExecution : pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId)) {
+                    if (dependents.contains(pipelineExecution.getFlowStepId())
+                            && (pipelineExecution.getStatus() == ExecutionStatus.SCHEDULED
+                                || pipelineExecution.getStatus() == ExecutionStatus.PENDING)
+                            && effectivePhase(pipelineExecution) == StepPhase.PENDING) {
+                        preparedStepCache.prepare(pipelineExecution.getId(), flowExecutionId,
+                                                  stepsById.get(pipelineExecution.getFlowStepId()));
+                    }
+                }
+            } catch (Exception e) {
+                logger.debug("Could not prepare the steps after step {} of flow execution {}: {}", stepId, flowExecutionId, e.getMessage());
+            }
+        }, Instant.now());
+    }
+
+    /**
+     * Arrange for a completion event of a running pipeline. Only one watch per execution is kept.
+     */
+    private void watch(PipelineExecution pipelineExecution) {
+        if (!gitLabConfig.isMockMode()) {
+            pipelineStatusPoller.register(pipelineExecution);
+            return;
+        }
+        if (!watchedExecutions.add(pipelineExecution.getId())) {
+            return;
+        }
+
+        // Simulate pipeline execution time (2-5 seconds)
+        Long pipelineExecutionId = pipelineExecution.getId();
+        schedule(pipelineExecution.getFlowExecutionId(), () -> completeMockPipeline(pipelineExecutionId),
+                 2000 + (long) (Math.random() * 3000));
+    }
+
+    private void handlePipelineCompleted(PipelineCompletedEvent event) {
+        PipelineExecution pipelineExecution = pipelineExecutionRepository.findById(event.getPipelineExecutionId()).orElse(null);
+        if (pipelineExecution == null || effectivePhase(pipelineExecution) != StepPhase.RUNNING) {
+            logger.debug("Completion of pipeline {} already handled", event.getPipelineId());
+            return;
+        }
+        pipelineStatusPoller.unregister(pipelineExecution.getId());
+        releaseSlot(pipelineExecution.getId());
+
+        pipelineExecution.setEndTime(LocalDateTime.now());
+        if (!event.isSuccessful()) {
+            pipelineExecution.setStatus(ExecutionStatus.FAILED);
+            pipelineExecution.setPhase(StepPhase.NEXT_STEP);
+            pipelineExecutionRepository.save(pipelineExecution);
+            logger.info("Pipeline {} completed with status: {}", event.getPipelineId(), ExecutionStatus.FAILED);
+            advance(pipelineExecution.getFlowExecutionId());
+            return;
+        }
+
+        if (event.getJobId() != null) {
+            pipelineExecution.setJobId(event.getJobId());
+            pipelineExecution.setJobUrl(event.getJobUrl());
+        }
+        pipelineExecution.setPhase(StepPhase.COLLECTING_ARTIFACTS);
+        pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
+        // Refresh preparations that went stale during a long pipeline while the artifacts download
+        prepareDependents(pipelineExecution);
+        collectArtifacts(pipelineExecution);
+    }
+
+    /**
+     * Remember the successful job of the step's test stage as soon as it is reported, so artifact
+     * collection can download output.env directly once the pipeline completes. A finished job of a
+     * step watching its test stage has the pipeline's jobs polled right away to judge the stage.
+     */
+    private void handleJobCompleted(JobCompletedEvent event) {
+        PipelineExecution pipelineExecution = pipelineExecutionRepository.findById(event.getPipelineExecutionId()).orElse(null);
+        if (pipelineExecution == null || effectivePhase(pipelineExecution) != StepPhase.RUNNING) {
+            return;
+        }
+        FlowStep step = flowStepRepository.findById(pipelineExecution.getFlowStepId()).orElse(null);
+        if (step != null && (event.isSuccessful() ? Boolean.TRUE.equals(step.getProceedOnStageSuccess())
+                                                  : Boolean.TRUE.equals(step.getFailFast()))) {
+            pipelineStatusPoller.pollSoon(event.getPipelineExecutionId());
+        }
+        if (!event.isSuccessful() || pipelineExecution.getJobId() != null) {
+            return;
+        }
+        pipelineExecution.setJobId(event.getJobId());
+        pipelineExecution.setJobUrl(event.getJobUrl());
+        pipelineExecutionRepository.save(pipelineExecution);
+        logger.debug("Job {} of stage {} recorded for pipeline execution {}", event.getJobId(), event.getStage(), pipelineExecution.getId());
+    }
+
+    /**
+     * Decide a step by its test stage instead of its whole pipeline. A fail-fast step fails and the
+     * rest of its pipeline is cancelled. A step that proceeds on stage success collects its artifacts
+     * and passes while the later stages finish; the poller keeps watching the pipeline and records its
+     * final status as the step's trailing status.
+     */
+    private void handleStageCompleted(StageCompletedEvent event) {
+        PipelineExecution pipelineExecution = pipelineExecutionRepository.findById(event.getPipelineExecutionId()).orElse(null);
+        if (pipelineExecution == null || effectivePhase(pipelineExecution) != StepPhase.RUNNING) {
+            return;
+        }
+        if (event.isSuccessful()) {
+            logger.info("Stage '{}' of pipeline {} passed in job {}, step {} proceeds while later stages finish",
+                       event.getStage(), event.getPipelineId(), event.getJobId(), pipelineExecution.getFlowStepId());
+            releaseSlot(pipelineExecution.getId());
+            pipelineExecution.setJobId(event.getJobId());
+            pipelineExecution.setJobUrl(event.getJobUrl());
+            pipelineExecution.setTrailingStatus("running");
+            pipelineExecution.setEndTime(LocalDateTime.now());
+            pipelineExecution.setPhase(StepPhase.COLLECTING_ARTIFACTS);
+            pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
+            prepareDependents(pipelineExecution);
+            collectArtifacts(pipelineExecution);
+            return;
+        }
+        logger.info("Stage '{}' of pipeline {} failed in job {}, failing step {} without waiting for the pipeline",
+                   event.getStage(), event.getPipelineId(), event.getJobId(), pipelineExecution.getFlowStepId());
+        pipelineExecution.setJobId(event.getJobId());
+        pipelineExecution.setJobUrl(event.getJobUrl());
+        stopStep(pipelineExecution, ExecutionStatus.FAILED, "Job " + event.getJobName() + " of stage '" + event.getStage()
+                + "' failed; the rest of the pipeline was cancelled");
+        advance(pipelineExecution.getFlowExecutionId());
+    }
+
+    /**
+     * Fetch target/output.env from the job of the step's test stage without blocking; the result
+     * comes back to the state machine as another event.
+     */
+    private void collectArtifacts(PipelineExecution pipelineExecution) {
+        FlowStep step = flowStepRepository.findById(pipelineExecution.getFlowStepId())
+                .orElseThrow(() -> new IllegalArgumentException("Flow step not found with ID: " + pipelineExecution.getFlowStepId()));
+        Application application = applicationRepository.findById(step.getApplicationId())
+                .orElseThrow(() -> new IllegalArgumentException("Application not found with ID: " + step.getApplicationId()));
+        String accessToken = applicationService.getDecryptedPersonalAccessToken(application.getId());
+
+        UUID flowExecutionId = pipelineExecution.getFlowExecutionId();
+        Long pipelineExecutionId = pipelineExecution.getId();
+        Long pipelineId = pipelineExecution.getPipelineId();
+        RetryPolicy retryPolicy = retryPolicyService.forStep(step);
+
+        Mono<GitLabApiClient.GitLabJobsResponse[]> jobsLookup;
+        if (pipelineExecution.getJobId() != null) {
+            // Job already known from a webhook event, skip listing the pipeline's jobs
+            GitLabApiClient.GitLabJobsResponse knownJob = new GitLabApiClient.GitLabJobsResponse();
+            knownJob.setId(pipelineExecution.getJobId());
+            knownJob.setWebUrl(pipelineExecution.getJobUrl());
+            knownJob.setStage(step.getTestStage());
+            knownJob.setStatus("success");
+            jobsLookup = Mono.just(new GitLabApiClient.GitLabJobsResponse[] { knownJob });
+        } else {
+            jobsLookup = gitLabApiClient.getPipelineJobs(gitLabConfig.getBaseUrl(), application.getGitlabProjectId(),
+                                                         pipelineId, accessToken)
+                    .retryWhen(retryPolicyService.retrySpec(retryPolicy, "Listing jobs of pipeline " + pipelineId));
+        }
+
+        jobsLookup
+                .flatMap(jobs -> {
+                    GitLabApiClient.GitLabJobsResponse targetJob = null;
+                    for (GitLabApiClient.GitLabJobsResponse job : jobs) {
+                        if (step.getTestStage().equals(job.getStage()) && job.isSuccessful()) {
+                            targetJob = job;
+                            break;
+                        }
+                    }
+                    if (targetJob == null) {
+                        logger.info("No successful job found for stage '{}' in pipeline {}", step.getTestStage(), pipelineId);
+                        return Mono.just(CollectedArtifacts.NONE);
+                    }
+
+                    GitLabApiClient.GitLabJobsResponse job = targetJob;
+                    logger.info("Found target job {} in stage {} for pipeline {}", job.getId(), job.getStage(), pipelineId);
+                    return gitLabApiClient
+                            .downloadJobArtifact(gitLabConfig.getBaseUrl(), application.getGitlabProjectId(),
+                                                 job.getId(), accessToken, "target/output.env")
+                            // A missing output.env is a 404, which is not retried
+                            .retryWhen(retryPolicyService.retrySpec(retryPolicy, "Downloading artifacts of job " + job.getId()))
+                            .map(content -> new CollectedArtifacts(job, content))
+                            .defaultIfEmpty(new CollectedArtifacts(job, null))
+                            .onErrorResume(e -> {
+                                logger.info("No artifacts available for pipeline {} in stage '{}' (this is normal if stage doesn't generate output.env): {}",
+                                           pipelineId, step.getTestStage(), e.getMessage());
+                                return Mono.just(new CollectedArtifacts(job, null));
+                            });
+                })
+                .defaultIfEmpty(CollectedArtifacts.NONE)
+                .onErrorResume(e -> {
+                    logger.info("No jobs available for pipeline {}: {}", pipelineId, e.getMessage());
+                    return Mono.just(CollectedArtifacts.NONE);
+                })
+                .subscribe(artifacts -> dispatch(flowExecutionId, () -> onArtifactsCollected(pipelineExecutionId, artifacts)));
+    }
+
+    private void onArtifactsCollected(Long pipelineExecutionId, CollectedArtifacts artifacts) {
+        PipelineExecution pipelineExecution = pipelineExecutionRepository.findById(pipelineExecutionId).orElse(null);
+        if (pipelineExecution == null || pipelineExecution.getPhase() != StepPhase.COLLECTING_ARTIFACTS) {
+            return;
+        }
+
+        Map<String, String> runtimeTestData = pipelineExecution.getRuntimeTestData();
+        if (artifacts.job != null) {
+            pipelineExecution.setJobId(artifacts.job.getId());
+            pipelineExecution.setJobUrl(artifacts.job.getWebUrl());
+
+            if (artifacts.content != null && !artifacts.content.trim().isEmpty()) {
+                Map<String, String> parsedVariables = outputEnvParser.parseOutputEnv(artifacts.content);
+                // Artifact data can override configured data
+                runtimeTestData = PersistentVariableMap.of(pipelineExecution.getConfiguredTestData()).plusAll(parsedVariables);
+                logger.info("Successfully downloaded and parsed artifacts from job {}: {} variables (total runtime: {})",
+                           artifacts.job.getId(), parsedVariables.size(), runtimeTestData.size());
+            } else {
+                logger.info("No artifact content found in job {}, runtime data will remain as configured data",
+                           artifacts.job.getId());
+                runtimeTestData = pipelineExecution.getConfiguredTestData();
+            }
+        }
+
+        passStep(pipelineExecution, runtimeTestData);
+    }
+
+    private void completeMockPipeline(Long pipelineExecutionId) {
+        watchedExecutions.remove(pipelineExecutionId);
+        PipelineExecution pipelineExecution = pipelineExecutionRepository.findById(pipelineExecutionId).orElse(null);
+        if (pipelineExecution == null || effectivePhase(pipelineExecution) != StepPhase.RUNNING) {
+            return;
+        }
+
+        Map<String, String> mockOutputData = new HashMap<>();
+        mockOutputData.put("MOCK_USER_ID", "user_" + System.currentTimeMillis());
+        mockOutputData.put("MOCK_SESSION_TOKEN", "token_" + UUID.randomUUID().toString().substring(0, 8));
+        mockOutputData.put("MOCK_TRANSACTION_ID", "txn_" + System.currentTimeMillis());
+
+        // Mock data can override configured data
+        Map<String, String> runtimeTestData = PersistentVariableMap.of(pipelineExecution.getConfiguredTestData()).plusAll(mockOutputData);
+
+        pipelineExecution.setEndTime(LocalDateTime.now());
+        releaseSlot(pipelineExecutionId);
+        logger.info("MOCK: Pipeline {} completed successfully with mock data: {}", pipelineExecution.getPipelineId(), mockOutputData);
+        passStep(pipelineExecution, runtimeTestData);
+    }
+
+    private void passStep(PipelineExecution pipelineExecution, Map<String, String> runtimeTestData) {
+        pipelineExecution.setRuntimeTestData(runtimeTestData);
+        pipelineExecution.setStatus(ExecutionStatus.PASSED);
+        pipelineExecution.setPhase(StepPhase.NEXT_STEP);
+        if (pipelineExecution.getEndTime() == null) {
+            pipelineExecution.setEndTime(LocalDateTime.now());
+        }
+        pipelineExecutionRepository.save(pipelineExecution);
+        logger.info("Pipeline {} completed with status: {}", pipelineExecution.getPipelineId(), ExecutionStatus.PASSED);
+
+        refreshRuntimeVariables(pipelineExecution.getFlowExecutionId());
+
+        advance(pipelineExecution.getFlowExecutionId());
+    }
+
+    /**
+     * Recompute the flow execution's runtime variables from its passed steps in flow order, so the
+     * result does not depend on the order in which parallel steps finished.
+     */
+    private void refreshRuntimeVariables(UUID flowExecutionId) {
+        FlowExecution flowExecution = flowExecutionRepository.findById(flowExecutionId)
+                .orElseThrow(() -> new IllegalArgumentException("Flow execution not found with ID: " + flowExecutionId));
+        Flow flow = flowRepository.findById(flowExecution.getFlowId())
+                .orElseThrow(() -> new IllegalArgumentException("Flow not found with ID: " + flowExecution.getFlowId()));
+        Map<Long, PipelineExecution> executionsByStep = pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId)
+                .stream()
+                .collect(Collectors.toMap(PipelineExecution::getFlowStepId, pe -> pe, (a, b) -> a));
+
+        PersistentVariableMap accumulated = PersistentVariableMap.empty();
+        for (Long stepId : flow.getFlowStepIds()) {
+            PipelineExecution pipelineExecution = executionsByStep.get(stepId);
+            if (pipelineExecution != null && pipelineExecution.getStatus() == ExecutionStatus.PASSED) {
+                accumulated = accumulated.plusAll(pipelineExecution.getRuntimeTestData());
+            }
+        }
+        flowExecution.setRuntimeVariables(accumulated);
+        flowExecutionRepository.save(flowExecution);
+    }
+
+    private void failStep(Long pipelineExecutionId) {
+        PipelineExecution pipelineExecution = pipelineExecutionRepository.findById(pipelineExecutionId).orElse(null);
+        if (pipelineExecution == null || pipelineExecution.getPhase() == StepPhase.NEXT_STEP) {
+            return;
+        }
+        pipelineExecution.setStatus(ExecutionStatus.FAILED);
+        pipelineExecution.setPhase(StepPhase.NEXT_STEP);
+        pipelineExecution.setEndTime(LocalDateTime.now());
+        pipelineExecutionRepository.save(pipelineExecution);
+        releaseSlot(pipelineExecutionId);
+
+        advance(pipelineExecution.getFlowExecutionId());
+    }
+
+    /**
+     * Give the step's bulkhead slot back and let flows waiting for it try again. The step no longer
+     * runs, so its deadline is dropped as well.
+     */
+    void releaseSlot(Long pipelineExecutionId) {
+        deadlineScheduler.cancelStepDeadline(pipelineExecutionId);
+        pipelineBulkhead.release(pipelineExecutionId).forEach(this::start);
+    }
+
+    private void handleDeadlineExceeded(DeadlineExceededEvent event) {
+        if (event.isFlowDeadline()) {
+            timeOutFlow(event.getFlowExecutionId(), event.getTimeoutMinutes());
+            return;
+        }
+        PipelineExecution pipelineExecution = pipelineExecutionRepository.findById(event.getPipelineExecutionId()).orElse(null);
+        if (pipelineExecution == null || pipelineExecution.getStatus() != ExecutionStatus.RUNNING
+                || effectivePhase(pipelineExecution) == StepPhase.NEXT_STEP) {
+            return;
+        }
+        logger.warn("Step {} of flow execution {} timed out after {} minute(s)", pipelineExecution.getFlowStepId(),
+                   pipelineExecution.getFlowExecutionId(), event.getTimeoutMinutes());
+        stopStep(pipelineExecution, ExecutionStatus.FAILED, "Step timed out after " + event.getTimeoutMinutes() + " minute(s)");
+        advance(pipelineExecution.getFlowExecutionId());
+    }
+
+    private void timeOutFlow(UUID flowExecutionId, int timeoutMinutes) {
+        FlowExecution flowExecution = flowExecutionRepository.findById(flowExecutionId).orElse(null);
+        if (flowExecution == null || flowExecution.getStatus() != ExecutionStatus.RUNNING) {
+            return;
+        }
+        String reason = "Flow execution timed out after " + timeoutMinutes + " minute(s)";
+        logger.warn("{}: {}", reason, flowExecutionId);
+        stopActiveSteps(pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId), reason);
+        flowExecution.setFailureReason(reason);
+        completeFlow(flowExecution, ExecutionStatus.FAILED);
+    }
+
+    /**
+     * Stop the steps of a finishing flow that are still triggering or running, so no pipeline, poll or
+     * slot outlives the flow, and drop the resume timers of steps that will not run any more.
+     */
+    private void stopActiveSteps(Collection<PipelineExecution> pipelineExecutions, String reason) {
+        for (PipelineExecution pipelineExecution : pipelineExecutions) {
+            StepPhase phase = effectivePhase(pipelineExecution);
+            if (pipelineExecution.getStatus() == ExecutionStatus.RUNNING
+                    && (phase == StepPhase.TRIGGERED || phase == StepPhase.RUNNING)) {
+                stopStep(pipelineExecution, ExecutionStatus.CANCELLED, reason);
+            } else if (pipelineExecution.getStatus() == ExecutionStatus.SCHEDULED) {
+                schedulingService.cancelTimer(pipelineExecution.getId());
+            }
+        }
+    }
+
+    private void stopStep(PipelineExecution pipelineExecution, ExecutionStatus status, String reason) {
+        pipelineExecution.setStatus(status);
+        pipelineExecution.setPhase(StepPhase.NEXT_STEP);
+        pipelineExecution.setEndTime(LocalDateTime.now());
+        pipelineExecution.setFailureReason(reason);
+        onStepCancelled(pipelineExecutionRepository.save(pipelineExecution));
+    }
+
+    private void cancelGitLabPipeline(PipelineExecution pipelineExecution) {
+        if (gitLabConfig.isMockMode()) {
+            logger.info("MOCK MODE: Simulating cancellation of GitLab pipeline {}", pipelineExecution.getPipelineId());
+            return;
+        }
+        FlowStep step = flowStepRepository.findById(pipelineExecution.getFlowStepId()).orElse(null);
+        Application application = step != null ? applicationRepository.findById(step.getApplicationId()).orElse(null) : null;
+        if (application == null) {
+            logger.warn("Cannot cancel pipeline {}: application of step {} not found",
+                       pipelineExecution.getPipelineId(), pipelineExecution.getFlowStepId());
+            return;
+        }
+        String accessToken = applicationService.getDecryptedPersonalAccessToken(application.getId());
+        gitLabApiClient.cancelPipeline(gitLabConfig.getBaseUrl(), application.getGitlabProjectId(),
+                                       pipelineExecution.getPipelineId(), accessToken)
+                .subscribe(
+                        response -> logger.info("GitLab pipeline {} is {}", response.getId(), response.getStatus()),
+                        error -> logger.warn("GitLab pipeline {} could not be cancelled: {}",
+                                            pipelineExecution.getPipelineId(), error.getMessage()));
+    }
+
+    private void completeFlow(FlowExecution flowExecution, ExecutionStatus status) {
+        flowExecution.setStatus(status);
+        flowExecution.setEndTime(LocalDateTime.now());
+        flowExecutionRepository.save(flowExecution);
+        preparedStepCache.discardFlow(flowExecution.getId());
+        eventPublisher.publishEvent(new FlowExecutionFinishedEvent(flowExecution.getId(), status));
+    }
+
+    private void failFlow(UUID flowExecutionId) {
+        flowExecutionRepository.findById(flowExecutionId)
+                .filter(flowExecution -> flowExecution.getStatus() == ExecutionStatus.RUNNING)
+                .ifPresent(flowExecution -> completeFlow(flowExecution, ExecutionStatus.FAILED));
+    }
+
+    // A step that passed at its test stage while its pipeline still runs later stages
+    private static boolean isTrailing(PipelineExecution pipelineExecution) {
+        return pipelineExecution.getStatus() == ExecutionStatus.PASSED && "running".equals(pipelineExecution.getTrailingStatus());
+    }
+
+    /**
+     * Phase of a step, deriving it from the coarse status for rows written before phases existed.
+     */
+    private StepPhase effectivePhase(PipelineExecution pipelineExecution) {
+        if (pipelineExecution.getPhase() != null) {
+            return pipelineExecution.getPhase();
+        }
+        if (pipelineExecution.getStatus() == ExecutionStatus.RUNNING) {
+            return pipelineExecution.getPipelineId() != null ? StepPhase.RUNNING : StepPhase.TRIGGERED;
+        }
+        return StepPhase.PENDING;
+    }
+
+    private void dispatch(UUID flowExecutionId, Runnable transition) {
+        schedule(flowExecutionId, transition, 0);
+    }
+
+    private void schedule(UUID flowExecutionId, Runnable transition, long delayMs) {
+        taskScheduler.schedule(() -> runTransition(flowExecutionId, transition), Instant.now().plusMillis(delayMs));
+    }
+
+    private void runTransition(UUID flowExecutionId, Runnable transition) {
+        if (!flowExecutionLeaseService.isOwned(flowExecutionId)) {
+            logger.debug("Flow execution {} is not leased to this node, skipping transition", flowExecutionId);
+            // If the lease merely lapsed, let it expire so the flow is recovered instead of missing this transition
+            flowExecutionLeaseService.release(flowExecutionId);
+            return;
+        }
+        MDC.put("flowExecutionId", flowExecutionId.toString());
+        try {
+            // Each transition commits as a whole, before the next transition of the flow can read its rows
+            synchronized (locks[stripe(flowExecutionId)]) {
+                transactionTemplate.executeWithoutResult(status -> transition.run());
+            }
+        } catch (Exception e) {
+            logger.error("Flow execution failed with exception: {}", e.getMessage(), e);
+            transactionTemplate.executeWithoutResult(status -> failFlow(flowExecutionId));
+        } finally {
+            MDC.remove("flowExecutionId");
+        }
+    }
+
+    private static int stripe(UUID flowExecutionId) {
+        return Math.floorMod(flowExecutionId.hashCode(), LOCK_STRIPES);
+    }
+
+    private static final class CollectedArtifacts {
+
+        static final CollectedArtifacts NONE = new CollectedArtifacts(null, null);
+
+        final GitLabApiClient.GitLabJobsResponse job;
+        final String content;
+
+        CollectedArtifacts(GitLabApiClient.GitLabJobsResponse job, String content) {
+            this.job = job;
+            this.content = content;
+        }
+    }
+}
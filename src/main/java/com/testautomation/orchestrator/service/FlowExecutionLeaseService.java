@@ -0,0 +1,199 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.event.FlowExecutionLeaseLostEvent;
+import com.testautomation.orchestrator.model.FlowExecution;
+import com.testautomation.orchestrator.repository.FlowExecutionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Lease-based ownership of flow executions, so several orchestrator nodes can share the work.
+ *
+ * Every running flow execution is leased to exactly one node, recorded in its owner_node and
+ * lease_expires_at columns. A node leases the executions it creates, renews all its leases with a
+ * periodic heartbeat, and claims executions whose lease expired (their node stopped or lost the
+ * database) with SELECT ... FOR UPDATE SKIP LOCKED, so concurrent claims never block each other or
+ * take the same flow. The engine only runs transitions of flows leased to this node, and only while
+ * the lease was renewed recently enough that it cannot have expired in the meantime.
+ */
+@Service
+public class FlowExecutionLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowExecutionLeaseService.class);
+
+    private static final List<ExecutionStatus> RUNNING_STATUSES = List.of(ExecutionStatus.RUNNING, ExecutionStatus.IN_PROGRESS);
+
+    private static final int HEARTBEAT_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${flow-execution.cluster.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${flow-execution.cluster.lease-duration:30000}")
+    private long leaseDurationMs;
+
+    // Flow executions this node drives -> epoch millis until which their lease is known to hold
+    private final Map<UUID, Long> ownedFlowExecutions = new ConcurrentHashMap<>();
+
+    private volatile String nodeId;
+
+    /**
+     * Identifier of this node: flow-execution.cluster.node-id, or host name and server port. A stable
+     * identifier lets a restarted node pick its own flows back up without waiting for their leases to expire.
+     */
+    public String getNodeId() {
+        if (nodeId == null) {
+            nodeId = configuredNodeId != null && !configuredNodeId.isBlank() ? configuredNodeId : hostName() + ":" + serverPort;
+        }
+        return nodeId;
+    }
+
+    /**
+     * Lease a flow execution that is about to be inserted to this node
+     */
+    public void acquire(FlowExecution flowExecution) {
+        long acquiredAtMs = System.currentTimeMillis();
+        flowExecution.setOwnerNode(getNodeId());
+        flowExecution.setLeaseExpiresAt(leaseExpiry(LocalDateTime.now()));
+        ownAfterCommit(List.of(flowExecution.getId()), acquiredAtMs + leaseDurationMs);
+    }
+
+    /**
+     * Whether this node may drive the flow execution right now
+     */
+    public boolean isOwned(UUID flowExecutionId) {
+        Long validUntilMs = ownedFlowExecutions.get(flowExecutionId);
+        return validUntilMs != null && System.currentTimeMillis() < validUntilMs;
+    }
+
+    /**
+     * Stop driving a flow execution whose lease may have lapsed. It is no longer renewed, so once the
+     * lease expires a node (possibly this one) claims and recovers it from its persisted state.
+     */
+    public void release(UUID flowExecutionId) {
+        if (ownedFlowExecutions.remove(flowExecutionId) != null) {
+            logger.warn("Node {} released flow execution {}, it is recovered once its lease expires", getNodeId(), flowExecutionId);
+            eventPublisher.publishEvent(new FlowExecutionLeaseLostEvent(flowExecutionId));
+        }
+    }
+
+    /**
+     * Claim running flow executions whose lease expired, at most limit of them, plus (when includeOwn)
+     * those still leased to this node id by a previous process.
+     *
+     * @return the claimed flow executions, to be recovered by the caller
+     */
+    @Transactional
+    public List<UUID> claimExpired(int limit, boolean includeOwn) {
+        long claimedAtMs = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        Set<UUID> locked = new LinkedHashSet<>();
+        if (includeOwn) {
+            flowExecutionRepository.lockLeasesOf(getNodeId()).forEach(id -> locked.add(UUID.fromString(id)));
+        }
+        flowExecutionRepository.lockExpiredLeases(now, limit).forEach(id -> locked.add(UUID.fromString(id)));
+        if (locked.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        flowExecutionRepository.assignLeases(locked, getNodeId(), leaseExpiry(now));
+        // A flow this node still drives only had its lease renewed late; it needs no recovery
+        List<UUID> claimed = locked.stream()
+                .filter(id -> !ownedFlowExecutions.containsKey(id))
+                .collect(Collectors.toList());
+        ownAfterCommit(claimed, claimedAtMs + leaseDurationMs);
+        if (!claimed.isEmpty()) {
+            logger.info("Node {} claimed {} flow execution(s) with expired or own leases", getNodeId(), claimed.size());
+        }
+        return claimed;
+    }
+
+    /**
+     * Renew the leases of all flow executions this node drives, and drop the ones that finished, were
+     * cancelled (possibly on another node) or were taken over elsewhere in the meantime.
+     */
+    @Scheduled(fixedDelayString = "${flow-execution.cluster.heartbeat-interval:10000}", scheduler = "leaseHeartbeatScheduler")
+    @Transactional
+    public void heartbeat() {
+        long startedAtMs = System.currentTimeMillis();
+        LocalDateTime until = leaseExpiry(LocalDateTime.now());
+        List<UUID> owned = new ArrayList<>(ownedFlowExecutions.keySet());
+        int renewed = 0;
+        for (int from = 0; from < owned.size(); from += HEARTBEAT_CHUNK_SIZE) {
+            List<UUID> chunk = owned.subList(from, Math.min(from + HEARTBEAT_CHUNK_SIZE, owned.size()));
+            renewed += flowExecutionRepository.renewLeases(chunk, getNodeId(), RUNNING_STATUSES, until);
+
+            Set<UUID> released = new HashSet<>(flowExecutionRepository.findReleasedLeases(chunk, getNodeId(), RUNNING_STATUSES));
+            for (UUID flowExecutionId : chunk) {
+                if (released.contains(flowExecutionId)) {
+                    if (ownedFlowExecutions.remove(flowExecutionId) != null) {
+                        logger.debug("Flow execution {} is no longer running under node {}'s lease", flowExecutionId, getNodeId());
+                        eventPublisher.publishEvent(new FlowExecutionLeaseLostEvent(flowExecutionId));
+                    }
+                } else {
+                    // Renewed as of the start of this heartbeat; entries released meanwhile stay released
+                    ownedFlowExecutions.computeIfPresent(flowExecutionId,
+                            (id, validUntilMs) -> Math.max(validUntilMs, startedAtMs + leaseDurationMs));
+                }
+            }
+        }
+        logger.debug("Node {} renewed {} lease(s)", getNodeId(), renewed);
+    }
+
+    private LocalDateTime leaseExpiry(LocalDateTime from) {
+        return from.plus(Duration.ofMillis(leaseDurationMs));
+    }
+
+    private void ownAfterCommit(Collection<UUID> flowExecutionIds, long validUntilMs) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            flowExecutionIds.forEach(id -> ownedFlowExecutions.put(id, validUntilMs));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                flowExecutionIds.forEach(id -> ownedFlowExecutions.put(id, validUntilMs));
+            }
+        });
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+}
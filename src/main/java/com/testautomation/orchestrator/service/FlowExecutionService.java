@@ -2,27 +2,24 @@ package com.testautomation.orchestrator.service;
 
 import com.testautomation.orchestrator.dto.*;
 import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.enums.StepPhase;
 import com.testautomation.orchestrator.model.*;
 import com.testautomation.orchestrator.repository.*;
-import com.testautomation.orchestrator.util.GitLabApiClient;
-import com.testautomation.orchestrator.util.OutputEnvParser;
+import com.testautomation.orchestrator.util.PersistentVariableMap;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.stream.Collectors;
 
 @Service
@@ -53,107 +50,13 @@ public class FlowExecutionService {
     private ApplicationRepository applicationRepository;
 
     @Autowired
-    private GitLabApiClient gitLabApiClient;
+    private FlowExecutionEngine flowExecutionEngine;
 
     @Autowired
-    private OutputEnvParser outputEnvParser;
-
-    @Autowired
-    private ApplicationService applicationService;
-
-    @Autowired
-    private com.testautomation.orchestrator.config.GitLabConfig gitLabConfig;
-
-    @org.springframework.beans.factory.annotation.Value("${scheduling.pipeline-status.polling-interval:60000}")
-    private long scheduledPollingIntervalMs;
-
-    @org.springframework.beans.factory.annotation.Value("${flow-execution.polling-interval:15000}")
-    private long flowExecutionPollingIntervalMs;
-
-    @Autowired(required = false)
-    @Qualifier("flowExecutionTaskExecutor")
-    private ThreadPoolTaskExecutor flowExecutionTaskExecutor;
-
-    public Map<String, Object> executeMultipleFlows(String flowIdsParam) {
-        logger.info("Processing multiple flow execution request: {}", flowIdsParam);
-
-        // Parse and validate flow IDs
-        List<Long> flowIds = parseAndValidateFlowIds(flowIdsParam);
-
-        // Get current thread pool status (handle test environment where executor might be null)
-        int activeThreads = 0;
-        int maxThreads = 20; // default
-        int queueSize = 0;
-        int availableCapacity = 20; // default
-
-        if (flowExecutionTaskExecutor != null) {
-            activeThreads = flowExecutionTaskExecutor.getActiveCount();
-            maxThreads = flowExecutionTaskExecutor.getMaxPoolSize();
-            queueSize = flowExecutionTaskExecutor.getThreadPoolExecutor().getQueue().size();
-            availableCapacity = (maxThreads - activeThreads) +
-                                (flowExecutionTaskExecutor.getThreadPoolExecutor().getQueue().remainingCapacity());
-        } else {
-            logger.warn("ThreadPoolTaskExecutor not available (likely test environment), using default capacity values");
-        }
-
-        logger.info("Thread pool status - Active: {}, Max: {}, Queue Size: {}, Available Capacity: {}",
-                   activeThreads, maxThreads, queueSize, availableCapacity);
-
-        // Create flow executions synchronously first, then start async execution
-        List<FlowExecutionDto> acceptedExecutions = new ArrayList<>();
-        List<Map<String, Object>> rejected = new ArrayList<>();
-
-        for (int i = 0; i < flowIds.size(); i++) {
-            Long flowId = flowIds.get(i);
-
-            if (i < availableCapacity) {
-                try {
-                    // Create the flow execution record synchronously to get the UUID and details
-                    // This only creates the database record, no GitLab interaction yet
-                    FlowExecutionDto executionDto = createFlowExecution(flowId);
-                    acceptedExecutions.add(executionDto);
-
-                    logger.info("Flow {} accepted for execution with ID: {}", flowId, executionDto.getId());
-                } catch (IllegalArgumentException e) {
-                    logger.error("Flow {} rejected during creation: {}", flowId, e.getMessage());
-                    Map<String, Object> rejectedFlow = new HashMap<>();
-                    rejectedFlow.put("flowId", flowId);
-                    rejectedFlow.put("status", "rejected");
-                    rejectedFlow.put("reason", "flow_not_found");
-                    rejectedFlow.put("message", e.getMessage());
-                    rejected.add(rejectedFlow);
-                }
-            } else {
-                Map<String, Object> rejectedFlow = new HashMap<>();
-                rejectedFlow.put("flowId", flowId);
-                rejectedFlow.put("status", "rejected");
-                rejectedFlow.put("reason", "thread_pool_capacity");
-                rejectedFlow.put("message", "Thread pool at capacity, flow execution rejected");
-                rejected.add(rejectedFlow);
-
-                logger.warn("Flow {} rejected due to thread pool capacity", flowId);
-            }
-        }
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("summary", Map.of(
-            "total_requested", flowIds.size(),
-            "accepted", acceptedExecutions.size(),
-            "rejected", rejected.size()
-        ));
-        result.put("accepted", acceptedExecutions);  // Now contains FlowExecutionDto objects
-        result.put("rejected", rejected);
-        result.put("thread_pool_status", Map.of(
-            "active_threads", activeThreads,
-            "max_threads", maxThreads,
-            "queue_size", queueSize,
-            "available_capacity", availableCapacity
-        ));
-
-        logger.info("Multiple flow execution request processed immediately - Accepted: {}, Rejected: {}", acceptedExecutions.size(), rejected.size());
-        return result;
-    }
+    private FlowExecutionLeaseService flowExecutionLeaseService;
 
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public Page<FlowExecutionDto> searchExecutionsByFlowIds(String flowIdsParam, String term, Pageable pageable) {
         logger.debug("Searching executions for multiple flows: {} with term '{}'", flowIdsParam, term);
@@ -205,7 +108,7 @@ public class FlowExecutionService {
         return new PageImpl<>(executionDtos, pageable, executionsPage.getTotalElements());
     }
 
-    private List<Long> parseAndValidateFlowIds(String flowIdsParam) {
+    List<Long> parseAndValidateFlowIds(String flowIdsParam) {
         if (flowIdsParam == null || flowIdsParam.trim().isEmpty()) {
             throw new IllegalArgumentException("Flow IDs parameter cannot be empty");
         }
@@ -239,6 +142,11 @@ public class FlowExecutionService {
         return uniqueFlowIds;
     }
 
+    /**
+     * Create a flow execution with a PENDING placeholder per step and return without calling GitLab.
+     * The engine triggers the root steps once executeFlowAsync hands the execution over, so the
+     * request never waits on a pipeline trigger.
+     */
     public FlowExecutionDto createFlowExecution(Long flowId) {
         logger.info("Creating flow execution for flow ID: {}", flowId);
 
@@ -247,16 +155,14 @@ public class FlowExecutionService {
 
         // Create flow execution record
         FlowExecution flowExecution = new FlowExecution(flowId, new HashMap<>());
+        flowExecutionLeaseService.acquire(flowExecution);
         flowExecution = flowExecutionRepository.save(flowExecution);
 
         // Pre-create placeholder PipelineExecution records for immediate visibility
         List<Long> stepIds = flow.getFlowStepIds();
-        List<PipelineExecution> pipelineExecutions = new ArrayList<>();
-
-        for (int i = 0; i < stepIds.size(); i++) {
-            Long stepId = stepIds.get(i);
-            FlowStep step = flowStepRepository.findById(stepId)
-                    .orElseThrow(() -> new IllegalArgumentException("Flow step not found with ID: " + stepId));
+        Map<Long, FlowStep> stepsById = loadFlowSteps(flow);
+        for (Long stepId : stepIds) {
+            FlowStep step = stepsById.get(stepId);
 
             PipelineExecution placeholder = new PipelineExecution();
             placeholder.setFlowId(flowId);
@@ -265,269 +171,123 @@ public class FlowExecutionService {
             // Pre-populate configured test data so clients can see inputs early
             placeholder.setConfiguredTestData(testDataService.mergeTestDataByIds(step.getTestDataIds()));
             placeholder.setRuntimeTestData(null);
-
-            if (i == 0) {
-                // Trigger the first pipeline asynchronously (return immediately after getting pipelineId/pipelineUrl)
-                logger.info("Triggering first pipeline asynchronously for step: {}", stepId);
-                PipelineExecution firstPipeline = triggerPipelineAsynchronously(flowExecution, step, placeholder);
-                pipelineExecutions.add(firstPipeline);
-            } else {
-                // Create placeholder for subsequent steps
-                placeholder.setStatus(ExecutionStatus.SCHEDULED);
-                placeholder.setStartTime(null);
-                pipelineExecutionTxService.saveNew(placeholder);
-                pipelineExecutions.add(placeholder);
-            }
+            placeholder.setStatus(ExecutionStatus.SCHEDULED);
+            placeholder.setPhase(StepPhase.PENDING);
+            placeholder.setStartTime(null);
+            pipelineExecutionTxService.saveNew(placeholder);
         }
 
-        logger.info("Created flow execution with ID: {} and triggered first pipeline asynchronously", flowExecution.getId());
+        logger.info("Created flow execution with ID: {} and {} step placeholder(s)", flowExecution.getId(), stepIds.size());
         return convertToDtoWithDetails(flowExecution);
     }
 
     /**
-     * Trigger the first pipeline and return immediately once we have pipelineId/pipelineUrl
-     * Completion polling happens asynchronously
+     * Create the executions of a batch of entries admitted from the execution queue at once.
+     *
+     * Flows, steps, test data and applications are loaded with one IN query each, and the executions
+     * and their step placeholders are inserted in JDBC batches in this transaction. As with
+     * createFlowExecution no pipeline is triggered here: every step starts PENDING and the engine
+     * triggers the root steps once executeFlowAsync hands the execution over.
+     *
+     * Entries of a matrix execution carry their variant's variables, which are applied over the test
+     * data of every step; the merged test data of a step is shared by all variants.
+     *
+     * @return one execution per entry, in entry order (a flow ID may repeat)
      */
-    private PipelineExecution triggerPipelineAsynchronously(FlowExecution flowExecution, FlowStep step, PipelineExecution pipelineExecution) {
-        try {
-            Application application = applicationRepository.findById(step.getApplicationId())
-                    .orElseThrow(() -> new IllegalArgumentException("Application not found with ID: " + step.getApplicationId()));
-
-            // Prepare variables for the first pipeline
-            Map<String, String> pipelineVariables = new HashMap<>();
-            Map<String, String> stepTestData = testDataService.mergeTestDataByIds(step.getTestDataIds());
-            pipelineVariables.putAll(stepTestData);
-
-            // Add the testTag from FlowStep to make it available in GitLab pipeline scope
-            if (step.getTestTag() != null && !step.getTestTag().trim().isEmpty()) {
-                pipelineVariables.put("testTag", step.getTestTag());
-                logger.debug("Added testTag '{}' to pipeline variables for first step {}", step.getTestTag(), step.getId());
+    public List<FlowExecutionDto> createFlowExecutions(List<ExecutionQueueEntry> entries) {
+        logger.info("Creating {} flow execution(s) in bulk", entries.size());
+        List<Long> flowIds = entries.stream().map(ExecutionQueueEntry::getFlowId).collect(Collectors.toList());
+
+        Map<Long, Flow> flowsById = flowRepository.findAllById(new HashSet<>(flowIds)).stream()
+                .collect(Collectors.toMap(Flow::getId, flow -> flow));
+        Set<Long> stepIds = new LinkedHashSet<>();
+        for (Long flowId : flowIds) {
+            Flow flow = flowsById.get(flowId);
+            if (flow == null) {
+                throw new IllegalArgumentException("Flow not found with ID: " + flowId);
             }
-
-            // Save the pipeline execution record first
-            pipelineExecution.setStatus(ExecutionStatus.RUNNING);
-            pipelineExecution.setStartTime(LocalDateTime.now());
-            pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
-
-            if (gitLabConfig.isMockMode()) {
-                // Mock mode for testing
-                logger.info("MOCK MODE: Simulating first GitLab pipeline execution for project {} on branch {}",
-                           application.getGitlabProjectId(), step.getBranch());
-
-                // Simulate pipeline response
-                long mockPipelineId = System.currentTimeMillis();
-                String mockPipelineUrl = String.format("https://gitlab.com/%s/-/pipelines/%d",
-                                                      application.getGitlabProjectId(), mockPipelineId);
-
-                pipelineExecution.setPipelineId(mockPipelineId);
-                pipelineExecution.setPipelineUrl(mockPipelineUrl);
-                pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
-
-                logger.info("MOCK: First pipeline triggered successfully: {} for step {}", mockPipelineId, step.getId());
-
-            } else {
-                // Real GitLab API call
-                GitLabApiClient.GitLabPipelineResponse response = null;
-                try {
-                    response = gitLabApiClient
-                            .triggerPipeline(gitLabConfig.getBaseUrl(), application.getGitlabProjectId(),
-                                           step.getBranch(), applicationService.getDecryptedPersonalAccessToken(application.getId()), pipelineVariables)
-                            .doOnError(error -> {
-                                logger.error("GitLab API call failed for first pipeline project {} on branch {}: {}",
-                                           application.getGitlabProjectId(), step.getBranch(), error.getMessage());
-                                if (error.getMessage().contains("400")) {
-                                    logger.error("This is likely due to invalid GitLab project ID, branch name, or access token");
-                                }
-                            })
-                            .block();
-                } catch (Exception apiError) {
-                    logger.error("GitLab API call failed for first pipeline: {}", apiError.getMessage());
-                    response = null;
-                }
-
-                if (response != null) {
-                    pipelineExecution.setPipelineId(response.getId());
-                    pipelineExecution.setPipelineUrl(response.getWebUrl());
-                    pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
-
-                    logger.info("First pipeline triggered successfully: {} for step {}", response.getId(), step.getId());
-
-                    // Note: Polling for completion will be handled by executeFlowAsync
-
-                } else {
-                    logger.error("Failed to trigger first pipeline - null response from GitLab API");
-                    pipelineExecution.setStatus(ExecutionStatus.FAILED);
-                    pipelineExecution.setEndTime(LocalDateTime.now());
-                    pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
-                }
+            stepIds.addAll(flow.getFlowStepIds());
+        }
+        Map<Long, FlowStep> stepsById = flowStepRepository.findByIdIn(new ArrayList<>(stepIds)).stream()
+                .collect(Collectors.toMap(FlowStep::getId, step -> step));
+        for (Long stepId : stepIds) {
+            if (!stepsById.containsKey(stepId)) {
+                throw new IllegalArgumentException("Flow step not found with ID: " + stepId);
             }
-
-        } catch (Exception e) {
-            logger.error("Failed to trigger first pipeline synchronously: {}", e.getMessage(), e);
-            pipelineExecution.setStatus(ExecutionStatus.FAILED);
-            pipelineExecution.setEndTime(LocalDateTime.now());
-            pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
         }
+        Map<Long, PersistentVariableMap> testDataByStep = new HashMap<>();
+        testDataService.mergeTestDataByStep(stepsById.values())
+                .forEach((stepId, testData) -> testDataByStep.put(stepId, PersistentVariableMap.of(testData)));
+        Map<Long, Application> applicationsById = applicationRepository.findAllById(
+                        stepsById.values().stream().map(FlowStep::getApplicationId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Application::getId, application -> application));
+
+        Map<FlowExecution, List<PipelineExecution>> created = new LinkedHashMap<>();
+        for (ExecutionQueueEntry entry : entries) {
+            Long flowId = entry.getFlowId();
+            FlowExecution flowExecution = new FlowExecution(flowId, new HashMap<>());
+            flowExecution.setMatrixExecutionId(entry.getMatrixExecutionId());
+            flowExecution.setVariantName(entry.getVariantName());
+            flowExecution.setVariableOverrides(entry.getVariableOverrides());
+            flowExecutionLeaseService.acquire(flowExecution);
+            entityManager.persist(flowExecution);
+
+            List<PipelineExecution> placeholders = new ArrayList<>();
+            for (Long stepId : flowsById.get(flowId).getFlowStepIds()) {
+                PipelineExecution placeholder = new PipelineExecution();
+                placeholder.setFlowId(flowId);
+                placeholder.setFlowExecutionId(flowExecution.getId());
+                placeholder.setFlowStepId(stepId);
+                placeholder.setConfiguredTestData(testDataByStep.get(stepId).plusAll(entry.getVariableOverrides()));
+                placeholder.setStatus(ExecutionStatus.SCHEDULED);
+                placeholder.setPhase(StepPhase.PENDING);
+                placeholder.setStartTime(null);
+                entityManager.persist(placeholder);
+                placeholders.add(placeholder);
+            }
+            created.put(flowExecution, placeholders);
+        }
+        // Sends the batched inserts and fills in generated timestamps for the returned DTOs
+        entityManager.flush();
+
+        List<FlowExecutionDto> result = new ArrayList<>();
+        created.forEach((flowExecution, placeholders) -> {
+            Flow flow = flowsById.get(flowExecution.getFlowId());
+            List<FlowStep> flowSteps = flow.getFlowStepIds().stream().map(stepsById::get).collect(Collectors.toList());
+            FlowExecutionDto dto = convertToDto(flowExecution);
+            dto.setFlow(convertFlowToDto(flow));
+            dto.setFlowSteps(flowSteps.stream().map(this::convertFlowStepToDto).collect(Collectors.toList()));
+            dto.setApplications(flowSteps.stream().map(FlowStep::getApplicationId).distinct()
+                    .map(applicationsById::get).filter(Objects::nonNull)
+                    .map(this::convertApplicationToDto).collect(Collectors.toList()));
+            dto.setPipelineExecutions(placeholders.stream().map(this::convertPipelineExecutionToDto).collect(Collectors.toList()));
+            result.add(dto);
+        });
 
-        return pipelineExecution;
+        logger.info("Created {} flow execution(s) with {} step placeholder(s)", result.size(),
+                   created.values().stream().mapToInt(List::size).sum());
+        return result;
     }
 
-    @Async("pipelinePollingTaskExecutor")
-    public void pollPipelineCompletionAsync(PipelineExecution pipelineExecution, Application application, String gitlabBaseUrl, FlowStep step) {
-        logger.info("Starting async polling for first pipeline completion: {}", pipelineExecution.getPipelineId());
-
-        try {
-            while (true) {
-                GitLabApiClient.GitLabPipelineResponse status = gitLabApiClient
-                        .getPipelineStatus(gitlabBaseUrl, application.getGitlabProjectId(),
-                                         pipelineExecution.getPipelineId(), applicationService.getDecryptedPersonalAccessToken(application.getId()))
-                        .block();
-
-                if (status != null && status.isCompleted()) {
-                    pipelineExecution.setStatus(status.isSuccessful() ? ExecutionStatus.PASSED : ExecutionStatus.FAILED);
-                    pipelineExecution.setEndTime(LocalDateTime.now());
-
-                    // Download artifacts if successful
-                    if (status.isSuccessful()) {
-                        downloadAndParseArtifacts(pipelineExecution, application, gitlabBaseUrl, step);
-                    }
-
-                    pipelineExecutionRepository.save(pipelineExecution);
-                    logger.info("First pipeline {} completed with status: {}", pipelineExecution.getPipelineId(), pipelineExecution.getStatus());
-                    break;
-                }
-
-                // Wait before next poll - configurable via application.yml
-                Thread.sleep(flowExecutionPollingIntervalMs);
+    private Map<Long, FlowStep> loadFlowSteps(Flow flow) {
+        Map<Long, FlowStep> stepsById = flowStepRepository.findByIdIn(flow.getFlowStepIds()).stream()
+                .collect(Collectors.toMap(FlowStep::getId, step -> step));
+        for (Long stepId : flow.getFlowStepIds()) {
+            if (!stepsById.containsKey(stepId)) {
+                throw new IllegalArgumentException("Flow step not found with ID: " + stepId);
             }
-        } catch (Exception e) {
-            logger.error("Error polling first pipeline completion: {}", e.getMessage(), e);
-            pipelineExecution.setStatus(ExecutionStatus.FAILED);
-            pipelineExecution.setEndTime(LocalDateTime.now());
-            pipelineExecutionRepository.save(pipelineExecution);
         }
+        return stepsById;
     }
 
-    @Async("flowExecutionTaskExecutor")
-    public CompletableFuture<FlowExecutionDto> executeFlowAsync(UUID flowExecutionId) {
+    /**
+     * Hand a created flow execution over to the event-driven engine and return immediately.
+     * No thread is held while the flow's pipelines run.
+     */
+    public void executeFlowAsync(UUID flowExecutionId) {
         logger.info("Starting async execution of flow execution ID: {}", flowExecutionId);
-
-        // Set up logging context manually
-        org.slf4j.MDC.put("flowExecutionId", flowExecutionId.toString());
-
-        FlowExecution flowExecution = null;
-        try {
-            flowExecution = flowExecutionRepository.findById(flowExecutionId)
-                    .orElseThrow(() -> new IllegalArgumentException("Flow execution not found with ID: " + flowExecutionId));
-
-            final Long flowId = flowExecution.getFlowId();
-            Flow flow = flowRepository.findById(flowId)
-                    .orElseThrow(() -> new IllegalArgumentException("Flow not found with ID: " + flowId));
-
-            // Execute steps sequentially
-            Map<String, String> accumulatedRuntimeVariables = new HashMap<>();
-
-            for (int i = 0; i < flow.getFlowStepIds().size(); i++) {
-                Long stepId = flow.getFlowStepIds().get(i);
-                FlowStep step = flowStepRepository.findById(stepId)
-                        .orElseThrow(() -> new IllegalArgumentException("Flow step not found with ID: " + stepId));
-
-                Application application = applicationRepository.findById(step.getApplicationId())
-                        .orElseThrow(() -> new IllegalArgumentException("Application not found with ID: " + stepId));
-
-                // Check if this pipeline step is already running or completed (from createFlowExecution trigger)
-                PipelineExecution existingPipelineExecution = pipelineExecutionRepository
-                        .findByFlowExecutionIdAndFlowStepId(flowExecution.getId(), stepId)
-                        .orElse(null);
-
-                if (existingPipelineExecution != null &&
-                    (existingPipelineExecution.getStatus() == ExecutionStatus.RUNNING ||
-                     existingPipelineExecution.getStatus() == ExecutionStatus.PASSED ||
-                     existingPipelineExecution.getStatus() == ExecutionStatus.FAILED)) {
-                    // Pipeline already triggered, just wait for completion and accumulate variables
-                    logger.debug("Pipeline for step {} already triggered with status: {}, waiting for completion",
-                               stepId, existingPipelineExecution.getStatus());
-
-                    // Wait for completion if still running
-                    if (existingPipelineExecution.getStatus() == ExecutionStatus.RUNNING) {
-                        existingPipelineExecution = waitForPipelineCompletion(existingPipelineExecution, application, step);
-                    }
-
-                    if (existingPipelineExecution.getStatus() == ExecutionStatus.FAILED) {
-                        // Mark flow as failed and stop execution
-                        flowExecution.setStatus(ExecutionStatus.FAILED);
-                        flowExecution.setEndTime(LocalDateTime.now());
-                        flowExecution.setRuntimeVariables(accumulatedRuntimeVariables);
-                        flowExecutionRepository.save(flowExecution);
-
-                        logger.error("Flow execution failed at step: {}", stepId);
-                        return CompletableFuture.completedFuture(convertToDto(flowExecution));
-                    }
-
-                    // Accumulate runtime variables from this step for next steps
-                    if (existingPipelineExecution.getRuntimeTestData() != null) {
-                        accumulatedRuntimeVariables.putAll(existingPipelineExecution.getRuntimeTestData());
-                        logger.debug("Accumulated runtime variables after step {}: {}", stepId, accumulatedRuntimeVariables);
-                    }
-
-                    continue; // Skip to next step
-                }
-
-                // Prepare variables for this pipeline: FlowStep TestData + Accumulated Runtime
-                Map<String, String> pipelineVariables = new HashMap<>();
-
-                // 1. Start with merged test data from TestData table
-                Map<String, String> stepTestData = testDataService.mergeTestDataByIds(step.getTestDataIds());
-                pipelineVariables.putAll(stepTestData);
-
-                // 2. Add accumulated runtime variables from previous steps (can override test data)
-                pipelineVariables.putAll(accumulatedRuntimeVariables);
-
-                logger.debug("Pipeline variables for step {}: {}", stepId, pipelineVariables);
-
-                // Execute pipeline step
-                PipelineExecution pipelineExecution = executePipelineStep(flowExecution, step, application, pipelineVariables);
-
-                if (pipelineExecution.getStatus() == ExecutionStatus.FAILED) {
-                    // Mark flow as failed and stop execution
-                    flowExecution.setStatus(ExecutionStatus.FAILED);
-                    flowExecution.setEndTime(LocalDateTime.now());
-                    flowExecution.setRuntimeVariables(accumulatedRuntimeVariables);
-                    flowExecutionRepository.save(flowExecution);
-
-                    logger.error("Flow execution failed at step: {}", stepId);
-                    return CompletableFuture.completedFuture(convertToDto(flowExecution));
-                }
-
-                // Accumulate runtime variables from this step for next steps
-                if (pipelineExecution.getRuntimeTestData() != null) {
-                    accumulatedRuntimeVariables.putAll(pipelineExecution.getRuntimeTestData());
-                    logger.debug("Accumulated runtime variables after step {}: {}", stepId, accumulatedRuntimeVariables);
-                }
-            }
-
-            // Mark flow as successful
-            flowExecution.setStatus(ExecutionStatus.PASSED);
-            flowExecution.setEndTime(LocalDateTime.now());
-            flowExecution.setRuntimeVariables(accumulatedRuntimeVariables);
-            flowExecution = flowExecutionRepository.save(flowExecution);
-
-            logger.info("Flow execution completed successfully: {}", flowExecution.getId());
-
-            return CompletableFuture.completedFuture(convertToDto(flowExecution));
-        } catch (Exception e) {
-            logger.error("Flow execution failed with exception: {}", e.getMessage(), e);
-
-            if (flowExecution != null) {
-                flowExecution.setStatus(ExecutionStatus.FAILED);
-                flowExecution.setEndTime(LocalDateTime.now());
-                flowExecutionRepository.save(flowExecution);
-            }
-            // Propagate exception so that the CompletableFuture completes exceptionally
-            throw new RuntimeException(e);
-        } finally {
-            org.slf4j.MDC.remove("flowExecutionId");
-        }
+        flowExecutionEngine.start(flowExecutionId);
     }
 
     public FlowExecutionDto createReplayFlowExecution(UUID originalFlowExecutionId, Long failedFlowStepId) {
@@ -548,36 +308,40 @@ public class FlowExecutionService {
             throw new IllegalArgumentException("Failed flow step ID " + failedFlowStepId + " is not part of flow " + flow.getId());
         }
 
-        // Get all successful pipeline executions up to the failed step to extract runtime variables
-        Map<String, String> accumulatedRuntimeVariables = extractRuntimeVariablesUpToStep(originalFlowExecutionId, failedFlowStepId, flow);
-
-        // Create new flow execution record for replay
-        FlowExecution replayExecution = new FlowExecution(originalExecution.getFlowId(), accumulatedRuntimeVariables);
-        replayExecution.setIsReplay(true);
-        replayExecution.setOriginalFlowExecutionId(originalFlowExecutionId);
-        replayExecution = flowExecutionRepository.save(replayExecution);
-
-        // Build a map of original successful pipelines before the failed step (by flowStepId)
-        int failedStepIndex = flow.getFlowStepIds().indexOf(failedFlowStepId);
+        // Steps that passed in the original execution and do not depend on the failed step are carried over
+        Map<Long, FlowStep> stepsById = loadFlowSteps(flow);
+        Set<Long> rerunStepIds = new HashSet<>(FlowExecutionEngine.stepGraph(flow, stepsById.values()).getDescendants(failedFlowStepId));
+        rerunStepIds.add(failedFlowStepId);
         List<PipelineExecution> originalPipelinesOrdered = pipelineExecutionRepository
                 .findByFlowExecutionIdOrderByCreatedAt(originalFlowExecutionId);
         Map<Long, PipelineExecution> originalPassedByStep = originalPipelinesOrdered.stream()
                 .filter(pe -> pe.getStatus() == ExecutionStatus.PASSED)
+                .filter(pe -> !rerunStepIds.contains(pe.getFlowStepId()))
                 .collect(Collectors.toMap(PipelineExecution::getFlowStepId, pe -> pe, (a, b) -> a));
 
-        // 1) Pre-create "carried" entries for steps BEFORE the failed step, mark PASSED and reference original pipeline/job
-        for (int i = 0; i < failedStepIndex; i++) {
-            Long stepId = flow.getFlowStepIds().get(i);
-            FlowStep step = flowStepRepository.findById(stepId)
-                    .orElseThrow(() -> new IllegalArgumentException("Flow step not found with ID: " + stepId));
+        // Get all successful pipeline executions carried over to extract runtime variables
+        PersistentVariableMap accumulatedRuntimeVariables = extractRuntimeVariables(flow, originalPassedByStep, failedFlowStepId);
+
+        // Create new flow execution record for replay
+        FlowExecution replayExecution = new FlowExecution(originalExecution.getFlowId(), accumulatedRuntimeVariables);
+        replayExecution.setIsReplay(true);
+        replayExecution.setOriginalFlowExecutionId(originalFlowExecutionId);
+        // A replayed variant of a matrix execution keeps its variables, but is not part of the matrix
+        replayExecution.setVariantName(originalExecution.getVariantName());
+        replayExecution.setVariableOverrides(originalExecution.getVariableOverrides());
+        flowExecutionLeaseService.acquire(replayExecution);
+        replayExecution = flowExecutionRepository.save(replayExecution);
 
+        for (Long stepId : flow.getFlowStepIds()) {
+            FlowStep step = stepsById.get(stepId);
             PipelineExecution originalPe = originalPassedByStep.get(stepId);
-            PipelineExecution carried = new PipelineExecution();
-            carried.setFlowId(replayExecution.getFlowId());
-            carried.setFlowExecutionId(replayExecution.getId());
-            carried.setFlowStepId(stepId);
-            // preserve inputs/outputs from original successful step
+
             if (originalPe != null) {
+                // 1) "Carried" entry: mark PASSED and reference original pipeline/job, preserving inputs/outputs
+                PipelineExecution carried = new PipelineExecution();
+                carried.setFlowId(replayExecution.getFlowId());
+                carried.setFlowExecutionId(replayExecution.getId());
+                carried.setFlowStepId(stepId);
                 carried.setConfiguredTestData(originalPe.getConfiguredTestData());
                 carried.setRuntimeTestData(originalPe.getRuntimeTestData());
                 carried.setPipelineId(originalPe.getPipelineId());
@@ -586,531 +350,98 @@ public class FlowExecutionService {
                 carried.setJobUrl(originalPe.getJobUrl());
                 carried.setStartTime(originalPe.getStartTime());
                 carried.setEndTime(originalPe.getEndTime());
+                carried.setStatus(ExecutionStatus.PASSED);
+                carried.setPhase(StepPhase.NEXT_STEP);
+                carried.setIsReplay(true);
+                carried.setOriginalFlowExecutionId(originalFlowExecutionId);
+                pipelineExecutionTxService.saveNew(carried);
             } else {
-                // Fallback to current config if no original found
-                carried.setConfiguredTestData(testDataService.mergeTestDataByIds(step.getTestDataIds()));
-                carried.setRuntimeTestData(new HashMap<>(accumulatedRuntimeVariables));
+                // 2) Placeholder for the failed step, the steps depending on it and any step that did not pass
+                PipelineExecution placeholder = new PipelineExecution();
+                placeholder.setFlowId(replayExecution.getFlowId());
+                placeholder.setFlowExecutionId(replayExecution.getId());
+                placeholder.setFlowStepId(stepId);
+                placeholder.setConfiguredTestData(PersistentVariableMap.of(testDataService.mergeTestDataByIds(step.getTestDataIds()))
+                        .plusAll(originalExecution.getVariableOverrides()));
+                // Seed with accumulated variables present at replay start; immutable, so shared by every placeholder
+                placeholder.setRuntimeTestData(accumulatedRuntimeVariables);
+                placeholder.setStatus(ExecutionStatus.SCHEDULED);
+                placeholder.setPhase(StepPhase.PENDING);
+                placeholder.setStartTime(null);
+                placeholder.setIsReplay(true);
+                placeholder.setOriginalFlowExecutionId(originalFlowExecutionId);
+                pipelineExecutionTxService.saveNew(placeholder);
             }
-            carried.setStatus(ExecutionStatus.PASSED);
-            carried.setIsReplay(true);
-            carried.setOriginalFlowExecutionId(originalFlowExecutionId);
-            pipelineExecutionTxService.saveNew(carried);
-        }
-
-        // 2) Pre-create placeholders only for steps from failedStep onwards
-        for (int i = failedStepIndex; i < flow.getFlowStepIds().size(); i++) {
-            Long stepId = flow.getFlowStepIds().get(i);
-            FlowStep step = flowStepRepository.findById(stepId)
-                    .orElseThrow(() -> new IllegalArgumentException("Flow step not found with ID: " + stepId));
-            PipelineExecution placeholder = new PipelineExecution();
-            placeholder.setFlowId(replayExecution.getFlowId());
-            placeholder.setFlowExecutionId(replayExecution.getId());
-            placeholder.setFlowStepId(stepId);
-            placeholder.setConfiguredTestData(testDataService.mergeTestDataByIds(step.getTestDataIds()));
-            // Seed with accumulated variables present at replay start
-            placeholder.setRuntimeTestData(new HashMap<>(accumulatedRuntimeVariables));
-            placeholder.setStatus(ExecutionStatus.SCHEDULED);
-            placeholder.setStartTime(null);
-            placeholder.setIsReplay(true);
-            placeholder.setOriginalFlowExecutionId(originalFlowExecutionId);
-            pipelineExecutionTxService.saveNew(placeholder);
         }
 
         logger.info("Created replay flow execution with ID: {} for original execution: {} and pre-created placeholders from step {} onward", replayExecution.getId(), originalFlowExecutionId, failedFlowStepId);
         return convertToDto(replayExecution);
     }
 
-    @Async("flowExecutionTaskExecutor")
-    public CompletableFuture<FlowExecutionDto> executeReplayFlowAsync(UUID replayFlowExecutionId, UUID originalFlowExecutionId, Long failedFlowStepId) {
+    /**
+     * Hand a replay execution over to the engine. Carried steps are already PASSED, so the engine
+     * resumes from the failed step with the restored runtime variables.
+     */
+    public void executeReplayFlowAsync(UUID replayFlowExecutionId, UUID originalFlowExecutionId, Long failedFlowStepId) {
         logger.info("Starting async replay execution of flow execution ID: {} from step: {}", replayFlowExecutionId, failedFlowStepId);
-
-        // Set up logging context manually
-        org.slf4j.MDC.put("flowExecutionId", replayFlowExecutionId.toString());
-
-        FlowExecution replayExecution = null;
-        try {
-            replayExecution = flowExecutionRepository.findById(replayFlowExecutionId)
-                    .orElseThrow(() -> new IllegalArgumentException("Replay flow execution not found with ID: " + replayFlowExecutionId));
-
-            final Long flowId = replayExecution.getFlowId();
-            Flow flow = flowRepository.findById(flowId)
-                    .orElseThrow(() -> new IllegalArgumentException("Flow not found with ID: " + flowId));
-
-            // Start execution from the failed step onwards
-            Map<String, String> accumulatedRuntimeVariables = new HashMap<>(replayExecution.getRuntimeVariables());
-            int failedStepIndex = flow.getFlowStepIds().indexOf(failedFlowStepId);
-
-            for (int i = failedStepIndex; i < flow.getFlowStepIds().size(); i++) {
-                Long stepId = flow.getFlowStepIds().get(i);
-                FlowStep step = flowStepRepository.findById(stepId)
-                        .orElseThrow(() -> new IllegalArgumentException("Flow step not found with ID: " + stepId));
-
-                Application application = applicationRepository.findById(step.getApplicationId())
-                        .orElseThrow(() -> new IllegalArgumentException("Application not found with ID: " + step.getApplicationId()));
-
-                // Only execute pipeline steps from failed step onwards - skip successful steps
-                if (i < failedStepIndex) {
-                    logger.debug("Skipping successful step {} in replay execution", stepId);
-                    continue;
-                }
-
-                // Prepare variables for this pipeline: FlowStep TestData + Accumulated Runtime
-                Map<String, String> pipelineVariables = new HashMap<>();
-
-                // 1. Start with merged test data from TestData table
-                Map<String, String> stepTestData = testDataService.mergeTestDataByIds(step.getTestDataIds());
-                pipelineVariables.putAll(stepTestData);
-
-                // 2. Add accumulated runtime variables from previous steps (can override test data)
-                pipelineVariables.putAll(accumulatedRuntimeVariables);
-
-                logger.debug("Replay pipeline variables for step {}: {}", stepId, pipelineVariables);
-
-                // Execute pipeline step with replay flag
-                PipelineExecution pipelineExecution = executeReplayPipelineStep(replayExecution, step, application, pipelineVariables, originalFlowExecutionId);
-
-                if (pipelineExecution.getStatus() == ExecutionStatus.FAILED) {
-                    // Mark replay flow as failed and stop execution
-                    replayExecution.setStatus(ExecutionStatus.FAILED);
-                    replayExecution.setEndTime(LocalDateTime.now());
-                    replayExecution.setRuntimeVariables(accumulatedRuntimeVariables);
-                    flowExecutionRepository.save(replayExecution);
-
-                    logger.error("Replay flow execution failed at step: {}", stepId);
-                    return CompletableFuture.completedFuture(convertToDto(replayExecution));
-                }
-
-                // Accumulate runtime variables from this step for next steps
-                if (pipelineExecution.getRuntimeTestData() != null) {
-                    accumulatedRuntimeVariables.putAll(pipelineExecution.getRuntimeTestData());
-                    logger.debug("Accumulated runtime variables after replay step {}: {}", stepId, accumulatedRuntimeVariables);
-                }
-            }
-
-            // Mark replay flow as successful
-            replayExecution.setStatus(ExecutionStatus.PASSED);
-            replayExecution.setEndTime(LocalDateTime.now());
-            replayExecution.setRuntimeVariables(accumulatedRuntimeVariables);
-            replayExecution = flowExecutionRepository.save(replayExecution);
-
-            logger.info("Replay flow execution completed successfully: {}", replayExecution.getId());
-
-            return CompletableFuture.completedFuture(convertToDto(replayExecution));
-        } catch (Exception e) {
-            logger.error("Replay flow execution failed with exception: {}", e.getMessage(), e);
-
-            if (replayExecution != null) {
-                replayExecution.setStatus(ExecutionStatus.FAILED);
-                replayExecution.setEndTime(LocalDateTime.now());
-                flowExecutionRepository.save(replayExecution);
-            }
-            // Propagate exception so that the CompletableFuture completes exceptionally
-            throw new RuntimeException(e);
-        } finally {
-            org.slf4j.MDC.remove("flowExecutionId");
-        }
-    }
-
-    private Map<String, String> extractRuntimeVariablesUpToStep(UUID originalFlowExecutionId, Long failedFlowStepId, Flow flow) {
-        Map<String, String> accumulatedVariables = new HashMap<>();
-
-        // Get the index of the failed step
-        int failedStepIndex = flow.getFlowStepIds().indexOf(failedFlowStepId);
-
-        // Get all successful pipeline executions from the original flow execution up to (but not including) the failed step
-        List<PipelineExecution> successfulPipelines = pipelineExecutionRepository.findByFlowExecutionIdOrderByCreatedAt(originalFlowExecutionId)
-                .stream()
-                .filter(pe -> pe.getStatus() == ExecutionStatus.PASSED)
-                .filter(pe -> {
-                    int stepIndex = flow.getFlowStepIds().indexOf(pe.getFlowStepId());
-                    return stepIndex < failedStepIndex;
-                })
-                .collect(Collectors.toList());
-
-        // Accumulate runtime variables from successful steps in order
-        for (PipelineExecution pipeline : successfulPipelines) {
-            if (pipeline.getRuntimeTestData() != null) {
-                accumulatedVariables.putAll(pipeline.getRuntimeTestData());
-            }
-        }
-
-        logger.info("Extracted {} runtime variables from {} successful steps before failed step {}", 
-                   accumulatedVariables.size(), successfulPipelines.size(), failedFlowStepId);
-
-        return accumulatedVariables;
-    }
-
-    private PipelineExecution executeReplayPipelineStep(FlowExecution flowExecution, FlowStep step,
-                                                       Application application, Map<String, String> pipelineVariables,
-                                                       UUID originalFlowExecutionId) {
-        logger.info("Executing REPLAY pipeline step: {} for flow execution: {}", step.getId(), flowExecution.getId());
-
-        // Use the already merged pipeline variables (Global + FlowStep + Runtime)
-        Map<String, String> mergedVariables = new HashMap<>(pipelineVariables);
-
-        // Add the testTag from FlowStep to make it available in GitLab pipeline scope
-        if (step.getTestTag() != null && !step.getTestTag().trim().isEmpty()) {
-            mergedVariables.put("testTag", step.getTestTag());
-            logger.debug("Added testTag '{}' to replay pipeline variables for step {}", step.getTestTag(), step.getId());
-        }
-
-        // Find existing pipeline execution record created in createReplayFlowExecution
-        PipelineExecution pipelineExecution = pipelineExecutionRepository
-                .findByFlowExecutionIdAndFlowStepId(flowExecution.getId(), step.getId())
-                .orElseThrow(() -> new IllegalStateException("Replay pipeline execution record not found for step: " + step.getId()));
-
-        // Update the existing record instead of creating new one
-        pipelineExecution.setStatus(ExecutionStatus.RUNNING);
-        pipelineExecution.setStartTime(LocalDateTime.now());
-        pipelineExecution.setIsReplay(true);
-        pipelineExecution.setOriginalFlowExecutionId(originalFlowExecutionId);
-        pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
-
-        try {
-            logger.debug("Triggering REPLAY pipeline with variables: {}", mergedVariables);
-            
-            if (gitLabConfig.isMockMode()) {
-                // Mock mode for testing
-                logger.info("MOCK MODE: Simulating REPLAY GitLab pipeline execution for project {} on branch {}", 
-                           application.getGitlabProjectId(), step.getBranch());
-                
-                // Simulate pipeline response
-                long mockPipelineId = System.currentTimeMillis();
-                String mockPipelineUrl = String.format("https://gitlab.com/%s/-/pipelines/%d", 
-                                                      application.getGitlabProjectId(), mockPipelineId);
-                
-                pipelineExecution.setPipelineId(mockPipelineId);
-                pipelineExecution.setPipelineUrl(mockPipelineUrl);
-                pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
-                
-                logger.info("MOCK: REPLAY Pipeline triggered successfully: {} for step {}", mockPipelineId, step.getId());
-                
-                // Simulate successful completion after a short delay
-                simulateMockPipelineCompletion(pipelineExecution);
-                
-            } else {
-                // Real GitLab API call
-                GitLabApiClient.GitLabPipelineResponse response = null;
-                try {
-                    response = gitLabApiClient
-                            .triggerPipeline(gitLabConfig.getBaseUrl(), application.getGitlabProjectId(), 
-                                           step.getBranch(), applicationService.getDecryptedPersonalAccessToken(application.getId()), mergedVariables)
-                            .doOnError(error -> {
-                                logger.error("GitLab API call failed for REPLAY project {} on branch {}: {}", 
-                                           application.getGitlabProjectId(), step.getBranch(), error.getMessage());
-                                if (error.getMessage().contains("400")) {
-                                    logger.error("This is likely due to invalid GitLab project ID, branch name, or access token");
-                                    logger.error("Please verify: 1) Project ID exists 2) Branch exists 3) Access token has API permissions");
-                                }
-                            })
-                            .block();
-                } catch (Exception apiError) {
-                    logger.error("GitLab API call failed for REPLAY: {}", apiError.getMessage());
-                    response = null;
-                }
-                
-                if (response != null) {
-                    pipelineExecution.setPipelineId(response.getId());
-                    pipelineExecution.setPipelineUrl(response.getWebUrl());
-                    pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
-                    
-                    logger.info("REPLAY Pipeline triggered successfully: {} for step {}", response.getId(), step.getId());
-                    
-                    // Poll for completion
-                    pollPipelineCompletion(pipelineExecution, application, gitLabConfig.getBaseUrl(), step);
-                } else {
-                    logger.error("Failed to trigger REPLAY pipeline - null response from GitLab API");
-                    pipelineExecution.setStatus(ExecutionStatus.FAILED);
-                    pipelineExecution.setEndTime(LocalDateTime.now());
-                    pipelineExecutionRepository.save(pipelineExecution);
-                }
-            }
-            
-        } catch (Exception e) {
-            logger.error("Failed to execute REPLAY pipeline step: {}", e.getMessage(), e);
-            pipelineExecution.setStatus(ExecutionStatus.FAILED);
-            pipelineExecution.setEndTime(LocalDateTime.now());
-            pipelineExecutionRepository.save(pipelineExecution);
-        }
-        
-        return pipelineExecution;
+        flowExecutionEngine.start(replayFlowExecutionId);
     }
 
-    private PipelineExecution executePipelineStep(FlowExecution flowExecution, FlowStep step,
-                                                 Application application, Map<String, String> pipelineVariables) {
-        logger.info("Executing pipeline step: {} for flow execution: {}", step.getId(), flowExecution.getId());
-
-        // Use the already merged pipeline variables (Global + FlowStep + Runtime)
-        Map<String, String> mergedVariables = new HashMap<>(pipelineVariables);
-
-        // Add the testTag from FlowStep to make it available in GitLab pipeline scope
-        if (step.getTestTag() != null && !step.getTestTag().trim().isEmpty()) {
-            mergedVariables.put("testTag", step.getTestTag());
-            logger.debug("Added testTag '{}' to pipeline variables for step {}", step.getTestTag(), step.getId());
-        }
-
-        // Find existing pipeline execution record created in createFlowExecution
-        PipelineExecution pipelineExecution = pipelineExecutionRepository
-                .findByFlowExecutionIdAndFlowStepId(flowExecution.getId(), step.getId())
-                .orElseThrow(() -> new IllegalStateException("Pipeline execution record not found for step: " + step.getId()));
-
-        // Update the existing record instead of creating new one
-        pipelineExecution.setStatus(ExecutionStatus.RUNNING);
-        pipelineExecution.setStartTime(LocalDateTime.now());
-        pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
-
-        try {
-            logger.debug("Triggering pipeline with variables: {}", mergedVariables);
-            
-            if (gitLabConfig.isMockMode()) {
-                // Mock mode for testing
-                logger.info("MOCK MODE: Simulating GitLab pipeline execution for project {} on branch {}", 
-                           application.getGitlabProjectId(), step.getBranch());
-                
-                // Simulate pipeline response
-                long mockPipelineId = System.currentTimeMillis();
-                String mockPipelineUrl = String.format("https://gitlab.com/%s/-/pipelines/%d", 
-                                                      application.getGitlabProjectId(), mockPipelineId);
-                
-                pipelineExecution.setPipelineId(mockPipelineId);
-                pipelineExecution.setPipelineUrl(mockPipelineUrl);
-                pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
-                
-                logger.info("MOCK: Pipeline triggered successfully: {} for step {}", mockPipelineId, step.getId());
-                
-                // Simulate successful completion after a short delay
-                simulateMockPipelineCompletion(pipelineExecution);
-                
-            } else {
-                // Real GitLab API call
-                GitLabApiClient.GitLabPipelineResponse response = null;
-                try {
-                    response = gitLabApiClient
-                            .triggerPipeline(gitLabConfig.getBaseUrl(), application.getGitlabProjectId(), 
-                                           step.getBranch(), applicationService.getDecryptedPersonalAccessToken(application.getId()), mergedVariables)
-                            .doOnError(error -> {
-                                logger.error("GitLab API call failed for project {} on branch {}: {}", 
-                                           application.getGitlabProjectId(), step.getBranch(), error.getMessage());
-                                if (error.getMessage().contains("400")) {
-                                    logger.error("This is likely due to invalid GitLab project ID, branch name, or access token");
-                                    logger.error("Please verify: 1) Project ID exists 2) Branch exists 3) Access token has API permissions");
-                                }
-                            })
-                            .block();
-                } catch (Exception apiError) {
-                    logger.error("GitLab API call failed: {}", apiError.getMessage());
-                    response = null;
-                }
-                
-                if (response != null) {
-                    pipelineExecution.setPipelineId(response.getId());
-                    pipelineExecution.setPipelineUrl(response.getWebUrl());
-                    pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
-                    
-                    logger.info("Pipeline triggered successfully: {} for step {}", response.getId(), step.getId());
-                    
-                    // Poll for completion
-                    pollPipelineCompletion(pipelineExecution, application, gitLabConfig.getBaseUrl(), step);
-                } else {
-                    logger.error("Failed to trigger pipeline - null response from GitLab API");
-                    pipelineExecution.setStatus(ExecutionStatus.FAILED);
-                    pipelineExecution.setEndTime(LocalDateTime.now());
-                    pipelineExecutionRepository.save(pipelineExecution);
-                }
+    /**
+     * Mark running flow executions and all their unfinished steps CANCELLED in one transaction of
+     * its own, so the change is committed before the caller releases the flows' engine locks.
+     * Flow executions that are not running (any more) are left untouched.
+     *
+     * @return cancelled flow execution ID -> its cancelled pipeline executions
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Map<UUID, List<PipelineExecution>> cancelFlowExecutionRecords(Collection<UUID> flowExecutionIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, List<PipelineExecution>> cancelled = new LinkedHashMap<>();
+
+        for (FlowExecution flowExecution : flowExecutionRepository.findAllById(flowExecutionIds)) {
+            if (flowExecution.getStatus() != ExecutionStatus.RUNNING && flowExecution.getStatus() != ExecutionStatus.IN_PROGRESS) {
+                continue;
             }
-            
-        } catch (Exception e) {
-            logger.error("Failed to execute pipeline step: {}", e.getMessage(), e);
-            pipelineExecution.setStatus(ExecutionStatus.FAILED);
-            pipelineExecution.setEndTime(LocalDateTime.now());
-            pipelineExecutionRepository.save(pipelineExecution);
-        }
-        
-        return pipelineExecution;
-    }
-
-    private void downloadAndParseArtifacts(PipelineExecution pipelineExecution, Application application, 
-                                         String gitlabBaseUrl, FlowStep step) {
-        try {
-            // Get pipeline jobs
-            GitLabApiClient.GitLabJobsResponse[] jobs = gitLabApiClient
-                    .getPipelineJobs(gitlabBaseUrl, application.getGitlabProjectId(),
-                                   pipelineExecution.getPipelineId(), applicationService.getDecryptedPersonalAccessToken(application.getId()))
-                    .block();
-            
-            if (jobs != null && jobs.length > 0) {
-                // Find job for the specified test stage
-                GitLabApiClient.GitLabJobsResponse targetJob = null;
-                for (GitLabApiClient.GitLabJobsResponse job : jobs) {
-                    if (step.getTestStage().equals(job.getStage()) && job.isSuccessful()) {
-                        targetJob = job;
-                        break;
-                    }
-                }
-                
-                if (targetJob != null) {
-                    logger.info("Found target job {} in stage {} for pipeline {}",
-                               targetJob.getId(), targetJob.getStage(), pipelineExecution.getPipelineId());
-
-                    // Set job information
-                    pipelineExecution.setJobId(targetJob.getId());
-                    pipelineExecution.setJobUrl(targetJob.getWebUrl());
-                    pipelineExecutionRepository.save(pipelineExecution);
-
-                    // Download output.env from target/output.env
-                    String artifactContent = gitLabApiClient
-                            .downloadJobArtifact(gitlabBaseUrl, application.getGitlabProjectId(),
-                                               targetJob.getId(), applicationService.getDecryptedPersonalAccessToken(application.getId()), "target/output.env")
-                            .block();
-
-                    if (artifactContent != null && !artifactContent.trim().isEmpty()) {
-                        Map<String, String> parsedVariables = outputEnvParser.parseOutputEnv(artifactContent);
-
-                        // Merge configured test data with artifact data
-                        Map<String, String> runtimeTestData = new HashMap<>();
-                        if (pipelineExecution.getConfiguredTestData() != null) {
-                            runtimeTestData.putAll(pipelineExecution.getConfiguredTestData());
-                        }
-                        runtimeTestData.putAll(parsedVariables); // Artifact data can override configured data
-
-                        pipelineExecution.setRuntimeTestData(runtimeTestData);
-                        pipelineExecutionRepository.save(pipelineExecution);
-                        logger.info("Successfully downloaded and parsed artifacts from job {}: {} variables (total runtime: {})",
-                                   targetJob.getId(), parsedVariables.size(), runtimeTestData.size());
-                    } else {
-                        logger.info("No artifact content found in job {}, runtime data will remain as configured data",
-                                   targetJob.getId());
-                        // Set runtime data to configured data if no artifacts
-                        pipelineExecution.setRuntimeTestData(pipelineExecution.getConfiguredTestData());
-                        pipelineExecutionRepository.save(pipelineExecution);
-                    }
-                } else {
-                    logger.info("No successful job found for stage '{}' in pipeline {}",
-                               step.getTestStage(), pipelineExecution.getPipelineId());
+            flowExecution.setStatus(ExecutionStatus.CANCELLED);
+            flowExecution.setEndTime(now);
+            flowExecutionRepository.save(flowExecution);
+
+            List<PipelineExecution> cancelledSteps = new ArrayList<>();
+            for (PipelineExecution pipelineExecution : pipelineExecutionRepository.findByFlowExecutionId(flowExecution.getId())) {
+                ExecutionStatus status = pipelineExecution.getStatus();
+                if (status == ExecutionStatus.PASSED || status == ExecutionStatus.FAILED || status == ExecutionStatus.CANCELLED) {
+                    continue;
                 }
-            } else {
-                logger.info("No jobs found for pipeline {}", pipelineExecution.getPipelineId());
+                pipelineExecution.setStatus(ExecutionStatus.CANCELLED);
+                pipelineExecution.setPhase(StepPhase.NEXT_STEP);
+                pipelineExecution.setResumeTime(null);
+                pipelineExecution.setEndTime(now);
+                cancelledSteps.add(pipelineExecutionRepository.save(pipelineExecution));
             }
-        } catch (Exception e) {
-            // Don't treat missing artifacts as an error - just log and continue
-            logger.info("No artifacts available for pipeline {} in stage '{}' (this is normal if stage doesn't generate output.env): {}", 
-                       pipelineExecution.getPipelineId(), step.getTestStage(), e.getMessage());
+            cancelled.put(flowExecution.getId(), cancelledSteps);
         }
-    }
 
-    private void simulateMockPipelineCompletion(PipelineExecution pipelineExecution) {
-        logger.info("MOCK: Simulating pipeline completion for pipeline: {}", pipelineExecution.getPipelineId());
-        
-        try {
-            // Simulate pipeline execution time (2-5 seconds)
-            Thread.sleep(2000 + (long)(Math.random() * 3000));
-            
-            // Simulate successful completion
-            pipelineExecution.setStatus(ExecutionStatus.PASSED);
-            pipelineExecution.setEndTime(LocalDateTime.now());
-            
-            // Simulate output.env data and merge with configured data
-            Map<String, String> mockOutputData = new HashMap<>();
-            mockOutputData.put("MOCK_USER_ID", "user_" + System.currentTimeMillis());
-            mockOutputData.put("MOCK_SESSION_TOKEN", "token_" + UUID.randomUUID().toString().substring(0, 8));
-            mockOutputData.put("MOCK_TRANSACTION_ID", "txn_" + System.currentTimeMillis());
-
-            // Merge configured test data with mock artifact data
-            Map<String, String> runtimeTestData = new HashMap<>();
-            if (pipelineExecution.getConfiguredTestData() != null) {
-                runtimeTestData.putAll(pipelineExecution.getConfiguredTestData());
-            }
-            runtimeTestData.putAll(mockOutputData); // Mock data can override configured data
-
-            pipelineExecution.setRuntimeTestData(runtimeTestData);
-            pipelineExecutionRepository.save(pipelineExecution);
-            
-            logger.info("MOCK: Pipeline {} completed successfully with mock data: {}", 
-                       pipelineExecution.getPipelineId(), mockOutputData);
-            
-        } catch (InterruptedException e) {
-            logger.error("Mock pipeline simulation interrupted", e);
-            pipelineExecution.setStatus(ExecutionStatus.FAILED);
-            pipelineExecution.setEndTime(LocalDateTime.now());
-            pipelineExecutionRepository.save(pipelineExecution);
-            Thread.currentThread().interrupt();
-        }
+        logger.info("Cancelled {} flow execution(s) with {} unfinished step(s)", cancelled.size(),
+                   cancelled.values().stream().mapToInt(List::size).sum());
+        return cancelled;
     }
 
-    /**
-     * Wait for a pipeline that is already running to complete
-     */
-    private PipelineExecution waitForPipelineCompletion(PipelineExecution pipelineExecution, Application application, FlowStep step) {
-        logger.info("Waiting for already running pipeline {} to complete", pipelineExecution.getPipelineId());
-
-        try {
-            while (true) {
-                GitLabApiClient.GitLabPipelineResponse status = gitLabApiClient
-                        .getPipelineStatus(gitLabConfig.getBaseUrl(), application.getGitlabProjectId(),
-                                         pipelineExecution.getPipelineId(), applicationService.getDecryptedPersonalAccessToken(application.getId()))
-                        .block();
-
-                if (status != null && status.isCompleted()) {
-                    pipelineExecution.setStatus(status.isSuccessful() ? ExecutionStatus.PASSED : ExecutionStatus.FAILED);
-                    pipelineExecution.setEndTime(LocalDateTime.now());
-
-                    // Download artifacts if successful
-                    if (status.isSuccessful()) {
-                        downloadAndParseArtifacts(pipelineExecution, application, gitLabConfig.getBaseUrl(), step);
-                    }
-
-                    pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
-                    logger.info("Pipeline {} completed with status: {}", pipelineExecution.getPipelineId(), pipelineExecution.getStatus());
-                    break;
-                }
+    private PersistentVariableMap extractRuntimeVariables(Flow flow, Map<Long, PipelineExecution> carriedByStep, Long failedFlowStepId) {
+        PersistentVariableMap accumulatedVariables = PersistentVariableMap.empty();
 
-                // Wait before next poll - configurable via application.yml
-                Thread.sleep(flowExecutionPollingIntervalMs);
+        // Accumulate runtime variables from carried successful steps in flow order
+        for (Long stepId : flow.getFlowStepIds()) {
+            PipelineExecution pipeline = carriedByStep.get(stepId);
+            if (pipeline != null) {
+                accumulatedVariables = accumulatedVariables.plusAll(pipeline.getRuntimeTestData());
             }
-        } catch (Exception e) {
-            logger.error("Error waiting for pipeline completion: {}", e.getMessage(), e);
-            pipelineExecution.setStatus(ExecutionStatus.FAILED);
-            pipelineExecution.setEndTime(LocalDateTime.now());
-            pipelineExecution = pipelineExecutionRepository.save(pipelineExecution);
         }
 
-        return pipelineExecution;
-    }
-
-    @Async("pipelinePollingTaskExecutor")
-    public void pollPipelineCompletion(PipelineExecution pipelineExecution, Application application, String gitlabBaseUrl, FlowStep step) {
-        logger.info("Starting to poll pipeline completion for pipeline: {}", pipelineExecution.getPipelineId());
-
-        try {
-            while (true) {
-                GitLabApiClient.GitLabPipelineResponse status = gitLabApiClient
-                        .getPipelineStatus(gitlabBaseUrl, application.getGitlabProjectId(),
-                                         pipelineExecution.getPipelineId(), applicationService.getDecryptedPersonalAccessToken(application.getId()))
-                        .block();
-
-                if (status != null && status.isCompleted()) {
-                    pipelineExecution.setStatus(status.isSuccessful() ? ExecutionStatus.PASSED : ExecutionStatus.FAILED);
-                    pipelineExecution.setEndTime(LocalDateTime.now());
-
-                    // Download artifacts if successful
-                    if (status.isSuccessful()) {
-                        downloadAndParseArtifacts(pipelineExecution, application, gitlabBaseUrl, step);
-                    }
-
-                    pipelineExecutionRepository.save(pipelineExecution);
-                    logger.info("Pipeline {} completed with status: {}", pipelineExecution.getPipelineId(), pipelineExecution.getStatus());
-                    break;
-                }
+        logger.info("Extracted {} runtime variables from {} successful steps carried over before failed step {}", 
+                   accumulatedVariables.size(), carriedByStep.size(), failedFlowStepId);
 
-                // Wait before next poll - configurable via application.yml
-                Thread.sleep(flowExecutionPollingIntervalMs);
-            }
-        } catch (Exception e) {
-            logger.error("Error polling pipeline completion: {}", e.getMessage(), e);
-            pipelineExecution.setStatus(ExecutionStatus.FAILED);
-            pipelineExecution.setEndTime(LocalDateTime.now());
-            pipelineExecutionRepository.save(pipelineExecution);
-        }
+        return accumulatedVariables;
     }
 
     @Transactional(readOnly = true)
@@ -1147,6 +478,9 @@ public class FlowExecutionService {
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setIsReplay(entity.getIsReplay());
         dto.setOriginalFlowExecutionId(entity.getOriginalFlowExecutionId());
+        dto.setFailureReason(entity.getFailureReason());
+        dto.setMatrixExecutionId(entity.getMatrixExecutionId());
+        dto.setVariantName(entity.getVariantName());
         return dto;
     }
 
@@ -1229,6 +563,7 @@ public class FlowExecutionService {
         dto.setFlowStepIds(entity.getFlowStepIds());
         dto.setSquashTestCaseId(entity.getSquashTestCaseId());
         dto.setSquashTestCase(entity.getSquashTestCase());
+        dto.setTimeoutMinutes(entity.getTimeoutMinutes());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setUpdatedAt(entity.getUpdatedAt());
         return dto;
@@ -1241,8 +576,14 @@ public class FlowExecutionService {
         dto.setBranch(entity.getBranch());
         dto.setTestTag(entity.getTestTag());
         dto.setTestStage(entity.getTestStage());
+        dto.setMemoizable(entity.getMemoizable());
+        dto.setFailFast(entity.getFailFast());
+        dto.setProceedOnStageSuccess(entity.getProceedOnStageSuccess());
+        dto.setTimeoutMinutes(entity.getTimeoutMinutes());
+        dto.setRetryPolicy(convertRetryPolicyEntityToDto(entity.getRetryPolicy()));
         dto.setSquashStepIds(entity.getSquashStepIds());
         dto.setTestDataIds(entity.getTestDataIds());
+        dto.setDependsOnStepIds(entity.getDependsOnStepIds());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setUpdatedAt(entity.getUpdatedAt());
         
@@ -1281,6 +622,8 @@ public class FlowExecutionService {
         dto.setProjectName(entity.getProjectName());
         dto.setProjectUrl(entity.getProjectUrl());
         dto.setTokenStatus(entity.getTokenStatus());
+        dto.setMaxConcurrentPipelines(entity.getMaxConcurrentPipelines());
+        dto.setMaxConcurrentPipelinesPerBranch(entity.getMaxConcurrentPipelinesPerBranch());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setUpdatedAt(entity.getUpdatedAt());
         return dto;
@@ -1300,9 +643,20 @@ public class FlowExecutionService {
         dto.setConfiguredTestData(entity.getConfiguredTestData());
         dto.setRuntimeTestData(entity.getRuntimeTestData());
         dto.setStatus(entity.getStatus());
+        dto.setPhase(entity.getPhase());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setIsReplay(entity.getIsReplay());
         dto.setOriginalFlowExecutionId(entity.getOriginalFlowExecutionId());
+        dto.setCommitSha(entity.getCommitSha());
+        dto.setReusedFromPipelineExecutionId(entity.getReusedFromPipelineExecutionId());
+        dto.setFailureReason(entity.getFailureReason());
+        dto.setTrailingStatus(entity.getTrailingStatus());
         return dto;
     }
+
+    private com.testautomation.orchestrator.dto.RetryPolicyDto convertRetryPolicyEntityToDto(com.testautomation.orchestrator.model.StepRetryPolicy entity) {
+        if (entity == null) return null;
+        return new com.testautomation.orchestrator.dto.RetryPolicyDto(entity.getMaxAttempts(), entity.getInitialBackoffMs(),
+                                                                     entity.getMaxBackoffMs(), entity.getRetryableStatuses());
+    }
 }
@@ -91,6 +91,11 @@ public class FlowStepService {
         existingFlowStep.setBranch(flowStepDto.getBranch());
         existingFlowStep.setTestTag(flowStepDto.getTestTag());
         existingFlowStep.setTestStage(flowStepDto.getTestStage());
+        existingFlowStep.setMemoizable(flowStepDto.getMemoizable());
+        existingFlowStep.setFailFast(flowStepDto.getFailFast());
+        existingFlowStep.setProceedOnStageSuccess(flowStepDto.getProceedOnStageSuccess());
+        existingFlowStep.setTimeoutMinutes(flowStepDto.getTimeoutMinutes());
+        existingFlowStep.setRetryPolicy(convertRetryPolicyDtoToEntity(flowStepDto.getRetryPolicy()));
         existingFlowStep.setSquashStepIds(flowStepDto.getSquashStepIds());
         existingFlowStep.setTestDataIds(flowStepDto.getTestDataIds());
         
@@ -124,6 +129,11 @@ public class FlowStepService {
         flowStep.setBranch(dto.getBranch());
         flowStep.setTestTag(dto.getTestTag());
         flowStep.setTestStage(dto.getTestStage());
+        flowStep.setMemoizable(dto.getMemoizable());
+        flowStep.setFailFast(dto.getFailFast());
+        flowStep.setProceedOnStageSuccess(dto.getProceedOnStageSuccess());
+        flowStep.setTimeoutMinutes(dto.getTimeoutMinutes());
+        flowStep.setRetryPolicy(convertRetryPolicyDtoToEntity(dto.getRetryPolicy()));
         flowStep.setSquashStepIds(dto.getSquashStepIds());
         flowStep.setTestDataIds(dto.getTestDataIds());
         
@@ -142,8 +152,14 @@ public class FlowStepService {
         dto.setBranch(entity.getBranch());
         dto.setTestTag(entity.getTestTag());
         dto.setTestStage(entity.getTestStage());
+        dto.setMemoizable(entity.getMemoizable());
+        dto.setFailFast(entity.getFailFast());
+        dto.setProceedOnStageSuccess(entity.getProceedOnStageSuccess());
+        dto.setTimeoutMinutes(entity.getTimeoutMinutes());
+        dto.setRetryPolicy(convertRetryPolicyEntityToDto(entity.getRetryPolicy()));
         dto.setSquashStepIds(entity.getSquashStepIds());
         dto.setTestDataIds(entity.getTestDataIds());
+        dto.setDependsOnStepIds(entity.getDependsOnStepIds());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setUpdatedAt(entity.getUpdatedAt());
         
@@ -188,4 +204,16 @@ public class FlowStepService {
         
         return dto;
     }
-}
\ No newline at end of file
+
+    private com.testautomation.orchestrator.model.StepRetryPolicy convertRetryPolicyDtoToEntity(com.testautomation.orchestrator.dto.RetryPolicyDto dto) {
+        if (dto == null) return null;
+        return new com.testautomation.orchestrator.model.StepRetryPolicy(dto.getMaxAttempts(), dto.getInitialBackoffMs(),
+                                                                         dto.getMaxBackoffMs(), dto.getRetryableStatuses());
+    }
+
+    private com.testautomation.orchestrator.dto.RetryPolicyDto convertRetryPolicyEntityToDto(com.testautomation.orchestrator.model.StepRetryPolicy entity) {
+        if (entity == null) return null;
+        return new com.testautomation.orchestrator.dto.RetryPolicyDto(entity.getMaxAttempts(), entity.getInitialBackoffMs(),
+                                                                     entity.getMaxBackoffMs(), entity.getRetryableStatuses());
+    }
+}
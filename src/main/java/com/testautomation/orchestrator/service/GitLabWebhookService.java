@@ -0,0 +1,187 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.config.GitLabConfig;
+import com.testautomation.orchestrator.dto.GitLabWebhookDto;
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.event.JobCompletedEvent;
+import com.testautomation.orchestrator.event.PipelineCompletedEvent;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import com.testautomation.orchestrator.repository.FlowStepRepository;
+import com.testautomation.orchestrator.repository.PipelineExecutionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns GitLab Pipeline and Job webhook events into engine events, so steps complete as soon as
+ * GitLab reports them instead of on the next poll.
+ */
+@Service
+public class GitLabWebhookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GitLabWebhookService.class);
+
+    public static final String PIPELINE_HOOK = "Pipeline Hook";
+    public static final String JOB_HOOK = "Job Hook";
+
+    // A pipeline or job that is skipped or waits for a manual action will not finish on its own
+    private static final Set<String> FINAL_STATUSES = Set.of("success", "failed", "canceled", "skipped", "manual");
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private PipelineStatusPoller pipelineStatusPoller;
+
+    @Autowired
+    private GitLabConfig gitLabConfig;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${flow-execution.webhooks.enabled:false}")
+    private boolean webhooksEnabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkConfiguration() {
+        if (webhooksEnabled && !gitLabConfig.hasWebhookSecret()) {
+            logger.error("flow-execution.webhooks.enabled is set but gitlab.webhook-secret is empty: webhook events are "
+                       + "rejected and pipelines are polled as usual until a secret is configured");
+        }
+    }
+
+    /**
+     * Webhook events are only accepted when webhooks are enabled and a secret is configured, since
+     * anyone who can reach the endpoint could otherwise report pipeline results
+     */
+    public boolean isEnabled() {
+        return webhooksEnabled && gitLabConfig.hasWebhookSecret();
+    }
+
+    /**
+     * Check the X-Gitlab-Token header against the configured secret. Without a secret every caller is rejected.
+     */
+    public boolean isAuthorized(String token) {
+        if (!gitLabConfig.hasWebhookSecret()) {
+            return false;
+        }
+        String secret = gitLabConfig.getWebhookSecret();
+        return token != null && MessageDigest.isEqual(
+                secret.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Dispatch a webhook event to the executions waiting on its pipeline.
+     *
+     * @return number of running pipeline executions the event was delivered to
+     */
+    public int handleEvent(String eventType, GitLabWebhookDto payload) {
+        Long pipelineId = payload.resolvePipelineId();
+        if (pipelineId == null) {
+            logger.debug("Ignoring {} without a pipeline id", eventType);
+            return 0;
+        }
+
+        if (PIPELINE_HOOK.equals(eventType)) {
+            return handlePipelineEvent(pipelineId, payload);
+        }
+        if (JOB_HOOK.equals(eventType)) {
+            return handleJobEvent(pipelineId, payload);
+        }
+        logger.debug("Ignoring unsupported GitLab webhook event: {}", eventType);
+        return 0;
+    }
+
+    private int handlePipelineEvent(Long pipelineId, GitLabWebhookDto payload) {
+        String status = payload.getObjectAttributes() != null ? payload.getObjectAttributes().getStatus() : null;
+        if (!FINAL_STATUSES.contains(status)) {
+            logger.debug("Pipeline {} is {}, waiting for a final status", pipelineId, status);
+            return 0;
+        }
+
+        // Steps that passed at their test stage: their poll records the pipeline's final status
+        pipelineExecutionRepository.findByPipelineIdAndTrailingStatus(pipelineId, "running")
+                .forEach(pipelineExecution -> pipelineStatusPoller.pollSoon(pipelineExecution.getId()));
+
+        List<PipelineExecution> running = findRunning(pipelineId);
+        for (PipelineExecution pipelineExecution : running) {
+            Long jobId = null;
+            String jobUrl = null;
+            GitLabWebhookDto.Build targetJob = findSuccessfulJob(payload, testStageOf(pipelineExecution));
+            if (targetJob != null) {
+                jobId = targetJob.getId();
+                jobUrl = jobUrl(pipelineExecution, jobId);
+            }
+            logger.info("Webhook: pipeline {} reached final status {} for pipeline execution {}",
+                       pipelineId, status, pipelineExecution.getId());
+            eventPublisher.publishEvent(new PipelineCompletedEvent(pipelineExecution.getFlowExecutionId(),
+                    pipelineExecution.getId(), pipelineId, status, jobId, jobUrl));
+        }
+        return running.size();
+    }
+
+    private int handleJobEvent(Long pipelineId, GitLabWebhookDto payload) {
+        if (payload.getBuildId() == null || !FINAL_STATUSES.contains(payload.getBuildStatus())) {
+            return 0;
+        }
+
+        int delivered = 0;
+        for (PipelineExecution pipelineExecution : findRunning(pipelineId)) {
+            if (!testStageOf(pipelineExecution).equals(payload.getBuildStage())) {
+                continue;
+            }
+            logger.info("Webhook: job {} in stage {} of pipeline {} is {}",
+                       payload.getBuildId(), payload.getBuildStage(), pipelineId, payload.getBuildStatus());
+            eventPublisher.publishEvent(new JobCompletedEvent(pipelineExecution.getFlowExecutionId(),
+                    pipelineExecution.getId(), payload.getBuildId(), jobUrl(pipelineExecution, payload.getBuildId()),
+                    payload.getBuildStage(), payload.getBuildStatus()));
+            delivered++;
+        }
+        return delivered;
+    }
+
+    private List<PipelineExecution> findRunning(Long pipelineId) {
+        return pipelineExecutionRepository.findByPipelineIdAndStatus(pipelineId, ExecutionStatus.RUNNING);
+    }
+
+    private String testStageOf(PipelineExecution pipelineExecution) {
+        FlowStep step = flowStepRepository.findById(pipelineExecution.getFlowStepId())
+                .orElseThrow(() -> new IllegalArgumentException("Flow step not found with ID: " + pipelineExecution.getFlowStepId()));
+        return step.getTestStage();
+    }
+
+    private GitLabWebhookDto.Build findSuccessfulJob(GitLabWebhookDto payload, String testStage) {
+        if (payload.getBuilds() == null) {
+            return null;
+        }
+        return payload.getBuilds().stream()
+                .filter(build -> testStage.equals(build.getStage()) && "success".equals(build.getStatus()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Job web URL derived from the pipeline URL (https://host/group/project/-/pipelines/1 -> .../-/jobs/2)
+     */
+    private String jobUrl(PipelineExecution pipelineExecution, Long jobId) {
+        String pipelineUrl = pipelineExecution.getPipelineUrl();
+        if (pipelineUrl == null || !pipelineUrl.contains("/-/pipelines/")) {
+            return null;
+        }
+        return pipelineUrl.substring(0, pipelineUrl.indexOf("/-/pipelines/")) + "/-/jobs/" + jobId;
+    }
+}
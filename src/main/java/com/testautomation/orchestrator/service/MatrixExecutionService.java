@@ -0,0 +1,213 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.dto.MatrixExecutionCreateDto;
+import com.testautomation.orchestrator.dto.MatrixExecutionDto;
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.enums.QueueStatus;
+import com.testautomation.orchestrator.model.ExecutionQueueEntry;
+import com.testautomation.orchestrator.model.FlowExecution;
+import com.testautomation.orchestrator.model.MatrixExecution;
+import com.testautomation.orchestrator.repository.ExecutionQueueRepository;
+import com.testautomation.orchestrator.repository.FlowExecutionRepository;
+import com.testautomation.orchestrator.repository.FlowRepository;
+import com.testautomation.orchestrator.repository.MatrixExecutionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Executes one flow against many variable sets.
+ *
+ * Every variant is queued as a regular flow execution request carrying its variable overrides, so
+ * the variants run in parallel within flow-execution.admission.max-concurrent-flows and survive
+ * restarts like any other request. Variants admitted together are created in one bulk insert and
+ * share the flow's prepared steps (see {@link PreparedStepCache}). The matrix execution finishes
+ * when its last variant does.
+ */
+@Service
+@Transactional
+public class MatrixExecutionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatrixExecutionService.class);
+
+    @Autowired
+    private MatrixExecutionRepository matrixExecutionRepository;
+
+    @Autowired
+    private ExecutionQueueRepository executionQueueRepository;
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private FlowRepository flowRepository;
+
+    @Autowired
+    private TestDataService testDataService;
+
+    @Value("${flow-execution.matrix.max-variants:1000}")
+    private int maxVariants;
+
+    /**
+     * Create a matrix execution and queue one request per variant
+     */
+    public MatrixExecution createMatrixExecution(Long flowId, MatrixExecutionCreateDto createDto, int priority) {
+        if (!flowRepository.existsById(flowId)) {
+            throw new IllegalArgumentException("Flow not found with ID: " + flowId);
+        }
+        List<MatrixExecutionCreateDto.Variant> variants = createDto.getVariants();
+        if (variants == null || variants.isEmpty()) {
+            throw new IllegalArgumentException("A matrix execution needs at least one variant");
+        }
+        if (variants.size() > maxVariants) {
+            throw new IllegalArgumentException("A matrix execution can have at most " + maxVariants + " variants, got " + variants.size());
+        }
+
+        // Test data of all variants is loaded in one query
+        List<Map<String, String>> overrides = testDataService.mergeTestDataByIdLists(
+                variants.stream().map(MatrixExecutionCreateDto.Variant::getTestDataIds).collect(Collectors.toList()));
+
+        MatrixExecution matrixExecution = matrixExecutionRepository.save(new MatrixExecution(flowId, variants.size()));
+
+        List<ExecutionQueueEntry> entries = new ArrayList<>();
+        for (int i = 0; i < variants.size(); i++) {
+            MatrixExecutionCreateDto.Variant variant = variants.get(i);
+            Map<String, String> variables = overrides.get(i);
+            if (variant.getVariables() != null) {
+                variables.putAll(variant.getVariables());
+            }
+            ExecutionQueueEntry entry = new ExecutionQueueEntry(flowId, priority);
+            entry.setMatrixExecutionId(matrixExecution.getId());
+            entry.setVariantName(variant.getName() != null && !variant.getName().isBlank()
+                    ? variant.getName() : "variant-" + (i + 1));
+            entry.setVariableOverrides(variables);
+            entries.add(entry);
+        }
+        executionQueueRepository.saveAll(entries);
+
+        logger.info("Queued matrix execution {} of flow {} with {} variants", matrixExecution.getId(), flowId, variants.size());
+        return matrixExecution;
+    }
+
+    @Transactional(readOnly = true)
+    public MatrixExecutionDto getMatrixExecution(UUID matrixExecutionId) {
+        MatrixExecution matrixExecution = matrixExecutionRepository.findById(matrixExecutionId)
+                .orElseThrow(() -> new IllegalArgumentException("Matrix execution not found with ID: " + matrixExecutionId));
+        List<ExecutionQueueEntry> entries = executionQueueRepository.findByMatrixExecutionIdOrderByIdAsc(matrixExecutionId);
+        Map<UUID, FlowExecution> executionsById = findVariantExecutions(entries);
+
+        MatrixExecutionDto dto = new MatrixExecutionDto();
+        dto.setId(matrixExecution.getId());
+        dto.setFlowId(matrixExecution.getFlowId());
+        dto.setStatus(matrixExecution.getStatus());
+        dto.setTotal(matrixExecution.getTotalVariants());
+        dto.setStartTime(matrixExecution.getStartTime());
+        dto.setEndTime(matrixExecution.getEndTime());
+        dto.setCreatedAt(matrixExecution.getCreatedAt());
+
+        List<MatrixExecutionDto.Variant> variants = new ArrayList<>();
+        for (ExecutionQueueEntry entry : entries) {
+            MatrixExecutionDto.Variant variant = new MatrixExecutionDto.Variant();
+            variant.setName(entry.getVariantName());
+            variant.setQueueEntryId(entry.getId());
+            variant.setQueueStatus(entry.getStatus());
+            variant.setFlowExecutionId(entry.getFlowExecutionId());
+            variant.setFailureReason(entry.getMessage());
+
+            FlowExecution execution = entry.getFlowExecutionId() != null ? executionsById.get(entry.getFlowExecutionId()) : null;
+            if (entry.getStatus() == QueueStatus.QUEUED) {
+                dto.setQueued(dto.getQueued() + 1);
+            } else if (entry.getStatus() == QueueStatus.FAILED) {
+                variant.setStatus(ExecutionStatus.FAILED);
+                dto.setFailed(dto.getFailed() + 1);
+            } else if (execution != null) {
+                variant.setStatus(execution.getStatus());
+                switch (execution.getStatus()) {
+                    case PASSED -> dto.setPassed(dto.getPassed() + 1);
+                    case FAILED -> dto.setFailed(dto.getFailed() + 1);
+                    case CANCELLED -> dto.setCancelled(dto.getCancelled() + 1);
+                    default -> dto.setRunning(dto.getRunning() + 1);
+                }
+            }
+            variants.add(variant);
+        }
+        dto.setVariants(variants);
+        return dto;
+    }
+
+    /**
+     * Finish the matrix execution once none of its variants is queued or running. The status is
+     * FAILED when a variant failed or could not be started, else CANCELLED when one was cancelled,
+     * else PASSED.
+     */
+    public void completeIfFinished(UUID matrixExecutionId) {
+        List<ExecutionQueueEntry> entries = executionQueueRepository.findByMatrixExecutionIdOrderByIdAsc(matrixExecutionId);
+        Map<UUID, FlowExecution> executionsById = findVariantExecutions(entries);
+
+        boolean failed = false;
+        boolean cancelled = false;
+        for (ExecutionQueueEntry entry : entries) {
+            if (entry.getStatus() == QueueStatus.QUEUED) {
+                return;
+            }
+            if (entry.getStatus() == QueueStatus.FAILED) {
+                failed = true;
+                continue;
+            }
+            FlowExecution execution = executionsById.get(entry.getFlowExecutionId());
+            if (execution == null) {
+                // The variant's flow execution was deleted; it cannot finish any more
+                failed = true;
+                continue;
+            }
+            switch (execution.getStatus()) {
+                case PASSED -> { }
+                case FAILED -> failed = true;
+                case CANCELLED -> cancelled = true;
+                default -> {
+                    return;
+                }
+            }
+        }
+
+        ExecutionStatus status = failed ? ExecutionStatus.FAILED : cancelled ? ExecutionStatus.CANCELLED : ExecutionStatus.PASSED;
+        // Variants finishing at the same time may both get here; only the first finishes it
+        if (matrixExecutionRepository.finish(matrixExecutionId, status, LocalDateTime.now()) > 0) {
+            logger.info("Matrix execution {} finished with status {}", matrixExecutionId, status);
+        }
+    }
+
+    /**
+     * Finish the matrix execution of a finished flow execution, if it was its last running variant
+     */
+    public void completeForFlowExecution(UUID flowExecutionId) {
+        flowExecutionRepository.findById(flowExecutionId)
+                .map(FlowExecution::getMatrixExecutionId)
+                .ifPresent(this::completeIfFinished);
+    }
+
+    private Map<UUID, FlowExecution> findVariantExecutions(List<ExecutionQueueEntry> entries) {
+        List<UUID> executionIds = entries.stream()
+                .map(ExecutionQueueEntry::getFlowExecutionId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (executionIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return flowExecutionRepository.findAllById(executionIds).stream()
+                .collect(Collectors.toMap(FlowExecution::getId, Function.identity()));
+    }
+}
@@ -0,0 +1,145 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.model.Application;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import com.testautomation.orchestrator.repository.PipelineExecutionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Limits how many pipelines run at once per application (GitLab project) and per branch of it, so a
+ * burst of flows against the same project does not swamp its shared runners.
+ *
+ * A step must acquire a slot before its pipeline is triggered. When no slot is free the step simply
+ * stays PENDING and its flow execution is remembered as waiting; no thread is held. Releasing a slot
+ * returns the waiting flow executions, which the caller hands back to the engine to try again.
+ *
+ * Slots are tracked in memory by pipeline execution. The holders of a bulkhead are loaded from the
+ * database the first time it is used, so pipelines still running after a restart keep their slots.
+ * Limits are per node: only pipelines of flow executions leased to this node are loaded, as slots of
+ * other nodes' pipelines are released on those nodes.
+ */
+@Service
+public class PipelineBulkhead {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineBulkhead.class);
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private FlowExecutionLeaseService flowExecutionLeaseService;
+
+    @Value("${flow-execution.bulkhead.default-max-concurrent-pipelines:0}")
+    private int defaultMaxConcurrentPipelines;
+
+    // Bulkhead key -> pipeline executions holding a slot
+    private final Map<String, Set<Long>> holders = new HashMap<>();
+
+    // Bulkhead key -> flow executions with a step waiting for a slot, in arrival order
+    private final Map<String, Set<UUID>> waiters = new HashMap<>();
+
+    /**
+     * Take a slot in every bulkhead that applies to the step, or none of them.
+     *
+     * @return false when a bulkhead is full; the flow execution is then woken up by a later release
+     */
+    public synchronized boolean tryAcquire(PipelineExecution pipelineExecution, FlowStep step, Application application) {
+        List<Limit> limits = limitsFor(step, application);
+        if (limits.isEmpty()) {
+            return true;
+        }
+
+        Long pipelineExecutionId = pipelineExecution.getId();
+        for (Limit limit : limits) {
+            Set<Long> slots = holders.computeIfAbsent(limit.key, key -> loadActive(limit));
+            if (!slots.contains(pipelineExecutionId) && slots.size() >= limit.maxConcurrent) {
+                waiters.computeIfAbsent(limit.key, key -> new LinkedHashSet<>()).add(pipelineExecution.getFlowExecutionId());
+                logger.info("Bulkhead {} is full ({} running), step {} of flow execution {} waits for a free slot",
+                           limit.key, slots.size(), step.getId(), pipelineExecution.getFlowExecutionId());
+                return false;
+            }
+        }
+        for (Limit limit : limits) {
+            holders.get(limit.key).add(pipelineExecutionId);
+        }
+        return true;
+    }
+
+    /**
+     * Free the slots held by a pipeline execution whose pipeline finished or could not be triggered.
+     *
+     * @return flow executions that were waiting for one of the freed bulkheads
+     */
+    public synchronized Set<UUID> release(Long pipelineExecutionId) {
+        Set<UUID> woken = new LinkedHashSet<>();
+        for (Map.Entry<String, Set<Long>> entry : holders.entrySet()) {
+            if (entry.getValue().remove(pipelineExecutionId)) {
+                Set<UUID> waiting = waiters.remove(entry.getKey());
+                if (waiting != null) {
+                    woken.addAll(waiting);
+                }
+            }
+        }
+        if (!woken.isEmpty()) {
+            logger.debug("Pipeline execution {} released its slot, waking {} waiting flow execution(s)", pipelineExecutionId, woken.size());
+        }
+        return woken;
+    }
+
+    private List<Limit> limitsFor(FlowStep step, Application application) {
+        if (application == null) {
+            return Collections.emptyList();
+        }
+        List<Limit> limits = new ArrayList<>();
+        Integer applicationLimit = application.getMaxConcurrentPipelines() != null
+                ? application.getMaxConcurrentPipelines()
+                : (defaultMaxConcurrentPipelines > 0 ? defaultMaxConcurrentPipelines : null);
+        if (applicationLimit != null) {
+            limits.add(new Limit("application:" + application.getId(), applicationLimit, application.getId(), null));
+        }
+        if (application.getMaxConcurrentPipelinesPerBranch() != null && step.getBranch() != null) {
+            limits.add(new Limit("application:" + application.getId() + ":branch:" + step.getBranch(),
+                                 application.getMaxConcurrentPipelinesPerBranch(), application.getId(), step.getBranch()));
+        }
+        return limits;
+    }
+
+    private Set<Long> loadActive(Limit limit) {
+        // Only this node's pipelines: others are released on the node driving them, never here
+        String nodeId = flowExecutionLeaseService.getNodeId();
+        List<Long> active = limit.branch == null
+                ? pipelineExecutionRepository.findActiveIdsByApplicationId(limit.applicationId, nodeId)
+                : pipelineExecutionRepository.findActiveIdsByApplicationIdAndBranch(limit.applicationId, limit.branch, nodeId);
+        logger.debug("Bulkhead {} starts with {} running pipeline(s)", limit.key, active.size());
+        return new HashSet<>(active);
+    }
+
+    private static final class Limit {
+        final String key;
+        final int maxConcurrent;
+        final Long applicationId;
+        final String branch;
+
+        Limit(String key, int maxConcurrent, Long applicationId, String branch) {
+            this.key = key;
+            this.maxConcurrent = maxConcurrent;
+            this.applicationId = applicationId;
+            this.branch = branch;
+        }
+    }
+}
@@ -74,10 +74,15 @@ public class PipelineExecutionService {
         dto.setConfiguredTestData(entity.getConfiguredTestData());
         dto.setRuntimeTestData(entity.getRuntimeTestData());
         dto.setStatus(entity.getStatus());
+        dto.setPhase(entity.getPhase());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setIsReplay(entity.getIsReplay());
         dto.setOriginalFlowExecutionId(entity.getOriginalFlowExecutionId());
         dto.setResumeTime(entity.getResumeTime());
+        dto.setCommitSha(entity.getCommitSha());
+        dto.setReusedFromPipelineExecutionId(entity.getReusedFromPipelineExecutionId());
+        dto.setFailureReason(entity.getFailureReason());
+        dto.setTrailingStatus(entity.getTrailingStatus());
         return dto;
     }
 }
\ No newline at end of file
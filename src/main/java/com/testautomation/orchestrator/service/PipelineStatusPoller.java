@@ -0,0 +1,422 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.config.GitLabConfig;
+import com.testautomation.orchestrator.event.PipelineCompletedEvent;
+import com.testautomation.orchestrator.event.StageCompletedEvent;
+import com.testautomation.orchestrator.model.Application;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import com.testautomation.orchestrator.repository.ApplicationRepository;
+import com.testautomation.orchestrator.repository.FlowStepRepository;
+import com.testautomation.orchestrator.repository.PipelineExecutionRepository;
+import com.testautomation.orchestrator.util.GitLabApiClient;
+import com.testautomation.orchestrator.util.PollScheduleCalculator;
+import com.testautomation.orchestrator.util.RetryPolicy;
+import com.testautomation.orchestrator.util.StageOutcome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Single poller for every RUNNING pipeline execution.
+ *
+ * The engine registers a step once its GitLab pipeline is running. On each tick the registry is grouped
+ * by GitLab project and access token, every distinct pipeline is queried exactly once with bounded
+ * concurrency, and a {@link PipelineCompletedEvent} is published for each execution waiting on a
+ * pipeline that reached a final state. API traffic therefore scales with distinct pipelines, not threads.
+ *
+ * Each pipeline is polled on its own schedule derived from past run durations of the same flow step
+ * (see {@link PollScheduleCalculator}), so long stages are not polled needlessly and short ones are
+ * picked up close to when they finish.
+ *
+ * When GitLab webhooks are enabled, completions normally arrive through {@link GitLabWebhookService}
+ * and each pipeline is only polled every reconciliation interval to catch missed events.
+ *
+ * A failed status check is retried after the backoff of the step's retry policy (see
+ * {@link RetryPolicyService}); the step fails once the policy gives up or the error is not transient.
+ *
+ * For fail-fast steps and steps that proceed on stage success the jobs of a still running pipeline
+ * are listed as well, and a {@link StageCompletedEvent} is published as soon as the step's test stage
+ * failed or passed respectively, so the step does not wait for trailing stages. Job webhooks only
+ * prompt an early poll of such a pipeline. A pipeline whose step passed at its test stage stays
+ * watched until it completes, and its final status is recorded as the step's trailing status.
+ */
+@Service
+public class PipelineStatusPoller {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineStatusPoller.class);
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Autowired
+    private PollScheduleCalculator pollScheduleCalculator;
+
+    @Autowired
+    private ApplicationService applicationService;
+
+    @Autowired
+    private GitLabApiClient gitLabApiClient;
+
+    @Autowired
+    private GitLabConfig gitLabConfig;
+
+    @Autowired
+    private RetryPolicyService retryPolicyService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    @Qualifier("taskScheduler")
+    private TaskScheduler taskScheduler;
+
+    @Value("${flow-execution.poller.max-concurrency:8}")
+    private int maxConcurrency;
+
+    @Value("${flow-execution.poller.history-size:50}")
+    private int historySize;
+
+    @Value("${flow-execution.webhooks.enabled:false}")
+    private boolean webhooksEnabled;
+
+    @Value("${flow-execution.webhooks.reconciliation-interval:300000}")
+    private long reconciliationIntervalMs;
+
+    // Registered pipeline executions keyed by PipelineExecution id
+    private final Map<Long, WatchedPipeline> registry = new ConcurrentHashMap<>();
+
+    // Consecutive poll failures per GitLab pipeline
+    private final Map<PipelineKey, Integer> failures = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean tickInProgress = new AtomicBoolean(false);
+
+    /**
+     * Start watching a running pipeline execution. Registering the same execution twice is a no-op.
+     */
+    public void register(PipelineExecution pipelineExecution) {
+        if (registry.containsKey(pipelineExecution.getId())) {
+            return;
+        }
+
+        FlowStep step = flowStepRepository.findById(pipelineExecution.getFlowStepId())
+                .orElseThrow(() -> new IllegalArgumentException("Flow step not found with ID: " + pipelineExecution.getFlowStepId()));
+        Application application = applicationRepository.findById(step.getApplicationId())
+                .orElseThrow(() -> new IllegalArgumentException("Application not found with ID: " + step.getApplicationId()));
+
+        PollScheduleCalculator.PollSchedule schedule = pollScheduleCalculator.forHistory(recentDurations(step.getId()));
+        LocalDateTime startTime = pipelineExecution.getStartTime() != null ? pipelineExecution.getStartTime() : LocalDateTime.now();
+        WatchedPipeline watched = new WatchedPipeline(
+                pipelineExecution.getFlowExecutionId(), pipelineExecution.getId(), pipelineExecution.getPipelineId(),
+                application.getId(), application.getGitlabProjectId(),
+                startTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), schedule,
+                retryPolicyService.forStep(step), step.getTestStage(), Boolean.TRUE.equals(step.getFailFast()),
+                Boolean.TRUE.equals(step.getProceedOnStageSuccess()));
+        watched.nextPollAt = nextPollAt(watched, System.currentTimeMillis());
+        registry.putIfAbsent(pipelineExecution.getId(), watched);
+
+        if (schedule.hasHistory()) {
+            logger.debug("Watching pipeline {} for pipeline execution {} (p50 {}s, p95 {}s)", pipelineExecution.getPipelineId(),
+                        pipelineExecution.getId(), schedule.getP50Ms() / 1000, schedule.getP95Ms() / 1000);
+        } else {
+            logger.debug("Watching pipeline {} for pipeline execution {}", pipelineExecution.getPipelineId(), pipelineExecution.getId());
+        }
+    }
+
+    /**
+     * Poll a watched pipeline on the next tick, e.g. because a job of it finished
+     */
+    public void pollSoon(Long pipelineExecutionId) {
+        WatchedPipeline watched = registry.get(pipelineExecutionId);
+        if (watched != null) {
+            watched.nextPollAt = 0;
+        }
+    }
+
+    public void unregister(Long pipelineExecutionId) {
+        registry.remove(pipelineExecutionId);
+    }
+
+    public int getWatchedCount() {
+        return registry.size();
+    }
+
+    @Scheduled(fixedDelayString = "${flow-execution.poller.tick-interval:5000}")
+    public void pollRunningPipelines() {
+        if (registry.isEmpty() || !tickInProgress.compareAndSet(false, true)) {
+            return;
+        }
+
+        Map<PipelineKey, List<WatchedPipeline>> byPipeline;
+        try {
+            byPipeline = groupByPipeline();
+        } catch (Exception e) {
+            logger.error("Failed to prepare pipeline status poll: {}", e.getMessage(), e);
+            tickInProgress.set(false);
+            return;
+        }
+        if (byPipeline.isEmpty()) {
+            tickInProgress.set(false);
+            return;
+        }
+        // Forget failure counts of pipelines that are no longer watched
+        failures.keySet().removeIf(key -> registry.values().stream().noneMatch(w -> w.pipelineId.equals(key.pipelineId)));
+        logger.debug("Polling {} distinct pipelines for {} running pipeline executions", byPipeline.size(), registry.size());
+
+        Flux.fromIterable(byPipeline.entrySet())
+                .flatMap(entry -> poll(entry.getKey(), entry.getValue()), maxConcurrency)
+                .doFinally(signal -> tickInProgress.set(false))
+                .subscribe();
+    }
+
+    /**
+     * Group registered executions by project and token, then by pipeline, decrypting each token once per tick.
+     */
+    private Map<PipelineKey, List<WatchedPipeline>> groupByPipeline() {
+        Map<Long, String> tokensByApplication = new HashMap<>();
+        Map<PipelineKey, List<WatchedPipeline>> byPipeline = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+
+        for (WatchedPipeline watched : registry.values()) {
+            if (watched.nextPollAt > now) {
+                continue;
+            }
+            String accessToken = tokensByApplication.computeIfAbsent(watched.applicationId,
+                    applicationService::getDecryptedPersonalAccessToken);
+            PipelineKey key = new PipelineKey(watched.projectId, accessToken, watched.pipelineId);
+            byPipeline.computeIfAbsent(key, k -> new ArrayList<>()).add(watched);
+        }
+        return byPipeline;
+    }
+
+    private Mono<Void> poll(PipelineKey key, List<WatchedPipeline> waiting) {
+        return gitLabApiClient.getPipelineStatus(gitLabConfig.getBaseUrl(), key.projectId, key.pipelineId, key.accessToken)
+                .flatMap(status -> {
+                    failures.remove(key);
+                    if (status.isCompleted()) {
+                        logger.info("Pipeline {} reached final status: {}", key.pipelineId, status.getStatus());
+                        complete(waiting, status.getStatus());
+                        return Mono.empty();
+                    }
+                    reschedule(waiting);
+                    return pollStages(key, waiting);
+                })
+                .onErrorResume(error -> {
+                    int attempts = failures.merge(key, 1, Integer::sum);
+                    RetryPolicy retryPolicy = waiting.get(0).retryPolicy;
+                    if (!retryPolicyService.shouldRetry(retryPolicy, attempts, error)) {
+                        logger.error("Giving up on pipeline {} after {} failed status check(s): {}",
+                                   key.pipelineId, attempts, error.getMessage());
+                        failures.remove(key);
+                        complete(waiting, "failed");
+                    } else {
+                        long backoffMs = retryPolicyService.nextBackoffMs(retryPolicy, attempts);
+                        logger.warn("Error polling pipeline {} (attempt {} of {}), retrying in {} ms: {}",
+                                   key.pipelineId, attempts, retryPolicy.getMaxAttempts(), backoffMs, error.getMessage());
+                        long retryAt = System.currentTimeMillis() + backoffMs;
+                        waiting.forEach(watched -> watched.nextPollAt = retryAt);
+                    }
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * List the jobs of a running pipeline when one of its watchers waits on the outcome of its test stage
+     */
+    private Mono<Void> pollStages(PipelineKey key, List<WatchedPipeline> waiting) {
+        if (waiting.stream().noneMatch(WatchedPipeline::watchesStage)) {
+            return Mono.empty();
+        }
+        return gitLabApiClient.getPipelineJobs(gitLabConfig.getBaseUrl(), key.projectId, key.pipelineId, key.accessToken)
+                .doOnNext(jobs -> {
+                    List<StageOutcome.Job> stageJobs = new ArrayList<>();
+                    Map<Long, String> jobUrls = new HashMap<>();
+                    for (GitLabApiClient.GitLabJobsResponse job : jobs) {
+                        stageJobs.add(new StageOutcome.Job(job.getId(), job.getName(), job.getStage(), job.getStatus(), job.isAllowFailure()));
+                        jobUrls.put(job.getId(), job.getWebUrl());
+                    }
+                    for (WatchedPipeline watched : waiting) {
+                        if (!watched.watchesStage()) {
+                            continue;
+                        }
+                        StageOutcome outcome = StageOutcome.of(stageJobs, watched.testStage);
+                        StageOutcome.Job job = outcome.getJob();
+                        if (outcome.getResult() == StageOutcome.Result.FAILED && watched.failFast) {
+                            logger.info("Job {} of stage '{}' in pipeline {} is {}, failing fast",
+                                       job.getId(), watched.testStage, key.pipelineId, job.getStatus());
+                        } else if (outcome.getResult() == StageOutcome.Result.PASSED && watched.proceedOnStageSuccess) {
+                            logger.info("Stage '{}' of pipeline {} passed, proceeding while later stages finish",
+                                       watched.testStage, key.pipelineId);
+                            watched.trailing = true;
+                        } else {
+                            continue;
+                        }
+                        eventPublisher.publishEvent(new StageCompletedEvent(watched.flowExecutionId,
+                                watched.pipelineExecutionId, watched.pipelineId, watched.testStage,
+                                outcome.getResult() == StageOutcome.Result.PASSED,
+                                job.getId(), job.getName(), jobUrls.get(job.getId())));
+                    }
+                })
+                // Not fatal: the pipeline status is still polled and decides in the end
+                .onErrorResume(error -> {
+                    logger.debug("Could not list the jobs of pipeline {}: {}", key.pipelineId, error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void reschedule(List<WatchedPipeline> waiting) {
+        long now = System.currentTimeMillis();
+        for (WatchedPipeline watched : waiting) {
+            watched.nextPollAt = nextPollAt(watched, now);
+        }
+    }
+
+    private long nextPollAt(WatchedPipeline watched, long now) {
+        // Without a secret webhook events are rejected, so polling stays the source of completions
+        if (webhooksEnabled && gitLabConfig.hasWebhookSecret()) {
+            return now + reconciliationIntervalMs;
+        }
+        return now + watched.schedule.nextDelayMs(now - watched.startedAtMs);
+    }
+
+    /**
+     * Durations of the most recent successful runs of a flow step
+     */
+    private List<Long> recentDurations(Long flowStepId) {
+        List<Long> durations = new ArrayList<>();
+        for (Object[] row : pipelineExecutionRepository.findRecentRunTimesByFlowStepId(flowStepId, PageRequest.of(0, historySize))) {
+            durations.add(Duration.between((LocalDateTime) row[0], (LocalDateTime) row[1]).toMillis());
+        }
+        return durations;
+    }
+
+    private void complete(List<WatchedPipeline> waiting, String gitlabStatus) {
+        for (WatchedPipeline watched : waiting) {
+            if (watched.trailing) {
+                // Status responses arrive on the HTTP client's event loop, which must not wait on the database
+                Long pipelineExecutionId = watched.pipelineExecutionId;
+                taskScheduler.schedule(() -> recordTrailingStatus(pipelineExecutionId, gitlabStatus), Instant.now());
+            }
+            if (registry.remove(watched.pipelineExecutionId) != null) {
+                eventPublisher.publishEvent(new PipelineCompletedEvent(
+                        watched.flowExecutionId, watched.pipelineExecutionId, watched.pipelineId, gitlabStatus));
+            }
+        }
+    }
+
+    /**
+     * Record the final status of a pipeline whose step already passed at its test stage. Written here
+     * rather than by the engine, whose flow may have finished in the meantime.
+     */
+    private void recordTrailingStatus(Long pipelineExecutionId, String gitlabStatus) {
+        try {
+            pipelineExecutionRepository.findById(pipelineExecutionId)
+                    .filter(pipelineExecution -> pipelineExecution.getTrailingStatus() != null)
+                    .ifPresent(pipelineExecution -> {
+                        pipelineExecution.setTrailingStatus(gitlabStatus);
+                        pipelineExecutionRepository.save(pipelineExecution);
+                        logger.info("Trailing stages of pipeline {} finished with status {}", pipelineExecution.getPipelineId(), gitlabStatus);
+                    });
+        } catch (Exception e) {
+            logger.warn("Could not record the trailing status of pipeline execution {}: {}", pipelineExecutionId, e.getMessage());
+        }
+    }
+
+    private static final class WatchedPipeline {
+
+        final UUID flowExecutionId;
+        final Long pipelineExecutionId;
+        final Long pipelineId;
+        final Long applicationId;
+        final String projectId;
+        final long startedAtMs;
+        final PollScheduleCalculator.PollSchedule schedule;
+        final RetryPolicy retryPolicy;
+        final String testStage;
+        final boolean failFast;
+        final boolean proceedOnStageSuccess;
+        volatile long nextPollAt;
+        // The test stage passed and the step proceeded; only the pipeline's final status is awaited
+        volatile boolean trailing;
+
+        WatchedPipeline(UUID flowExecutionId, Long pipelineExecutionId, Long pipelineId, Long applicationId,
+                        String projectId, long startedAtMs, PollScheduleCalculator.PollSchedule schedule,
+                        RetryPolicy retryPolicy, String testStage, boolean failFast, boolean proceedOnStageSuccess) {
+            this.flowExecutionId = flowExecutionId;
+            this.pipelineExecutionId = pipelineExecutionId;
+            this.pipelineId = pipelineId;
+            this.applicationId = applicationId;
+            this.projectId = projectId;
+            this.startedAtMs = startedAtMs;
+            this.schedule = schedule;
+            this.retryPolicy = retryPolicy;
+            this.testStage = testStage;
+            this.failFast = failFast;
+            this.proceedOnStageSuccess = proceedOnStageSuccess;
+        }
+
+        // Whether the jobs of the test stage are still of interest
+        boolean watchesStage() {
+            return (failFast || proceedOnStageSuccess) && !trailing;
+        }
+    }
+
+    private static final class PipelineKey {
+
+        final String projectId;
+        final String accessToken;
+        final Long pipelineId;
+
+        PipelineKey(String projectId, String accessToken, Long pipelineId) {
+            this.projectId = projectId;
+            this.accessToken = accessToken;
+            this.pipelineId = pipelineId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PipelineKey)) return false;
+            PipelineKey that = (PipelineKey) o;
+            return Objects.equals(projectId, that.projectId)
+                    && Objects.equals(accessToken, that.accessToken)
+                    && Objects.equals(pipelineId, that.pipelineId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(projectId, accessToken, pipelineId);
+        }
+    }
+}
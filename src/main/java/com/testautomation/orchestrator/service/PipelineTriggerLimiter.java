@@ -0,0 +1,86 @@
+package com.testautomation.orchestrator.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds how many GitLab pipeline trigger requests are in flight at once.
+ *
+ * A batch of flows hands all its root steps to the engine together; without a bound each of them
+ * would open its own request to GitLab in the same instant. Triggers over the limit wait in a FIFO
+ * queue and are sent as earlier ones complete. Waiting holds no thread: the trigger is simply not
+ * subscribed to until a permit is free.
+ *
+ * Each subscription takes its own permit, so a retried trigger queues again for every attempt and
+ * does not hold a permit during its backoff.
+ */
+@Service
+public class PipelineTriggerLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineTriggerLimiter.class);
+
+    @Value("${flow-execution.trigger.max-concurrency:16}")
+    private int maxConcurrency;
+
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * The given trigger request, sent once fewer than flow-execution.trigger.max-concurrency triggers
+     * are in flight (0 = unlimited)
+     */
+    public <T> Mono<T> limit(Mono<T> trigger) {
+        return Mono.create(sink -> {
+            Disposable.Swap request = Disposables.swap();
+            sink.onDispose(request);
+            waiting.add(() -> {
+                if (request.isDisposed()) {
+                    // Cancelled while waiting
+                    release();
+                    return;
+                }
+                request.update(trigger
+                        .doFinally(signal -> release())
+                        .subscribe(sink::success, sink::error, sink::success));
+            });
+            if (maxConcurrency > 0 && inFlight.get() >= maxConcurrency) {
+                logger.debug("Pipeline trigger waits for a permit ({} in flight, {} waiting)", inFlight.get(), waiting.size());
+            }
+            drain();
+        });
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        while (!waiting.isEmpty()) {
+            int current = inFlight.get();
+            if (maxConcurrency > 0 && current >= maxConcurrency) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable next = waiting.poll();
+            if (next == null) {
+                // Taken by a concurrent drain
+                inFlight.decrementAndGet();
+                continue;
+            }
+            next.run();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.config.GitLabConfig;
+import com.testautomation.orchestrator.model.Application;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.repository.ApplicationRepository;
+import com.testautomation.orchestrator.util.PersistentVariableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Everything a step needs to trigger its pipeline that does not depend on the steps before it: the
+ * application, its decrypted access token and the step's merged static test data.
+ *
+ * The engine prepares the next steps of a flow while their prerequisites are still running, so at the
+ * step boundary only the upstream runtime variables are overlaid. Entries are keyed by pipeline
+ * execution and dropped once the step has left PENDING. A missing entry, or one older than
+ * flow-execution.prepare.max-age (so an edited application or rotated token is picked up), is rebuilt
+ * on the spot.
+ *
+ * What is prepared only depends on the flow step, so it is built once per step and shared by every
+ * execution of it, e.g. all variants of a matrix execution; a step edited since is prepared again.
+ */
+@Service
+public class PreparedStepCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreparedStepCache.class);
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private TestDataService testDataService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private GitLabConfig gitLabConfig;
+
+    @Value("${flow-execution.prepare.max-age:900000}")
+    private long maxAgeMs;
+
+    private final Map<Long, PreparedStep> prepared = new ConcurrentHashMap<>();
+
+    // Flow step ID -> preparation shared by the executions of the step
+    private final Map<Long, StepPlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * Prepare a pending step ahead of time, unless a fresh preparation already exists
+     */
+    public void prepare(Long pipelineExecutionId, UUID flowExecutionId, FlowStep step) {
+        PreparedStep existing = prepared.get(pipelineExecutionId);
+        if (existing != null && isFresh(existing)) {
+            return;
+        }
+        try {
+            prepared.put(pipelineExecutionId, build(flowExecutionId, step));
+            logger.debug("Prepared step {} (pipeline execution {}) ahead of its trigger", step.getId(), pipelineExecutionId);
+        } catch (Exception e) {
+            // Not fatal: the step is prepared again when it is triggered, where the error surfaces
+            logger.warn("Could not prepare step {} ahead of time: {}", step.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * The preparation of a step that is about to be triggered, built now if there is no fresh one.
+     * It is kept until discarded, so a step waiting for a bulkhead slot does not rebuild it.
+     */
+    public PreparedStep get(Long pipelineExecutionId, UUID flowExecutionId, FlowStep step) {
+        PreparedStep preparedStep = prepared.get(pipelineExecutionId);
+        if (preparedStep == null || !isFresh(preparedStep)) {
+            preparedStep = build(flowExecutionId, step);
+            prepared.put(pipelineExecutionId, preparedStep);
+        }
+        return preparedStep;
+    }
+
+    public void discard(Long pipelineExecutionId) {
+        prepared.remove(pipelineExecutionId);
+    }
+
+    public void discardFlow(UUID flowExecutionId) {
+        prepared.values().removeIf(preparedStep -> preparedStep.flowExecutionId.equals(flowExecutionId));
+        plans.values().removeIf(plan -> !isFresh(plan.preparedAtMs));
+    }
+
+    private PreparedStep build(UUID flowExecutionId, FlowStep step) {
+        StepPlan plan = plans.get(step.getId());
+        if (plan == null || !isFresh(plan.preparedAtMs) || !Objects.equals(plan.stepUpdatedAt, step.getUpdatedAt())) {
+            Application application = applicationRepository.findById(step.getApplicationId())
+                    .orElseThrow(() -> new IllegalArgumentException("Application not found with ID: " + step.getApplicationId()));
+            String accessToken = gitLabConfig.isMockMode() ? null : encryptionService.decrypt(application.getPersonalAccessToken());
+            plan = new StepPlan(application, accessToken, PersistentVariableMap.of(testDataService.mergeTestDataByIds(step.getTestDataIds())),
+                                step.getUpdatedAt(), System.currentTimeMillis());
+            plans.put(step.getId(), plan);
+        }
+        return new PreparedStep(flowExecutionId, plan.application, plan.accessToken, plan.testData, plan.preparedAtMs);
+    }
+
+    private boolean isFresh(PreparedStep preparedStep) {
+        return isFresh(preparedStep.preparedAtMs);
+    }
+
+    private boolean isFresh(long preparedAtMs) {
+        return System.currentTimeMillis() - preparedAtMs <= maxAgeMs;
+    }
+
+    private static final class StepPlan {
+        final Application application;
+        final String accessToken;
+        final PersistentVariableMap testData;
+        final LocalDateTime stepUpdatedAt;
+        final long preparedAtMs;
+
+        StepPlan(Application application, String accessToken, PersistentVariableMap testData,
+                 LocalDateTime stepUpdatedAt, long preparedAtMs) {
+            this.application = application;
+            this.accessToken = accessToken;
+            this.testData = testData;
+            this.stepUpdatedAt = stepUpdatedAt;
+            this.preparedAtMs = preparedAtMs;
+        }
+    }
+
+    public static final class PreparedStep {
+
+        private final UUID flowExecutionId;
+        private final Application application;
+        private final String accessToken;
+        private final PersistentVariableMap testData;
+        private final long preparedAtMs;
+
+        PreparedStep(UUID flowExecutionId, Application application, String accessToken,
+                     Map<String, String> testData, long preparedAtMs) {
+            this.flowExecutionId = flowExecutionId;
+            this.application = application;
+            this.accessToken = accessToken;
+            this.testData = PersistentVariableMap.of(testData);
+            this.preparedAtMs = preparedAtMs;
+        }
+
+        public Application getApplication() {
+            return application;
+        }
+
+        // Decrypted personal access token; null in mock mode
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        // Merged static test data of the step, without upstream runtime variables; shared by every
+        // trigger attempt of the step instead of being copied
+        public PersistentVariableMap getTestData() {
+            return testData;
+        }
+    }
+}
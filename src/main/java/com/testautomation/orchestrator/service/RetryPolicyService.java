@@ -0,0 +1,121 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.config.GitLabConfig;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.model.StepRetryPolicy;
+import com.testautomation.orchestrator.util.RetryPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Retry policies for transient failures of the GitLab calls a step makes: triggering its pipeline,
+ * polling its status, listing its jobs and downloading its artifacts.
+ *
+ * A step's policy is the configured default (flow-execution.retry.*) with the step's own overrides
+ * applied. Retries are delayed on Reactor's timer, never by sleeping on a thread. A failure is
+ * retryable when it carries one of the policy's HTTP statuses, or when it has no status at all
+ * (connection refused or reset, read timeout).
+ */
+@Service
+public class RetryPolicyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryPolicyService.class);
+
+    @Autowired
+    private GitLabConfig gitLabConfig;
+
+    // 0 = gitlab.max-retries + 1
+    @Value("${flow-execution.retry.max-attempts:0}")
+    private int maxAttempts;
+
+    @Value("${flow-execution.retry.initial-backoff:2000}")
+    private long initialBackoffMs;
+
+    @Value("${flow-execution.retry.max-backoff:60000}")
+    private long maxBackoffMs;
+
+    @Value("${flow-execution.retry.jitter:0.5}")
+    private double jitter;
+
+    @Value("${flow-execution.retry.retryable-statuses:408,429,500,502,503,504}")
+    private List<Integer> retryableStatuses;
+
+    private volatile RetryPolicy defaultPolicy;
+
+    public RetryPolicy getDefaultPolicy() {
+        RetryPolicy policy = defaultPolicy;
+        if (policy == null) {
+            int attempts = maxAttempts > 0 ? maxAttempts : gitLabConfig.getMaxRetries() + 1;
+            policy = new RetryPolicy(attempts, initialBackoffMs, maxBackoffMs, jitter, retryableStatuses);
+            defaultPolicy = policy;
+        }
+        return policy;
+    }
+
+    public RetryPolicy forStep(FlowStep step) {
+        StepRetryPolicy overrides = step != null ? step.getRetryPolicy() : null;
+        if (overrides == null) {
+            return getDefaultPolicy();
+        }
+        try {
+            return getDefaultPolicy().withOverrides(overrides.getMaxAttempts(), overrides.getInitialBackoffMs(),
+                                                    overrides.getMaxBackoffMs(), overrides.getRetryableStatuses());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring invalid retry policy of step {}: {}", step.getId(), e.getMessage());
+            return getDefaultPolicy();
+        }
+    }
+
+    /**
+     * Whether a call that failed for the failedAttempts-th time with the given error is tried again
+     */
+    public boolean shouldRetry(RetryPolicy policy, int failedAttempts, Throwable error) {
+        if (error instanceof WebClientResponseException) {
+            return policy.shouldRetry(failedAttempts, ((WebClientResponseException) error).getStatusCode().value());
+        }
+        return isTransient(error) && policy.shouldRetry(failedAttempts, null);
+    }
+
+    public long nextBackoffMs(RetryPolicy policy, int failedAttempts) {
+        return policy.backoffMs(failedAttempts, ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * Reactor retry spec applying the policy to a GitLab call; description names the call in logs
+     */
+    public Retry retrySpec(RetryPolicy policy, String description) {
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            int failedAttempts = (int) signal.totalRetries() + 1;
+            Throwable error = signal.failure();
+            if (!shouldRetry(policy, failedAttempts, error)) {
+                return Mono.error(error);
+            }
+            long backoffMs = nextBackoffMs(policy, failedAttempts);
+            logger.warn("{} failed (attempt {} of {}), retrying in {} ms: {}",
+                       description, failedAttempts, policy.getMaxAttempts(), backoffMs, error.getMessage());
+            return Mono.delay(Duration.ofMillis(backoffMs));
+        }));
+    }
+
+    private boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof WebClientRequestException || cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
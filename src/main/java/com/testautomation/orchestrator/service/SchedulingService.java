@@ -1,6 +1,7 @@
 package com.testautomation.orchestrator.service;
 
 import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.event.StepResumeDueEvent;
 import com.testautomation.orchestrator.model.InvokeScheduler;
 import com.testautomation.orchestrator.model.Timer;
 import com.testautomation.orchestrator.model.PipelineExecution;
@@ -8,15 +9,23 @@ import com.testautomation.orchestrator.repository.PipelineExecutionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
 
 @Service
 public class SchedulingService {
@@ -27,10 +36,14 @@ public class SchedulingService {
     private PipelineExecutionRepository pipelineExecutionRepository;
 
     @Autowired
-    private FlowExecutionService flowExecutionService;
+    private ApplicationEventPublisher eventPublisher;
 
-    @Value("${scheduling.pipeline-status.polling-interval:60000}")
-    private long pollingInterval;
+    @Autowired
+    @Qualifier("taskScheduler")
+    private TaskScheduler taskScheduler;
+
+    // Pending resume timers by pipeline execution; the scheduler's delay queue fires each at its exact time
+    private final Map<Long, ScheduledFuture<?>> timers = new ConcurrentHashMap<>();
 
     /**
      * Calculates the resume time based on InvokeScheduler configuration
@@ -155,56 +168,50 @@ public class SchedulingService {
     }
 
     /**
-     * Background scheduler that checks for scheduled pipeline executions that are ready to resume
-     * Uses configurable polling interval
+     * Schedules a pipeline execution to run at a specific time
      */
-    @Scheduled(fixedRateString = "${scheduling.pipeline-status.polling-interval:60000}")
     @Transactional
-    public void processScheduledExecutions() {
-        logger.debug("Checking for scheduled pipeline executions ready to resume...");
-        
-        LocalDateTime now = LocalDateTime.now();
-        List<PipelineExecution> scheduledExecutions = pipelineExecutionRepository.findByStatusAndResumeTimeBefore(
-            ExecutionStatus.SCHEDULED, now);
+    public void schedulePipelineExecution(PipelineExecution execution, LocalDateTime resumeTime) {
+        execution.setStatus(ExecutionStatus.SCHEDULED);
+        execution.setResumeTime(resumeTime);
+        pipelineExecutionRepository.save(execution);
+        armTimer(execution);
 
-        logger.info("Found {} scheduled executions ready to resume", scheduledExecutions.size());
+        logger.info("Scheduled pipeline execution ID: {} to resume at: {}", execution.getId(), resumeTime);
+    }
 
-        for (PipelineExecution execution : scheduledExecutions) {
-            try {
-                logger.info("Resuming scheduled pipeline execution ID: {} for flow step ID: {}", 
-                           execution.getId(), execution.getFlowStepId());
-                
-                // Update status from SCHEDULED to IN_PROGRESS to avoid replay delays
-                execution.setStatus(ExecutionStatus.IN_PROGRESS);
-                execution.setStartTime(LocalDateTime.now());
-                execution.setResumeTime(null); // Clear resume time
-                pipelineExecutionRepository.save(execution);
-
-                // Resume the flow execution from this step  
-                // Note: This method needs to be implemented in FlowExecutionService
-                // flowExecutionService.resumeFlowExecution(execution.getFlowExecutionId(), execution.getFlowStepId());
-                
-                logger.info("Pipeline execution ID: {} marked as IN_PROGRESS, ready for pipeline trigger", execution.getId());
-                
-            } catch (Exception e) {
-                logger.error("Error resuming scheduled pipeline execution ID: {}", execution.getId(), e);
-                // Mark as failed if resume fails
-                execution.setStatus(ExecutionStatus.FAILED);
-                execution.setEndTime(LocalDateTime.now());
-                pipelineExecutionRepository.save(execution);
-            }
+    /**
+     * Arrange for a {@link StepResumeDueEvent} at the execution's resume time. Only one timer per execution is kept.
+     */
+    public void armTimer(PipelineExecution execution) {
+        Long pipelineExecutionId = execution.getId();
+        UUID flowExecutionId = execution.getFlowExecutionId();
+        Instant fireAt = execution.getResumeTime().atZone(ZoneId.systemDefault()).toInstant();
+        timers.computeIfAbsent(pipelineExecutionId, id -> taskScheduler.schedule(() -> {
+            timers.remove(pipelineExecutionId);
+            logger.info("Resume time reached for pipeline execution ID: {}", pipelineExecutionId);
+            eventPublisher.publishEvent(new StepResumeDueEvent(flowExecutionId, pipelineExecutionId));
+        }, fireAt));
+    }
+
+    public void cancelTimer(Long pipelineExecutionId) {
+        ScheduledFuture<?> timer = timers.remove(pipelineExecutionId);
+        if (timer != null) {
+            timer.cancel(false);
         }
     }
 
     /**
-     * Schedules a pipeline execution to run at a specific time
+     * Re-arm the timers of scheduled executions persisted by a previous process. Resume times that
+     * passed while the application was down fire right away.
      */
-    @Transactional
-    public void schedulePipelineExecution(PipelineExecution execution, LocalDateTime resumeTime) {
-        execution.setStatus(ExecutionStatus.SCHEDULED);
-        execution.setResumeTime(resumeTime);
-        pipelineExecutionRepository.save(execution);
-        
-        logger.info("Scheduled pipeline execution ID: {} to resume at: {}", execution.getId(), resumeTime);
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadScheduledExecutions() {
+        List<PipelineExecution> scheduledExecutions = pipelineExecutionRepository.findByStatusAndResumeTimeIsNotNull(ExecutionStatus.SCHEDULED);
+        for (PipelineExecution execution : scheduledExecutions) {
+            armTimer(execution);
+        }
+        logger.info("Loaded {} scheduled pipeline executions", scheduledExecutions.size());
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.testautomation.orchestrator.service;
 
 import com.testautomation.orchestrator.dto.TestDataDto;
+import com.testautomation.orchestrator.model.FlowStep;
 import com.testautomation.orchestrator.model.TestData;
 import com.testautomation.orchestrator.repository.ApplicationRepository;
 import com.testautomation.orchestrator.repository.TestDataRepository;
@@ -12,9 +13,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -149,6 +154,74 @@ public class TestDataService {
         return mergedData;
     }
 
+    /**
+     * Merge the test data of many flow steps with a single query
+     *
+     * @return flow step ID -> merged variables of its test data
+     */
+    public Map<Long, Map<String, String>> mergeTestDataByStep(Collection<FlowStep> flowSteps) {
+        Set<Long> testDataIds = new HashSet<>();
+        for (FlowStep flowStep : flowSteps) {
+            if (flowStep.getTestDataIds() != null) {
+                testDataIds.addAll(flowStep.getTestDataIds());
+            }
+        }
+        Map<Long, TestData> testDataById = testDataIds.isEmpty() ? new HashMap<>()
+                : testDataRepository.findByDataIdIn(new ArrayList<>(testDataIds)).stream()
+                        .collect(Collectors.toMap(TestData::getDataId, testData -> testData));
+
+        Map<Long, Map<String, String>> mergedByStep = new HashMap<>();
+        for (FlowStep flowStep : flowSteps) {
+            Map<String, String> mergedData = new HashMap<>();
+            if (flowStep.getTestDataIds() != null) {
+                for (Long testDataId : flowStep.getTestDataIds()) {
+                    TestData testData = testDataById.get(testDataId);
+                    if (testData != null && testData.getVariables() != null) {
+                        mergedData.putAll(testData.getVariables());
+                    }
+                }
+            }
+            mergedByStep.put(flowStep.getId(), mergedData);
+        }
+        return mergedByStep;
+    }
+
+    /**
+     * Merge several lists of test data IDs with a single query, e.g. one list per variant of a matrix
+     * execution
+     *
+     * @return the merged variables of each list, in list order
+     */
+    public List<Map<String, String>> mergeTestDataByIdLists(List<List<Long>> testDataIdLists) {
+        Set<Long> testDataIds = new HashSet<>();
+        for (List<Long> testDataIdList : testDataIdLists) {
+            if (testDataIdList != null) {
+                testDataIds.addAll(testDataIdList);
+            }
+        }
+        Map<Long, TestData> testDataById = testDataIds.isEmpty() ? new HashMap<>()
+                : testDataRepository.findByDataIdIn(new ArrayList<>(testDataIds)).stream()
+                        .collect(Collectors.toMap(TestData::getDataId, testData -> testData));
+
+        List<Map<String, String>> merged = new ArrayList<>();
+        for (List<Long> testDataIdList : testDataIdLists) {
+            Map<String, String> mergedData = new HashMap<>();
+            if (testDataIdList != null) {
+                for (Long testDataId : testDataIdList) {
+                    TestData testData = testDataById.get(testDataId);
+                    if (testData == null) {
+                        throw new IllegalArgumentException("Test data not found with ID: " + testDataId);
+                    }
+                    if (testData.getVariables() != null) {
+                        mergedData.putAll(testData.getVariables());
+                    }
+                }
+            }
+            merged.add(mergedData);
+        }
+        return merged;
+    }
+
     private TestDataDto convertToDto(TestData testData) {
         TestDataDto dto = new TestDataDto();
         dto.setDataId(testData.getDataId());
@@ -7,6 +7,7 @@ import com.testautomation.orchestrator.repository.ApplicationRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,13 +29,24 @@ public class TokenValidationScheduler {
     @Autowired
     private EncryptionService encryptionService;
 
+    @Autowired
+    private ClusterLockService clusterLockService;
+
     /**
      * Scheduled job that runs based on configured cron expression to validate all application tokens.
      * Updates token status to VALID or EXPIRED based on validation results.
+     * Runs on its own thread, as each validation blocks until the rate limiter lets its low priority
+     * GitLab call through.
      */
     @Scheduled(cron = "${scheduling.token-validation.cron:0 0 2 * * *}")
+    @Async("tokenValidationExecutor")
     @Transactional
     public void validateAllTokensScheduled() {
+        // Every node fires the cron; the first to take the lock validates for the cluster
+        if (!clusterLockService.tryLock(ClusterLockService.TOKEN_VALIDATION)) {
+            logger.info("Scheduled token validation job is running on another node, skipping");
+            return;
+        }
         logger.info("Starting scheduled token validation job...");
 
         try {
@@ -55,7 +67,8 @@ public class TokenValidationScheduler {
                     // Decrypt the token for validation
                     String decryptedToken = encryptionService.decrypt(application.getPersonalAccessToken());
                     
-                    // Use the existing validation endpoint logic
+                    // Use the existing validation endpoint logic; the GitLab client paces these calls as
+                    // low priority, behind pipeline triggers and status checks
                     ValidationResponseDto validationResponse = applicationService.validateGitLabConnection(
                         decryptedToken, 
                         application.getGitlabProjectId()
@@ -94,15 +107,6 @@ public class TokenValidationScheduler {
                         logger.warn("Marked application ID: {} as EXPIRED due to validation error", application.getId());
                     }
                 }
-                
-                // Add a small delay between validations to avoid overwhelming GitLab API
-                try {
-                    Thread.sleep(1000); // 1 second delay
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    logger.warn("Token validation job interrupted");
-                    break;
-                }
             }
             
             logger.info("Token validation job completed. Valid: {}, Expired: {}, Errors: {}, Total: {}", 
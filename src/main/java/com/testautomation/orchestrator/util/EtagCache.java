@@ -0,0 +1,70 @@
+package com.testautomation.orchestrator.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the last response of GET requests together with its ETag, so a request can be
+ * sent with If-None-Match and a 304 answered from the cache. The least recently used entries are
+ * evicted beyond maxEntries; a cache of 0 entries keeps nothing.
+ *
+ * Cached values are shared by every caller that gets them back and must not be modified.
+ */
+public final class EtagCache {
+
+    private final int maxEntries;
+
+    private final Map<String, Entry> entries;
+
+    public EtagCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > EtagCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Cache the latest response for key. A response without ETag or body cannot be revalidated, so it
+     * drops the older entry for key instead of leaving a stale value to answer a later 304.
+     */
+    public synchronized void put(String key, String etag, Object value) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        if (etag == null || value == null) {
+            entries.remove(key);
+            return;
+        }
+        entries.put(key, new Entry(etag, value));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public static final class Entry {
+
+        private final String etag;
+        private final Object value;
+
+        Entry(String etag, Object value) {
+            this.etag = etag;
+            this.value = value;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+}
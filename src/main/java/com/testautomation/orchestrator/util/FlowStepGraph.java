@@ -0,0 +1,134 @@
+package com.testautomation.orchestrator.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dependency graph of the steps of a flow.
+ *
+ * Each step lists the steps it depends on. A step without a declaration (null) depends on the step
+ * before it in the flow, which keeps existing flows strictly sequential; an empty declaration makes
+ * the step a root that starts with the flow. Dependencies may only point to earlier steps, so the
+ * flow's step order is always a valid execution order and the graph cannot contain cycles.
+ */
+public final class FlowStepGraph {
+
+    private final List<Long> orderedStepIds;
+    private final Map<Long, List<Long>> prerequisites = new HashMap<>();
+
+    private FlowStepGraph(List<Long> orderedStepIds) {
+        this.orderedStepIds = orderedStepIds;
+    }
+
+    /**
+     * @param orderedStepIds       step ids in flow order
+     * @param declaredDependencies step id -> ids of the steps it depends on (null or missing = previous step)
+     */
+    public static FlowStepGraph of(List<Long> orderedStepIds, Map<Long, List<Long>> declaredDependencies) {
+        FlowStepGraph graph = new FlowStepGraph(orderedStepIds);
+        for (int i = 0; i < orderedStepIds.size(); i++) {
+            Long stepId = orderedStepIds.get(i);
+            List<Long> declared = declaredDependencies.get(stepId);
+            List<Long> resolved;
+            if (declared == null) {
+                resolved = i == 0 ? Collections.emptyList() : List.of(orderedStepIds.get(i - 1));
+            } else {
+                for (Long dependency : declared) {
+                    int dependencyIndex = orderedStepIds.indexOf(dependency);
+                    if (dependencyIndex < 0 || dependencyIndex >= i) {
+                        throw new IllegalArgumentException("Flow step " + stepId + " can only depend on earlier steps of the flow, not on " + dependency);
+                    }
+                }
+                resolved = List.copyOf(declared);
+            }
+            graph.prerequisites.put(stepId, resolved);
+        }
+        return graph;
+    }
+
+    /**
+     * Validate dependencies given as indices into the flow's step list, as used when creating a flow.
+     */
+    public static void validateIndices(int stepIndex, List<Integer> dependsOn) {
+        if (dependsOn == null) {
+            return;
+        }
+        for (Integer dependency : dependsOn) {
+            if (dependency == null || dependency < 0 || dependency >= stepIndex) {
+                throw new IllegalArgumentException("Flow step at position " + stepIndex + " can only depend on earlier steps, not on position " + dependency);
+            }
+        }
+    }
+
+    public List<Long> getPrerequisites(Long stepId) {
+        return prerequisites.getOrDefault(stepId, Collections.emptyList());
+    }
+
+    /**
+     * All steps the given step transitively depends on, in flow order
+     */
+    public List<Long> getAncestors(Long stepId) {
+        Set<Long> ancestors = new HashSet<>();
+        collectAncestors(stepId, ancestors);
+        List<Long> ordered = new ArrayList<>();
+        for (Long id : orderedStepIds) {
+            if (ancestors.contains(id)) {
+                ordered.add(id);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Steps that directly depend on the given step, in flow order
+     */
+    public List<Long> getDependents(Long stepId) {
+        List<Long> dependents = new ArrayList<>();
+        for (Long id : orderedStepIds) {
+            if (getPrerequisites(id).contains(stepId)) {
+                dependents.add(id);
+            }
+        }
+        return dependents;
+    }
+
+    /**
+     * All steps that transitively depend on the given step, in flow order
+     */
+    public List<Long> getDescendants(Long stepId) {
+        Set<Long> descendants = new LinkedHashSet<>();
+        for (Long id : orderedStepIds) {
+            for (Long prerequisite : getPrerequisites(id)) {
+                if (prerequisite.equals(stepId) || descendants.contains(prerequisite)) {
+                    descendants.add(id);
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(descendants);
+    }
+
+    public List<Long> getRoots() {
+        List<Long> roots = new ArrayList<>();
+        for (Long id : orderedStepIds) {
+            if (getPrerequisites(id).isEmpty()) {
+                roots.add(id);
+            }
+        }
+        return roots;
+    }
+
+    private void collectAncestors(Long stepId, Set<Long> ancestors) {
+        for (Long prerequisite : getPrerequisites(stepId)) {
+            if (ancestors.add(prerequisite)) {
+                collectAncestors(prerequisite, ancestors);
+            }
+        }
+    }
+}
@@ -1,26 +1,104 @@
 package com.testautomation.orchestrator.util;
 
+import com.testautomation.orchestrator.config.GitLabConfig;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 @Component
 public class GitLabApiClient {
 
     private static final Logger logger = LoggerFactory.getLogger(GitLabApiClient.class);
-    private final WebClient webClient;
+    // Request attribute holding the GitLabRateLimiter.Priority of a call
+    private static final String PRIORITY = GitLabApiClient.class.getName() + ".priority";
+
+    private static final int MICRO_CACHE_MAX_ENTRIES = 5000;
 
-    public GitLabApiClient() {
-        this.webClient = WebClient.builder()
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(10 * 1024 * 1024))
+    private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final EtagCache etagCache;
+    private final SingleFlight singleFlight;
+
+    public GitLabApiClient(GitLabConfig gitLabConfig) {
+        GitLabConfig.Http http = gitLabConfig.getHttp();
+        // One bounded pool for all GitLab calls: connections are kept alive and reused between polls,
+        // and calls beyond max-connections per host wait for a free connection instead of opening more
+        this.connectionProvider = ConnectionProvider.builder("gitlab")
+                .maxConnections(http.getMaxConnections())
+                .pendingAcquireMaxCount(http.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(http.getPendingAcquireTimeout()))
+                .maxIdleTime(Duration.ofMillis(http.getMaxIdleTime()))
+                .maxLifeTime(Duration.ofMillis(http.getMaxLifeTime()))
+                .evictInBackground(Duration.ofMillis(http.getEvictionInterval()))
+                .metrics(http.isMetrics())
                 .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, http.getConnectTimeout())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .compress(http.isCompression());
+        if (http.isHttp2()) {
+            // HTTP/2 is negotiated through ALPN on https URLs; plain http and servers without it use HTTP/1.1
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+
+        WebClient.Builder builder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(10 * 1024 * 1024));
+        GitLabConfig.RateLimit rateLimit = gitLabConfig.getRateLimit();
+        if (rateLimit.isEnabled()) {
+            GitLabRateLimiter rateLimiter = new GitLabRateLimiter(rateLimit.getHostRequestsPerSecond(),
+                                                                  rateLimit.getRequestsPerSecond(), rateLimit.getBurst());
+            builder.filter(rateLimited(rateLimiter));
+        }
+        this.webClient = builder.build();
+        this.etagCache = new EtagCache(http.getEtagCacheSize());
+        this.singleFlight = http.isCoalesceRequests() ? new SingleFlight(http.getMicroCacheTtl(), MICRO_CACHE_MAX_ENTRIES) : null;
+        logger.info("GitLab HTTP client: max {} connections per host, HTTP/2 {}, compression {}",
+                   http.getMaxConnections(), http.isHttp2() ? "enabled" : "disabled", http.isCompression() ? "enabled" : "disabled");
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    /**
+     * Holds every call until the rate limiter lets it through and feeds the limiter GitLab's
+     * rate limit headers. Calls are HIGH priority unless marked with the PRIORITY attribute.
+     */
+    private static ExchangeFilterFunction rateLimited(GitLabRateLimiter rateLimiter) {
+        return (request, next) -> {
+            String host = request.url().getAuthority();
+            String accessToken = request.headers().getFirst("PRIVATE-TOKEN");
+            GitLabRateLimiter.Priority priority = (GitLabRateLimiter.Priority) request.attribute(PRIORITY)
+                    .orElse(GitLabRateLimiter.Priority.HIGH);
+            return rateLimiter.acquire(host, accessToken, priority)
+                    .then(Mono.defer(() -> next.exchange(request)))
+                    .doOnNext(response -> {
+                        HttpHeaders headers = response.headers().asHttpHeaders();
+                        rateLimiter.observe(host, accessToken, response.statusCode().value(),
+                                           headers.getFirst("RateLimit-Remaining"), headers.getFirst("RateLimit-Reset"),
+                                           headers.getFirst(HttpHeaders.RETRY_AFTER));
+                    });
+        };
     }
 
     /**
@@ -42,9 +120,10 @@ public class GitLabApiClient {
                 .bodyValue(request)
                 .retrieve()
                 .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                         response -> response.bodyToMono(String.class)
-                                 .doOnNext(body -> logger.error("GitLab API error response: {}", body))
-                                 .then(Mono.error(new RuntimeException("GitLab API error: " + response.statusCode()))))
+                         // Keep the status on the error so callers can tell transient failures from bad requests
+                         response -> response.createException()
+                                 .doOnNext(error -> logger.error("GitLab API error response: {}", error.getResponseBodyAsString()))
+                                 .flatMap(Mono::error))
                 .bodyToMono(GitLabPipelineResponse.class)
                 .timeout(Duration.ofSeconds(30))
                 .doOnSuccess(response -> logger.info("Pipeline triggered successfully: {}", response.getId()))
@@ -58,13 +137,30 @@ public class GitLabApiClient {
                                                          Long pipelineId, String accessToken) {
         String url = String.format("%s/api/v4/projects/%s/pipelines/%d", gitlabBaseUrl, projectId, pipelineId);
         
-        return webClient.get()
+        return conditionalGet(webClient.get()
+                        .uri(url)
+                        .header("PRIVATE-TOKEN", accessToken),
+                        url, accessToken, GitLabPipelineResponse.class, responseSpec -> responseSpec)
+                .timeout(Duration.ofSeconds(15))
+                .doOnError(error -> logger.error("Failed to get pipeline status: {}", error.getMessage()));
+    }
+
+    /**
+     * Cancel a running pipeline
+     */
+    public Mono<GitLabPipelineResponse> cancelPipeline(String gitlabBaseUrl, String projectId,
+                                                      Long pipelineId, String accessToken) {
+        String url = String.format("%s/api/v4/projects/%s/pipelines/%d/cancel", gitlabBaseUrl, projectId, pipelineId);
+
+        logger.info("Cancelling GitLab pipeline {} of project {}", pipelineId, projectId);
+
+        return webClient.post()
                 .uri(url)
                 .header("PRIVATE-TOKEN", accessToken)
                 .retrieve()
                 .bodyToMono(GitLabPipelineResponse.class)
                 .timeout(Duration.ofSeconds(15))
-                .doOnError(error -> logger.error("Failed to get pipeline status: {}", error.getMessage()));
+                .doOnError(error -> logger.error("Failed to cancel pipeline {}: {}", pipelineId, error.getMessage()));
     }
 
     /**
@@ -72,16 +168,16 @@ public class GitLabApiClient {
      */
     public Mono<GitLabJobsResponse[]> getPipelineJobs(String gitlabBaseUrl, String projectId, 
                                                      Long pipelineId, String accessToken) {
-        String url = String.format("%s/api/v4/projects/%s/pipelines/%d/jobs", 
+        // One page of up to 100 jobs; GitLab leaves out retried jobs
+        String url = String.format("%s/api/v4/projects/%s/pipelines/%d/jobs?per_page=100", 
                                   gitlabBaseUrl, projectId, pipelineId);
         
         logger.debug("Getting jobs for pipeline {}", pipelineId);
         
-        return webClient.get()
-                .uri(url)
-                .header("PRIVATE-TOKEN", accessToken)
-                .retrieve()
-                .bodyToMono(GitLabJobsResponse[].class)
+        return conditionalGet(webClient.get()
+                        .uri(url)
+                        .header("PRIVATE-TOKEN", accessToken),
+                        url, accessToken, GitLabJobsResponse[].class, responseSpec -> responseSpec)
                 .timeout(Duration.ofSeconds(30))
                 .doOnError(error -> logger.error("Failed to get pipeline jobs: {}", error.getMessage()));
     }
@@ -115,8 +211,9 @@ public class GitLabApiClient {
         logger.info("Validating GitLab connection for project {} from URL: {}", projectId, url);
         logger.debug("Using access token length: {}", accessToken != null ? accessToken.length() : 0);
         
-        return webClient.get()
+        return coalesced(url, accessToken, () -> webClient.get()
                 .uri(url)
+                .attribute(PRIORITY, GitLabRateLimiter.Priority.LOW)
                 .header("PRIVATE-TOKEN", accessToken)
                 .retrieve()
                 .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
@@ -130,7 +227,7 @@ public class GitLabApiClient {
                                          String.format("GitLab validation failed: %d %s", statusCode, 
                                                       getStatusMessage(statusCode)))));
                          })
-                .bodyToMono(GitLabProjectResponse.class)
+                .bodyToMono(GitLabProjectResponse.class))
                 .timeout(Duration.ofSeconds(15))
                 .doOnSuccess(response -> logger.info("GitLab connection validated successfully for project: {}", response.getName()))
                 .doOnError(error -> logger.error("Failed to validate GitLab connection: {}", error.getMessage()));
@@ -145,11 +242,12 @@ public class GitLabApiClient {
         logger.info("Fetching branches for GitLab project {} from URL: {}", projectId, url);
         logger.debug("Using access token length: {}", accessToken != null ? accessToken.length() : 0);
         
-        return webClient.get()
-                .uri(url)
-                .header("PRIVATE-TOKEN", accessToken)
-                .retrieve()
-                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+        return conditionalGet(webClient.get()
+                        .uri(url)
+                        .attribute(PRIORITY, GitLabRateLimiter.Priority.LOW)
+                        .header("PRIVATE-TOKEN", accessToken),
+                        url, accessToken, GitLabBranchResponse[].class,
+                        responseSpec -> responseSpec.onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
                          response -> {
                              int statusCode = response.statusCode().value();
                              logger.error("GitLab branches API returned error status: {}", statusCode);
@@ -159,14 +257,73 @@ public class GitLabApiClient {
                                      .then(Mono.error(new RuntimeException(
                                          String.format("GitLab branches API error: %d %s", statusCode, 
                                                       getStatusMessage(statusCode)))));
-                         })
-                .bodyToMono(GitLabBranchResponse[].class)
+                         }))
                 .timeout(Duration.ofSeconds(30))
                 .doOnSuccess(branches -> logger.info("Successfully fetched {} branches for project {}", 
                                                    branches != null ? branches.length : 0, projectId))
                 .doOnError(error -> logger.error("Failed to fetch branches for project {}: {}", projectId, error.getMessage()));
     }
     
+    /**
+     * Get a single branch of a GitLab project, including its head commit
+     */
+    public Mono<GitLabBranchResponse> getBranch(String gitlabBaseUrl, String projectId, String branch, String accessToken) {
+        logger.debug("Fetching branch {} of GitLab project {}", branch, projectId);
+
+        // Branch names may contain '/', so it is passed as a URI variable to be encoded
+        String urlTemplate = gitlabBaseUrl + "/api/v4/projects/{projectId}/repository/branches/{branch}";
+        return coalesced(urlTemplate + "|" + projectId + "|" + branch, accessToken, () -> webClient.get()
+                .uri(urlTemplate, projectId, branch)
+                .header("PRIVATE-TOKEN", accessToken)
+                .retrieve()
+                .bodyToMono(GitLabBranchResponse.class))
+                .timeout(Duration.ofSeconds(15))
+                .doOnError(error -> logger.error("Failed to fetch branch {} of project {}: {}", branch, projectId, error.getMessage()));
+    }
+
+    /**
+     * GET that revalidates the cached response of the URL with If-None-Match. On a 304 the cached
+     * object is returned without reading or deserializing a body; any other successful response
+     * replaces the cache entry, or removes it when the response carries no ETag. Entries are kept per
+     * access token.
+     */
+    private <T> Mono<T> conditionalGet(WebClient.RequestHeadersSpec<?> request, String url, String accessToken,
+                                       Class<T> type, UnaryOperator<WebClient.ResponseSpec> statusHandler) {
+        String cacheKey = url + "|" + GitLabRateLimiter.tokenHash(accessToken);
+        return coalesced(url, accessToken, () -> Mono.defer(() -> {
+            EtagCache.Entry cached = etagCache.get(cacheKey);
+            request.headers(headers -> {
+                if (cached != null) {
+                    headers.setIfNoneMatch(cached.getEtag());
+                } else {
+                    headers.remove(HttpHeaders.IF_NONE_MATCH);
+                }
+            });
+            return statusHandler.apply(request.retrieve())
+                    .toEntity(type)
+                    .flatMap(entity -> {
+                        if (entity.getStatusCode().value() == 304 && cached != null) {
+                            logger.debug("Not modified, using cached response of {}", url);
+                            return Mono.just(type.cast(cached.getValue()));
+                        }
+                        T body = entity.getBody();
+                        etagCache.put(cacheKey, entity.getHeaders().getETag(), body);
+                        return Mono.justOrEmpty(body);
+                    });
+        }));
+    }
+
+    /**
+     * GET that shares the response of an identical GET (same URL and access token) already in
+     * flight, and with a micro-cache TTL one that completed within it, instead of sending another
+     */
+    private <T> Mono<T> coalesced(String url, String accessToken, Supplier<Mono<T>> request) {
+        if (singleFlight == null) {
+            return Mono.defer(request);
+        }
+        return singleFlight.execute("GET " + url + "|" + GitLabRateLimiter.tokenHash(accessToken), request);
+    }
+
     private String getStatusMessage(int statusCode) {
         switch (statusCode) {
             case 401:
@@ -314,7 +471,8 @@ public class GitLabApiClient {
         }
 
         public boolean isCompleted() {
-            return "success".equals(status) || "failed".equals(status) || "canceled".equals(status);
+            return "success".equals(status) || "failed".equals(status) || "canceled".equals(status)
+                    || "skipped".equals(status) || "manual".equals(status);
         }
 
         public boolean isSuccessful() {
@@ -340,6 +498,9 @@ public class GitLabApiClient {
         @com.fasterxml.jackson.annotation.JsonProperty("finished_at")
         private String finishedAt;
 
+        @com.fasterxml.jackson.annotation.JsonProperty("allow_failure")
+        private boolean allowFailure;
+
         public GitLabJobsResponse() {}
 
         public Long getId() {
@@ -406,6 +567,14 @@ public class GitLabApiClient {
             this.finishedAt = finishedAt;
         }
 
+        public boolean isAllowFailure() {
+            return allowFailure;
+        }
+
+        public void setAllowFailure(boolean allowFailure) {
+            this.allowFailure = allowFailure;
+        }
+
         public boolean isCompleted() {
             return "success".equals(status) || "failed".equals(status) || "canceled".equals(status);
         }
@@ -0,0 +1,238 @@
+package com.testautomation.orchestrator.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces GitLab API calls so they stay within GitLab's rate limits instead of running into 429s.
+ *
+ * Every call takes a token from the bucket of its GitLab host and from the bucket of its access token
+ * (GitLab limits authenticated requests per user). The token bucket adapts to the RateLimit-Remaining
+ * and RateLimit-Reset headers of each response, and a 429 pauses it until Retry-After.
+ *
+ * Calls that find no token wait, without holding a thread, in a queue per host and access token.
+ * Across all access tokens of a host, HIGH priority calls (triggers, completion checks) are let
+ * through before LOW priority ones (branch listing, token validation).
+ */
+public class GitLabRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(GitLabRateLimiter.class);
+
+    public enum Priority {
+        HIGH, LOW
+    }
+
+    private final double hostRequestsPerSecond;
+    private final double tokenRequestsPerSecond;
+    private final int burst;
+
+    // GitLab host -> its bucket and the lanes of the access tokens used against it
+    private final Map<String, Host> hosts = new HashMap<>();
+
+    public GitLabRateLimiter(double hostRequestsPerSecond, double tokenRequestsPerSecond, int burst) {
+        this.hostRequestsPerSecond = hostRequestsPerSecond;
+        this.tokenRequestsPerSecond = tokenRequestsPerSecond;
+        this.burst = burst;
+    }
+
+    /**
+     * Completes once the call may be sent
+     */
+    public Mono<Void> acquire(String host, String accessToken, Priority priority) {
+        return Mono.create(sink -> {
+            Host target;
+            Waiter waiter = new Waiter(sink);
+            synchronized (this) {
+                target = host(host);
+                target.lane(accessToken).queue(priority).add(waiter);
+            }
+            sink.onCancel(() -> waiter.cancelled = true);
+            drain(target);
+        });
+    }
+
+    /**
+     * Adjust the limits of a host and access token to a GitLab response. Header values may be null.
+     *
+     * @param rateLimitRemaining RateLimit-Remaining header
+     * @param rateLimitReset RateLimit-Reset header, in epoch seconds
+     * @param retryAfter Retry-After header of a 429, in seconds
+     */
+    public void observe(String host, String accessToken, int status,
+                        String rateLimitRemaining, String rateLimitReset, String retryAfter) {
+        long now = System.currentTimeMillis();
+        Long remaining = parse(rateLimitRemaining);
+        Long resetAtSeconds = parse(rateLimitReset);
+        Host target;
+        synchronized (this) {
+            target = host(host);
+            Lane lane = target.lane(accessToken);
+            if (remaining != null && resetAtSeconds != null) {
+                lane.bucket.observe(remaining, resetAtSeconds * 1000, now);
+            }
+            if (status == 429) {
+                Long retryAfterSeconds = parse(retryAfter);
+                long pauseUntil = retryAfterSeconds != null ? now + retryAfterSeconds * 1000
+                        : resetAtSeconds != null ? resetAtSeconds * 1000 : now + 1000;
+                lane.bucket.pause(pauseUntil, now);
+                logger.warn("GitLab rate limit hit on {}; pausing calls with this access token for {} ms", host, pauseUntil - now);
+            }
+        }
+        // Waiting calls may now be due earlier or later than their scheduled drain expected
+        drain(target);
+    }
+
+    /**
+     * Let through the waiting calls of a host, HIGH priority ones of all its access tokens first. A
+     * LOW priority call only gets host capacity that no waiting HIGH priority call can use, i.e. when
+     * those wait for their own access token's bucket. Access tokens take turns within a priority.
+     */
+    private void drain(Host host) {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            long nextWake = Long.MAX_VALUE;
+            drain:
+            for (Priority priority : Priority.values()) {
+                boolean progress = true;
+                while (progress) {
+                    progress = false;
+                    for (Lane lane : host.lanes.values()) {
+                        Waiter next = lane.next(priority);
+                        if (next == null) {
+                            continue;
+                        }
+                        long hostWait = host.bucket.waitTime(now);
+                        if (hostWait > 0) {
+                            // Nothing of lower priority may take the host capacity this call waits for
+                            nextWake = Math.min(nextWake, hostWait);
+                            break drain;
+                        }
+                        long laneWait = lane.bucket.waitTime(now);
+                        if (laneWait > 0) {
+                            nextWake = Math.min(nextWake, laneWait);
+                            continue;
+                        }
+                        host.bucket.tryTake(now);
+                        lane.bucket.tryTake(now);
+                        lane.queue(priority).pollFirst();
+                        granted.add(next);
+                        progress = true;
+                    }
+                }
+            }
+            if (nextWake != Long.MAX_VALUE) {
+                scheduleDrain(host, now + nextWake);
+            }
+        }
+        // Completed outside the lock, as subscribers go on to send their request right away
+        granted.forEach(waiter -> waiter.sink.success());
+    }
+
+    // Called with the lock held
+    private void scheduleDrain(Host host, long atMs) {
+        if (host.drainAtMs != 0 && host.drainAtMs <= atMs) {
+            return;
+        }
+        host.drainAtMs = atMs;
+        Schedulers.parallel().schedule(() -> {
+            synchronized (this) {
+                if (host.drainAtMs == atMs) {
+                    host.drainAtMs = 0;
+                }
+            }
+            drain(host);
+        }, Math.max(1, atMs - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    private Host host(String host) {
+        return hosts.computeIfAbsent(host, h -> new Host());
+    }
+
+    /**
+     * Short hash identifying an access token without keeping it around in clear text
+     */
+    public static String tokenHash(String accessToken) {
+        if (accessToken == null) {
+            return "anonymous";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Long parse(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private final class Host {
+        final TokenBucket bucket = new TokenBucket(burst, hostRequestsPerSecond, System.currentTimeMillis());
+        // Access token hash -> lane, in order of first use
+        final Map<String, Lane> lanes = new LinkedHashMap<>();
+        // When a drain of this host is scheduled; 0 = none
+        long drainAtMs;
+
+        Lane lane(String accessToken) {
+            return lanes.computeIfAbsent(tokenHash(accessToken),
+                    key -> new Lane(new TokenBucket(burst, tokenRequestsPerSecond, System.currentTimeMillis())));
+        }
+    }
+
+    private static final class Lane {
+        final TokenBucket bucket;
+        final Deque<Waiter> high = new ArrayDeque<>();
+        final Deque<Waiter> low = new ArrayDeque<>();
+
+        Lane(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+
+        Deque<Waiter> queue(Priority priority) {
+            return priority == Priority.HIGH ? high : low;
+        }
+
+        // First waiting call of the priority that was not cancelled
+        Waiter next(Priority priority) {
+            Deque<Waiter> queue = queue(priority);
+            while (!queue.isEmpty() && queue.peekFirst().cancelled) {
+                queue.pollFirst();
+            }
+            return queue.peekFirst();
+        }
+    }
+
+    private static final class Waiter {
+        final MonoSink<Void> sink;
+        volatile boolean cancelled;
+
+        Waiter(MonoSink<Void> sink) {
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.testautomation.orchestrator.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable map of pipeline variables that shares structure between versions.
+ *
+ * It is a hash array mapped trie: adding variables copies only the few small nodes on the path to
+ * them, so the variables of a step can be derived from its prepared test data and its upstream
+ * variables without copying thousands of entries, and every derived map keeps sharing the rest.
+ *
+ * - plus and plusAll return a new map and leave this one untouched; mutators of {@link Map} throw.
+ * - plusAll inserts the smaller side: when the other map is the larger persistent one, this map's
+ *   variables are added to it where absent, with the same result (the other map wins on conflicts).
+ * - Slots of nodes created by one plusAll call are replaced in place until it returns, so building a
+ *   map from a plain HashMap costs little more than copying it.
+ * - Variable names cannot be null; values can.
+ */
+public final class PersistentVariableMap extends AbstractMap<String, String> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentVariableMap EMPTY = new PersistentVariableMap(new BitmapNode(null, 0, new Object[0]), 0);
+
+    private final BitmapNode root;
+    private final int size;
+
+    private Set<Map.Entry<String, String>> entrySet;
+
+    private PersistentVariableMap(BitmapNode root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static PersistentVariableMap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * The given variables as a persistent map; a persistent map is returned as is
+     */
+    public static PersistentVariableMap of(Map<String, String> variables) {
+        if (variables instanceof PersistentVariableMap) {
+            return (PersistentVariableMap) variables;
+        }
+        return variables == null ? EMPTY : EMPTY.plusAll(variables);
+    }
+
+    public PersistentVariableMap plus(String key, String value) {
+        Objects.requireNonNull(key, "Variable name cannot be null");
+        Change change = new Change();
+        BitmapNode newRoot = (BitmapNode) put(root, new Leaf(key, value), 0, null, false, change);
+        return newRoot == root ? this : new PersistentVariableMap(newRoot, change.added ? size + 1 : size);
+    }
+
+    /**
+     * This map with the given variables added; they override variables of the same name
+     */
+    public PersistentVariableMap plusAll(Map<String, String> variables) {
+        if (variables == null || variables.isEmpty()) {
+            return this;
+        }
+        if (variables instanceof PersistentVariableMap && variables.size() > size) {
+            return ((PersistentVariableMap) variables).insertAll(this, true);
+        }
+        return insertAll(variables, false);
+    }
+
+    private PersistentVariableMap insertAll(Map<String, String> variables, boolean onlyIfAbsent) {
+        if (isEmpty() && variables instanceof PersistentVariableMap) {
+            return (PersistentVariableMap) variables;
+        }
+        Object edit = new Object();
+        Change change = new Change();
+        BitmapNode newRoot = root;
+        int newSize = size;
+        for (Map.Entry<String, String> entry : variables.entrySet()) {
+            Objects.requireNonNull(entry.getKey(), "Variable name cannot be null");
+            change.added = false;
+            newRoot = (BitmapNode) put(newRoot, new Leaf(entry.getKey(), entry.getValue()), 0, edit, onlyIfAbsent, change);
+            if (change.added) {
+                newSize++;
+            }
+        }
+        return newRoot == root ? this : new PersistentVariableMap(newRoot, newSize);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && find((String) key) != null;
+    }
+
+    @Override
+    public String get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        Leaf leaf = find((String) key);
+        return leaf != null ? leaf.value : null;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator() {
+                    return new EntryIterator(root);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private Leaf find(String key) {
+        int hash = hash(key);
+        Object node = root;
+        int shift = 0;
+        while (true) {
+            if (node instanceof BitmapNode) {
+                BitmapNode bitmapNode = (BitmapNode) node;
+                int bit = bit(hash, shift);
+                if ((bitmapNode.bitmap & bit) == 0) {
+                    return null;
+                }
+                node = bitmapNode.slots[bitmapNode.position(bit)];
+                shift += BITS;
+            } else if (node instanceof Leaf) {
+                Leaf leaf = (Leaf) node;
+                return leaf.hash == hash && leaf.key.equals(key) ? leaf : null;
+            } else {
+                for (Leaf leaf : ((CollisionNode) node).leaves) {
+                    if (leaf.key.equals(key)) {
+                        return leaf;
+                    }
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Insert a leaf below the given slot (a leaf, collision node or bitmap node at the given shift)
+     *
+     * @return the slot's replacement, or the slot itself when nothing changed
+     */
+    private static Object put(Object slot, Leaf leaf, int shift, Object edit, boolean onlyIfAbsent, Change change) {
+        if (slot instanceof Leaf) {
+            Leaf existing = (Leaf) slot;
+            if (existing.hash == leaf.hash && existing.key.equals(leaf.key)) {
+                return onlyIfAbsent || Objects.equals(existing.value, leaf.value) ? existing : leaf;
+            }
+            change.added = true;
+            return split(existing, existing.hash, leaf, shift, edit);
+        }
+
+        if (slot instanceof CollisionNode) {
+            CollisionNode collision = (CollisionNode) slot;
+            if (collision.hash != leaf.hash) {
+                change.added = true;
+                return split(collision, collision.hash, leaf, shift, edit);
+            }
+            for (int i = 0; i < collision.leaves.length; i++) {
+                Leaf existing = collision.leaves[i];
+                if (existing.key.equals(leaf.key)) {
+                    if (onlyIfAbsent || Objects.equals(existing.value, leaf.value)) {
+                        return collision;
+                    }
+                    CollisionNode target = collision.editable(edit);
+                    target.leaves[i] = leaf;
+                    return target;
+                }
+            }
+            change.added = true;
+            Leaf[] leaves = new Leaf[collision.leaves.length + 1];
+            System.arraycopy(collision.leaves, 0, leaves, 0, collision.leaves.length);
+            leaves[collision.leaves.length] = leaf;
+            return new CollisionNode(edit, collision.hash, leaves);
+        }
+
+        BitmapNode node = (BitmapNode) slot;
+        int bit = bit(leaf.hash, shift);
+        int position = node.position(bit);
+        if ((node.bitmap & bit) == 0) {
+            change.added = true;
+            Object[] slots = new Object[node.slots.length + 1];
+            System.arraycopy(node.slots, 0, slots, 0, position);
+            slots[position] = leaf;
+            System.arraycopy(node.slots, position, slots, position + 1, node.slots.length - position);
+            return new BitmapNode(edit, node.bitmap | bit, slots);
+        }
+        Object child = node.slots[position];
+        Object newChild = put(child, leaf, shift + BITS, edit, onlyIfAbsent, change);
+        if (newChild == child) {
+            return node;
+        }
+        BitmapNode target = node.editable(edit);
+        target.slots[position] = newChild;
+        return target;
+    }
+
+    /**
+     * A bitmap node at the given shift holding an existing slot and a leaf of a different key
+     */
+    private static Object split(Object existing, int existingHash, Leaf leaf, int shift, Object edit) {
+        if (existingHash == leaf.hash) {
+            return new CollisionNode(edit, existingHash, new Leaf[] { (Leaf) existing, leaf });
+        }
+        int existingIndex = (existingHash >>> shift) & MASK;
+        int leafIndex = (leaf.hash >>> shift) & MASK;
+        if (existingIndex == leafIndex) {
+            // The hashes differ, so they part at a deeper level at the latest when all bits are used
+            return new BitmapNode(edit, 1 << existingIndex, new Object[] { split(existing, existingHash, leaf, shift + BITS, edit) });
+        }
+        Object[] slots = existingIndex < leafIndex ? new Object[] { existing, leaf } : new Object[] { leaf, existing };
+        return new BitmapNode(edit, (1 << existingIndex) | (1 << leafIndex), slots);
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static final class Change {
+        boolean added;
+    }
+
+    private static final class Leaf implements Map.Entry<String, String> {
+
+        final String key;
+        final String value;
+        final int hash;
+
+        Leaf(String key, String value) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash(key);
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public String setValue(String value) {
+            throw new UnsupportedOperationException("PersistentVariableMap is immutable");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) return false;
+            Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+            return key.equals(that.getKey()) && Objects.equals(value, that.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    // Nodes carry the edit token of the plusAll call that created them, which may replace slots in place.
+    // Their fields are final so a map handed to another thread sees the nodes completely: slots written
+    // in place precede the construction of the map, whose final root publishes them.
+    private static final class BitmapNode {
+
+        final Object edit;
+        final int bitmap;
+        final Object[] slots;
+
+        BitmapNode(Object edit, int bitmap, Object[] slots) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        int position(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        BitmapNode editable(Object edit) {
+            return edit != null && this.edit == edit ? this : new BitmapNode(edit, bitmap, slots.clone());
+        }
+    }
+
+    private static final class CollisionNode {
+
+        final Object edit;
+        final int hash;
+        final Leaf[] leaves;
+
+        CollisionNode(Object edit, int hash, Leaf[] leaves) {
+            this.edit = edit;
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        CollisionNode editable(Object edit) {
+            return edit != null && this.edit == edit ? this : new CollisionNode(edit, hash, leaves.clone());
+        }
+    }
+
+    private static final class EntryIterator implements Iterator<Map.Entry<String, String>> {
+
+        // 32 hash bits in levels of 5 give at most 7 bitmap levels, plus one collision level
+        private final Object[][] stack = new Object[8][];
+        private final int[] positions = new int[8];
+        private int depth;
+        private Leaf next;
+
+        EntryIterator(BitmapNode root) {
+            stack[0] = root.slots;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Leaf current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Object[] slots = stack[depth];
+                if (positions[depth] == slots.length) {
+                    depth--;
+                    continue;
+                }
+                Object slot = slots[positions[depth]++];
+                if (slot instanceof Leaf) {
+                    next = (Leaf) slot;
+                    return;
+                }
+                depth++;
+                stack[depth] = slot instanceof BitmapNode ? ((BitmapNode) slot).slots : ((CollisionNode) slot).leaves;
+                positions[depth] = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.testautomation.orchestrator.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Computes when a running pipeline should be polled next, based on how long previous runs of the same
+ * flow step took.
+ *
+ * - Before the median (p50) duration the pipeline is polled rarely, the next poll aimed at p50.
+ * - Between p50 and p95 it is polled often, spreading polls evenly over that window.
+ * - After p95 the delay grows with the overrun (capped exponential backoff).
+ *
+ * Without enough history the fixed default interval is used.
+ */
+@Component
+public class PollScheduleCalculator {
+
+    static final int MIN_SAMPLES = 3;
+    static final int POLLS_PER_COMPLETION_WINDOW = 8;
+
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final long defaultIntervalMs;
+
+    public PollScheduleCalculator(@Value("${flow-execution.poller.min-interval:5000}") long minIntervalMs,
+                                  @Value("${flow-execution.poller.max-interval:300000}") long maxIntervalMs,
+                                  @Value("${flow-execution.polling-interval:15000}") long defaultIntervalMs) {
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.defaultIntervalMs = defaultIntervalMs;
+    }
+
+    /**
+     * Build a schedule from historical run durations (milliseconds) of a flow step
+     */
+    public PollSchedule forHistory(List<Long> durationsMs) {
+        if (durationsMs == null || durationsMs.size() < MIN_SAMPLES) {
+            return new PollSchedule(-1, -1);
+        }
+        List<Long> sorted = new ArrayList<>(durationsMs);
+        Collections.sort(sorted);
+        return new PollSchedule(percentile(sorted, 50), percentile(sorted, 95));
+    }
+
+    static long percentile(List<Long> sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private long clamp(long delayMs) {
+        return Math.max(minIntervalMs, Math.min(maxIntervalMs, delayMs));
+    }
+
+    public class PollSchedule {
+
+        private final long p50Ms;
+        private final long p95Ms;
+
+        PollSchedule(long p50Ms, long p95Ms) {
+            this.p50Ms = p50Ms;
+            this.p95Ms = p95Ms;
+        }
+
+        public boolean hasHistory() {
+            return p50Ms >= 0;
+        }
+
+        public long getP50Ms() {
+            return p50Ms;
+        }
+
+        public long getP95Ms() {
+            return p95Ms;
+        }
+
+        /**
+         * Delay until the next status poll of a pipeline that has been running for elapsedMs
+         */
+        public long nextDelayMs(long elapsedMs) {
+            if (!hasHistory()) {
+                return defaultIntervalMs;
+            }
+
+            long windowIntervalMs = clamp(Math.min(defaultIntervalMs, (p95Ms - p50Ms) / POLLS_PER_COMPLETION_WINDOW));
+            if (elapsedMs < p50Ms) {
+                // Expected to be still running: wake up around the median duration
+                return clamp(Math.max(p50Ms - elapsedMs, windowIntervalMs));
+            }
+            if (elapsedMs <= p95Ms) {
+                return windowIntervalMs;
+            }
+            // Overran p95: waiting as long as the overrun doubles the delay on every poll
+            return clamp(Math.max(windowIntervalMs, elapsedMs - p95Ms));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.testautomation.orchestrator.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * When and how often a failed GitLab call is tried again.
+ *
+ * - A call is made at most maxAttempts times in total.
+ * - Only failures with a retryable HTTP status are retried; failures without a status (connection
+ *   errors, timeouts) are always considered transient.
+ * - The delay before retry n is initialBackoffMs * 2^(n-1), capped at maxBackoffMs, of which a random
+ *   fraction up to jitter is taken off so that calls failing together do not retry together.
+ */
+public final class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final double jitter;
+    private final Set<Integer> retryableStatuses;
+
+    public RetryPolicy(int maxAttempts, long initialBackoffMs, long maxBackoffMs, double jitter,
+                       Collection<Integer> retryableStatuses) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        if (initialBackoffMs < 0 || maxBackoffMs < initialBackoffMs) {
+            throw new IllegalArgumentException("Backoff must satisfy 0 <= initialBackoffMs <= maxBackoffMs");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("jitter must be between 0 and 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.jitter = jitter;
+        this.retryableStatuses = Collections.unmodifiableSet(new TreeSet<>(retryableStatuses));
+    }
+
+    /**
+     * This policy with the given settings replaced; null keeps the current setting
+     */
+    public RetryPolicy withOverrides(Integer maxAttempts, Long initialBackoffMs, Long maxBackoffMs,
+                                     Collection<Integer> retryableStatuses) {
+        long initial = initialBackoffMs != null ? initialBackoffMs : this.initialBackoffMs;
+        return new RetryPolicy(
+                maxAttempts != null ? maxAttempts : this.maxAttempts,
+                initial,
+                maxBackoffMs != null ? maxBackoffMs : Math.max(this.maxBackoffMs, initial),
+                jitter,
+                retryableStatuses != null ? retryableStatuses : this.retryableStatuses);
+    }
+
+    /**
+     * Whether a call that failed for the failedAttempts-th time with the given HTTP status (null when
+     * the failure had none) is tried again
+     */
+    public boolean shouldRetry(int failedAttempts, Integer httpStatus) {
+        return failedAttempts < maxAttempts && (httpStatus == null || retryableStatuses.contains(httpStatus));
+    }
+
+    /**
+     * Delay before the next attempt after failedAttempts failures
+     *
+     * @param random uniformly distributed in [0, 1)
+     */
+    public long backoffMs(int failedAttempts, double random) {
+        int exponent = Math.max(0, Math.min(failedAttempts - 1, 30));
+        long delayMs = (long) Math.min((double) maxBackoffMs, initialBackoffMs * Math.pow(2, exponent));
+        return delayMs - (long) (delayMs * jitter * random);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getInitialBackoffMs() {
+        return initialBackoffMs;
+    }
+
+    public long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+
+    public Set<Integer> getRetryableStatuses() {
+        return retryableStatuses;
+    }
+}
@@ -0,0 +1,89 @@
+package com.testautomation.orchestrator.util;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent requests: while a request for a key is in flight, every further
+ * caller for that key shares its result instead of sending its own.
+ *
+ * - The request is sent once and its result, value or error, is delivered to all callers. A caller
+ *   that cancels, e.g. on its own timeout, does not cancel it for the others.
+ * - Once it completes the key is free again, so the next caller sends a fresh request; a failed
+ *   request is never reused.
+ * - With a TTL above 0, values are additionally kept that long and returned without a request.
+ *   At most maxCached of them are kept; expired ones are dropped when that bound is reached.
+ */
+public final class SingleFlight {
+
+    private final long ttlMs;
+    private final int maxCached;
+
+    private final Map<String, Mono<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, Recent> recent = new ConcurrentHashMap<>();
+
+    public SingleFlight(long ttlMs, int maxCached) {
+        this.ttlMs = ttlMs;
+        this.maxCached = maxCached;
+    }
+
+    /**
+     * The result of the in-flight (or, with a TTL, recent) request for the key, or of a new one
+     * made by the given call
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(String key, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            if (ttlMs > 0) {
+                Recent cached = recent.get(key);
+                if (cached != null) {
+                    if (System.currentTimeMillis() < cached.expiresAtMs) {
+                        return Mono.just((T) cached.value);
+                    }
+                    recent.remove(key, cached);
+                }
+            }
+            return (Mono<T>) inFlight.computeIfAbsent(key, k -> share(k, (Mono<Object>) call.get()));
+        });
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private Mono<Object> share(String key, Mono<Object> request) {
+        return request
+                .doOnNext(value -> remember(key, value))
+                // Only one entry per key exists at a time, so this removes this request's own entry
+                .doFinally(signal -> inFlight.remove(key))
+                .cache();
+    }
+
+    private void remember(String key, Object value) {
+        if (ttlMs <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (recent.size() >= maxCached) {
+            recent.values().removeIf(cached -> now >= cached.expiresAtMs);
+            if (recent.size() >= maxCached) {
+                return;
+            }
+        }
+        recent.put(key, new Recent(value, now + ttlMs));
+    }
+
+    private static final class Recent {
+        final Object value;
+        final long expiresAtMs;
+
+        Recent(Object value, long expiresAtMs) {
+            this.value = value;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.testautomation.orchestrator.util;
+
+import java.util.List;
+
+/**
+ * Outcome of one stage of a running pipeline, judged from the status of its jobs.
+ *
+ * - FAILED as soon as a job of the stage failed or was cancelled, unless the job is allowed to fail.
+ * - PASSED once every job of the stage is done and at least one succeeded; manual and skipped jobs do
+ *   not hold the stage back.
+ * - RUNNING otherwise, also while the stage has no jobs.
+ *
+ * GitLab leaves retried jobs out of a pipeline's job list, so an automatically retried job only
+ * counts with its latest attempt.
+ */
+public final class StageOutcome {
+
+    public enum Result {
+        RUNNING,
+        FAILED,
+        PASSED
+    }
+
+    private static final StageOutcome RUNNING = new StageOutcome(Result.RUNNING, null);
+
+    private final Result result;
+    private final Job job;
+
+    private StageOutcome(Result result, Job job) {
+        this.result = result;
+        this.job = job;
+    }
+
+    public static StageOutcome of(List<Job> jobs, String stage) {
+        Job succeeded = null;
+        boolean finished = true;
+        for (Job job : jobs) {
+            if (!stage.equals(job.stage)) {
+                continue;
+            }
+            switch (job.status == null ? "" : job.status) {
+                case "failed":
+                case "canceled":
+                    if (!job.allowFailure) {
+                        return new StageOutcome(Result.FAILED, job);
+                    }
+                    break;
+                case "success":
+                    if (succeeded == null) {
+                        succeeded = job;
+                    }
+                    break;
+                case "manual":
+                case "skipped":
+                    break;
+                default:
+                    finished = false;
+                    break;
+            }
+        }
+        return finished && succeeded != null ? new StageOutcome(Result.PASSED, succeeded) : RUNNING;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    // The failed job of a FAILED stage, the first successful job of a PASSED one, else null
+    public Job getJob() {
+        return job;
+    }
+
+    public static final class Job {
+
+        private final Long id;
+        private final String name;
+        private final String stage;
+        private final String status;
+        private final boolean allowFailure;
+
+        public Job(Long id, String name, String stage, String status, boolean allowFailure) {
+            this.id = id;
+            this.name = name;
+            this.stage = stage;
+            this.status = status;
+            this.allowFailure = allowFailure;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public boolean isAllowFailure() {
+            return allowFailure;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.testautomation.orchestrator.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Fingerprint of everything that determines the outcome of a step's pipeline: the GitLab project,
+ * the commit it runs on, the test tag and stage, and the merged input variables.
+ *
+ * Two runs with the same fingerprint execute the same code with the same inputs, so the result of
+ * one can stand in for the other. Variables are hashed in key order and every value is length-prefixed,
+ * so neither the map's iteration order nor separators inside values can make different inputs collide.
+ */
+public final class StepFingerprint {
+
+    private StepFingerprint() {
+    }
+
+    /**
+     * @return SHA-256 of the inputs as 64 lowercase hex characters
+     */
+    public static String of(Long applicationId, String commitSha, String testTag, String testStage,
+                            Map<String, String> variables) {
+        if (commitSha == null || commitSha.isEmpty()) {
+            throw new IllegalArgumentException("A commit SHA is required to fingerprint a step");
+        }
+
+        StringBuilder input = new StringBuilder();
+        append(input, String.valueOf(applicationId));
+        append(input, commitSha);
+        append(input, testTag);
+        append(input, testStage);
+        Map<String, String> sorted = variables != null ? new TreeMap<>(variables) : new TreeMap<>();
+        append(input, String.valueOf(sorted.size()));
+        for (Map.Entry<String, String> variable : sorted.entrySet()) {
+            append(input, variable.getKey());
+            append(input, variable.getValue());
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(input.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void append(StringBuilder input, String value) {
+        if (value == null) {
+            input.append("-1:");
+            return;
+        }
+        input.append(value.length()).append(':').append(value);
+    }
+}
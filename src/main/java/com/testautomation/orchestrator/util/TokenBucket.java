@@ -0,0 +1,107 @@
+package com.testautomation.orchestrator.util;
+
+/**
+ * Token bucket that paces requests to a rate limited API and adapts to what the API reports.
+ *
+ * - The bucket refills at the configured rate up to its capacity (the allowed burst).
+ * - observe takes the remaining quota and reset time of a response into account: the bucket never
+ *   holds more tokens than the quota left, and what is left is spread evenly until the reset, so the
+ *   quota is not used up before the window ends. The configured rate applies again after the reset.
+ * - pause stops handing out tokens until the given time, e.g. after a 429 with Retry-After.
+ *
+ * Times are passed in as epoch milliseconds. Not thread-safe; callers synchronize.
+ */
+public final class TokenBucket {
+
+    private final double capacity;
+    private final double configuredRatePerMs;
+
+    private double ratePerMs;
+    private double tokens;
+    private long updatedAtMs;
+    private long pausedUntilMs;
+    private long rateResetsAtMs;
+
+    public TokenBucket(double capacity, double tokensPerSecond, long nowMs) {
+        if (capacity < 1 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Token bucket needs a capacity of at least 1 and a positive rate");
+        }
+        this.capacity = capacity;
+        this.configuredRatePerMs = tokensPerSecond / 1000.0;
+        this.ratePerMs = configuredRatePerMs;
+        this.tokens = capacity;
+        this.updatedAtMs = nowMs;
+    }
+
+    /**
+     * Milliseconds until a token can be taken; 0 when one is available now
+     */
+    public long waitTime(long nowMs) {
+        refill(nowMs);
+        if (nowMs < pausedUntilMs) {
+            return pausedUntilMs - nowMs;
+        }
+        if (tokens >= 1) {
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / ratePerMs));
+    }
+
+    /**
+     * Take a token if one is available
+     *
+     * @return false when the caller has to wait (see waitTime)
+     */
+    public boolean tryTake(long nowMs) {
+        if (waitTime(nowMs) > 0) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * Adjust to the quota reported by the API
+     *
+     * @param remaining requests left in the current window
+     * @param resetAtMs when the window ends
+     */
+    public void observe(long remaining, long resetAtMs, long nowMs) {
+        refill(nowMs);
+        tokens = Math.min(tokens, Math.max(remaining, 0));
+        if (resetAtMs <= nowMs) {
+            return;
+        }
+        if (remaining <= 0) {
+            pause(resetAtMs, nowMs);
+            return;
+        }
+        ratePerMs = Math.min(configuredRatePerMs, remaining / (double) (resetAtMs - nowMs));
+        rateResetsAtMs = resetAtMs;
+    }
+
+    /**
+     * Hand out no tokens until the given time
+     */
+    public void pause(long untilMs, long nowMs) {
+        refill(nowMs);
+        tokens = 0;
+        pausedUntilMs = Math.max(pausedUntilMs, untilMs);
+        rateResetsAtMs = Math.max(rateResetsAtMs, untilMs);
+    }
+
+    private void refill(long nowMs) {
+        if (rateResetsAtMs != 0 && nowMs >= rateResetsAtMs) {
+            // Refill at the reduced rate up to the reset, at the configured rate after it
+            tokens = Math.min(capacity, tokens + Math.max(0, rateResetsAtMs - Math.max(updatedAtMs, pausedUntilMs)) * ratePerMs);
+            updatedAtMs = Math.max(updatedAtMs, rateResetsAtMs);
+            ratePerMs = configuredRatePerMs;
+            rateResetsAtMs = 0;
+        }
+        long from = Math.max(updatedAtMs, pausedUntilMs);
+        if (nowMs > from) {
+            tokens = Math.min(capacity, tokens + (nowMs - from) * ratePerMs);
+        }
+        updatedAtMs = Math.max(updatedAtMs, nowMs);
+    }
+}
@@ -0,0 +1,163 @@
+package com.testautomation.orchestrator.controller;
+
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.enums.StepPhase;
+import com.testautomation.orchestrator.event.JobCompletedEvent;
+import com.testautomation.orchestrator.event.PipelineCompletedEvent;
+import com.testautomation.orchestrator.model.Application;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import com.testautomation.orchestrator.repository.ApplicationRepository;
+import com.testautomation.orchestrator.repository.FlowStepRepository;
+import com.testautomation.orchestrator.repository.PipelineExecutionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Replays Pipeline Hook and Job Hook payloads as GitLab sends them (see src/test/resources/webhooks)
+ * against a running pipeline execution of pipeline 31.
+ */
+@SpringBootTest(properties = {
+        "flow-execution.webhooks.enabled=true",
+        "gitlab.webhook-secret=hook-secret"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class GitLabWebhookControllerTest {
+
+    private static final String SECRET = "hook-secret";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    private PipelineExecution running;
+
+    @BeforeEach
+    void setUp() {
+        Application application = new Application("4711", "token");
+        application.setApplicationName("checkout");
+        application.setApplicationDescription("Checkout tests");
+        application = applicationRepository.save(application);
+        FlowStep step = flowStepRepository.save(
+                new FlowStep(application.getId(), "main", "smoke", "test", "checkout", List.of(), List.of(), null));
+
+        running = new PipelineExecution();
+        running.setFlowId(1L);
+        running.setFlowExecutionId(UUID.randomUUID());
+        running.setFlowStepId(step.getId());
+        running.setPipelineId(31L);
+        running.setPipelineUrl("https://gitlab.example.com/shop/checkout-tests/-/pipelines/31");
+        running.setStatus(ExecutionStatus.RUNNING);
+        running.setPhase(StepPhase.RUNNING);
+        running = pipelineExecutionRepository.save(running);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipelineExecutionRepository.deleteById(running.getId());
+    }
+
+    @Test
+    void testPipelineHookWithValidTokenCompletesRunningStep() throws Exception {
+        mockMvc.perform(webhook("Pipeline Hook", payload("pipeline-hook.json"), SECRET))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(1));
+
+        List<PipelineCompletedEvent> completed = events.stream(PipelineCompletedEvent.class).collect(Collectors.toList());
+        assertEquals(1, completed.size());
+        assertEquals(running.getId(), completed.get(0).getPipelineExecutionId());
+        assertTrue(completed.get(0).isSuccessful());
+        assertEquals(380L, (long) completed.get(0).getJobId());
+        assertEquals("https://gitlab.example.com/shop/checkout-tests/-/jobs/380", completed.get(0).getJobUrl());
+    }
+
+    @Test
+    void testJobHookWithValidTokenReportsTestStageJob() throws Exception {
+        mockMvc.perform(webhook("Job Hook", payload("job-hook.json"), SECRET))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(1));
+
+        List<JobCompletedEvent> completed = events.stream(JobCompletedEvent.class).collect(Collectors.toList());
+        assertEquals(1, completed.size());
+        assertEquals(380L, (long) completed.get(0).getJobId());
+        assertEquals("test", completed.get(0).getStage());
+        assertTrue(completed.get(0).isSuccessful());
+    }
+
+    @Test
+    void testPipelineHookWithoutTokenIsRejected() throws Exception {
+        mockMvc.perform(webhook("Pipeline Hook", payload("pipeline-hook.json"), null))
+                .andExpect(status().isUnauthorized());
+
+        assertEquals(0, events.stream(PipelineCompletedEvent.class).count());
+    }
+
+    @Test
+    void testJobHookWithWrongTokenIsRejected() throws Exception {
+        mockMvc.perform(webhook("Job Hook", payload("job-hook.json"), "not-the-secret"))
+                .andExpect(status().isUnauthorized());
+
+        assertEquals(0, events.stream(JobCompletedEvent.class).count());
+    }
+
+    @Test
+    void testSkippedPipelineIsFinal() throws Exception {
+        String skipped = payload("pipeline-hook.json").replace("\"status\": \"success\",\n    \"detailed_status\": \"passed\"",
+                                                               "\"status\": \"skipped\",\n    \"detailed_status\": \"skipped\"");
+        assertNotEquals(payload("pipeline-hook.json"), skipped);
+
+        mockMvc.perform(webhook("Pipeline Hook", skipped, SECRET))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(1));
+
+        List<PipelineCompletedEvent> completed = events.stream(PipelineCompletedEvent.class).collect(Collectors.toList());
+        assertEquals(1, completed.size());
+        assertFalse(completed.get(0).isSuccessful());
+    }
+
+    private static MockHttpServletRequestBuilder webhook(String eventType, String payload, String token) {
+        MockHttpServletRequestBuilder request = post("/api/webhooks/gitlab")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Gitlab-Event", eventType)
+                .content(payload);
+        return token != null ? request.header("X-Gitlab-Token", token) : request;
+    }
+
+    private static String payload(String name) throws Exception {
+        return new ClassPathResource("webhooks/" + name).getContentAsString(StandardCharsets.UTF_8);
+    }
+}
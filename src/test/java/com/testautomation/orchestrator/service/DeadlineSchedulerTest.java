@@ -0,0 +1,168 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.enums.StepPhase;
+import com.testautomation.orchestrator.model.Application;
+import com.testautomation.orchestrator.model.Flow;
+import com.testautomation.orchestrator.model.FlowExecution;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import com.testautomation.orchestrator.repository.ApplicationRepository;
+import com.testautomation.orchestrator.repository.FlowExecutionRepository;
+import com.testautomation.orchestrator.repository.FlowRepository;
+import com.testautomation.orchestrator.repository.FlowStepRepository;
+import com.testautomation.orchestrator.repository.PipelineExecutionRepository;
+import com.testautomation.orchestrator.util.GitLabApiClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static com.testautomation.orchestrator.service.FlowExecutionEngineTest.awaitUntil;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Step and flow timeouts of one minute, reached by moving persisted start times into the past. As
+ * deadlines derive from those start times, a re-armed deadline that already passed fires right away.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DeadlineSchedulerTest {
+
+    @MockBean
+    private GitLabApiClient gitLabApiClient;
+
+    @MockBean
+    private PipelineStatusPoller pipelineStatusPoller;
+
+    @Autowired
+    private DeadlineScheduler deadlineScheduler;
+
+    @Autowired
+    private FlowExecutionEngine flowExecutionEngine;
+
+    @Autowired
+    private FlowExecutionService flowExecutionService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private FlowRepository flowRepository;
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    private final AtomicLong pipelineIds = new AtomicLong(4000);
+
+    private Application application;
+
+    @BeforeEach
+    void setUp() {
+        when(gitLabApiClient.triggerPipeline(anyString(), anyString(), anyString(), any(), any()))
+                .thenAnswer(invocation -> Mono.just(pipeline(pipelineIds.incrementAndGet(), "created")));
+        when(gitLabApiClient.cancelPipeline(anyString(), anyString(), anyLong(), any()))
+                .thenAnswer(invocation -> Mono.just(pipeline(invocation.getArgument(2), "canceled")));
+        when(gitLabApiClient.getPipelineJobs(anyString(), anyString(), anyLong(), any()))
+                .thenReturn(Mono.just(new GitLabApiClient.GitLabJobsResponse[0]));
+
+        application = new Application("4711", encryptionService.encrypt("token"));
+        application.setApplicationName("shop");
+        application.setApplicationDescription("Shop tests");
+        application = applicationRepository.save(application);
+    }
+
+    @Test
+    void testStepTimeoutFailsStepWithReason() throws Exception {
+        FlowStep step = step();
+        step.setTimeoutMinutes(1);
+        UUID flowExecutionId = create(null, step);
+        flowExecutionService.executeFlowAsync(flowExecutionId);
+        awaitUntil("the step is running", () -> firstStep(flowExecutionId).getPhase() == StepPhase.RUNNING);
+
+        // Triggered two minutes ago as far as the persisted state goes; re-arm from it
+        PipelineExecution running = firstStep(flowExecutionId);
+        running.setStartTime(LocalDateTime.now().minusMinutes(2));
+        pipelineExecutionRepository.save(running);
+        deadlineScheduler.cancelStepDeadline(running.getId());
+        flowExecutionEngine.recover(flowExecutionId);
+
+        awaitUntil("the flow execution fails", () -> flowExecutionRepository.findById(flowExecutionId)
+                .orElseThrow().getStatus() == ExecutionStatus.FAILED);
+        PipelineExecution timedOut = firstStep(flowExecutionId);
+        assertEquals(ExecutionStatus.FAILED, timedOut.getStatus());
+        assertEquals("Step timed out after 1 minute(s)", timedOut.getFailureReason());
+        verify(gitLabApiClient, timeout(5000)).cancelPipeline(anyString(), eq("4711"), eq(running.getPipelineId()), any());
+    }
+
+    @Test
+    void testFlowTimeoutFailsFlowWithReason() throws Exception {
+        UUID flowExecutionId = create(1, step(), step());
+        FlowExecution flowExecution = flowExecutionRepository.findById(flowExecutionId).orElseThrow();
+        flowExecution.setStartTime(LocalDateTime.now().minusMinutes(2));
+        flowExecutionRepository.save(flowExecution);
+
+        flowExecutionService.executeFlowAsync(flowExecutionId);
+
+        awaitUntil("the flow execution fails", () -> flowExecutionRepository.findById(flowExecutionId)
+                .orElseThrow().getStatus() == ExecutionStatus.FAILED);
+        assertEquals("Flow execution timed out after 1 minute(s)",
+                     flowExecutionRepository.findById(flowExecutionId).orElseThrow().getFailureReason());
+        for (PipelineExecution pipelineExecution : pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId)) {
+            assertNotEquals(ExecutionStatus.RUNNING, pipelineExecution.getStatus());
+        }
+    }
+
+    private FlowStep step() {
+        return new FlowStep(application.getId(), "main", "smoke", "test", "step", List.of(), List.of(), null);
+    }
+
+    private UUID create(Integer flowTimeoutMinutes, FlowStep... steps) {
+        List<Long> stepIds = Arrays.stream(steps).map(step -> flowStepRepository.save(step).getId()).collect(Collectors.toList());
+        Flow flow = new Flow(stepIds, 1L, "Checkout");
+        flow.setTimeoutMinutes(flowTimeoutMinutes);
+        return flowExecutionService.createFlowExecution(flowRepository.save(flow).getId()).getId();
+    }
+
+    private PipelineExecution firstStep(UUID flowExecutionId) {
+        FlowExecution flowExecution = flowExecutionRepository.findById(flowExecutionId).orElseThrow();
+        Long stepId = flowRepository.findById(flowExecution.getFlowId()).orElseThrow().getFlowStepIds().get(0);
+        return pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId).stream()
+                .filter(pipelineExecution -> stepId.equals(pipelineExecution.getFlowStepId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static GitLabApiClient.GitLabPipelineResponse pipeline(Long id, String status) {
+        GitLabApiClient.GitLabPipelineResponse response = new GitLabApiClient.GitLabPipelineResponse();
+        response.setId(id);
+        response.setStatus(status);
+        response.setRef("main");
+        response.setWebUrl("https://gitlab.example.com/shop/-/pipelines/" + id);
+        return response;
+    }
+}
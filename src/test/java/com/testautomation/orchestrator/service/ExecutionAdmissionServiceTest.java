@@ -0,0 +1,91 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.enums.QueueStatus;
+import com.testautomation.orchestrator.model.ExecutionQueueEntry;
+import com.testautomation.orchestrator.model.Flow;
+import com.testautomation.orchestrator.repository.ExecutionQueueRepository;
+import com.testautomation.orchestrator.repository.FlowRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Admission of queued requests with a single execution slot. The periodic tick is pushed out of the
+ * way so the tests decide when admission runs.
+ */
+@SpringBootTest(properties = {
+        "flow-execution.admission.max-concurrent-flows=1",
+        "flow-execution.admission.max-attempts=3",
+        "flow-execution.admission.tick-interval=3600000"
+})
+@ActiveProfiles("test")
+class ExecutionAdmissionServiceTest {
+
+    @SpyBean
+    private FlowExecutionService flowExecutionService;
+
+    @Autowired
+    private ExecutionAdmissionService executionAdmissionService;
+
+    @Autowired
+    private ExecutionQueueService executionQueueService;
+
+    @Autowired
+    private ExecutionQueueRepository executionQueueRepository;
+
+    @Autowired
+    private FlowRepository flowRepository;
+
+    private Flow flow;
+
+    @BeforeEach
+    void setUp() {
+        flow = flowRepository.save(new Flow(List.of(), 1L, "Checkout"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executionQueueRepository.deleteAll();
+    }
+
+    @Test
+    void testEntryThatKeepsFailingIsMarkedFailedAfterMaxAttempts() {
+        doThrow(new IllegalStateException("database unavailable")).when(flowExecutionService).createFlowExecutions(anyList());
+        Long entryId = executionQueueService.enqueue(flow.getId(), 0).getId();
+
+        for (int attempt = 1; attempt < 3; attempt++) {
+            assertTrue(executionAdmissionService.admitQueued().isEmpty());
+            assertEquals(QueueStatus.QUEUED, executionQueueRepository.findById(entryId).orElseThrow().getStatus());
+        }
+        assertTrue(executionAdmissionService.admitQueued().isEmpty());
+
+        ExecutionQueueEntry failed = executionQueueRepository.findById(entryId).orElseThrow();
+        assertEquals(QueueStatus.FAILED, failed.getStatus());
+        assertTrue(failed.getMessage().contains("database unavailable"), failed.getMessage());
+        assertTrue(executionQueueService.findAdmissibleEntryIds().isEmpty());
+    }
+
+    @Test
+    void testAdmittedEntryWithoutFlowExecutionHoldsItsSlot() {
+        // As seen while another admission is still creating the entry's flow execution
+        ExecutionQueueEntry admitting = new ExecutionQueueEntry(flow.getId(), 0);
+        admitting.setStatus(QueueStatus.ADMITTED);
+        admitting.setAdmittedAt(LocalDateTime.now());
+        executionQueueRepository.save(admitting);
+        Long entryId = executionQueueService.enqueue(flow.getId(), 0).getId();
+
+        assertTrue(executionAdmissionService.admitQueued().isEmpty());
+        assertEquals(QueueStatus.QUEUED, executionQueueRepository.findById(entryId).orElseThrow().getStatus());
+    }
+}
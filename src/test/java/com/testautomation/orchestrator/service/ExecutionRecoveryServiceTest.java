@@ -0,0 +1,161 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.enums.StepPhase;
+import com.testautomation.orchestrator.event.PipelineCompletedEvent;
+import com.testautomation.orchestrator.model.Application;
+import com.testautomation.orchestrator.model.Flow;
+import com.testautomation.orchestrator.model.FlowExecution;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import com.testautomation.orchestrator.repository.ApplicationRepository;
+import com.testautomation.orchestrator.repository.FlowExecutionRepository;
+import com.testautomation.orchestrator.repository.FlowRepository;
+import com.testautomation.orchestrator.repository.FlowStepRepository;
+import com.testautomation.orchestrator.repository.PipelineExecutionRepository;
+import com.testautomation.orchestrator.util.GitLabApiClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.testautomation.orchestrator.service.FlowExecutionEngineTest.awaitUntil;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Recovery of flow executions that this node no longer drives: its own after a restart, and those of
+ * a node whose lease expired. Recoveries are not spread and the takeover tick is left to the tests.
+ */
+@SpringBootTest(properties = {
+        "flow-execution.cluster.node-id=node-a",
+        "flow-execution.cluster.takeover-interval=3600000",
+        "flow-execution.recovery.spread-interval=0"
+})
+@ActiveProfiles("test")
+class ExecutionRecoveryServiceTest {
+
+    @MockBean
+    private GitLabApiClient gitLabApiClient;
+
+    @MockBean
+    private PipelineStatusPoller pipelineStatusPoller;
+
+    @Autowired
+    private ExecutionRecoveryService executionRecoveryService;
+
+    @Autowired
+    private FlowExecutionLeaseService flowExecutionLeaseService;
+
+    @Autowired
+    private FlowExecutionService flowExecutionService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private FlowRepository flowRepository;
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    private final AtomicLong pipelineIds = new AtomicLong(2000);
+
+    private Application application;
+
+    @BeforeEach
+    void setUp() {
+        when(gitLabApiClient.triggerPipeline(anyString(), anyString(), anyString(), any(), any()))
+                .thenAnswer(invocation -> Mono.just(pipeline(pipelineIds.incrementAndGet())));
+        when(gitLabApiClient.getPipelineJobs(anyString(), anyString(), anyLong(), any()))
+                .thenReturn(Mono.just(new GitLabApiClient.GitLabJobsResponse[0]));
+
+        application = new Application("4711", encryptionService.encrypt("token"));
+        application.setApplicationName("shop");
+        application.setApplicationDescription("Shop tests");
+        application = applicationRepository.save(application);
+    }
+
+    @Test
+    void testStartupReattachesRunningPipelineOfOwnPreviousProcess() throws Exception {
+        PipelineExecution running = startAndAwaitFirstStep();
+        // The previous process of this node stopped while the pipeline was running
+        flowExecutionLeaseService.release(running.getFlowExecutionId());
+        assertFalse(flowExecutionLeaseService.isOwned(running.getFlowExecutionId()));
+
+        executionRecoveryService.recoverInFlightExecutions();
+
+        awaitUntil("the flow execution is driven again", () -> flowExecutionLeaseService.isOwned(running.getFlowExecutionId()));
+        verify(pipelineStatusPoller, timeout(5000).times(2)).register(argThat(pe -> running.getId().equals(pe.getId())));
+        verify(gitLabApiClient, times(1)).triggerPipeline(anyString(), anyString(), anyString(), any(), any());
+
+        eventPublisher.publishEvent(new PipelineCompletedEvent(running.getFlowExecutionId(), running.getId(),
+                                                               running.getPipelineId(), "success"));
+        awaitUntil("the recovered flow execution passes", () -> flowExecutionRepository.findById(running.getFlowExecutionId())
+                .orElseThrow().getStatus() == ExecutionStatus.PASSED);
+    }
+
+    @Test
+    void testTakesOverFlowExecutionWhoseLeaseExpired() throws Exception {
+        PipelineExecution running = startAndAwaitFirstStep();
+        // Hand the flow to node-b, which then stops renewing its lease
+        flowExecutionLeaseService.release(running.getFlowExecutionId());
+        FlowExecution flowExecution = flowExecutionRepository.findById(running.getFlowExecutionId()).orElseThrow();
+        flowExecution.setOwnerNode("node-b");
+        flowExecution.setLeaseExpiresAt(LocalDateTime.now().minusSeconds(1));
+        flowExecutionRepository.save(flowExecution);
+
+        executionRecoveryService.takeOverExpiredExecutions();
+
+        awaitUntil("the flow execution is driven again", () -> flowExecutionLeaseService.isOwned(running.getFlowExecutionId()));
+        assertEquals("node-a", flowExecutionRepository.findById(running.getFlowExecutionId()).orElseThrow().getOwnerNode());
+        verify(pipelineStatusPoller, timeout(5000).times(2)).register(argThat(pe -> running.getId().equals(pe.getId())));
+        verify(gitLabApiClient, times(1)).triggerPipeline(anyString(), anyString(), anyString(), any(), any());
+    }
+
+    private PipelineExecution startAndAwaitFirstStep() throws InterruptedException {
+        FlowStep step = flowStepRepository.save(
+                new FlowStep(application.getId(), "main", "smoke", "test", "step", List.of(), List.of(), null));
+        Flow flow = flowRepository.save(new Flow(List.of(step.getId()), 1L, "Checkout"));
+        UUID flowExecutionId = flowExecutionService.createFlowExecution(flow.getId()).getId();
+        flowExecutionService.executeFlowAsync(flowExecutionId);
+
+        awaitUntil("the first step is running", () -> pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId)
+                .get(0).getPhase() == StepPhase.RUNNING);
+        return pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId).get(0);
+    }
+
+    private static GitLabApiClient.GitLabPipelineResponse pipeline(Long id) {
+        GitLabApiClient.GitLabPipelineResponse response = new GitLabApiClient.GitLabPipelineResponse();
+        response.setId(id);
+        response.setStatus("created");
+        response.setRef("main");
+        response.setWebUrl("https://gitlab.example.com/shop/-/pipelines/" + id);
+        return response;
+    }
+}
@@ -0,0 +1,145 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.enums.StepPhase;
+import com.testautomation.orchestrator.model.Application;
+import com.testautomation.orchestrator.model.Flow;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import com.testautomation.orchestrator.repository.ApplicationRepository;
+import com.testautomation.orchestrator.repository.FlowExecutionRepository;
+import com.testautomation.orchestrator.repository.FlowRepository;
+import com.testautomation.orchestrator.repository.FlowStepRepository;
+import com.testautomation.orchestrator.repository.PipelineExecutionRepository;
+import com.testautomation.orchestrator.util.GitLabApiClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.testautomation.orchestrator.service.FlowExecutionEngineTest.awaitUntil;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cancelling running flow executions against a mocked GitLab
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FlowCancellationServiceTest {
+
+    @MockBean
+    private GitLabApiClient gitLabApiClient;
+
+    @MockBean
+    private PipelineStatusPoller pipelineStatusPoller;
+
+    @Autowired
+    private FlowCancellationService flowCancellationService;
+
+    @Autowired
+    private FlowExecutionService flowExecutionService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private FlowRepository flowRepository;
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    private final AtomicLong pipelineIds = new AtomicLong(3000);
+
+    private Application application;
+
+    @BeforeEach
+    void setUp() {
+        when(gitLabApiClient.triggerPipeline(anyString(), anyString(), anyString(), any(), any()))
+                .thenAnswer(invocation -> Mono.just(pipeline(pipelineIds.incrementAndGet(), "created")));
+        when(gitLabApiClient.cancelPipeline(anyString(), anyString(), anyLong(), any()))
+                .thenAnswer(invocation -> Mono.just(pipeline(invocation.getArgument(2), "canceled")));
+        when(gitLabApiClient.getPipelineJobs(anyString(), anyString(), anyLong(), any()))
+                .thenReturn(Mono.just(new GitLabApiClient.GitLabJobsResponse[0]));
+
+        application = new Application("4711", encryptionService.encrypt("token"));
+        application.setApplicationName("shop");
+        application.setApplicationDescription("Shop tests");
+        application = applicationRepository.save(application);
+    }
+
+    @Test
+    void testCancelStopsPollingAndCancelsGitLabPipeline() throws Exception {
+        PipelineExecution running = startAndAwaitFirstStep();
+
+        flowCancellationService.cancelFlowExecution(running.getFlowExecutionId());
+
+        assertEquals(ExecutionStatus.CANCELLED, flowExecutionRepository.findById(running.getFlowExecutionId()).orElseThrow().getStatus());
+        assertEquals(ExecutionStatus.CANCELLED, pipelineExecutionRepository.findById(running.getId()).orElseThrow().getStatus());
+        verify(pipelineStatusPoller, timeout(5000)).unregister(running.getId());
+        verify(gitLabApiClient, timeout(5000)).cancelPipeline(anyString(), eq("4711"), eq(running.getPipelineId()), any());
+    }
+
+    @Test
+    void testCancelSeveralReportsUnknownAndFinishedAsSkipped() throws Exception {
+        PipelineExecution running = startAndAwaitFirstStep();
+        PipelineExecution finished = startAndAwaitFirstStep();
+        flowCancellationService.cancelFlowExecution(finished.getFlowExecutionId());
+        UUID unknown = UUID.randomUUID();
+
+        Map<String, Object> result = flowCancellationService.cancelFlowExecutions(
+                running.getFlowExecutionId() + "," + finished.getFlowExecutionId() + "," + unknown);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> summary = (Map<String, Object>) result.get("summary");
+        assertEquals(1, summary.get("cancelled"));
+        assertEquals(2, summary.get("skipped"));
+        assertTrue(((Set<?>) result.get("cancelled")).contains(running.getFlowExecutionId()));
+        verify(gitLabApiClient, timeout(5000)).cancelPipeline(anyString(), eq("4711"), eq(running.getPipelineId()), any());
+        verify(gitLabApiClient, timeout(5000).times(1)).cancelPipeline(anyString(), eq("4711"), eq(finished.getPipelineId()), any());
+        assertThrows(IllegalStateException.class, () -> flowCancellationService.cancelFlowExecution(running.getFlowExecutionId()));
+    }
+
+    private PipelineExecution startAndAwaitFirstStep() throws InterruptedException {
+        FlowStep step = flowStepRepository.save(
+                new FlowStep(application.getId(), "main", "smoke", "test", "step", List.of(), List.of(), null));
+        Flow flow = flowRepository.save(new Flow(List.of(step.getId()), 1L, "Checkout"));
+        UUID flowExecutionId = flowExecutionService.createFlowExecution(flow.getId()).getId();
+        flowExecutionService.executeFlowAsync(flowExecutionId);
+
+        awaitUntil("the first step is running", () -> pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId)
+                .get(0).getPhase() == StepPhase.RUNNING);
+        return pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId).get(0);
+    }
+
+    private static GitLabApiClient.GitLabPipelineResponse pipeline(Long id, String status) {
+        GitLabApiClient.GitLabPipelineResponse response = new GitLabApiClient.GitLabPipelineResponse();
+        response.setId(id);
+        response.setStatus(status);
+        response.setRef("main");
+        response.setWebUrl("https://gitlab.example.com/shop/-/pipelines/" + id);
+        return response;
+    }
+}
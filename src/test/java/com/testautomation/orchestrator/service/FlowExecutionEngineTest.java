@@ -0,0 +1,258 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.enums.StepPhase;
+import com.testautomation.orchestrator.event.PipelineCompletedEvent;
+import com.testautomation.orchestrator.event.StageCompletedEvent;
+import com.testautomation.orchestrator.model.Application;
+import com.testautomation.orchestrator.model.Flow;
+import com.testautomation.orchestrator.model.FlowExecution;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import com.testautomation.orchestrator.repository.ApplicationRepository;
+import com.testautomation.orchestrator.repository.FlowExecutionRepository;
+import com.testautomation.orchestrator.repository.FlowRepository;
+import com.testautomation.orchestrator.repository.FlowStepRepository;
+import com.testautomation.orchestrator.repository.PipelineExecutionRepository;
+import com.testautomation.orchestrator.util.GitLabApiClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives flow executions through the engine against a mocked GitLab. Pipeline completions are
+ * published as the status poller and webhooks would publish them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FlowExecutionEngineTest {
+
+    @MockBean
+    private GitLabApiClient gitLabApiClient;
+
+    @MockBean
+    private PipelineStatusPoller pipelineStatusPoller;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private FlowExecutionService flowExecutionService;
+
+    @Autowired
+    private FlowCancellationService flowCancellationService;
+
+    @Autowired
+    private FlowExecutionEngine flowExecutionEngine;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private FlowRepository flowRepository;
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    private final AtomicLong pipelineIds = new AtomicLong(1000);
+
+    private Application application;
+
+    @BeforeEach
+    void setUp() {
+        when(gitLabApiClient.triggerPipeline(anyString(), anyString(), anyString(), any(), any()))
+                .thenAnswer(invocation -> Mono.just(pipeline(pipelineIds.incrementAndGet(), "created")));
+        when(gitLabApiClient.cancelPipeline(anyString(), anyString(), anyLong(), any()))
+                .thenAnswer(invocation -> Mono.just(pipeline(invocation.getArgument(2), "canceled")));
+        GitLabApiClient.GitLabJobsResponse job = new GitLabApiClient.GitLabJobsResponse();
+        job.setId(77L);
+        job.setName("unit");
+        job.setStage("test");
+        job.setStatus("success");
+        when(gitLabApiClient.getPipelineJobs(anyString(), anyString(), anyLong(), any()))
+                .thenReturn(Mono.just(new GitLabApiClient.GitLabJobsResponse[] { job }));
+        when(gitLabApiClient.downloadJobArtifact(anyString(), anyString(), anyLong(), any(), anyString()))
+                .thenReturn(Mono.just("ORDER_ID=42\n"));
+
+        application = new Application("4711", encryptionService.encrypt("token"));
+        application.setApplicationName("shop");
+        application.setApplicationDescription("Shop tests");
+        application = applicationRepository.save(application);
+    }
+
+    @Test
+    void testPassedStepTriggersNextStepWithItsVariables() throws Exception {
+        UUID flowExecutionId = start(step(), step());
+        PipelineExecution first = awaitStep(flowExecutionId, 0, StepPhase.RUNNING);
+        assertEquals(StepPhase.PENDING, stepOf(flowExecutionId, 1).getPhase());
+
+        complete(first, "success");
+        PipelineExecution second = awaitStep(flowExecutionId, 1, StepPhase.RUNNING);
+        assertEquals(ExecutionStatus.PASSED, stepOf(flowExecutionId, 0).getStatus());
+        assertEquals("42", triggeredVariables(1).get("ORDER_ID"));
+
+        complete(second, "success");
+        awaitFlow(flowExecutionId, ExecutionStatus.PASSED);
+        assertEquals("42", flowExecutionRepository.findById(flowExecutionId).orElseThrow().getRuntimeVariables().get("ORDER_ID"));
+    }
+
+    @Test
+    void testFailedStepFailsFlowWithoutTriggeringTheNextStep() throws Exception {
+        UUID flowExecutionId = start(step(), step());
+        PipelineExecution first = awaitStep(flowExecutionId, 0, StepPhase.RUNNING);
+
+        complete(first, "failed");
+        awaitFlow(flowExecutionId, ExecutionStatus.FAILED);
+
+        assertEquals(ExecutionStatus.FAILED, stepOf(flowExecutionId, 0).getStatus());
+        assertEquals(ExecutionStatus.SCHEDULED, stepOf(flowExecutionId, 1).getStatus());
+        verify(gitLabApiClient, times(1)).triggerPipeline(anyString(), anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void testFailFastStepFailsAtItsTestStage() throws Exception {
+        FlowStep failFast = step();
+        failFast.setFailFast(true);
+        UUID flowExecutionId = start(failFast, step());
+        PipelineExecution first = awaitStep(flowExecutionId, 0, StepPhase.RUNNING);
+
+        eventPublisher.publishEvent(new StageCompletedEvent(flowExecutionId, first.getId(), first.getPipelineId(), "test",
+                                                            false, 78L, "unit", "https://gitlab.example.com/jobs/78"));
+        awaitFlow(flowExecutionId, ExecutionStatus.FAILED);
+
+        PipelineExecution failed = stepOf(flowExecutionId, 0);
+        assertEquals(ExecutionStatus.FAILED, failed.getStatus());
+        assertTrue(failed.getFailureReason().contains("unit"), failed.getFailureReason());
+        verify(gitLabApiClient, timeout(5000)).cancelPipeline(anyString(), eq("4711"), eq(first.getPipelineId()), any());
+        assertEquals(ExecutionStatus.SCHEDULED, stepOf(flowExecutionId, 1).getStatus());
+    }
+
+    @Test
+    void testCancelStopsRunningStepAndIgnoresItsLateCompletion() throws Exception {
+        UUID flowExecutionId = start(step(), step());
+        PipelineExecution first = awaitStep(flowExecutionId, 0, StepPhase.RUNNING);
+
+        flowCancellationService.cancelFlowExecution(flowExecutionId);
+        awaitFlow(flowExecutionId, ExecutionStatus.CANCELLED);
+        assertEquals(ExecutionStatus.CANCELLED, stepOf(flowExecutionId, 0).getStatus());
+
+        complete(first, "success");
+        Thread.sleep(300);
+        assertEquals(ExecutionStatus.CANCELLED, stepOf(flowExecutionId, 0).getStatus());
+        assertEquals(ExecutionStatus.CANCELLED, flowExecutionRepository.findById(flowExecutionId).orElseThrow().getStatus());
+        verify(gitLabApiClient, times(1)).triggerPipeline(anyString(), anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void testRecoverTriggersStepInterruptedWhileBeingTriggered() throws Exception {
+        UUID flowExecutionId = create(step());
+        // As left behind by a process that stopped before GitLab answered the trigger
+        PipelineExecution interrupted = stepOf(flowExecutionId, 0);
+        interrupted.setStatus(ExecutionStatus.RUNNING);
+        interrupted.setPhase(StepPhase.TRIGGERED);
+        pipelineExecutionRepository.save(interrupted);
+
+        flowExecutionEngine.recover(flowExecutionId);
+        PipelineExecution running = awaitStep(flowExecutionId, 0, StepPhase.RUNNING);
+
+        assertNotNull(running.getPipelineId());
+        verify(gitLabApiClient, times(1)).triggerPipeline(anyString(), anyString(), anyString(), any(), any());
+        verify(pipelineStatusPoller, timeout(5000)).register(any(PipelineExecution.class));
+    }
+
+    private FlowStep step() {
+        return new FlowStep(application.getId(), "main", "smoke", "test", "step", List.of(), List.of(), null);
+    }
+
+    private UUID create(FlowStep... steps) {
+        List<Long> stepIds = Arrays.stream(steps).map(step -> flowStepRepository.save(step).getId()).collect(Collectors.toList());
+        Flow flow = flowRepository.save(new Flow(stepIds, 1L, "Checkout"));
+        return flowExecutionService.createFlowExecution(flow.getId()).getId();
+    }
+
+    private UUID start(FlowStep... steps) {
+        UUID flowExecutionId = create(steps);
+        flowExecutionService.executeFlowAsync(flowExecutionId);
+        return flowExecutionId;
+    }
+
+    private void complete(PipelineExecution pipelineExecution, String gitlabStatus) {
+        eventPublisher.publishEvent(new PipelineCompletedEvent(pipelineExecution.getFlowExecutionId(), pipelineExecution.getId(),
+                                                               pipelineExecution.getPipelineId(), gitlabStatus));
+    }
+
+    private PipelineExecution stepOf(UUID flowExecutionId, int index) {
+        FlowExecution flowExecution = flowExecutionRepository.findById(flowExecutionId).orElseThrow();
+        Long stepId = flowRepository.findById(flowExecution.getFlowId()).orElseThrow().getFlowStepIds().get(index);
+        return pipelineExecutionRepository.findByFlowExecutionId(flowExecutionId).stream()
+                .filter(pipelineExecution -> stepId.equals(pipelineExecution.getFlowStepId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private PipelineExecution awaitStep(UUID flowExecutionId, int index, StepPhase phase) throws InterruptedException {
+        awaitUntil("step " + index + " is " + phase, () -> stepOf(flowExecutionId, index).getPhase() == phase);
+        return stepOf(flowExecutionId, index);
+    }
+
+    private void awaitFlow(UUID flowExecutionId, ExecutionStatus status) throws InterruptedException {
+        awaitUntil("flow execution is " + status,
+                   () -> flowExecutionRepository.findById(flowExecutionId).orElseThrow().getStatus() == status);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> triggeredVariables(int call) {
+        ArgumentCaptor<Map<String, String>> variables = ArgumentCaptor.forClass(Map.class);
+        verify(gitLabApiClient, atLeast(call + 1)).triggerPipeline(anyString(), anyString(), anyString(), any(), variables.capture());
+        return variables.getAllValues().get(call);
+    }
+
+    static void awaitUntil(String description, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting until " + description);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static GitLabApiClient.GitLabPipelineResponse pipeline(Long id, String status) {
+        GitLabApiClient.GitLabPipelineResponse response = new GitLabApiClient.GitLabPipelineResponse();
+        response.setId(id);
+        response.setStatus(status);
+        response.setRef("main");
+        response.setWebUrl("https://gitlab.example.com/shop/-/pipelines/" + id);
+        return response;
+    }
+}
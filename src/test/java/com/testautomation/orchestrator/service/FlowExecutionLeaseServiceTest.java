@@ -0,0 +1,108 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.model.FlowExecution;
+import com.testautomation.orchestrator.repository.FlowExecutionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Leases of node-a against flow executions left behind by node-b. Recovery is disabled so only the
+ * tests claim leases; claims are large enough to cover flow executions left over by other tests.
+ */
+@SpringBootTest(properties = {
+        "flow-execution.cluster.node-id=node-a",
+        "flow-execution.recovery.enabled=false"
+})
+@ActiveProfiles("test")
+class FlowExecutionLeaseServiceTest {
+
+    private static final int CLAIM_LIMIT = 10000;
+
+    @Autowired
+    private FlowExecutionLeaseService flowExecutionLeaseService;
+
+    @Autowired
+    private FlowExecutionRepository flowExecutionRepository;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        flowExecutionRepository.deleteAllById(created);
+    }
+
+    @Test
+    void testClaimsExpiredLeaseOfAnotherNode() {
+        UUID expired = save("node-b", LocalDateTime.now().minusMinutes(1));
+
+        assertTrue(flowExecutionLeaseService.claimExpired(CLAIM_LIMIT, false).contains(expired));
+
+        FlowExecution claimed = flowExecutionRepository.findById(expired).orElseThrow();
+        assertEquals("node-a", claimed.getOwnerNode());
+        assertTrue(claimed.getLeaseExpiresAt().isAfter(LocalDateTime.now()));
+        assertTrue(flowExecutionLeaseService.isOwned(expired));
+        assertFalse(flowExecutionLeaseService.claimExpired(CLAIM_LIMIT, false).contains(expired));
+    }
+
+    @Test
+    void testLiveLeaseOfAnotherNodeIsNotClaimed() {
+        UUID live = save("node-b", LocalDateTime.now().plusMinutes(1));
+
+        assertFalse(flowExecutionLeaseService.claimExpired(CLAIM_LIMIT, true).contains(live));
+        assertEquals("node-b", flowExecutionRepository.findById(live).orElseThrow().getOwnerNode());
+        assertFalse(flowExecutionLeaseService.isOwned(live));
+    }
+
+    @Test
+    void testRestartedNodeClaimsItsOwnLiveLeases() {
+        UUID own = save("node-a", LocalDateTime.now().plusMinutes(1));
+
+        assertFalse(flowExecutionLeaseService.claimExpired(CLAIM_LIMIT, false).contains(own));
+        assertTrue(flowExecutionLeaseService.claimExpired(CLAIM_LIMIT, true).contains(own));
+        assertTrue(flowExecutionLeaseService.isOwned(own));
+    }
+
+    @Test
+    void testHeartbeatRenewsOwnLeasesAndDropsTakenOverOnes() {
+        UUID kept = save("node-b", LocalDateTime.now().minusMinutes(1));
+        UUID takenOver = save("node-b", LocalDateTime.now().minusMinutes(1));
+        flowExecutionLeaseService.claimExpired(CLAIM_LIMIT, false);
+
+        // Let the leases nearly run out, then have node-b take one of them back
+        LocalDateTime nearlyExpired = LocalDateTime.now().plusSeconds(1);
+        FlowExecution renewable = flowExecutionRepository.findById(kept).orElseThrow();
+        renewable.setLeaseExpiresAt(nearlyExpired);
+        flowExecutionRepository.save(renewable);
+        FlowExecution stolen = flowExecutionRepository.findById(takenOver).orElseThrow();
+        stolen.setOwnerNode("node-b");
+        flowExecutionRepository.save(stolen);
+
+        flowExecutionLeaseService.heartbeat();
+
+        assertTrue(flowExecutionRepository.findById(kept).orElseThrow().getLeaseExpiresAt().isAfter(nearlyExpired));
+        assertTrue(flowExecutionLeaseService.isOwned(kept));
+        assertEquals("node-b", flowExecutionRepository.findById(takenOver).orElseThrow().getOwnerNode());
+        assertFalse(flowExecutionLeaseService.isOwned(takenOver));
+    }
+
+    private UUID save(String ownerNode, LocalDateTime leaseExpiresAt) {
+        FlowExecution flowExecution = new FlowExecution(1L, new HashMap<>());
+        flowExecution.setStatus(ExecutionStatus.RUNNING);
+        flowExecution.setOwnerNode(ownerNode);
+        flowExecution.setLeaseExpiresAt(leaseExpiresAt);
+        created.add(flowExecutionRepository.save(flowExecution).getId());
+        return flowExecution.getId();
+    }
+}
@@ -0,0 +1,93 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.dto.FlowExecutionDto;
+import com.testautomation.orchestrator.enums.StepPhase;
+import com.testautomation.orchestrator.model.Application;
+import com.testautomation.orchestrator.model.ExecutionQueueEntry;
+import com.testautomation.orchestrator.model.Flow;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import com.testautomation.orchestrator.repository.ApplicationRepository;
+import com.testautomation.orchestrator.repository.FlowRepository;
+import com.testautomation.orchestrator.repository.FlowStepRepository;
+import com.testautomation.orchestrator.repository.PipelineExecutionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk creation of admitted flow executions, counted with Hibernate statistics. Background jobs of
+ * the application share the statistics, so statement counts are bounded rather than exact.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class FlowExecutionServiceTest {
+
+    private static final int FLOWS = 40;
+
+    private static final int STEPS_PER_FLOW = 3;
+
+    @Autowired
+    private FlowExecutionService flowExecutionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private FlowRepository flowRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Test
+    void testCreateFlowExecutionsInsertsInBatches() {
+        Application application = new Application("4711", "token");
+        application.setApplicationName("shop");
+        application.setApplicationDescription("Shop tests");
+        application = applicationRepository.save(application);
+        List<Long> stepIds = new ArrayList<>();
+        for (int i = 0; i < STEPS_PER_FLOW; i++) {
+            stepIds.add(flowStepRepository.save(
+                    new FlowStep(application.getId(), "main", "smoke", "test", "step " + i, List.of(), List.of(), null)).getId());
+        }
+        List<ExecutionQueueEntry> entries = new ArrayList<>();
+        for (int i = 0; i < FLOWS; i++) {
+            Flow flow = flowRepository.save(new Flow(stepIds, (long) i, "Checkout " + i));
+            entries.add(new ExecutionQueueEntry(flow.getId(), 0));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<FlowExecutionDto> created = flowExecutionService.createFlowExecutions(entries);
+        long inserted = statistics.getEntityInsertCount();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(FLOWS, created.size());
+        for (int i = 0; i < FLOWS; i++) {
+            assertEquals(entries.get(i).getFlowId(), created.get(i).getFlowId());
+            assertEquals(STEPS_PER_FLOW, created.get(i).getPipelineExecutions().size());
+        }
+        assertEquals(FLOWS + FLOWS * STEPS_PER_FLOW, inserted);
+        // Batches of 50 rows and one IN query per lookup, instead of a statement per row
+        assertTrue(statements < 30, statements + " statements prepared for " + inserted + " inserted rows");
+
+        List<PipelineExecution> placeholders = pipelineExecutionRepository.findByFlowExecutionId(created.get(0).getId());
+        assertEquals(STEPS_PER_FLOW, placeholders.size());
+        assertTrue(placeholders.stream().allMatch(placeholder -> placeholder.getPhase() == StepPhase.PENDING));
+    }
+}
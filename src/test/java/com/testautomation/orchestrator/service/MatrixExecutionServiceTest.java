@@ -0,0 +1,189 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.dto.MatrixExecutionCreateDto;
+import com.testautomation.orchestrator.dto.MatrixExecutionDto;
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.enums.StepPhase;
+import com.testautomation.orchestrator.event.PipelineCompletedEvent;
+import com.testautomation.orchestrator.model.Application;
+import com.testautomation.orchestrator.model.Flow;
+import com.testautomation.orchestrator.model.FlowStep;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import com.testautomation.orchestrator.repository.ApplicationRepository;
+import com.testautomation.orchestrator.repository.FlowRepository;
+import com.testautomation.orchestrator.repository.FlowStepRepository;
+import com.testautomation.orchestrator.repository.PipelineExecutionRepository;
+import com.testautomation.orchestrator.util.GitLabApiClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static com.testautomation.orchestrator.service.FlowExecutionEngineTest.awaitUntil;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Matrix executions of a one-step flow driven through the engine against a mocked GitLab
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class MatrixExecutionServiceTest {
+
+    @MockBean
+    private GitLabApiClient gitLabApiClient;
+
+    @MockBean
+    private PipelineStatusPoller pipelineStatusPoller;
+
+    @Autowired
+    private ExecutionAdmissionService executionAdmissionService;
+
+    @Autowired
+    private MatrixExecutionService matrixExecutionService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private FlowStepRepository flowStepRepository;
+
+    @Autowired
+    private FlowRepository flowRepository;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    private final AtomicLong pipelineIds = new AtomicLong(5000);
+
+    private Flow flow;
+
+    @BeforeEach
+    void setUp() {
+        when(gitLabApiClient.triggerPipeline(anyString(), anyString(), anyString(), any(), any()))
+                .thenAnswer(invocation -> Mono.just(pipeline(pipelineIds.incrementAndGet())));
+        when(gitLabApiClient.getPipelineJobs(anyString(), anyString(), anyLong(), any()))
+                .thenReturn(Mono.just(new GitLabApiClient.GitLabJobsResponse[0]));
+
+        Application application = new Application("4711", encryptionService.encrypt("token"));
+        application.setApplicationName("shop");
+        application.setApplicationDescription("Shop tests");
+        application = applicationRepository.save(application);
+        FlowStep step = flowStepRepository.save(
+                new FlowStep(application.getId(), "main", "smoke", "test", "step", List.of(), List.of(), null));
+        flow = flowRepository.save(new Flow(List.of(step.getId()), 1L, "Checkout"));
+    }
+
+    @Test
+    void testVariantsRunWithTheirVariablesAndAllPassingPassesTheMatrix() throws Exception {
+        MatrixExecutionDto matrix = submit("standard", "premium");
+
+        Map<UUID, PipelineExecution> steps = awaitRunningSteps(matrix);
+        assertEquals(Set.of("standard", "premium"), triggeredProfiles());
+        assertEquals(ExecutionStatus.RUNNING, matrixExecutionService.getMatrixExecution(matrix.getId()).getStatus());
+
+        steps.values().forEach(step -> complete(step, "success"));
+
+        MatrixExecutionDto finished = awaitMatrix(matrix.getId());
+        assertEquals(ExecutionStatus.PASSED, finished.getStatus());
+        assertEquals(2, finished.getPassed());
+        assertEquals(0, finished.getRunning());
+        assertNotNull(finished.getEndTime());
+    }
+
+    @Test
+    void testOneFailedVariantFailsTheMatrixOnceAllFinished() throws Exception {
+        MatrixExecutionDto matrix = submit("standard", "premium", "guest");
+        Map<UUID, PipelineExecution> steps = awaitRunningSteps(matrix);
+        List<PipelineExecution> ordered = matrix.getVariants().stream()
+                .map(variant -> steps.get(variant.getFlowExecutionId()))
+                .collect(Collectors.toList());
+
+        complete(ordered.get(0), "failed");
+        complete(ordered.get(1), "success");
+        awaitUntil("two variants finished", () -> {
+            MatrixExecutionDto current = matrixExecutionService.getMatrixExecution(matrix.getId());
+            return current.getFailed() == 1 && current.getPassed() == 1;
+        });
+        // A variant is still running, so the matrix execution is not finished yet
+        assertEquals(ExecutionStatus.RUNNING, matrixExecutionService.getMatrixExecution(matrix.getId()).getStatus());
+
+        complete(ordered.get(2), "success");
+        MatrixExecutionDto finished = awaitMatrix(matrix.getId());
+        assertEquals(ExecutionStatus.FAILED, finished.getStatus());
+        assertEquals(2, finished.getPassed());
+        assertEquals(1, finished.getFailed());
+        assertEquals(ExecutionStatus.FAILED, finished.getVariants().get(0).getStatus());
+    }
+
+    private MatrixExecutionDto submit(String... profiles) {
+        List<MatrixExecutionCreateDto.Variant> variants = new ArrayList<>();
+        for (String profile : profiles) {
+            variants.add(new MatrixExecutionCreateDto.Variant(profile, List.of(), Map.of("USER_PROFILE", profile)));
+        }
+        return executionAdmissionService.submitMatrix(flow.getId(), new MatrixExecutionCreateDto(variants), 0);
+    }
+
+    /**
+     * The running step of every variant, by flow execution
+     */
+    private Map<UUID, PipelineExecution> awaitRunningSteps(MatrixExecutionDto matrix) throws InterruptedException {
+        assertTrue(matrix.getVariants().stream().allMatch(variant -> variant.getFlowExecutionId() != null), "all variants admitted");
+        awaitUntil("every variant's step is running", () -> matrix.getVariants().stream()
+                .allMatch(variant -> pipelineExecutionRepository.findByFlowExecutionId(variant.getFlowExecutionId())
+                        .get(0).getPhase() == StepPhase.RUNNING));
+        return matrix.getVariants().stream()
+                .collect(Collectors.toMap(MatrixExecutionDto.Variant::getFlowExecutionId,
+                        variant -> pipelineExecutionRepository.findByFlowExecutionId(variant.getFlowExecutionId()).get(0)));
+    }
+
+    private MatrixExecutionDto awaitMatrix(UUID matrixExecutionId) throws InterruptedException {
+        awaitUntil("the matrix execution finished",
+                   () -> matrixExecutionService.getMatrixExecution(matrixExecutionId).getStatus() != ExecutionStatus.RUNNING);
+        return matrixExecutionService.getMatrixExecution(matrixExecutionId);
+    }
+
+    private void complete(PipelineExecution pipelineExecution, String gitlabStatus) {
+        eventPublisher.publishEvent(new PipelineCompletedEvent(pipelineExecution.getFlowExecutionId(), pipelineExecution.getId(),
+                                                               pipelineExecution.getPipelineId(), gitlabStatus));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> triggeredProfiles() {
+        ArgumentCaptor<Map<String, String>> variables = ArgumentCaptor.forClass(Map.class);
+        verify(gitLabApiClient, atLeastOnce()).triggerPipeline(anyString(), anyString(), anyString(), any(), variables.capture());
+        return variables.getAllValues().stream().map(map -> map.get("USER_PROFILE")).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static GitLabApiClient.GitLabPipelineResponse pipeline(Long id) {
+        GitLabApiClient.GitLabPipelineResponse response = new GitLabApiClient.GitLabPipelineResponse();
+        response.setId(id);
+        response.setStatus("created");
+        response.setRef("main");
+        response.setWebUrl("https://gitlab.example.com/shop/-/pipelines/" + id);
+        return response;
+    }
+}
@@ -0,0 +1,150 @@
+package com.testautomation.orchestrator.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineTriggerLimiterTest {
+
+    private final List<Integer> started = new CopyOnWriteArrayList<>();
+    private final List<String> results = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Test
+    void testNeverMoreThanMaxConcurrencyInFlight() {
+        PipelineTriggerLimiter limiter = limiter(3);
+        List<Sinks.One<String>> responses = responses(10);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.limit(trigger(i, responses.get(i))).subscribe(results::add);
+        }
+        assertEquals(List.of(0, 1, 2), started);
+
+        for (int i = 0; i < 10; i++) {
+            responses.get(i).tryEmitValue("pipeline-" + i);
+            assertTrue(inFlight.get() <= 3);
+        }
+
+        assertEquals(3, maxInFlight.get());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), started);
+        assertEquals(10, results.size());
+        assertEquals(0, inFlight.get());
+    }
+
+    @Test
+    void testBoundHoldsUnderConcurrentTriggersAndCompletions() throws Exception {
+        PipelineTriggerLimiter limiter = limiter(4);
+        CountDownLatch done = new CountDownLatch(400);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t * 50;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    // Responses arrive on other threads, in any order
+                    Mono<String> response = Mono.just("pipeline-" + (offset + i))
+                            .delayElement(Duration.ofMillis(ThreadLocalRandom.current().nextInt(3)));
+                    limiter.limit(trigger(offset + i, response)).subscribe(results::add, error -> done.countDown(), done::countDown);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS), "all triggers completed");
+        assertEquals(400, results.size());
+        assertEquals(400, started.size());
+        assertTrue(maxInFlight.get() <= 4, maxInFlight.get() + " triggers were in flight at once");
+        assertEquals(0, inFlight.get());
+    }
+
+    @Test
+    void testFailedTriggerReleasesItsPermit() {
+        PipelineTriggerLimiter limiter = limiter(1);
+        List<Sinks.One<String>> responses = responses(2);
+        List<Throwable> errors = new ArrayList<>();
+
+        limiter.limit(trigger(0, responses.get(0))).subscribe(results::add, errors::add);
+        limiter.limit(trigger(1, responses.get(1))).subscribe(results::add, errors::add);
+        assertEquals(List.of(0), started);
+
+        responses.get(0).tryEmitError(new IllegalStateException("GitLab unavailable"));
+        assertEquals(1, errors.size());
+        assertEquals(List.of(0, 1), started);
+    }
+
+    @Test
+    void testTriggerCancelledWhileWaitingIsNeverSent() {
+        PipelineTriggerLimiter limiter = limiter(1);
+        List<Sinks.One<String>> responses = responses(3);
+
+        limiter.limit(trigger(0, responses.get(0))).subscribe(results::add);
+        Disposable cancelled = limiter.limit(trigger(1, responses.get(1))).subscribe(results::add);
+        limiter.limit(trigger(2, responses.get(2))).subscribe(results::add);
+        cancelled.dispose();
+
+        responses.get(0).tryEmitValue("pipeline-0");
+        assertEquals(List.of(0, 2), started);
+        responses.get(2).tryEmitValue("pipeline-2");
+        assertEquals(List.of("pipeline-0", "pipeline-2"), results);
+        assertEquals(0, inFlight.get());
+    }
+
+    @Test
+    void testZeroMeansUnlimited() {
+        PipelineTriggerLimiter limiter = limiter(0);
+        List<Sinks.One<String>> responses = responses(50);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.limit(trigger(i, responses.get(i))).subscribe(results::add);
+        }
+
+        assertEquals(50, started.size());
+        assertEquals(50, maxInFlight.get());
+    }
+
+    private static PipelineTriggerLimiter limiter(int maxConcurrency) {
+        PipelineTriggerLimiter limiter = new PipelineTriggerLimiter();
+        ReflectionTestUtils.setField(limiter, "maxConcurrency", maxConcurrency);
+        return limiter;
+    }
+
+    private static List<Sinks.One<String>> responses(int count) {
+        List<Sinks.One<String>> responses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            responses.add(Sinks.one());
+        }
+        return responses;
+    }
+
+    /**
+     * A trigger request that is in flight from its subscription until GitLab's response is emitted
+     */
+    private Mono<String> trigger(int index, Sinks.One<String> response) {
+        return trigger(index, response.asMono());
+    }
+
+    private Mono<String> trigger(int index, Mono<String> response) {
+        return Mono.defer(() -> {
+            started.add(index);
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return response.doOnTerminate(inFlight::decrementAndGet);
+        });
+    }
+}
@@ -0,0 +1,97 @@
+package com.testautomation.orchestrator.service;
+
+import com.testautomation.orchestrator.enums.ExecutionStatus;
+import com.testautomation.orchestrator.event.StepResumeDueEvent;
+import com.testautomation.orchestrator.model.PipelineExecution;
+import com.testautomation.orchestrator.repository.PipelineExecutionRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Resume timers of scheduled steps. The engine is mocked, so a fired timer shows up as its
+ * StepResumeDueEvent reaching the engine.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SchedulingServiceTest {
+
+    @MockBean
+    private FlowExecutionEngine flowExecutionEngine;
+
+    @Autowired
+    private SchedulingService schedulingService;
+
+    @Autowired
+    private PipelineExecutionRepository pipelineExecutionRepository;
+
+    @Test
+    void testTimerFiresAtResumeTime() throws Exception {
+        AtomicLong firedAtMs = new AtomicLong();
+        doAnswer(invocation -> {
+            firedAtMs.set(System.currentTimeMillis());
+            return null;
+        }).when(flowExecutionEngine).onStepResumeDue(any());
+        PipelineExecution execution = save();
+        LocalDateTime resumeTime = LocalDateTime.now().plusNanos(500_000_000L);
+
+        schedulingService.schedulePipelineExecution(execution, resumeTime);
+        assertEquals(ExecutionStatus.SCHEDULED, pipelineExecutionRepository.findById(execution.getId()).orElseThrow().getStatus());
+        Thread.sleep(200);
+        verify(flowExecutionEngine, never()).onStepResumeDue(any());
+
+        ArgumentCaptor<StepResumeDueEvent> event = ArgumentCaptor.forClass(StepResumeDueEvent.class);
+        verify(flowExecutionEngine, timeout(5000)).onStepResumeDue(event.capture());
+        assertEquals(execution.getId(), event.getValue().getPipelineExecutionId());
+        assertEquals(execution.getFlowExecutionId(), event.getValue().getFlowExecutionId());
+        assertTrue(firedAtMs.get() >= resumeTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                   "timer fired before the resume time");
+    }
+
+    @Test
+    void testCancelledTimerDoesNotFire() throws Exception {
+        PipelineExecution execution = save();
+
+        schedulingService.schedulePipelineExecution(execution, LocalDateTime.now().plusNanos(300_000_000L));
+        schedulingService.cancelTimer(execution.getId());
+        Thread.sleep(600);
+
+        verify(flowExecutionEngine, never())
+                .onStepResumeDue(argThat(event -> execution.getId().equals(event.getPipelineExecutionId())));
+    }
+
+    @Test
+    void testStartupFiresResumeTimeThatPassedWhileDown() {
+        PipelineExecution execution = save();
+        execution.setStatus(ExecutionStatus.SCHEDULED);
+        execution.setResumeTime(LocalDateTime.now().minusMinutes(5));
+        pipelineExecutionRepository.save(execution);
+
+        schedulingService.loadScheduledExecutions();
+
+        verify(flowExecutionEngine, timeout(5000))
+                .onStepResumeDue(argThat(event -> execution.getId().equals(event.getPipelineExecutionId())));
+    }
+
+    private PipelineExecution save() {
+        PipelineExecution execution = new PipelineExecution();
+        execution.setFlowId(1L);
+        execution.setFlowExecutionId(UUID.randomUUID());
+        execution.setFlowStepId(1L);
+        execution.setStatus(ExecutionStatus.PENDING);
+        return pipelineExecutionRepository.save(execution);
+    }
+}
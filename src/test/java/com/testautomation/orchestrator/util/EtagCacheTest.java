@@ -0,0 +1,73 @@
+package com.testautomation.orchestrator.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EtagCacheTest {
+
+    @Test
+    void testPutAndGet() {
+        EtagCache cache = new EtagCache(10);
+        cache.put("/pipelines/1", "W/\"abc\"", "running");
+
+        EtagCache.Entry entry = cache.get("/pipelines/1");
+        assertNotNull(entry);
+        assertEquals("W/\"abc\"", entry.getEtag());
+        assertEquals("running", entry.getValue());
+        assertNull(cache.get("/pipelines/2"));
+    }
+
+    @Test
+    void testNewerResponseReplacesEntry() {
+        EtagCache cache = new EtagCache(10);
+        cache.put("/pipelines/1", "\"v1\"", "running");
+        cache.put("/pipelines/1", "\"v2\"", "success");
+
+        assertEquals(1, cache.size());
+        assertEquals("\"v2\"", cache.get("/pipelines/1").getEtag());
+        assertEquals("success", cache.get("/pipelines/1").getValue());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        EtagCache cache = new EtagCache(2);
+        cache.put("a", "\"1\"", "A");
+        cache.put("b", "\"2\"", "B");
+        cache.get("a");
+        cache.put("c", "\"3\"", "C");
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    void testResponsesWithoutEtagAreNotCached() {
+        EtagCache cache = new EtagCache(10);
+        cache.put("a", null, "A");
+        cache.put("b", "\"2\"", null);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testResponseWithoutEtagDropsOlderEntry() {
+        EtagCache cache = new EtagCache(10);
+        cache.put("/pipelines/1", "\"v1\"", "running");
+        cache.put("/pipelines/1", null, "success");
+
+        assertNull(cache.get("/pipelines/1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testZeroSizeKeepsNothing() {
+        EtagCache cache = new EtagCache(0);
+        cache.put("a", "\"1\"", "A");
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+}
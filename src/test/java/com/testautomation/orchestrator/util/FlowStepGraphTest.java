@@ -0,0 +1,69 @@
+package com.testautomation.orchestrator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlowStepGraphTest {
+
+    @Test
+    void testUndeclaredDependenciesAreSequential() {
+        FlowStepGraph graph = FlowStepGraph.of(List.of(10L, 20L, 30L), new HashMap<>());
+
+        assertEquals(List.of(10L), graph.getRoots());
+        assertEquals(List.of(), graph.getPrerequisites(10L));
+        assertEquals(List.of(20L), graph.getPrerequisites(30L));
+        assertEquals(List.of(10L, 20L), graph.getAncestors(30L));
+        assertEquals(List.of(20L, 30L), graph.getDescendants(10L));
+        assertEquals(List.of(20L), graph.getDependents(10L));
+    }
+
+    @Test
+    void testFanOutAndFanIn() {
+        // 1, 2 and 3 are independent setup steps, 4 joins them, 5 runs after 4
+        Map<Long, List<Long>> dependencies = new HashMap<>();
+        dependencies.put(1L, List.of());
+        dependencies.put(2L, List.of());
+        dependencies.put(3L, List.of());
+        dependencies.put(4L, List.of(3L, 1L, 2L));
+        FlowStepGraph graph = FlowStepGraph.of(List.of(1L, 2L, 3L, 4L, 5L), dependencies);
+
+        assertEquals(List.of(1L, 2L, 3L), graph.getRoots());
+        assertEquals(List.of(4L), graph.getPrerequisites(5L));
+        // Ancestors are returned in flow order, whatever the declaration order
+        assertEquals(List.of(1L, 2L, 3L), graph.getAncestors(4L));
+        assertEquals(List.of(1L, 2L, 3L, 4L), graph.getAncestors(5L));
+        assertEquals(List.of(4L, 5L), graph.getDescendants(2L));
+        assertEquals(List.of(4L), graph.getDependents(2L));
+        assertEquals(List.of(), graph.getDependents(5L));
+    }
+
+    @Test
+    void testDependencyOnLaterStepIsRejected() {
+        Map<Long, List<Long>> dependencies = new HashMap<>();
+        dependencies.put(1L, List.of(2L));
+
+        assertThrows(IllegalArgumentException.class, () -> FlowStepGraph.of(List.of(1L, 2L), dependencies));
+    }
+
+    @Test
+    void testDependencyOnUnknownStepIsRejected() {
+        Map<Long, List<Long>> dependencies = new HashMap<>();
+        dependencies.put(2L, List.of(99L));
+
+        assertThrows(IllegalArgumentException.class, () -> FlowStepGraph.of(List.of(1L, 2L), dependencies));
+    }
+
+    @Test
+    void testValidateIndices() {
+        FlowStepGraph.validateIndices(2, null);
+        FlowStepGraph.validateIndices(2, List.of(0, 1));
+
+        assertThrows(IllegalArgumentException.class, () -> FlowStepGraph.validateIndices(2, List.of(2)));
+        assertThrows(IllegalArgumentException.class, () -> FlowStepGraph.validateIndices(0, List.of(-1)));
+    }
+}
@@ -0,0 +1,121 @@
+package com.testautomation.orchestrator.util;
+
+import com.testautomation.orchestrator.config.GitLabConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives GitLabApiClient against a local stub of the pipeline status endpoint that answers after a
+ * short delay, as a burst of polls would hit GitLab.
+ */
+class GitLabApiClientLoadTest {
+
+    private static final int REQUESTS = 500;
+
+    private final AtomicInteger connectionsOpened = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    // Completes when the stub may answer; a plain short delay unless a test holds the answers back
+    private Mono<Long> responseGate = Mono.delay(Duration.ofMillis(20));
+
+    private DisposableServer server;
+    private GitLabApiClient client;
+
+    @BeforeEach
+    void startStubServer() {
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .doOnChannelInit((observer, channel, remoteAddress) -> connectionsOpened.incrementAndGet())
+                .route(routes -> routes.get("/api/v4/projects/{projectId}/pipelines/{pipelineId}", (request, response) -> {
+                    peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    String body = "{\"id\":" + request.param("pipelineId") + ",\"status\":\"running\",\"ref\":\"main\"}";
+                    return response.header("Content-Type", "application/json")
+                            .sendString(responseGate
+                                    .doOnNext(tick -> inFlight.decrementAndGet())
+                                    .thenReturn(body));
+                }))
+                .bindNow();
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        if (client != null) {
+            client.close();
+        }
+        server.disposeNow();
+    }
+
+    @Test
+    void testBurstOfPollsReusesBoundedPool() {
+        client = new GitLabApiClient(config(10, 1000));
+
+        List<GitLabApiClient.GitLabPipelineResponse> responses = poll(REQUESTS)
+                .collectList()
+                .block(Duration.ofSeconds(60));
+
+        assertNotNull(responses);
+        assertEquals(REQUESTS, responses.size());
+        assertTrue(responses.stream().allMatch(response -> "running".equals(response.getStatus())));
+        assertEquals(10, connectionsOpened.get());
+        assertTrue(peakInFlight.get() <= 10, "Served " + peakInFlight.get() + " requests at once");
+    }
+
+    @Test
+    void testPendingAcquireQueueIsBounded() {
+        client = new GitLabApiClient(config(1, 5));
+        // Hold every answer until all requests beyond the queue were rejected, so none frees the connection early
+        Sinks.One<Long> release = Sinks.one();
+        responseGate = release.asMono();
+        AtomicInteger rejected = new AtomicInteger();
+
+        String baseUrl = "http://localhost:" + server.port();
+        List<Boolean> outcomes = Flux.range(1, 50)
+                .flatMap(pipelineId -> client.getPipelineStatus(baseUrl, "42", (long) pipelineId, "token")
+                        .map(response -> true)
+                        .onErrorResume(error -> {
+                            if (rejected.incrementAndGet() == 44) {
+                                release.tryEmitValue(0L);
+                            }
+                            return Mono.just(false);
+                        }), 50)
+                .collectList()
+                .block(Duration.ofSeconds(60));
+
+        assertNotNull(outcomes);
+        assertEquals(50, outcomes.size());
+        long succeeded = outcomes.stream().filter(Boolean::booleanValue).count();
+        // One request holds the connection and five wait; the others are rejected right away
+        assertEquals(6, succeeded);
+        assertEquals(1, connectionsOpened.get());
+    }
+
+    private Flux<GitLabApiClient.GitLabPipelineResponse> poll(int requests) {
+        String baseUrl = "http://localhost:" + server.port();
+        return Flux.range(1, requests)
+                .flatMap(pipelineId -> client.getPipelineStatus(baseUrl, "42", (long) pipelineId, "token"), requests);
+    }
+
+    private static GitLabConfig config(int maxConnections, int pendingAcquireMaxCount) {
+        GitLabConfig config = new GitLabConfig();
+        config.getHttp().setMaxConnections(maxConnections);
+        config.getHttp().setPendingAcquireMaxCount(pendingAcquireMaxCount);
+        config.getHttp().setHttp2(false);
+        config.getHttp().setMetrics(false);
+        config.getRateLimit().setEnabled(false);
+        return config;
+    }
+}
@@ -0,0 +1,60 @@
+package com.testautomation.orchestrator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GitLabRateLimiterTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void testHighPriorityOfOtherTokenGoesBeforeLowPriority() {
+        // One request per second to the host, so every call after the first waits for host capacity
+        GitLabRateLimiter limiter = new GitLabRateLimiter(1, 100, 1);
+        limiter.acquire("gitlab.example.com", "token-a", GitLabRateLimiter.Priority.HIGH).block(TIMEOUT);
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        limiter.acquire("gitlab.example.com", "token-a", GitLabRateLimiter.Priority.LOW)
+                .doOnSuccess(done -> order.add("low-a"))
+                .subscribe();
+        limiter.acquire("gitlab.example.com", "token-b", GitLabRateLimiter.Priority.HIGH)
+                .doOnSuccess(done -> order.add("high-b"))
+                .block(TIMEOUT);
+
+        assertEquals(List.of("high-b"), order);
+    }
+
+    @Test
+    void testLowPriorityUsesHostCapacityHighPriorityCannotUse() {
+        GitLabRateLimiter limiter = new GitLabRateLimiter(100, 100, 1);
+        // Token A is paused for a minute, so its HIGH priority call cannot go
+        limiter.observe("gitlab.example.com", "token-a", 429, null, null, "60");
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        limiter.acquire("gitlab.example.com", "token-a", GitLabRateLimiter.Priority.HIGH)
+                .doOnSuccess(done -> order.add("high-a"))
+                .subscribe();
+        limiter.acquire("gitlab.example.com", "token-b", GitLabRateLimiter.Priority.LOW)
+                .doOnSuccess(done -> order.add("low-b"))
+                .block(TIMEOUT);
+
+        assertEquals(List.of("low-b"), order);
+    }
+
+    @Test
+    void testCallsWithinLimitsAreNotDelayed() {
+        GitLabRateLimiter limiter = new GitLabRateLimiter(1, 1, 3);
+        long start = System.currentTimeMillis();
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("gitlab.example.com", "token-a", GitLabRateLimiter.Priority.LOW).block(TIMEOUT);
+        }
+
+        assertTrue(System.currentTimeMillis() - start < 500);
+    }
+}
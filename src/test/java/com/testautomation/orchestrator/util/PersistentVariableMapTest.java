@@ -0,0 +1,181 @@
+package com.testautomation.orchestrator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PersistentVariableMapTest {
+
+    @Test
+    void testPlusLeavesOriginalUntouched() {
+        PersistentVariableMap base = PersistentVariableMap.empty().plus("USER", "alice");
+        PersistentVariableMap derived = base.plus("USER", "bob").plus("TOKEN", "t1");
+
+        assertEquals(1, base.size());
+        assertEquals("alice", base.get("USER"));
+        assertNull(base.get("TOKEN"));
+        assertEquals(2, derived.size());
+        assertEquals("bob", derived.get("USER"));
+        assertEquals("t1", derived.get("TOKEN"));
+    }
+
+    @Test
+    void testPlusSameValueReturnsSameMap() {
+        PersistentVariableMap base = PersistentVariableMap.empty().plus("USER", "alice");
+
+        assertSame(base, base.plus("USER", "alice"));
+    }
+
+    @Test
+    void testPlusAllOverridesAndMatchesHashMap() {
+        Map<String, String> testData = new HashMap<>();
+        Map<String, String> upstream = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            testData.put("VAR_" + i, "static_" + i);
+        }
+        for (int i = 2500; i < 7500; i++) {
+            upstream.put("VAR_" + i, "runtime_" + i);
+        }
+        Map<String, String> expected = new HashMap<>(testData);
+        expected.putAll(upstream);
+
+        PersistentVariableMap merged = PersistentVariableMap.of(testData).plusAll(upstream);
+
+        assertEquals(7500, merged.size());
+        assertEquals(expected, merged);
+        assertEquals(merged, expected);
+        assertEquals(expected.hashCode(), merged.hashCode());
+        assertEquals("static_0", merged.get("VAR_0"));
+        assertEquals("runtime_2500", merged.get("VAR_2500"));
+    }
+
+    @Test
+    void testPlusAllOfLargerPersistentMapKeepsItsValuesOnConflict() {
+        PersistentVariableMap small = PersistentVariableMap.empty().plus("A", "small").plus("ONLY_SMALL", "1");
+        Map<String, String> large = new HashMap<>();
+        large.put("A", "large");
+        large.put("B", "2");
+        large.put("C", "3");
+        PersistentVariableMap persistentLarge = PersistentVariableMap.of(large);
+
+        PersistentVariableMap merged = small.plusAll(persistentLarge);
+
+        assertEquals(4, merged.size());
+        assertEquals("large", merged.get("A"));
+        assertEquals("1", merged.get("ONLY_SMALL"));
+        assertEquals(3, persistentLarge.size());
+        assertNull(persistentLarge.get("ONLY_SMALL"));
+    }
+
+    @Test
+    void testEmptyPlusAllOfPersistentMapSharesIt() {
+        PersistentVariableMap variables = PersistentVariableMap.empty().plus("A", "1");
+
+        assertSame(variables, PersistentVariableMap.empty().plusAll(variables));
+        assertSame(variables, PersistentVariableMap.of(variables));
+        assertSame(variables, variables.plusAll(new HashMap<>()));
+    }
+
+    @Test
+    void testHashCollisions() {
+        // "Aa" and "BB" have the same String hash code
+        PersistentVariableMap variables = PersistentVariableMap.empty()
+                .plus("Aa", "1")
+                .plus("BB", "2")
+                .plus("AaAa", "3")
+                .plus("BBBB", "4");
+        PersistentVariableMap updated = variables.plus("BB", "22");
+
+        assertEquals(4, variables.size());
+        assertEquals("1", variables.get("Aa"));
+        assertEquals("2", variables.get("BB"));
+        assertEquals("22", updated.get("BB"));
+        assertEquals("1", updated.get("Aa"));
+        assertEquals(4, updated.size());
+        assertEquals(4, updated.entrySet().stream().count());
+    }
+
+    @Test
+    void testNullValuesAndMissingKeys() {
+        PersistentVariableMap variables = PersistentVariableMap.empty().plus("EMPTY", null);
+
+        assertTrue(variables.containsKey("EMPTY"));
+        assertNull(variables.get("EMPTY"));
+        assertFalse(variables.containsKey("MISSING"));
+        assertFalse(variables.containsKey(42));
+        assertThrows(NullPointerException.class, () -> variables.plus(null, "x"));
+    }
+
+    @Test
+    void testIsImmutable() {
+        PersistentVariableMap variables = PersistentVariableMap.empty().plus("A", "1");
+
+        assertThrows(UnsupportedOperationException.class, () -> variables.put("B", "2"));
+        assertThrows(UnsupportedOperationException.class, () -> variables.remove("A"));
+        assertThrows(UnsupportedOperationException.class, variables::clear);
+        assertThrows(UnsupportedOperationException.class, () -> variables.entrySet().iterator().next().setValue("2"));
+    }
+
+    @Test
+    void testDerivingStepVariablesAllocatesFarLessThanCopying() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        // 5000 flow variables, and 100 steps each adding 10 outputs on top of them
+        Map<String, String> flowVariables = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            flowVariables.put("VAR_" + i, "value_" + i);
+        }
+        List<Map<String, String>> stepOutputs = new ArrayList<>();
+        for (int step = 0; step < 100; step++) {
+            Map<String, String> outputs = new HashMap<>();
+            for (int i = 0; i < 10; i++) {
+                outputs.put("STEP_" + step + "_OUT_" + i, "result_" + i);
+            }
+            stepOutputs.add(outputs);
+        }
+        PersistentVariableMap persistentFlowVariables = PersistentVariableMap.of(flowVariables);
+
+        // Copy-on-write: every step copies the flow variables before adding its outputs
+        Supplier<List<Map<String, String>>> copying = () -> {
+            List<Map<String, String>> derived = new ArrayList<>();
+            for (Map<String, String> outputs : stepOutputs) {
+                Map<String, String> variables = new HashMap<>(flowVariables);
+                variables.putAll(outputs);
+                derived.add(variables);
+            }
+            return derived;
+        };
+        Supplier<List<Map<String, String>>> sharing = () -> {
+            List<Map<String, String>> derived = new ArrayList<>();
+            for (Map<String, String> outputs : stepOutputs) {
+                derived.add(persistentFlowVariables.plusAll(outputs));
+            }
+            return derived;
+        };
+
+        long copiedBytes = allocatedBytes(threads, copying);
+        long sharedBytes = allocatedBytes(threads, sharing);
+
+        assertEquals(copying.get(), sharing.get());
+        assertTrue(sharedBytes * 10 < copiedBytes,
+                   "persistent map allocated " + sharedBytes + " bytes, copying " + copiedBytes + " bytes");
+    }
+
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads, Supplier<?> work) {
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        Object result = work.get();
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertNotNull(result);
+        return allocated;
+    }
+}
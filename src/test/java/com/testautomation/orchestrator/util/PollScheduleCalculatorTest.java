@@ -0,0 +1,97 @@
+package com.testautomation.orchestrator.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PollScheduleCalculatorTest {
+
+    private static final long SECOND = 1000L;
+    private static final long MINUTE = 60 * SECOND;
+
+    private PollScheduleCalculator calculator;
+
+    @BeforeEach
+    void setUp() {
+        calculator = new PollScheduleCalculator(5 * SECOND, 5 * MINUTE, 15 * SECOND);
+    }
+
+    @Test
+    void testDefaultIntervalWithoutEnoughHistory() {
+        PollScheduleCalculator.PollSchedule schedule = calculator.forHistory(List.of(40 * MINUTE, 42 * MINUTE));
+
+        assertFalse(schedule.hasHistory());
+        assertEquals(15 * SECOND, schedule.nextDelayMs(0));
+        assertEquals(15 * SECOND, schedule.nextDelayMs(30 * MINUTE));
+    }
+
+    @Test
+    void testNullHistory() {
+        assertFalse(calculator.forHistory(null).hasHistory());
+    }
+
+    @Test
+    void testPercentiles() {
+        List<Long> durations = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            durations.add(i * MINUTE);
+        }
+        PollScheduleCalculator.PollSchedule schedule = calculator.forHistory(durations);
+
+        assertEquals(10 * MINUTE, schedule.getP50Ms());
+        assertEquals(19 * MINUTE, schedule.getP95Ms());
+    }
+
+    @Test
+    void testLongStagePolledRarelyBeforeMedian() {
+        PollScheduleCalculator.PollSchedule schedule = calculator.forHistory(List.of(40 * MINUTE, 42 * MINUTE, 45 * MINUTE));
+
+        // Far from completion: capped at the maximum interval
+        assertEquals(5 * MINUTE, schedule.nextDelayMs(0));
+        // Close to the median: next poll lands on it
+        assertEquals(2 * MINUTE, schedule.nextDelayMs(40 * MINUTE));
+
+        int polls = 0;
+        long elapsed = 0;
+        while (elapsed < 42 * MINUTE) {
+            elapsed += schedule.nextDelayMs(elapsed);
+            polls++;
+        }
+        assertTrue(polls < 20, "expected few polls before the median, got " + polls);
+    }
+
+    @Test
+    void testFrequentPollsInCompletionWindow() {
+        PollScheduleCalculator.PollSchedule schedule = calculator.forHistory(List.of(40 * MINUTE, 42 * MINUTE, 56 * MINUTE));
+
+        // (56 - 42) minutes / 8 polls = 105s, capped by the default interval
+        assertEquals(15 * SECOND, schedule.nextDelayMs(45 * MINUTE));
+    }
+
+    @Test
+    void testShortStagePolledAtExpectedCompletion() {
+        PollScheduleCalculator.PollSchedule schedule = calculator.forHistory(List.of(20 * SECOND, 21 * SECOND, 22 * SECOND));
+
+        assertEquals(19 * SECOND, schedule.nextDelayMs(2 * SECOND));
+        // Narrow completion window: polled at the minimum interval
+        assertEquals(5 * SECOND, schedule.nextDelayMs(21 * SECOND));
+    }
+
+    @Test
+    void testCappedBackoffAfterP95() {
+        PollScheduleCalculator.PollSchedule schedule = calculator.forHistory(List.of(10 * MINUTE, 10 * MINUTE, 10 * MINUTE));
+
+        long first = schedule.nextDelayMs(10 * MINUTE + 10 * SECOND);
+        long second = schedule.nextDelayMs(10 * MINUTE + 10 * SECOND + first);
+        long third = schedule.nextDelayMs(10 * MINUTE + 10 * SECOND + first + second);
+
+        assertEquals(10 * SECOND, first);
+        assertEquals(2 * first, second);
+        assertEquals(2 * second, third);
+        assertEquals(5 * MINUTE, schedule.nextDelayMs(2 * 60 * MINUTE));
+    }
+}
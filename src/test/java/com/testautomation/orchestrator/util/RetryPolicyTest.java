@@ -0,0 +1,83 @@
+package com.testautomation.orchestrator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+
+    private final RetryPolicy policy = new RetryPolicy(4, 1000, 10000, 0.5, List.of(429, 502, 503));
+
+    @Test
+    void testRetriesRetryableStatusesUntilMaxAttempts() {
+        assertTrue(policy.shouldRetry(1, 502));
+        assertTrue(policy.shouldRetry(3, 429));
+        assertFalse(policy.shouldRetry(4, 502));
+    }
+
+    @Test
+    void testDoesNotRetryOtherStatuses() {
+        assertFalse(policy.shouldRetry(1, 400));
+        assertFalse(policy.shouldRetry(1, 404));
+    }
+
+    @Test
+    void testFailuresWithoutStatusAreTransient() {
+        assertTrue(policy.shouldRetry(1, null));
+        assertFalse(policy.shouldRetry(4, null));
+    }
+
+    @Test
+    void testExponentialBackoffIsCapped() {
+        assertEquals(1000, policy.backoffMs(1, 0));
+        assertEquals(2000, policy.backoffMs(2, 0));
+        assertEquals(4000, policy.backoffMs(3, 0));
+        assertEquals(10000, policy.backoffMs(5, 0));
+        assertEquals(10000, policy.backoffMs(100, 0));
+    }
+
+    @Test
+    void testJitterTakesOffUpToItsFraction() {
+        assertEquals(1000, policy.backoffMs(1, 0.0));
+        assertEquals(750, policy.backoffMs(1, 0.5));
+        assertTrue(policy.backoffMs(1, 0.999) > 500);
+    }
+
+    @Test
+    void testOverrides() {
+        RetryPolicy overridden = policy.withOverrides(2, 500L, null, List.of(500));
+
+        assertEquals(2, overridden.getMaxAttempts());
+        assertEquals(500, overridden.getInitialBackoffMs());
+        assertEquals(10000, overridden.getMaxBackoffMs());
+        assertTrue(overridden.shouldRetry(1, 500));
+        assertFalse(overridden.shouldRetry(1, 502));
+    }
+
+    @Test
+    void testNoOverridesKeepsSettings() {
+        RetryPolicy same = policy.withOverrides(null, null, null, null);
+
+        assertEquals(4, same.getMaxAttempts());
+        assertEquals(1000, same.getInitialBackoffMs());
+        assertEquals(10000, same.getMaxBackoffMs());
+        assertEquals(policy.getRetryableStatuses(), same.getRetryableStatuses());
+    }
+
+    @Test
+    void testLargerInitialBackoffRaisesDefaultCap() {
+        RetryPolicy overridden = policy.withOverrides(null, 20000L, null, null);
+
+        assertEquals(20000, overridden.getMaxBackoffMs());
+        assertEquals(20000, overridden.backoffMs(3, 0));
+    }
+
+    @Test
+    void testInvalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(0, 1000, 10000, 0.5, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(3, 1000, 500, 0.5, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(3, 1000, 10000, 1.5, List.of()));
+    }
+}
@@ -0,0 +1,108 @@
+package com.testautomation.orchestrator.util;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallersShareOneRequest() {
+        SingleFlight singleFlight = new SingleFlight(0, 100);
+        AtomicInteger requests = new AtomicInteger();
+        Sinks.One<String> response = Sinks.one();
+
+        AtomicReference<String> first = new AtomicReference<>();
+        AtomicReference<String> second = new AtomicReference<>();
+        singleFlight.execute("GET /pipelines/1", () -> {
+            requests.incrementAndGet();
+            return response.asMono();
+        }).subscribe(first::set);
+        singleFlight.execute("GET /pipelines/1", () -> {
+            requests.incrementAndGet();
+            return response.asMono();
+        }).subscribe(second::set);
+
+        assertEquals(1, singleFlight.inFlightCount());
+        response.tryEmitValue("running");
+
+        assertEquals(1, requests.get());
+        assertEquals("running", first.get());
+        assertEquals("running", second.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void testDifferentKeysAreNotShared() {
+        SingleFlight singleFlight = new SingleFlight(0, 100);
+        AtomicInteger requests = new AtomicInteger();
+
+        singleFlight.execute("GET /pipelines/1", () -> Mono.fromCallable(requests::incrementAndGet)).block();
+        singleFlight.execute("GET /pipelines/2", () -> Mono.fromCallable(requests::incrementAndGet)).block();
+
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void testCompletedRequestIsNotReusedWithoutTtl() {
+        SingleFlight singleFlight = new SingleFlight(0, 100);
+        AtomicInteger requests = new AtomicInteger();
+
+        assertEquals(1, singleFlight.execute("GET /branches", () -> Mono.fromCallable(requests::incrementAndGet)).block());
+        assertEquals(2, singleFlight.execute("GET /branches", () -> Mono.fromCallable(requests::incrementAndGet)).block());
+    }
+
+    @Test
+    void testMicroCacheReusesRecentValue() {
+        SingleFlight singleFlight = new SingleFlight(60000, 100);
+        AtomicInteger requests = new AtomicInteger();
+
+        assertEquals(1, singleFlight.execute("GET /branches", () -> Mono.fromCallable(requests::incrementAndGet)).block());
+        assertEquals(1, singleFlight.execute("GET /branches", () -> Mono.fromCallable(requests::incrementAndGet)).block());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void testMicroCacheExpires() throws InterruptedException {
+        SingleFlight singleFlight = new SingleFlight(20, 100);
+        AtomicInteger requests = new AtomicInteger();
+
+        singleFlight.execute("GET /branches", () -> Mono.fromCallable(requests::incrementAndGet)).block();
+        Thread.sleep(50);
+        singleFlight.execute("GET /branches", () -> Mono.fromCallable(requests::incrementAndGet)).block();
+
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void testFailureIsSharedButNotReused() {
+        SingleFlight singleFlight = new SingleFlight(60000, 100);
+        AtomicInteger requests = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("GET /pipelines/1",
+                () -> Mono.<Integer>error(new IllegalStateException("502 Bad Gateway"))
+                        .doOnSubscribe(subscription -> requests.incrementAndGet())).block());
+        assertEquals(2, singleFlight.execute("GET /pipelines/1",
+                () -> Mono.fromCallable(requests::incrementAndGet)).block());
+    }
+
+    @Test
+    void testCancelledCallerDoesNotCancelSharedRequest() {
+        SingleFlight singleFlight = new SingleFlight(0, 100);
+        Sinks.One<String> response = Sinks.one();
+        Mono<String> request = singleFlight.execute("GET /pipelines/1", response::asMono);
+
+        assertThrows(IllegalStateException.class, () -> request.block(Duration.ofMillis(10)));
+        AtomicReference<String> other = new AtomicReference<>();
+        singleFlight.execute("GET /pipelines/1", () -> Mono.just("unexpected")).subscribe(other::set);
+        response.tryEmitValue("running");
+
+        assertEquals("running", other.get());
+    }
+}
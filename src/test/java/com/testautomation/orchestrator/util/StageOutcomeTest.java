@@ -0,0 +1,61 @@
+package com.testautomation.orchestrator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageOutcomeTest {
+
+    @Test
+    void testFailedJobFailsStageWhileOthersRun() {
+        StageOutcome outcome = StageOutcome.of(List.of(
+                job(1L, "build", "success"),
+                job(2L, "test", "running"),
+                job(3L, "test", "failed"),
+                job(4L, "report", "created")), "test");
+
+        assertEquals(StageOutcome.Result.FAILED, outcome.getResult());
+        assertEquals(3L, (long) outcome.getJob().getId());
+    }
+
+    @Test
+    void testCancelledJobFailsStage() {
+        StageOutcome outcome = StageOutcome.of(List.of(job(1L, "test", "canceled")), "test");
+
+        assertEquals(StageOutcome.Result.FAILED, outcome.getResult());
+    }
+
+    @Test
+    void testJobAllowedToFailDoesNotFailStage() {
+        StageOutcome outcome = StageOutcome.of(List.of(
+                new StageOutcome.Job(1L, "flaky", "test", "failed", true),
+                job(2L, "test", "success")), "test");
+
+        assertEquals(StageOutcome.Result.PASSED, outcome.getResult());
+        assertEquals(2L, (long) outcome.getJob().getId());
+    }
+
+    @Test
+    void testStagePassesOnlyWhenAllJobsAreDone() {
+        List<StageOutcome.Job> running = List.of(job(1L, "test", "success"), job(2L, "test", "pending"));
+        List<StageOutcome.Job> done = List.of(job(1L, "test", "success"), job(2L, "test", "success"),
+                                              job(3L, "test", "manual"), job(4L, "report", "running"));
+
+        assertEquals(StageOutcome.Result.RUNNING, StageOutcome.of(running, "test").getResult());
+        assertNull(StageOutcome.of(running, "test").getJob());
+        assertEquals(StageOutcome.Result.PASSED, StageOutcome.of(done, "test").getResult());
+        assertEquals(1L, (long) StageOutcome.of(done, "test").getJob().getId());
+    }
+
+    @Test
+    void testStageWithoutJobsIsRunning() {
+        assertEquals(StageOutcome.Result.RUNNING, StageOutcome.of(List.of(job(1L, "build", "failed")), "test").getResult());
+        assertEquals(StageOutcome.Result.RUNNING, StageOutcome.of(List.of(job(1L, "test", "skipped")), "test").getResult());
+    }
+
+    private static StageOutcome.Job job(Long id, String stage, String status) {
+        return new StageOutcome.Job(id, stage + "-" + id, stage, status, false);
+    }
+}
@@ -0,0 +1,64 @@
+package com.testautomation.orchestrator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StepFingerprintTest {
+
+    private static final String SHA = "6f1c8a2e9b7d4c3a1f0e5d6c7b8a9f0e1d2c3b4a";
+
+    @Test
+    void testSameInputsSameFingerprint() {
+        Map<String, String> first = new LinkedHashMap<>();
+        first.put("env", "qa");
+        first.put("user", "alice");
+        Map<String, String> second = new LinkedHashMap<>();
+        second.put("user", "alice");
+        second.put("env", "qa");
+
+        String fingerprint = StepFingerprint.of(1L, SHA, "smoke", "test", first);
+
+        assertEquals(64, fingerprint.length());
+        assertEquals(fingerprint, StepFingerprint.of(1L, SHA, "smoke", "test", second));
+    }
+
+    @Test
+    void testEveryInputChangesFingerprint() {
+        Map<String, String> variables = Map.of("env", "qa");
+        String fingerprint = StepFingerprint.of(1L, SHA, "smoke", "test", variables);
+
+        assertNotEquals(fingerprint, StepFingerprint.of(2L, SHA, "smoke", "test", variables));
+        assertNotEquals(fingerprint, StepFingerprint.of(1L, SHA.replace('6', '7'), "smoke", "test", variables));
+        assertNotEquals(fingerprint, StepFingerprint.of(1L, SHA, "regression", "test", variables));
+        assertNotEquals(fingerprint, StepFingerprint.of(1L, SHA, "smoke", "deploy", variables));
+        assertNotEquals(fingerprint, StepFingerprint.of(1L, SHA, "smoke", "test", Map.of("env", "prod")));
+    }
+
+    @Test
+    void testSeparatorsInValuesDoNotCollide() {
+        Map<String, String> joined = new HashMap<>();
+        joined.put("a", "1:b");
+        Map<String, String> split = new HashMap<>();
+        split.put("a", "1");
+        split.put("b", "");
+
+        assertNotEquals(StepFingerprint.of(1L, SHA, "smoke", "test", joined),
+                        StepFingerprint.of(1L, SHA, "smoke", "test", split));
+    }
+
+    @Test
+    void testNullAndEmptyVariablesAreEqual() {
+        assertEquals(StepFingerprint.of(1L, SHA, "smoke", "test", null),
+                     StepFingerprint.of(1L, SHA, "smoke", "test", new HashMap<>()));
+    }
+
+    @Test
+    void testCommitShaIsRequired() {
+        assertThrows(IllegalArgumentException.class, () -> StepFingerprint.of(1L, null, "smoke", "test", null));
+    }
+}
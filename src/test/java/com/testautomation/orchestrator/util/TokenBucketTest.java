@@ -0,0 +1,95 @@
+package com.testautomation.orchestrator.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    void testBurstThenConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(3, 10, 0);
+
+        assertTrue(bucket.tryTake(0));
+        assertTrue(bucket.tryTake(0));
+        assertTrue(bucket.tryTake(0));
+        assertFalse(bucket.tryTake(0));
+        assertEquals(100, bucket.waitTime(0));
+        assertTrue(bucket.tryTake(100));
+        assertFalse(bucket.tryTake(150));
+    }
+
+    @Test
+    void testRefillIsCappedAtCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 10, 0);
+        bucket.tryTake(0);
+        bucket.tryTake(0);
+
+        assertTrue(bucket.tryTake(60000));
+        assertTrue(bucket.tryTake(60000));
+        assertFalse(bucket.tryTake(60000));
+    }
+
+    @Test
+    void testObserveSpreadsRemainingQuotaUntilReset() {
+        TokenBucket bucket = new TokenBucket(20, 100, 0);
+
+        // 10 requests left for the next 10 seconds: one per second instead of 100
+        bucket.observe(10, 10000, 0);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(bucket.tryTake(0));
+        }
+        assertFalse(bucket.tryTake(0));
+        assertEquals(1000, bucket.waitTime(0));
+        assertTrue(bucket.tryTake(1000));
+        assertFalse(bucket.tryTake(1500));
+    }
+
+    @Test
+    void testConfiguredRateAppliesAgainAfterReset() {
+        TokenBucket bucket = new TokenBucket(5, 100, 0);
+        bucket.observe(1, 10000, 0);
+        assertTrue(bucket.tryTake(0));
+        assertFalse(bucket.tryTake(0));
+
+        // Full again shortly after the reset
+        assertEquals(0, bucket.waitTime(10050));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryTake(10050));
+        }
+        assertFalse(bucket.tryTake(10050));
+        assertTrue(bucket.tryTake(10060));
+    }
+
+    @Test
+    void testExhaustedQuotaPausesUntilReset() {
+        TokenBucket bucket = new TokenBucket(5, 100, 0);
+
+        bucket.observe(0, 30000, 0);
+
+        assertEquals(30000, bucket.waitTime(0));
+        assertFalse(bucket.tryTake(29999));
+        assertFalse(bucket.tryTake(30000));
+        assertTrue(bucket.tryTake(30010));
+    }
+
+    @Test
+    void testPauseAfterTooManyRequests() {
+        TokenBucket bucket = new TokenBucket(5, 100, 0);
+
+        bucket.pause(2000, 0);
+
+        assertEquals(2000, bucket.waitTime(0));
+        assertEquals(500, bucket.waitTime(1500));
+        // No tokens accrue while paused
+        assertTrue(bucket.tryTake(2010));
+        assertFalse(bucket.tryTake(2010));
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(5, 0, 0));
+    }
+}